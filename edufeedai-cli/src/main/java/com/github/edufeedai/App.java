@@ -15,6 +15,7 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -22,25 +23,57 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import com.github.edufeedai.cli.batch.BatchResults;
+import com.github.edufeedai.cli.batch.BatchUpload;
+import com.github.edufeedai.cli.commands.DaemonCommand;
+import com.github.edufeedai.cli.commands.StatsCommand;
+import com.github.edufeedai.cli.commands.WatchFilesCommand;
+import com.github.edufeedai.cli.config.AppConfig;
+import com.github.edufeedai.cli.daemon.DaemonClient;
+import com.github.edufeedai.cli.ingest.SubmissionExtractor;
+import com.github.edufeedai.cli.jfr.FlightRecording;
+import com.github.edufeedai.cli.utils.DatabaseUtils;
+import com.github.edufeedai.cli.utils.UIUtils;
 import com.github.edufeedai.model.FileProcessor;
 import com.github.edufeedai.model.openai.platform.api.OpenAIBatchProcess;
 import com.github.edufeedai.model.openai.platform.api.OpenAICorrectionPromptBuilder;
 import com.github.edufeedai.model.openai.platform.api.OpenAIFileManagement;
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.OpenAIInteractiveProcess;
 import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchPollingPolicy;
 import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.utils.MetricsRegistry;
 
 import io.github.cdimascio.dotenv.Dotenv;
 
 public class App {
     // Configuración
     private static final String CONFIG_FOLDER = ".edufeedai";
+    private static final int DEFAULT_WATCH_MAX_DOWNLOAD_ATTEMPTS = 5;
+    private static final String INVALID_TASK_REFERENCE =
+        "Error: Indica la tarea con su número de la lista, id:<id> o moodle:<id_moodle>.";
     private static final Dotenv dotenv = loadDotenv();
+    private static FileProcessor fileProcessor;
+    /** Métricas por etapa del comando en curso; se guardan en la base de datos al terminar ('stats'). */
+    private static volatile MetricsRegistry metrics = new MetricsRegistry();
 
     /**
      * Carga el archivo .env si existe, si no, devuelve una instancia que lee del sistema
@@ -70,6 +103,18 @@ public class App {
         return workDir;
     }
 
+    /**
+     * Devuelve el FileProcessor compartido por los comandos de este proceso
+     * (y, en el servidor residente, por todos los comandos que atiende).
+     */
+    private static synchronized FileProcessor getFileProcessor() {
+        if (fileProcessor == null) {
+            fileProcessor = new FileProcessor();
+        }
+        fileProcessor.setMetrics(metrics);
+        return fileProcessor;
+    }
+
     /**
      * Obtiene la ruta completa del archivo de base de datos en el directorio de trabajo
      */
@@ -79,10 +124,89 @@ public class App {
     }
 
     public static void main(String[] args) {
+        // Con --jfr el comando se graba con Java Flight Recorder en este proceso, nunca en el servidor residente
+        String recordingOption = FlightRecording.getOption(args);
+        if (recordingOption != null) {
+            exit(runWithRecording(FlightRecording.withoutOption(args), recordingOption));
+            return;
+        }
+        // Con el servidor residente en marcha ('daemon'), los comandos habituales se ejecutan en él
+        if (args.length > 0 && DaemonClient.FORWARDED_COMMANDS.contains(args[0])) {
+            try {
+                int exitCode = DaemonClient.forward(AppConfig.getDaemonSocketPath(), toDaemonArgs(args));
+                if (exitCode != DaemonClient.NOT_RUNNING) {
+                    exit(exitCode);
+                    return;
+                }
+            } catch (IOException e) {
+                System.err.println("Error: Se ha perdido la conexión con el servidor: " + e.getMessage());
+                exit(1);
+                return;
+            }
+        }
+        exit(runCommand(args));
+    }
+
+    /**
+     * Termina el proceso con el código de salida del comando si ha fallado.
+     * Con código 0 se deja terminar al JVM de forma normal.
+     */
+    private static void exit(int status) {
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Ejecuta un comando en este proceso grabándolo con Java Flight Recorder.
+     * Sin archivo indicado, la grabación se guarda en .edufeedai/jfr/ del workspace
+     * (o en el directorio actual si no hay workspace).
+     * @return el código de salida del comando (1 si no se ha podido grabar)
+     */
+    private static int runWithRecording(String[] args, String output) {
+        Path recordingPath;
+        if (!output.isEmpty()) {
+            recordingPath = Paths.get(output);
+        } else {
+            String fileName = "edufeedai-" + (args.length > 0 ? args[0] : "help") + "-" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr";
+            Path configDir = Paths.get(getWorkingDirectory()).resolve(CONFIG_FOLDER);
+            recordingPath = Files.isDirectory(configDir) ? configDir.resolve("jfr").resolve(fileName) : Paths.get(fileName);
+        }
+
+        FlightRecording recording;
+        try {
+            recording = FlightRecording.start(recordingPath);
+        } catch (IOException | ParseException e) {
+            System.err.println("Error: No se pudo iniciar la grabación JFR: " + e.getMessage());
+            return 1;
+        }
+        int status;
+        try (recording) {
+            status = runCommand(args);
+        } catch (IOException e) {
+            System.err.println("Error: No se pudo guardar la grabación JFR: " + e.getMessage());
+            return 1;
+        }
+        System.out.println("Grabación JFR guardada en: " + recordingPath.toAbsolutePath());
+        return status;
+    }
+
+    /**
+     * Ejecuta un comando en este proceso. Lo usa main y también el servidor residente.
+     * @return el código de salida: 0 si ha terminado bien, 1 si ha fallado
+     * (argumentos no válidos, una excepción o un error mostrado con UIUtils.printError)
+     */
+    private static int runCommand(String[] args) {
         if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
             printHelp();
-            return;
+            return 0;
         }
+        UIUtils.resetErrors();
+        metrics = new MetricsRegistry();
+        AppConfig.configureHttpClient();
+        long startedAt = System.currentTimeMillis() / 1000;
+        long startNanos = System.nanoTime();
         try {
             switch (args[0]) {
                 case "init":
@@ -92,95 +216,129 @@ public class App {
                 case "add":
                     if (args.length < 2) {
                         System.out.println("Uso: add <archivo.zip>");
-                        return;
+                        return 1;
                     }
                     addCommand(args[1]);
                     break;
                 case "grading":
-                    Integer taskNumberForGrading = null;
+                    String taskRefForGrading = null;
                     if (args.length >= 2) {
-                        try {
-                            taskNumberForGrading = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                        if (!TaskResolver.isValidReference(args[1])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'grading' sin argumentos para ver la lista de tareas.");
-                            return;
+                            return 1;
                         }
+                        taskRefForGrading = args[1];
                     }
-                    gradingCommand(taskNumberForGrading);
+                    gradingCommand(taskRefForGrading);
                     break;
                 case "process":
-                    Integer taskNumber = null;
+                    String taskRef = null;
                     if (args.length >= 2) {
-                        try {
-                            taskNumber = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                        if (!TaskResolver.isValidReference(args[1])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'process' sin argumentos para ver la lista de tareas.");
-                            return;
+                            return 1;
                         }
+                        taskRef = args[1];
                     }
-                    processCommand(taskNumber);
+                    processCommand(taskRef);
                     break;
                 case "check":
-                    Integer taskNumberForCheck = null;
+                    String taskRefForCheck = null;
                     if (args.length >= 2) {
-                        try {
-                            taskNumberForCheck = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                        if (!TaskResolver.isValidReference(args[1])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'check' sin argumentos para ver el batch más reciente.");
-                            return;
+                            return 1;
                         }
+                        taskRefForCheck = args[1];
                     }
-                    checkCommand(taskNumberForCheck);
+                    checkCommand(taskRefForCheck);
                     break;
                 case "download":
-                    Integer taskNumberForDownload = null;
+                    String taskRefForDownload = null;
                     if (args.length >= 2) {
-                        try {
-                            taskNumberForDownload = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                        if (!TaskResolver.isValidReference(args[1])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'download' sin argumentos para descargar el batch más reciente.");
-                            return;
+                            return 1;
                         }
+                        taskRefForDownload = args[1];
                     }
-                    downloadCommand(taskNumberForDownload);
+                    downloadCommand(taskRefForDownload);
                     break;
                 case "package":
-                    Integer taskNumberForPackage = null;
-                    if (args.length >= 2) {
-                        try {
-                            taskNumberForPackage = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                    String taskRefForPackage = null;
+                    boolean moodleLayout = false;
+                    for (int i = 1; i < args.length; i++) {
+                        if (args[i].equals("--moodle")) {
+                            moodleLayout = true;
+                            continue;
+                        }
+                        if (!TaskResolver.isValidReference(args[i])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'package' sin argumentos para empaquetar el batch más reciente.");
-                            return;
+                            return 1;
                         }
+                        taskRefForPackage = args[i];
                     }
-                    packageCommand(taskNumberForPackage);
+                    packageCommand(taskRefForPackage,
+                        moodleLayout ? ZipFeedbackPackager.Layout.MOODLE : AppConfig.getPackageLayout());
                     break;
                 case "status":
-                    Integer taskNumberForStatus = null;
+                    String taskRefForStatus = null;
                     if (args.length >= 2) {
-                        try {
-                            taskNumberForStatus = Integer.parseInt(args[1]);
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error: El número de tarea debe ser un número entero.");
+                        if (!TaskResolver.isValidReference(args[1])) {
+                            System.err.println(INVALID_TASK_REFERENCE);
                             System.err.println("Usa 'status' sin argumentos para ver todas las tareas.");
-                            return;
+                            return 1;
                         }
+                        taskRefForStatus = args[1];
+                    }
+                    statusCommand(taskRefForStatus);
+                    break;
+                case "stats":
+                    new StatsCommand().execute(Arrays.copyOfRange(args, 1, args.length));
+                    break;
+                case "daemon":
+                    new DaemonCommand(getFileProcessor(), App::runCommand).execute(new String[0]);
+                    break;
+                case "watch":
+                    if (args.length >= 2 && args[1].equals("--files")) {
+                        new WatchFilesCommand(getFileProcessor()).execute(new String[0]);
+                    } else {
+                        watchCommand();
                     }
-                    statusCommand(taskNumberForStatus);
                     break;
                 default:
                     System.out.println("Comando desconocido: " + args[0]);
                     printHelp();
+                    return 1;
             }
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
+            return 1;
+        } finally {
+            saveMetrics(args[0], startedAt, System.nanoTime() - startNanos);
+        }
+        return UIUtils.hasPrintedError() ? 1 : 0;
+    }
+
+    /**
+     * Guarda en la base de datos las métricas del comando, si ha registrado alguna
+     * (los comandos que solo consultan la base de datos no registran ninguna).
+     */
+    private static void saveMetrics(String command, long startedAt, long durationNanos) {
+        MetricsRegistry runMetrics = metrics;
+        if (runMetrics.isEmpty() || !new File(getDatabasePath()).exists()) {
+            return;
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
+            new MetricsStore(conn).saveRun(command, startedAt, durationNanos, runMetrics);
+        } catch (SQLException e) {
+            System.err.println("Advertencia: No se pudieron guardar las métricas: " + e.getMessage());
         }
     }
 
@@ -199,9 +357,23 @@ public class App {
         System.out.println("  download <número>    Descarga los resultados del batch de una tarea específica");
         System.out.println("  package              Genera el ZIP de feedback con el batch más reciente");
         System.out.println("  package <número>     Genera el ZIP de feedback de una tarea específica");
+        System.out.println("  package [número] --moodle");
+        System.out.println("                       Genera el ZIP con una carpeta HTML por participante para subirlo a Moodle");
         System.out.println("  status               Muestra todas las tareas y el estado de sus entregas");
         System.out.println("  status <número>      Muestra detalles y estadísticas de una tarea específica");
+        System.out.println("  watch                Vigila todos los batches en curso y descarga y empaqueta los completados");
+        System.out.println("  watch --files        Vigila el workspace e ingiere los ZIP nuevos y las entregas modificadas");
+        System.out.println("  stats [n] [comando]  Muestra rendimiento y latencias p50/p95/p99 por etapa de las últimas n");
+        System.out.println("                       ejecuciones (por defecto 20), opcionalmente solo de un comando");
+        System.out.println("  daemon               Inicia un servidor residente que ejecuta add, process, check y status");
+        System.out.println("                       sin pagar el arranque de la JVM en cada comando");
         System.out.println("  help                 Muestra esta ayuda");
+        System.out.println();
+        System.out.println("Con --jfr[=archivo.jfr] cualquier comando se ejecuta grabándolo con Java Flight Recorder");
+        System.out.println("(por defecto en .edufeedai/jfr/).");
+        System.out.println();
+        System.out.println("Las tareas se indican con su número en la lista, con id:<id> (ID estable de la tarea)");
+        System.out.println("o con moodle:<id> (ID de la tarea en Moodle).");
     }
 
     // Comando: init [directorio]
@@ -247,7 +419,7 @@ public class App {
         // Verificar que el workspace está inicializado
         File dbFile = new File(getDatabasePath());
         if (!dbFile.exists()) {
-            System.err.println("Error: Workspace no inicializado.");
+            UIUtils.printError("Workspace no inicializado.");
             System.err.println("Ejecuta 'init' primero para crear el workspace.");
             return;
         }
@@ -255,7 +427,7 @@ public class App {
         // Obtener nombre de la tarea del archivo ZIP (sin extensión)
         File zipFile = new File(zipPath);
         if (!zipFile.exists()) {
-            System.err.println("Error: Archivo ZIP no encontrado: " + zipPath);
+            UIUtils.printError("Archivo ZIP no encontrado: " + zipPath);
             return;
         }
 
@@ -276,6 +448,8 @@ public class App {
         boolean taskExists = false;
 
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
+            DatabaseUtils.migrateDatabase(conn);
+
             // Verificar si existe
             PreparedStatement checkStmt = conn.prepareStatement("SELECT id FROM tasks WHERE name = ?");
             checkStmt.setString(1, taskName);
@@ -352,7 +526,9 @@ public class App {
         // Descomprimir ZIP en directorio temporal
         Path tempDir = Files.createTempDirectory("edufeedai_extract_");
         try {
-            unzip(zipPath, tempDir);
+            try (MetricsRegistry.Sample sample = metrics.start("ingest.unzip")) {
+                unzip(zipPath, tempDir);
+            }
 
             // Cada subdirectorio es una entrega de estudiante
             File[] studentDirs = tempDir.toFile().listFiles(File::isDirectory);
@@ -364,36 +540,41 @@ public class App {
             System.out.println("\nEncontrados " + studentDirs.length + " estudiantes.");
 
             for (File studentDir : studentDirs) {
-                String studentName = studentDir.getName();
-                System.out.println("Procesando: " + studentName);
-
-                // Crear entrega en la BD
-                int submissionId;
-                try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-                    PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO submissions (task_id, student_name, submission_number, submitted_at, created_at) " +
-                        "VALUES (?, ?, 1, ?, ?)",
-                        Statement.RETURN_GENERATED_KEYS
-                    );
-                    stmt.setInt(1, taskId);
-                    stmt.setString(2, studentName);
-                    stmt.setLong(3, now);
-                    stmt.setLong(4, now);
-                    stmt.executeUpdate();
-
-                    ResultSet genKeys = stmt.getGeneratedKeys();
-                    if (genKeys.next()) {
-                        submissionId = genKeys.getInt(1);
-                    } else {
-                        throw new SQLException("No se pudo crear la entrega");
+                try (MetricsRegistry.Sample ingestSample = metrics.start("ingest.submission")) {
+                    String studentName = studentDir.getName();
+                    System.out.println("Procesando: " + studentName);
+
+                    // Crear entrega en la BD con su custom_id (hash del nombre) ya calculado
+                    String customId = BatchResults.customIdFor(studentName);
+                    int submissionId;
+                    try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath());
+                         MetricsRegistry.Sample dbSample = metrics.start("db.write")) {
+                        PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT INTO submissions (task_id, student_name, custom_id, submission_number, submitted_at, created_at) " +
+                            "VALUES (?, ?, ?, 1, ?, ?)",
+                            Statement.RETURN_GENERATED_KEYS
+                        );
+                        stmt.setInt(1, taskId);
+                        stmt.setString(2, studentName);
+                        stmt.setString(3, customId);
+                        stmt.setLong(4, now);
+                        stmt.setLong(5, now);
+                        stmt.executeUpdate();
+
+                        ResultSet genKeys = stmt.getGeneratedKeys();
+                        if (genKeys.next()) {
+                            submissionId = genKeys.getInt(1);
+                        } else {
+                            throw new SQLException("No se pudo crear la entrega");
+                        }
                     }
-                }
 
-                // Copiar archivos del estudiante a su directorio
-                Path submissionDir = taskDir.resolve(studentName);
-                copyDirectory(studentDir.toPath(), submissionDir);
+                    // Copiar archivos del estudiante a su directorio
+                    Path submissionDir = taskDir.resolve(studentName);
+                    copyDirectory(studentDir.toPath(), submissionDir);
 
-                System.out.println("  ✓ " + submissionDir);
+                    System.out.println("  ✓ " + submissionDir);
+                }
             }
 
             System.out.println("\n" + "=".repeat(60));
@@ -417,7 +598,7 @@ public class App {
                         Files.createDirectories(targetPath);
                     }
                 } else {
-                    Files.copy(sourcePath, targetPath);
+                    Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
@@ -441,13 +622,13 @@ public class App {
     }
 
     // Comando: grading [numero_tarea]
-    private static void gradingCommand(Integer taskNumber) throws SQLException, IOException {
-        if (taskNumber == null) {
+    private static void gradingCommand(String taskRef) throws SQLException, IOException {
+        if (taskRef == null) {
             // Modo lista: mostrar todas las tareas con su estado de configuración
             listTasksWithGradingStatus();
         } else {
             // Modo configurar: configurar o mostrar configuración de tarea específica
-            configureOrShowGradingForTask(taskNumber);
+            configureOrShowGradingForTask(taskRef);
         }
     }
 
@@ -456,15 +637,15 @@ public class App {
         System.out.println("=== Estado de Configuración de Rúbricas ===\n");
 
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-            // Obtener todas las tareas con su estado de configuración
+            // Obtener todas las tareas con su estado de configuración (contadores de task_status_counts)
+            TaskStatusCounts.ensureSchema(conn);
             Statement stmt = conn.createStatement();
             ResultSet tasksRs = stmt.executeQuery(
                 "SELECT t.id, t.name, t.grading_config_id, " +
-                "COUNT(s.id) as total_submissions " +
+                "COALESCE(c.total, 0) as total_submissions " +
                 "FROM tasks t " +
-                "LEFT JOIN submissions s ON t.id = s.task_id " +
-                "GROUP BY t.id, t.name, t.grading_config_id " +
-                "ORDER BY t.created_at DESC"
+                "LEFT JOIN " + TaskStatusCounts.TABLE + " c ON c.task_id = t.id " +
+                "ORDER BY t.created_at DESC, t.id DESC"
             );
 
             int taskCount = 0;
@@ -498,11 +679,11 @@ public class App {
     }
 
     // Configura o muestra la configuración de una tarea específica
-    private static void configureOrShowGradingForTask(Integer taskNumber) throws SQLException, IOException {
+    private static void configureOrShowGradingForTask(String taskRef) throws SQLException, IOException {
         // 1. Verificar API key
         String apiKey = dotenv.get("OPENAI_API_KEY");
         if (apiKey == null || apiKey.isEmpty()) {
-            System.err.println("Error: La variable de entorno OPENAI_API_KEY no está configurada.");
+            UIUtils.printError("La variable de entorno OPENAI_API_KEY no está configurada.");
             System.err.println("Por favor, configura tu API key de OpenAI en el archivo .env o como variable de entorno del sistema.");
             return;
         }
@@ -510,46 +691,28 @@ public class App {
         // 2. Verificar que la base de datos existe
         File dbFile = new File(getDatabasePath());
         if (!dbFile.exists()) {
-            System.err.println("Error: La base de datos no existe.");
+            UIUtils.printError("La base de datos no existe.");
             System.err.println("Ejecuta 'init' primero para inicializar el entorno.");
             return;
         }
 
-        // 3. Obtener la tarea por número de lista
-        int taskId = -1;
-        String taskName = null;
-        Integer existingGradingConfigId = null;
-        boolean found = false;
-
+        // 3. Obtener la tarea (número de lista, id:<id> o moodle:<id>)
+        TaskResolver.ResolvedTask task;
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-            Statement stmt = conn.createStatement();
-            ResultSet tasksRs = stmt.executeQuery(
-                "SELECT t.id, t.name, t.grading_config_id " +
-                "FROM tasks t " +
-                "ORDER BY t.created_at DESC"
-            );
-
-            int currentNumber = 0;
-            while (tasksRs.next()) {
-                currentNumber++;
-                if (currentNumber == taskNumber) {
-                    taskId = tasksRs.getInt("id");
-                    taskName = tasksRs.getString("name");
-                    existingGradingConfigId = tasksRs.getObject("grading_config_id") != null
-                        ? tasksRs.getInt("grading_config_id") : null;
-                    found = true;
-                    break;
-                }
-            }
+            task = new TaskResolver(conn).resolve(taskRef);
         }
 
-        if (!found) {
-            System.err.println("Error: No existe la tarea número " + taskNumber);
+        if (task == null) {
+            UIUtils.printError("No existe la tarea " + taskRef);
             System.err.println("Usa 'grading' sin argumentos para ver las tareas disponibles.");
             return;
         }
 
-        System.out.println("=== Configuración de Rúbrica para Tarea #" + taskNumber + " ===");
+        int taskId = task.getId();
+        String taskName = task.getName();
+        Integer existingGradingConfigId = task.getGradingConfigId();
+
+        System.out.println("=== Configuración de Rúbrica para Tarea #" + taskRef + " ===");
         System.out.println("Tarea: " + taskName);
         System.out.println("ID: " + taskId + "\n");
 
@@ -714,13 +877,13 @@ public class App {
     }
 
     // Comando: process [numero_tarea]
-    private static void processCommand(Integer taskNumber) throws SQLException, IOException {
-        if (taskNumber == null) {
+    private static void processCommand(String taskRef) throws SQLException, IOException {
+        if (taskRef == null) {
             // Modo lista: mostrar todas las tareas con su estado
             listTasksWithStatus();
         } else {
             // Modo procesar: procesar la tarea específica por número
-            processTask(taskNumber);
+            processTask(taskRef);
         }
     }
 
@@ -729,17 +892,18 @@ public class App {
         System.out.println("=== Tareas Disponibles ===\n");
 
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-            // Obtener todas las tareas con estadísticas
+            // Obtener todas las tareas con estadísticas (contadores mantenidos por triggers,
+            // sin recorrer las entregas)
+            TaskStatusCounts.ensureSchema(conn);
             Statement stmt = conn.createStatement();
             ResultSet tasksRs = stmt.executeQuery(
                 "SELECT t.id, t.name, " +
-                "COUNT(s.id) as total, " +
-                "SUM(CASE WHEN s.status = 'pending' THEN 1 ELSE 0 END) as pending, " +
-                "SUM(CASE WHEN s.status != 'pending' THEN 1 ELSE 0 END) as completed " +
+                "COALESCE(c.total, 0) as total, " +
+                "COALESCE(c.pending, 0) as pending, " +
+                "COALESCE(c.completed, 0) as completed " +
                 "FROM tasks t " +
-                "LEFT JOIN submissions s ON t.id = s.task_id " +
-                "GROUP BY t.id, t.name " +
-                "ORDER BY t.created_at DESC"
+                "LEFT JOIN " + TaskStatusCounts.TABLE + " c ON c.task_id = t.id " +
+                "ORDER BY t.created_at DESC, t.id DESC"
             );
 
             int taskCount = 0;
@@ -784,58 +948,38 @@ public class App {
     }
 
     // Procesa una tarea específica por número de lista
-    private static void processTask(Integer taskNumber) throws SQLException, IOException {
+    private static void processTask(String taskRef) throws SQLException, IOException {
         // 1. Verificar API key
         String apiKey = dotenv.get("OPENAI_API_KEY");
         if (apiKey == null || apiKey.isEmpty()) {
-            System.err.println("Error: La variable de entorno OPENAI_API_KEY no está configurada.");
+            UIUtils.printError("La variable de entorno OPENAI_API_KEY no está configurada.");
             return;
         }
 
-        // 2. Obtener la tarea por número de lista (ordenada por created_at DESC)
-        int taskId = -1;
-        String taskName = null;
-        String moodleTaskId = null;
+        // 2. Obtener la tarea (número de lista, id:<id> o moodle:<id>) y solo sus entregas
+        TaskResolver.ResolvedTask task;
         int totalSubmissions = 0;
-        Integer gradingConfigId = null;
-        boolean found = false;
 
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-            // Obtener todas las tareas ordenadas igual que en listTasksWithStatus
-            Statement stmt = conn.createStatement();
-            ResultSet tasksRs = stmt.executeQuery(
-                "SELECT t.id, t.name, t.moodle_task_id, t.grading_config_id, " +
-                "COUNT(s.id) as total " +
-                "FROM tasks t " +
-                "LEFT JOIN submissions s ON t.id = s.task_id " +
-                "GROUP BY t.id, t.name, t.moodle_task_id, t.grading_config_id " +
-                "ORDER BY t.created_at DESC"
-            );
-
-            // Avanzar hasta el número de tarea especificado
-            int currentNumber = 0;
-            while (tasksRs.next()) {
-                currentNumber++;
-                if (currentNumber == taskNumber) {
-                    taskId = tasksRs.getInt("id");
-                    taskName = tasksRs.getString("name");
-                    moodleTaskId = tasksRs.getString("moodle_task_id");
-                    totalSubmissions = tasksRs.getInt("total");
-                    gradingConfigId = tasksRs.getObject("grading_config_id") != null
-                        ? tasksRs.getInt("grading_config_id") : null;
-                    found = true;
-                    break;
-                }
+            TaskResolver resolver = new TaskResolver(conn);
+            task = resolver.resolve(taskRef);
+            if (task != null) {
+                totalSubmissions = resolver.countSubmissions(task.getId());
             }
         }
 
-        if (!found) {
-            System.err.println("Error: No existe la tarea número " + taskNumber);
+        if (task == null) {
+            UIUtils.printError("No existe la tarea " + taskRef);
             System.err.println("Usa 'process' sin argumentos para ver las tareas disponibles.");
             return;
         }
 
-        System.out.println("=== Procesando tarea #" + taskNumber + ": " + taskName + " ===\n");
+        int taskId = task.getId();
+        String taskName = task.getName();
+        String moodleTaskId = task.getMoodleTaskId();
+        Integer gradingConfigId = task.getGradingConfigId();
+
+        System.out.println("=== Procesando tarea #" + taskRef + ": " + taskName + " ===\n");
         System.out.println("Tarea ID: " + taskId);
         System.out.println("Total de entregas: " + totalSubmissions);
 
@@ -847,7 +991,7 @@ public class App {
         // 3. Verificar que la tarea tenga configuración de rúbrica
         if (gradingConfigId == null) {
             System.err.println("\n⚠ Error: Esta tarea no tiene rúbrica configurada.");
-            System.err.println("Ejecuta 'grading " + taskNumber + "' para configurar la rúbrica de esta tarea.");
+            System.err.println("Ejecuta 'grading " + taskRef + "' para configurar la rúbrica de esta tarea.");
             return;
         }
 
@@ -861,8 +1005,8 @@ public class App {
             ResultSet rs = stmt.executeQuery();
 
             if (!rs.next()) {
-                System.err.println("Error: No se encontró la configuración de rúbrica para esta tarea.");
-                System.err.println("Ejecuta 'grading " + taskNumber + "' para configurar la rúbrica.");
+                UIUtils.printError("No se encontró la configuración de rúbrica para esta tarea.");
+                System.err.println("Ejecuta 'grading " + taskRef + "' para configurar la rúbrica.");
                 return;
             }
             instructions = rs.getString("generated_instructions");
@@ -876,20 +1020,19 @@ public class App {
         Path taskDir = Paths.get(workDir).resolve(taskName);
 
         if (!Files.exists(taskDir)) {
-            System.err.println("Error: No existe el directorio de la tarea: " + taskDir);
+            UIUtils.printError("No existe el directorio de la tarea: " + taskDir);
             return;
         }
 
-        FileProcessor fileProcessor = new FileProcessor();
+        FileProcessor fileProcessor = getFileProcessor();
 
-        int totalFilesProcessed = 0;
-        int totalTextFiles = 0;
-        int totalPdfFiles = 0;
-        int totalUnsupportedFiles = 0;
+        SubmissionExtractor extractor = new SubmissionExtractor(fileProcessor, metrics, workDir);
         String jsonlFilePath;
 
         // Procesar archivos y extraer contenido (sin subir a OpenAI)
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
+            DatabaseUtils.migrateDatabase(conn);
+
             // Obtener todas las entregas de esta tarea
             PreparedStatement submissionsStmt = conn.prepareStatement(
                 "SELECT id, student_name FROM submissions WHERE task_id = ? ORDER BY student_name"
@@ -914,145 +1057,86 @@ public class App {
                 List<File> files = fileProcessor.getAllFiles(studentDir.toFile());
 
                 for (File file : files) {
-                    try {
-                        // Procesar el archivo y detectar su tipo
-                        FileProcessor.FileProcessingResult result = fileProcessor.processFile(file);
-                        totalFilesProcessed++;
-
-                        String relativeFilePath = taskDir.relativize(file.toPath()).toString();
-                        String contentExtracted = null;
-                        int isTextFile = 0;
-
-                        // Extraer contenido según el tipo de archivo
-                        switch (result.getProcessingType()) {
-                            case TEXT_PLAIN:
-                                // Archivo de texto: usar contenido extraído
-                                contentExtracted = result.getExtractedText();
-                                isTextFile = 1;
-                                totalTextFiles++;
-                                System.out.println("  ✓ " + file.getName() + " (texto plano, " +
-                                    contentExtracted.length() + " caracteres)");
-                                break;
-
-                            case PDF_ORIGINAL:
-                                // PDF: extraer texto usando OCRMyPDF
-                                try {
-                                    FileProcessor.FileProcessingResult pdfResult =
-                                        fileProcessor.extractTextFromPdf(file, moodleTaskId, studentName, workDir);
-                                    contentExtracted = pdfResult.getExtractedText();
-                                    totalPdfFiles++;
-                                    System.out.println("  ✓ " + file.getName() + " (PDF con OCR, " +
-                                        contentExtracted.length() + " caracteres)");
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                    System.err.println("  ✗ Proceso OCR interrumpido para " + file.getName());
-                                    contentExtracted = "[Proceso OCR interrumpido]";
-                                } catch (Exception e) {
-                                    System.err.println("  ✗ Error extrayendo texto de PDF " +
-                                        file.getName() + ": " + e.getMessage());
-                                    contentExtracted = "[Error al extraer texto del PDF]";
-                                }
-                                break;
-
-                            case UNSUPPORTED:
-                                totalUnsupportedFiles++;
-                                System.out.println("  ⚠ " + file.getName() + " (tipo no soportado: " +
-                                    result.getMimeType() + ")");
-                                break;
-
-                            default:
-                                System.out.println("  ? " + file.getName() + " (tipo desconocido)");
-                                break;
-                        }
-
-                        // Verificar si el archivo ya existe en la base de datos
-                        PreparedStatement checkFileStmt = conn.prepareStatement(
-                            "SELECT id FROM submission_files WHERE submission_id = ? AND file_path = ?"
-                        );
-                        checkFileStmt.setInt(1, submissionId);
-                        checkFileStmt.setString(2, relativeFilePath);
-                        ResultSet existingFileRs = checkFileStmt.executeQuery();
-
-                        boolean fileExists = existingFileRs.next();
-
-                        // Guardar o actualizar información del archivo en la base de datos
-                        if (fileExists) {
-                            // Actualizar registro existente
-                            PreparedStatement updateFileStmt = conn.prepareStatement(
-                                "UPDATE submission_files SET file_type = ?, file_size = ?, " +
-                                "is_text_file = ?, content_extracted = ?, updated_at = ? " +
-                                "WHERE submission_id = ? AND file_path = ?"
-                            );
-                            updateFileStmt.setString(1, result.getMimeType());
-                            updateFileStmt.setLong(2, file.length());
-                            updateFileStmt.setInt(3, isTextFile);
-                            updateFileStmt.setString(4, contentExtracted);
-                            updateFileStmt.setLong(5, System.currentTimeMillis() / 1000);
-                            updateFileStmt.setInt(6, submissionId);
-                            updateFileStmt.setString(7, relativeFilePath);
-                            updateFileStmt.executeUpdate();
-                        } else {
-                            // Insertar nuevo registro (sin openai_file_id)
-                            PreparedStatement insertFileStmt = conn.prepareStatement(
-                                "INSERT INTO submission_files (submission_id, file_path, file_name, file_type, " +
-                                "file_size, is_text_file, content_extracted, created_at) " +
-                                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
-                            );
-                            insertFileStmt.setInt(1, submissionId);
-                            insertFileStmt.setString(2, relativeFilePath);
-                            insertFileStmt.setString(3, file.getName());
-                            insertFileStmt.setString(4, result.getMimeType());
-                            insertFileStmt.setLong(5, file.length());
-                            insertFileStmt.setInt(6, isTextFile);
-                            insertFileStmt.setString(7, contentExtracted);
-                            insertFileStmt.setLong(8, System.currentTimeMillis() / 1000);
-                            insertFileStmt.executeUpdate();
-                        }
-
-                    } catch (Exception e) {
-                        System.err.println("  ✗ Error procesando " + file.getName() + ": " + e.getMessage());
-                    }
+                    extractor.extractFile(conn, taskDir, submissionId, studentName, moodleTaskId, file);
                 }
             }
 
             System.out.println("\n" + "=".repeat(60));
             System.out.println("✓ Extracción de contenido completada");
-            System.out.println("Total archivos procesados: " + totalFilesProcessed);
-            System.out.println("  - Archivos de texto: " + totalTextFiles);
-            System.out.println("  - Archivos PDF: " + totalPdfFiles);
-            System.out.println("  - Archivos no soportados: " + totalUnsupportedFiles);
-
-            // Generar submission_id_map.json para mapeo de entregas (debe ir ANTES del JSONL)
+            System.out.println("Total archivos procesados: " + extractor.getFiles());
+            System.out.println("  - Archivos de texto: " + extractor.getTextFiles());
+            System.out.println("  - Archivos PDF: " + extractor.getPdfFiles());
+            System.out.println("  - Archivos no soportados: " + extractor.getUnsupportedFiles());
+            metrics.add("files.text", extractor.getTextFiles());
+            metrics.add("files.pdf", extractor.getPdfFiles());
+            metrics.add("files.unsupported", extractor.getUnsupportedFiles());
+
+            // Generar submission_id_map.json a partir del custom_id guardado al añadir las entregas
+            // (las entregas añadidas con versiones anteriores lo reciben ahora)
             System.out.println("\n" + "=".repeat(60));
             System.out.println("Generando mapa de IDs de entregas...");
+            DatabaseUtils.migrateDatabase(conn);
+            BatchResults.assignCustomIds(conn, taskId);
             GenerateSubmissionIDMap idMapGenerator = new GenerateSubmissionIDMap(
                 taskDir.toString(),
-                new com.github.edufeedai.model.DigestSHA1()
+                BatchResults.CUSTOM_ID_ALGORITHM.create()
             );
-            com.github.edufeedai.model.SubmissionIdMap[] submissionIdMaps = idMapGenerator.generateSubmissionIDMaps();
-            String idMapFileName = idMapGenerator.saveSubmissionIDMaps(submissionIdMaps, "submission_id_map.json");
-            if (idMapFileName != null) {
-                System.out.println("✓ Mapa de IDs generado: " + idMapFileName);
-            } else {
-                System.err.println("⚠ No se pudo generar el mapa de IDs");
-            }
+            String idMapFileName = idMapGenerator.saveSubmissionIDMaps(conn, taskId, "submission_id_map.json");
+            System.out.println("✓ Mapa de IDs generado: " + idMapFileName);
 
             // Generar archivo JSONL con referencias a los archivos subidos
             System.out.println("\n" + "=".repeat(60));
             System.out.println("Generando archivo JSONL para Batch API...");
 
+            // Caché de respuestas: las entregas idénticas a otras ya corregidas no se reenvían
+            ResponseCache responseCache = AppConfig.isResponseCacheEnabled()
+                ? new ResponseCache(conn, AppConfig.getResponseCacheDigest())
+                : null;
+
             // Generar JSONL (usando el mismo digest que para submission_id_map)
             BatchJSONLGenerator jsonlGenerator = new BatchJSONLGenerator(
                 conn,
                 taskId,
                 taskDir.toString(),
                 instructions,
-                new com.github.edufeedai.model.DigestSHA1()
+                BatchResults.CUSTOM_ID_ALGORITHM.create(),
+                responseCache
             );
 
-            jsonlFilePath = jsonlGenerator.generateJsonl();
+            try (MetricsRegistry.Sample sample = metrics.start("jsonl")) {
+                jsonlFilePath = jsonlGenerator.generateJsonl();
+            }
+            metrics.add("jsonl.requests", jsonlGenerator.getBatchRequestCount());
             System.out.println("✓ Archivo JSONL generado: " + jsonlFilePath);
 
+            // Nuevo envío completo: se descartan los resultados y reintentos del anterior
+            DatabaseUtils.migrateDatabase(conn);
+            PreparedStatement resetStmt = conn.prepareStatement(
+                "UPDATE submissions SET retry_count = 0, feedback = NULL, processed_at = NULL WHERE task_id = ?"
+            );
+            resetStmt.setInt(1, taskId);
+            resetStmt.executeUpdate();
+            resetStmt.close();
+            Files.deleteIfExists(taskDir.resolve("assessment_responses.jsonl"));
+            Files.deleteIfExists(taskDir.resolve("assessment_errors.jsonl"));
+
+            if (responseCache != null) {
+                System.out.println("  Peticiones a enviar: " + jsonlGenerator.getBatchRequestCount());
+                System.out.println("  Respuestas reutilizadas de la caché: " + jsonlGenerator.getCachedRequestCount());
+
+                if (jsonlGenerator.getBatchRequestCount() == 0) {
+                    completeTaskFromCache(conn, responseCache, taskId, taskDir, extractor.getFiles());
+                    return;
+                }
+            }
+
+            // Las tareas pequeñas se corrigen al momento con peticiones directas en lugar de esperar al batch
+            if (AppConfig.useInteractiveMode(jsonlGenerator.getBatchRequestCount())) {
+                completeTaskInteractively(conn, apiKey, responseCache, taskId, taskDir,
+                    Path.of(jsonlFilePath), extractor.getFiles());
+                return;
+            }
+
         } // Fin del try-with-resources de Connection
 
         // === Fase 2: Subir JSONL a OpenAI ===
@@ -1063,7 +1147,9 @@ public class App {
 
         String batchFileId;
         try (OpenAIFileManagement fileManager = new OpenAIFileManagement(apiKey)) {
-            batchFileId = fileManager.uploadBatchFile(jsonlFilePath);
+            try (MetricsRegistry.Sample sample = metrics.start("upload")) {
+                batchFileId = BatchUpload.upload(fileManager, new File(jsonlFilePath));
+            }
             System.out.println("✓ JSONL subido exitosamente");
             System.out.println("  File ID: " + batchFileId);
         } catch (Exception e) {
@@ -1096,7 +1182,10 @@ public class App {
             updateBatchStmt.setString(1, batchJob.getId());
             updateBatchStmt.setLong(2, System.currentTimeMillis() / 1000);
             updateBatchStmt.setInt(3, taskId);
-            int updatedRows = updateBatchStmt.executeUpdate();
+            int updatedRows;
+            try (MetricsRegistry.Sample sample = metrics.start("db.write")) {
+                updatedRows = updateBatchStmt.executeUpdate();
+            }
             updateBatchStmt.close();
 
             System.out.println("✓ " + updatedRows + " entregas actualizadas con batch_id");
@@ -1109,7 +1198,7 @@ public class App {
         System.out.println("\n" + "=".repeat(60));
         System.out.println("✓ Procesamiento completado exitosamente");
         System.out.println("\nResumen:");
-        System.out.println("  - Archivos procesados: " + totalFilesProcessed);
+        System.out.println("  - Archivos procesados: " + extractor.getFiles());
         System.out.println("  - JSONL generado: " + new File(jsonlFilePath).getName());
         System.out.println("  - Batch ID: " + batchJob.getId());
         System.out.println("  - Estado actual: " + batchJob.getStatus());
@@ -1118,12 +1207,99 @@ public class App {
         System.out.println("  - Usa 'download' cuando el batch esté completado");
     }
 
+    /**
+     * Completa una tarea cuyas respuestas están todas en la caché, sin crear batch en OpenAI.
+     * Escribe assessment_responses.jsonl a partir de la caché y deja la tarea lista para 'package'.
+     */
+    private static void completeTaskFromCache(Connection conn, ResponseCache responseCache, int taskId,
+                                              Path taskDir, int totalFilesProcessed) throws SQLException, IOException {
+        File responsesFile = taskDir.resolve("assessment_responses.jsonl").toFile();
+        Files.deleteIfExists(responsesFile.toPath());
+        int materialised = responseCache.materialiseCachedResults(taskId, responsesFile);
+        BatchResults.importResults(conn, taskId, responsesFile, metrics);
+
+        int updatedRows = BatchResults.markLocalResults(conn, taskId, responsesFile);
+
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("✓ Todas las respuestas se han obtenido de la caché; no se crea batch en OpenAI");
+        System.out.println("\nResumen:");
+        System.out.println("  - Archivos procesados: " + totalFilesProcessed);
+        System.out.println("  - Respuestas recuperadas: " + materialised);
+        System.out.println("  - Entregas actualizadas: " + updatedRows);
+        System.out.println("  - Archivo: " + responsesFile.getName());
+        System.out.println("\nPróximos pasos:");
+        System.out.println("  - Usa 'package' para generar el paquete de feedback");
+    }
+
+    /**
+     * Corrige una tarea en modo interactivo: envía cada petición del JSONL directamente a
+     * /v1/chat/completions y escribe assessment_responses.jsonl sin crear batch en OpenAI.
+     */
+    private static void completeTaskInteractively(Connection conn, String apiKey, ResponseCache responseCache,
+                                                  int taskId, Path taskDir, Path jsonlFile,
+                                                  int totalFilesProcessed) throws SQLException, IOException {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("=== Fase 2: Corrección interactiva ===\n");
+
+        int concurrency = AppConfig.getInteractiveConcurrency();
+        System.out.println("Enviando peticiones a OpenAI (concurrencia " + concurrency + ")...");
+
+        File responsesFile = taskDir.resolve("assessment_responses.jsonl").toFile();
+        Path errorsFile = taskDir.resolve("assessment_errors.jsonl");
+        OpenAIInteractiveProcess interactiveProcess = new OpenAIInteractiveProcess(
+            apiKey, OpenAIHttpClient.DEFAULT_BASE_URL, OpenAIHttpClient.getInstance(), concurrency);
+
+        OpenAIInteractiveProcess.Result result;
+        try (MetricsRegistry.Sample sample = metrics.start("interactive")) {
+            result = interactiveProcess.processJsonl(jsonlFile, responsesFile.toPath(), errorsFile);
+        } catch (OpenAIAPIException e) {
+            System.err.println("✗ Error en la corrección interactiva: " + e.getMessage());
+            throw new IOException("Error en la corrección interactiva", e);
+        }
+
+        if (result.getFailed() == 0) {
+            Files.deleteIfExists(errorsFile);
+        }
+
+        int materialised = 0;
+        if (responseCache != null) {
+            responseCache.storeBatchResults(taskId, responsesFile);
+            materialised = responseCache.materialiseCachedResults(taskId, responsesFile);
+        }
+        BatchResults.importResults(conn, taskId, responsesFile, metrics);
+
+        int updatedRows = BatchResults.markLocalResults(conn, taskId, responsesFile);
+
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("✓ Corrección interactiva completada; no se crea batch en OpenAI");
+        System.out.println("\nResumen:");
+        System.out.println("  - Archivos procesados: " + totalFilesProcessed);
+        System.out.println("  - Respuestas correctas: " + result.getSucceeded());
+        if (materialised > 0) {
+            System.out.println("  - Respuestas añadidas desde la caché: " + materialised);
+        }
+        if (result.getFailed() > 0) {
+            System.out.println("  - Peticiones fallidas: " + result.getFailed() + " (ver " + errorsFile.getFileName() + ")");
+        }
+        System.out.println("  - Entregas con feedback: " + updatedRows);
+        int failedRows = BatchResults.countSubmissionsWithStatus(conn, taskId, "failed");
+        if (failedRows > 0) {
+            System.out.println("  - Entregas fallidas: " + failedRows);
+        }
+        System.out.println("  - Archivo: " + responsesFile.getName());
+        System.out.println("\nPróximos pasos:");
+        if (failedRows > 0) {
+            System.out.println("  - Vuelve a ejecutar 'process' para reenviar las entregas fallidas");
+        }
+        System.out.println("  - Usa 'package' para generar el paquete de feedback");
+    }
+
     // Comando: check [numero_tarea]
-    private static void checkCommand(Integer taskNumber) throws SQLException, IOException {
+    private static void checkCommand(String taskRef) throws SQLException, IOException {
         // Verificar API key
         String apiKey = dotenv.get("OPENAI_API_KEY");
         if (apiKey == null || apiKey.isEmpty()) {
-            System.err.println("Error: La variable de entorno OPENAI_API_KEY no está configurada.");
+            UIUtils.printError("La variable de entorno OPENAI_API_KEY no está configurada.");
             System.err.println("Por favor, configura tu API key de OpenAI en el archivo .env o como variable de entorno del sistema.");
             return;
         }
@@ -1132,7 +1308,7 @@ public class App {
             String batchId;
             int taskId;
 
-            if (taskNumber == null) {
+            if (taskRef == null) {
                 // Sin parámetro: obtener el batch más reciente de TODAS las tareas
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(
@@ -1152,30 +1328,14 @@ public class App {
                 taskId = rs.getInt("task_id");
             } else {
                 // Con parámetro: obtener el batch de la tarea específica
-                // Primero, obtener el task_id real por número de lista
-                Statement stmt = conn.createStatement();
-                ResultSet tasksRs = stmt.executeQuery(
-                    "SELECT id FROM tasks ORDER BY created_at DESC"
-                );
-
-                int currentNumber = 0;
-                int realTaskId = -1;
-                boolean found = false;
-
-                while (tasksRs.next()) {
-                    currentNumber++;
-                    if (currentNumber == taskNumber) {
-                        realTaskId = tasksRs.getInt("id");
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    System.err.println("Error: No existe la tarea número " + taskNumber);
+                // Primero, obtener el task_id real (número de lista, id:<id> o moodle:<id>)
+                TaskResolver.ResolvedTask task = new TaskResolver(conn).resolve(taskRef);
+                if (task == null) {
+                    UIUtils.printError("No existe la tarea " + taskRef);
                     System.err.println("Usa 'status' sin argumentos para ver las tareas disponibles.");
                     return;
                 }
+                int realTaskId = task.getId();
 
                 // Ahora obtener el batch_id de esa tarea
                 PreparedStatement batchStmt = conn.prepareStatement(
@@ -1185,8 +1345,8 @@ public class App {
                 ResultSet batchRs = batchStmt.executeQuery();
 
                 if (!batchRs.next()) {
-                    System.out.println("La tarea #" + taskNumber + " no tiene batches procesados.");
-                    System.out.println("Ejecuta 'process " + taskNumber + "' primero para enviar entregas a OpenAI.");
+                    System.out.println("La tarea #" + taskRef + " no tiene batches procesados.");
+                    System.out.println("Ejecuta 'process " + taskRef + "' primero para enviar entregas a OpenAI.");
                     return;
                 }
 
@@ -1196,6 +1356,14 @@ public class App {
                 batchStmt.close();
             }
 
+            if (batchId.startsWith(BatchResults.LOCAL_BATCH_PREFIX)) {
+                System.out.println("Batch ID: " + batchId);
+                System.out.println("Esta tarea se resolvió sin batch en OpenAI (caché o modo interactivo).");
+                System.out.println("Estado: completed");
+                System.out.println("\nUsa 'package' para generar el ZIP de feedback");
+                return;
+            }
+
             long interval = getBatchStatusCheckInterval();
             System.out.println("Consultando estado del batch...");
             System.out.println("(Los estados se actualizan cada " + interval + " segundos)\n");
@@ -1214,12 +1382,15 @@ public class App {
                 try {
                     // Consultar estado en OpenAI
                     OpenAIBatchProcess batchProcess = new OpenAIBatchProcess(apiKey);
-                    job = batchProcess.getBatchJob(batchId);
+                    try (MetricsRegistry.Sample sample = metrics.start("poll")) {
+                        job = batchProcess.getBatchJob(batchId);
+                    }
 
                     // Actualizar estado en la base de datos
                     String newStatus = mapBatchStatusToSubmissionStatus(job.getStatus());
                     PreparedStatement updateStmt = conn.prepareStatement(
-                        "UPDATE submissions SET status = ? WHERE batch_id = ?"
+                        "UPDATE submissions SET status = ? WHERE batch_id = ? " +
+                        "AND status IN ('pending', 'processing', 'completed')"
                     );
                     updateStmt.setString(1, newStatus);
                     updateStmt.setString(2, batchId);
@@ -1246,12 +1417,15 @@ public class App {
                     // Consultar desde OpenAI
                     try {
                         OpenAIBatchProcess bp = new OpenAIBatchProcess(apiKey);
-                        job = bp.getBatchJob(batchId);
+                        try (MetricsRegistry.Sample sample = metrics.start("poll")) {
+                            job = bp.getBatchJob(batchId);
+                        }
 
                         // Actualizar BD y caché
                         String newStatus = mapBatchStatusToSubmissionStatus(job.getStatus());
                         PreparedStatement updateStmt = conn.prepareStatement(
-                            "UPDATE submissions SET status = ? WHERE batch_id = ?"
+                            "UPDATE submissions SET status = ? WHERE batch_id = ? " +
+                            "AND status IN ('pending', 'processing', 'completed')"
                         );
                         updateStmt.setString(1, newStatus);
                         updateStmt.setString(2, batchId);
@@ -1331,6 +1505,235 @@ public class App {
         }
     }
 
+    /**
+     * Prepara los argumentos para el servidor residente: las rutas relativas se resuelven
+     * aquí, porque el directorio actual del servidor puede ser otro.
+     */
+    private static String[] toDaemonArgs(String[] args) {
+        String[] daemonArgs = args.clone();
+        if (args[0].equals("add") && args.length >= 2) {
+            daemonArgs[1] = Paths.get(args[1]).toAbsolutePath().toString();
+        }
+        return daemonArgs;
+    }
+
+    // Comando: watch
+    private static void watchCommand() throws SQLException, IOException, InterruptedException {
+        // Verificar API key
+        String apiKey = dotenv.get("OPENAI_API_KEY");
+        if (apiKey == null || apiKey.isEmpty()) {
+            UIUtils.printError("La variable de entorno OPENAI_API_KEY no está configurada.");
+            System.err.println("Por favor, configura tu API key de OpenAI en el archivo .env o como variable de entorno del sistema.");
+            return;
+        }
+
+        BatchPollingPolicy pollingPolicy = new BatchPollingPolicy(
+            java.time.Duration.ofSeconds(AppConfig.getIntSetting("WATCH_MIN_INTERVAL",
+                (int) BatchPollingPolicy.DEFAULT_MIN_INTERVAL.getSeconds())),
+            java.time.Duration.ofSeconds(AppConfig.getIntSetting("WATCH_MAX_INTERVAL",
+                (int) BatchPollingPolicy.DEFAULT_MAX_INTERVAL.getSeconds()))
+        );
+        long retryDelayMillis = BatchPollingPolicy.DEFAULT_MAX_INTERVAL.toMillis();
+        int maxDownloadAttempts = Math.max(1,
+            AppConfig.getIntSetting("WATCH_MAX_DOWNLOAD_ATTEMPTS", DEFAULT_WATCH_MAX_DOWNLOAD_ATTEMPTS));
+        OpenAIBatchProcess batchProcess = new OpenAIBatchProcess(apiKey);
+
+        // Instante (ms) de la próxima consulta de cada batch
+        Map<String, Long> nextPollAt = new HashMap<>();
+        // Descargas fallidas de cada batch completado
+        Map<String, Integer> downloadAttempts = new HashMap<>();
+
+        System.out.println("Vigilando los batches en curso (Ctrl+C para salir)...\n");
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
+            while (true) {
+                // Se relee la base de datos en cada ciclo para incorporar los batches creados con 'process'
+                List<WatchedBatch> inFlight = findInFlightBatches(conn);
+                if (inFlight.isEmpty()) {
+                    System.out.println("No quedan batches en curso.");
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                Map<WatchedBatch, CompletableFuture<BatchJob>> polls = new HashMap<>();
+                for (WatchedBatch batch : inFlight) {
+                    if (nextPollAt.getOrDefault(batch.batchId, 0L) <= now) {
+                        polls.put(batch, batchProcess.getBatchJobAsync(batch.batchId));
+                    }
+                }
+
+                // Las consultas se lanzan en paralelo; el acceso a la base de datos se hace en este hilo
+                for (Map.Entry<WatchedBatch, CompletableFuture<BatchJob>> poll : polls.entrySet()) {
+                    String batchId = poll.getKey().batchId;
+                    int taskId = poll.getKey().taskId;
+                    String taskName = poll.getKey().taskName;
+
+                    BatchJob job;
+                    try {
+                        job = poll.getValue().join();
+                    } catch (CompletionException e) {
+                        System.err.println("[" + formatTimestamp(now / 1000) + "] " + taskName
+                            + ": error al consultar el batch: " + e.getCause().getMessage());
+                        nextPollAt.put(batchId, now + retryDelayMillis);
+                        continue;
+                    }
+
+                    PreparedStatement updateStmt = conn.prepareStatement(
+                        "UPDATE submissions SET status = ? WHERE batch_id = ? " +
+                        "AND status IN ('pending', 'processing', 'completed')"
+                    );
+                    updateStmt.setString(1, mapBatchStatusToSubmissionStatus(job.getStatus()));
+                    updateStmt.setString(2, batchId);
+                    updateStmt.executeUpdate();
+                    updateStmt.close();
+                    updateCachedBatchStatus(conn, taskId, job.getStatus());
+
+                    System.out.println("[" + formatTimestamp(now / 1000) + "] " + taskName + ": "
+                        + describeBatchProgress(job, now / 1000));
+
+                    if ("completed".equals(job.getStatus())) {
+                        if (!hasResultFiles(job)) {
+                            abandonWatchedBatch(conn, taskName, batchId,
+                                "el batch no tiene output_file_id ni error_file_id");
+                            nextPollAt.remove(batchId);
+                        } else if (completeWatchedBatch(conn, apiKey, taskId, taskName, batchId, job)) {
+                            downloadAttempts.remove(batchId);
+                        } else if (downloadAttempts.merge(batchId, 1, Integer::sum) >= maxDownloadAttempts) {
+                            abandonWatchedBatch(conn, taskName, batchId,
+                                "no se pudieron descargar los resultados tras " + maxDownloadAttempts + " intentos");
+                            nextPollAt.remove(batchId);
+                            downloadAttempts.remove(batchId);
+                        } else {
+                            nextPollAt.put(batchId, now + retryDelayMillis);
+                        }
+                    } else if (BatchPollingPolicy.isTerminal(job.getStatus())) {
+                        System.out.println("✗ El batch de " + taskName + " ha terminado con estado " + job.getStatus());
+                        nextPollAt.remove(batchId);
+                    } else {
+                        nextPollAt.put(batchId, now + pollingPolicy.nextPollDelay(job, now / 1000).toMillis());
+                    }
+                }
+
+                long nextWakeUp = inFlight.stream()
+                    .mapToLong(batch -> nextPollAt.getOrDefault(batch.batchId, 0L))
+                    .min()
+                    .orElse(now);
+                Thread.sleep(Math.max(1000, nextWakeUp - System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * Batch de OpenAI en curso vigilado por 'watch'.
+     */
+    private static class WatchedBatch {
+        final String batchId;
+        final int taskId;
+        final String taskName;
+
+        WatchedBatch(String batchId, int taskId, String taskName) {
+            this.batchId = batchId;
+            this.taskId = taskId;
+            this.taskName = taskName;
+        }
+    }
+
+    /**
+     * Devuelve los batches de OpenAI cuyos resultados aún no se han descargado.
+     */
+    private static List<WatchedBatch> findInFlightBatches(Connection conn) throws SQLException {
+        List<WatchedBatch> batches = new ArrayList<>();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT DISTINCT s.batch_id, s.task_id, t.name " +
+            "FROM submissions s " +
+            "JOIN tasks t ON s.task_id = t.id " +
+            "WHERE s.batch_id IS NOT NULL AND s.status IN ('pending', 'processing', 'completed')"
+        );
+        while (rs.next()) {
+            String batchId = rs.getString("batch_id");
+            if (!batchId.startsWith(BatchResults.LOCAL_BATCH_PREFIX)) {
+                batches.add(new WatchedBatch(batchId, rs.getInt("task_id"), rs.getString("name")));
+            }
+        }
+        rs.close();
+        stmt.close();
+        return batches;
+    }
+
+    /**
+     * Descarga y empaqueta un batch completado durante 'watch'.
+     * @return true si se descargó; si falla se volverá a intentar en el siguiente ciclo
+     */
+    private static boolean completeWatchedBatch(Connection conn, String apiKey, int taskId, String taskName,
+                                                String batchId, BatchJob job) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("✓ Batch de " + taskName + " completado");
+        try {
+            if (!downloadBatchResults(conn, apiKey, taskId, taskName, batchId, job)) {
+                return false;
+            }
+            // Si se ha creado un batch de reintento, se empaqueta cuando termine
+            if (findInFlightBatches(conn).stream().anyMatch(batch -> batch.taskId == taskId)) {
+                System.out.println("=".repeat(60) + "\n");
+                return true;
+            }
+        } catch (Exception e) {
+            System.err.println("Error al descargar los resultados de " + taskName + ": " + e.getMessage());
+            return false;
+        }
+
+        try {
+            packageTask(conn, taskId, taskName, AppConfig.getPackageLayout());
+        } catch (Exception e) {
+            // Los resultados ya están descargados: se puede reintentar con 'package'
+            System.err.println("Error al generar el paquete de feedback de " + taskName + ": " + e.getMessage());
+        }
+        System.out.println("=".repeat(60) + "\n");
+        return true;
+    }
+
+    private static boolean hasResultFiles(BatchJob job) {
+        return (job.getOutputFileId() != null && !job.getOutputFileId().isEmpty())
+            || (job.getErrorFileId() != null && !job.getErrorFileId().isEmpty());
+    }
+
+    /**
+     * Deja de vigilar un batch completado cuyos resultados no se pueden descargar: sus entregas
+     * pendientes pasan a 'failed' para que 'watch' no lo vuelva a consultar.
+     */
+    private static void abandonWatchedBatch(Connection conn, String taskName, String batchId, String reason)
+            throws SQLException {
+        int failed;
+        try (PreparedStatement updateStmt = conn.prepareStatement(
+                "UPDATE submissions SET status = 'failed', updated_at = ? WHERE batch_id = ? " +
+                "AND status IN ('pending', 'processing', 'completed')")) {
+            updateStmt.setLong(1, System.currentTimeMillis() / 1000);
+            updateStmt.setString(2, batchId);
+            failed = updateStmt.executeUpdate();
+        }
+        System.err.println("✗ Se deja de vigilar el batch " + batchId + " de " + taskName + ": " + reason);
+        System.err.println("  Entregas marcadas como fallidas: " + failed
+            + ". Usa 'process <tarea>' para reenviarlas.");
+    }
+
+    /**
+     * Describe el estado de un batch con su progreso y el tiempo restante estimado.
+     */
+    private static String describeBatchProgress(BatchJob job, long nowEpochSeconds) {
+        StringBuilder sb = new StringBuilder(job.getStatus());
+        BatchJob.RequestCounts counts = job.getRequestCounts();
+        if (counts != null && counts.getTotal() > 0) {
+            sb.append(" (").append(counts.getCompleted() + counts.getFailed())
+              .append("/").append(counts.getTotal()).append(")");
+        }
+        Long remaining = BatchPollingPolicy.estimateSecondsRemaining(job, nowEpochSeconds);
+        if ("in_progress".equals(job.getStatus()) && remaining != null) {
+            sb.append(", quedan ~").append(Math.max(1, (remaining + 59) / 60)).append(" min");
+        }
+        return sb.toString();
+    }
+
     // Método auxiliar: mapear estado de OpenAI a estado de submission
     private static String mapBatchStatusToSubmissionStatus(String batchStatus) {
         switch (batchStatus) {
@@ -1359,11 +1762,11 @@ public class App {
     }
 
     // Comando: download [numero_tarea]
-    private static void downloadCommand(Integer taskNumber) throws SQLException, IOException {
+    private static void downloadCommand(String taskRef) throws SQLException, IOException {
         // Verificar API key
         String apiKey = dotenv.get("OPENAI_API_KEY");
         if (apiKey == null || apiKey.isEmpty()) {
-            System.err.println("Error: La variable de entorno OPENAI_API_KEY no está configurada.");
+            UIUtils.printError("La variable de entorno OPENAI_API_KEY no está configurada.");
             System.err.println("Por favor, configura tu API key de OpenAI en el archivo .env o como variable de entorno del sistema.");
             return;
         }
@@ -1373,12 +1776,13 @@ public class App {
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
             String batchId;
             String taskName;
+            int taskId;
 
-            if (taskNumber == null) {
+            if (taskRef == null) {
                 // Sin parámetro: obtener el batch más reciente de TODAS las tareas
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(
-                    "SELECT DISTINCT s.batch_id, t.name " +
+                    "SELECT DISTINCT s.batch_id, s.task_id, t.name " +
                     "FROM submissions s " +
                     "JOIN tasks t ON s.task_id = t.id " +
                     "WHERE s.batch_id IS NOT NULL " +
@@ -1392,37 +1796,20 @@ public class App {
                 }
 
                 batchId = rs.getString("batch_id");
+                taskId = rs.getInt("task_id");
                 taskName = rs.getString("name");
             } else {
                 // Con parámetro: obtener el batch de la tarea específica
-                // Primero, obtener el task_id real y el nombre por número de lista
-                Statement stmt = conn.createStatement();
-                ResultSet tasksRs = stmt.executeQuery(
-                    "SELECT id, name FROM tasks ORDER BY created_at DESC"
-                );
-
-                int currentNumber = 0;
-                int realTaskId = -1;
-                String foundTaskName = null;
-                boolean found = false;
-
-                while (tasksRs.next()) {
-                    currentNumber++;
-                    if (currentNumber == taskNumber) {
-                        realTaskId = tasksRs.getInt("id");
-                        foundTaskName = tasksRs.getString("name");
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    System.err.println("Error: No existe la tarea número " + taskNumber);
+                // Primero, obtener el task_id real y el nombre (número de lista, id:<id> o moodle:<id>)
+                TaskResolver.ResolvedTask task = new TaskResolver(conn).resolve(taskRef);
+                if (task == null) {
+                    UIUtils.printError("No existe la tarea " + taskRef);
                     System.err.println("Usa 'status' sin argumentos para ver las tareas disponibles.");
                     return;
                 }
 
-                taskName = foundTaskName;
+                int realTaskId = task.getId();
+                taskName = task.getName();
 
                 // Ahora obtener el batch_id de esa tarea
                 PreparedStatement batchStmt = conn.prepareStatement(
@@ -1432,21 +1819,31 @@ public class App {
                 ResultSet batchRs = batchStmt.executeQuery();
 
                 if (!batchRs.next()) {
-                    System.out.println("La tarea #" + taskNumber + " no tiene batches procesados.");
-                    System.out.println("Ejecuta 'process " + taskNumber + "' primero para enviar entregas a OpenAI.");
+                    System.out.println("La tarea #" + taskRef + " no tiene batches procesados.");
+                    System.out.println("Ejecuta 'process " + taskRef + "' primero para enviar entregas a OpenAI.");
                     return;
                 }
 
                 batchId = batchRs.getString("batch_id");
+                taskId = realTaskId;
                 batchRs.close();
                 batchStmt.close();
             }
             System.out.println("Batch ID: " + batchId);
 
+            if (batchId.startsWith(BatchResults.LOCAL_BATCH_PREFIX)) {
+                System.out.println("\nEsta tarea se resolvió sin batch en OpenAI (caché o modo interactivo); no hay nada que descargar.");
+                System.out.println("Usa 'package' para generar el ZIP de feedback");
+                return;
+            }
+
             try {
                 // Consultar estado del batch
                 OpenAIBatchProcess batchProcess = new OpenAIBatchProcess(apiKey);
-                BatchJob job = batchProcess.getBatchJob(batchId);
+                BatchJob job;
+                try (MetricsRegistry.Sample sample = metrics.start("poll")) {
+                    job = batchProcess.getBatchJob(batchId);
+                }
 
                 System.out.println("Estado del batch: " + job.getStatus());
 
@@ -1457,75 +1854,127 @@ public class App {
                     return;
                 }
 
-                String outputFileId = job.getOutputFileId();
-                if (outputFileId == null || outputFileId.isEmpty()) {
-                    System.err.println("Error: No se encontró output_file_id en el batch.");
-                    return;
+                downloadBatchResults(conn, apiKey, taskId, taskName, batchId, job);
+
+            } catch (OpenAIAPIException e) {
+                System.err.println("Error al consultar/descargar desde OpenAI API: " + e.getMessage());
+                throw new IOException("Error en API de OpenAI", e);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al acceder a la base de datos: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Descarga los resultados de un batch completado en el directorio de la tarea, los guarda en la
+     * caché de respuestas y marca las entregas como 'downloaded'.
+     * @return true si el archivo de resultados se descargó correctamente
+     */
+    private static boolean downloadBatchResults(Connection conn, String apiKey, int taskId, String taskName,
+                                                String batchId, BatchJob job)
+            throws SQLException, IOException, OpenAIAPIException {
+        String outputFileId = job.getOutputFileId();
+        String errorFileId = job.getErrorFileId();
+        if ((outputFileId == null || outputFileId.isEmpty()) && (errorFileId == null || errorFileId.isEmpty())) {
+            UIUtils.printError("No se encontró output_file_id ni error_file_id en el batch.");
+            return false;
+        }
+
+        DatabaseUtils.migrateDatabase(conn);
+
+        // Descargar los archivos del batch en el directorio de la tarea
+        String workDir = getWorkingDirectory();
+        Path taskDir = Paths.get(workDir).resolve(taskName);
+        File responsesFile = taskDir.resolve("assessment_responses.jsonl").toFile();
+        File errorsFile = taskDir.resolve("assessment_errors.jsonl").toFile();
+        File batchOutputFile = taskDir.resolve("batch_output.jsonl").toFile();
+        Set<String> failedIds = new LinkedHashSet<>();
+
+        // Usar try-with-resources para cerrar el cliente OkHttp
+        try (OpenAIFileManagement fileManager = new OpenAIFileManagement(apiKey)) {
+            if (errorFileId != null && !errorFileId.isEmpty()) {
+                System.out.println("Error File ID: " + errorFileId);
+                System.out.println("\nDescargando archivo de errores...");
+                try (MetricsRegistry.Sample sample = metrics.start("download")) {
+                    fileManager.downloadFile(errorFileId, errorsFile.getPath());
                 }
+                failedIds.addAll(BatchRetry.readFailedCustomIds(errorsFile));
+            }
 
+            if (outputFileId != null && !outputFileId.isEmpty()) {
                 System.out.println("Output File ID: " + outputFileId);
-
-                // Descargar el archivo de resultados en el directorio de la tarea
-                String workDir = getWorkingDirectory();
-                Path taskDir = Paths.get(workDir).resolve(taskName);
-                String outputFileName = "assessment_responses.jsonl";
-                String outputFilePath = taskDir.resolve(outputFileName).toString();
                 System.out.println("\nDescargando archivo de resultados...");
-                System.out.println("Destino: " + outputFilePath);
-
-                // Usar try-with-resources para cerrar el cliente OkHttp
-                try (OpenAIFileManagement fileManager = new OpenAIFileManagement(apiKey)) {
-                    fileManager.downloadFile(outputFileId, outputFilePath);
+                try (MetricsRegistry.Sample sample = metrics.start("download")) {
+                    fileManager.downloadFile(outputFileId, batchOutputFile.getPath());
                 }
+                // Las respuestas de un batch de reintento se añaden a las ya descargadas
+                int merged = BatchRetry.mergeResponses(batchOutputFile, responsesFile, failedIds);
+                Files.delete(batchOutputFile.toPath());
+                System.out.println("✓ Respuestas descargadas: " + merged);
+            }
+        }
 
-                System.out.println("✓ Archivo descargado: " + outputFilePath);
+        System.out.println("Destino: " + responsesFile.getPath());
 
-                // Verificar que el archivo se descargó correctamente
-                File downloadedFile = new File(outputFilePath);
-                if (downloadedFile.exists() && downloadedFile.length() > 0) {
-                    long fileSize = downloadedFile.length();
-                    System.out.println("Tamaño del archivo: " + fileSize + " bytes");
+        // Guardar las respuestas en la caché y añadir las entregas servidas desde ella
+        if (AppConfig.isResponseCacheEnabled()) {
+            ResponseCache responseCache = new ResponseCache(conn, AppConfig.getResponseCacheDigest());
+            // Las entregas idénticas a una petición fallida fallan con ella y se completan con su reintento
+            if (!failedIds.isEmpty()) {
+                failedIds.addAll(responseCache.evictFailed(taskId, failedIds));
+            }
+            if (responsesFile.exists()) {
+                int stored = responseCache.storeBatchResults(taskId, responsesFile);
+                int materialised = responseCache.materialiseCachedResults(taskId, responsesFile);
+                System.out.println("Respuestas guardadas en caché: " + stored);
+                if (materialised > 0) {
+                    System.out.println("Respuestas añadidas desde la caché: " + materialised);
+                }
+            }
+        }
 
-                    // Actualizar estado en la base de datos
-                    PreparedStatement updateStmt = conn.prepareStatement(
-                        "UPDATE submissions SET status = ? WHERE batch_id = ?"
-                    );
-                    updateStmt.setString(1, "downloaded");
-                    updateStmt.setString(2, batchId);
-                    int updated = updateStmt.executeUpdate();
+        if (responsesFile.exists()) {
+            BatchResults.importResults(conn, taskId, responsesFile, metrics);
+        }
 
-                    if (updated > 0) {
-                        System.out.println("\nEstado actualizado en la base de datos: downloaded");
-                    }
+        // Actualizar estado en la base de datos (las entregas ya descargadas o fallidas no cambian)
+        PreparedStatement updateStmt = conn.prepareStatement(
+            "UPDATE submissions SET status = ? WHERE batch_id = ? AND status IN ('pending', 'processing', 'completed')"
+        );
+        updateStmt.setString(1, "downloaded");
+        updateStmt.setString(2, batchId);
+        int updated = updateStmt.executeUpdate();
+        updateStmt.close();
 
-                    System.out.println("\n" + "=".repeat(60));
-                    System.out.println("✓ Descarga completada exitosamente");
-                    System.out.println("\nPróximos pasos:");
-                    System.out.println("  - Usa 'package' para generar el ZIP de feedback");
-                } else {
-                    System.err.println("\nError: El archivo descargado está vacío o no existe.");
-                }
+        if (updated > 0) {
+            System.out.println("\nEstado actualizado en la base de datos: downloaded");
+        }
 
-            } catch (OpenAIAPIException e) {
-                System.err.println("Error al consultar/descargar desde OpenAI API: " + e.getMessage());
-                throw new IOException("Error en API de OpenAI", e);
-            }
+        boolean retrying = !failedIds.isEmpty()
+            && BatchResults.retryFailedRequests(conn, apiKey, taskId, taskDir, batchId, failedIds, metrics);
 
-        } catch (SQLException e) {
-            System.err.println("Error al acceder a la base de datos: " + e.getMessage());
-            throw e;
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("✓ Descarga completada exitosamente");
+        System.out.println("\nPróximos pasos:");
+        if (retrying) {
+            System.out.println("  - Usa 'check' o 'watch' para seguir el batch de reintento");
+        } else {
+            System.out.println("  - Usa 'package' para generar el ZIP de feedback");
         }
+        return true;
     }
 
     // Comando: package [numero_tarea]
-    private static void packageCommand(Integer taskNumber) throws SQLException, IOException {
+    private static void packageCommand(String taskRef, ZipFeedbackPackager.Layout layout) throws SQLException, IOException {
         System.out.println("Generando paquete de feedback...\n");
 
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
             String taskName;
             int taskId;
 
-            if (taskNumber == null) {
+            if (taskRef == null) {
                 // Obtener la tarea más reciente con batch
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(
@@ -1545,177 +1994,156 @@ public class App {
                 taskId = rs.getInt("id");
                 taskName = rs.getString("name");
             } else {
-                // Obtener la tarea específica por número
-                Statement stmt = conn.createStatement();
-                ResultSet tasksRs = stmt.executeQuery(
-                    "SELECT id, name FROM tasks ORDER BY created_at DESC"
-                );
-
-                int currentNumber = 0;
-                String foundTaskName = null;
-                int foundTaskId = -1;
-                boolean found = false;
-
-                while (tasksRs.next()) {
-                    currentNumber++;
-                    if (currentNumber == taskNumber) {
-                        foundTaskId = tasksRs.getInt("id");
-                        foundTaskName = tasksRs.getString("name");
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    System.err.println("Error: No existe la tarea número " + taskNumber);
+                // Obtener la tarea específica (número de lista, id:<id> o moodle:<id>)
+                TaskResolver.ResolvedTask task = new TaskResolver(conn).resolve(taskRef);
+                if (task == null) {
+                    UIUtils.printError("No existe la tarea " + taskRef);
                     System.err.println("Usa 'status' sin argumentos para ver las tareas disponibles.");
                     return;
                 }
 
-                taskId = foundTaskId;
-                taskName = foundTaskName;
+                taskId = task.getId();
+                taskName = task.getName();
             }
 
-            String workDir = getWorkingDirectory();
-            Path taskDir = Paths.get(workDir).resolve(taskName);
-            String idMapFile = "submission_id_map.json";
-            String responsesFile = "assessment_responses.jsonl";
-            String zipFileName = "feedback.zip";
+            packageTask(conn, taskId, taskName, layout);
 
-            // Verificar que existen los archivos necesarios en el directorio de la tarea
-            File idMapFileObj = taskDir.resolve(idMapFile).toFile();
-            File responsesFileObj = taskDir.resolve(responsesFile).toFile();
-
-            if (!idMapFileObj.exists()) {
-                System.err.println("Error: No se encontró el archivo " + idMapFile);
-                System.err.println("Ruta esperada: " + idMapFileObj.getAbsolutePath());
-                System.err.println("Asegúrate de haber ejecutado 'process' primero.");
-                return;
-            }
+        } catch (Exception e) {
+            System.err.println("Error al generar el paquete de feedback: " + e.getMessage());
+            e.printStackTrace();
+            throw new IOException("Error generando feedback ZIP", e);
+        }
+    }
 
+    /**
+     * Genera el ZIP de feedback de una tarea a partir del feedback importado en la base de datos
+     * y marca sus entregas como 'packaged'.
+     * Con el formato MOODLE el ZIP contiene una carpeta por participante con el feedback en HTML,
+     * lista para "Subir varios archivos de retroalimentación en un ZIP".
+     * @return true si el ZIP se generó correctamente
+     */
+    private static boolean packageTask(Connection conn, int taskId, String taskName,
+            ZipFeedbackPackager.Layout layout) throws Exception {
+        String workDir = getWorkingDirectory();
+        Path taskDir = Paths.get(workDir).resolve(taskName);
+        String responsesFile = "assessment_responses.jsonl";
+        boolean moodle = layout == ZipFeedbackPackager.Layout.MOODLE;
+        String zipFileName = moodle ? "moodle_feedback.zip" : "feedback.zip";
+
+        // El feedback se lee de la base de datos; las tareas descargadas antes de importarlo
+        // se importan ahora desde el archivo de respuestas
+        DatabaseUtils.migrateDatabase(conn);
+        int feedbackCount = BatchResults.countSubmissionsWithFeedback(conn, taskId);
+        if (feedbackCount == 0) {
+            File responsesFileObj = taskDir.resolve(responsesFile).toFile();
             if (!responsesFileObj.exists()) {
-                System.err.println("Error: No se encontró el archivo " + responsesFile);
+                UIUtils.printError("No hay feedback importado ni se encontró el archivo " + responsesFile);
                 System.err.println("Ruta esperada: " + responsesFileObj.getAbsolutePath());
                 System.err.println("Ejecuta 'download' primero para descargar los resultados de OpenAI.");
-                return;
+                return false;
             }
+            feedbackCount = BatchResults.importResults(conn, taskId, responsesFileObj, metrics);
+        }
 
-            System.out.println("Archivos encontrados:");
-            System.out.println("  - " + idMapFile + " (" + idMapFileObj.length() + " bytes)");
-            System.out.println("  - " + responsesFile + " (" + responsesFileObj.length() + " bytes)");
+        System.out.println("Entregas con feedback: " + feedbackCount);
 
-            // Usar ZipFeedbackPackager para generar el ZIP
-            System.out.println("\nGenerando ZIP de feedback...");
-            ZipFeedbackPackager packager = new ZipFeedbackPackager(
-                taskDir.toString(),
-                idMapFile,
-                responsesFile,
-                zipFileName
-            );
-            packager.generateFeedbackZip();
+        // Usar ZipFeedbackPackager para generar el ZIP
+        System.out.println("\nGenerando ZIP de feedback...");
+        ZipFeedbackPackager packager = new ZipFeedbackPackager(
+            conn,
+            taskId,
+            taskDir.toString(),
+            zipFileName
+        );
+        // El renderizado HTML se reparte entre todos los núcleos salvo que se indique otra cosa
+        int defaultThreads = moodle ? Runtime.getRuntime().availableProcessors() : 1;
+        packager.setLayout(layout);
+        packager.setCompressionThreads(Math.max(1, AppConfig.getIntSetting("ZIP_COMPRESSION_THREADS", defaultThreads)));
+        packager.generateFeedbackZip();
+        if (packager.getSkippedCount() > 0) {
+            System.out.println("⚠ " + packager.getSkippedCount() + " entregas sin ID de participante de Moodle no se incluyeron");
+        }
 
-            // Verificar que el ZIP se creó correctamente
-            File zipFile = taskDir.resolve(zipFileName).toFile();
-            if (zipFile.exists() && zipFile.length() > 0) {
-                System.out.println("✓ ZIP generado: " + zipFileName);
-                System.out.println("Tamaño: " + zipFile.length() + " bytes");
+        // Verificar que el ZIP se creó correctamente
+        File zipFile = taskDir.resolve(zipFileName).toFile();
+        if (zipFile.exists() && zipFile.length() > 0) {
+            System.out.println("✓ ZIP generado: " + zipFileName);
+            System.out.println("Tamaño: " + zipFile.length() + " bytes");
 
-                // Actualizar estado en la base de datos usando el taskId que ya tenemos
-                PreparedStatement batchStmt = conn.prepareStatement(
-                    "SELECT DISTINCT batch_id FROM submissions WHERE task_id = ? AND batch_id IS NOT NULL ORDER BY id DESC LIMIT 1"
-                );
-                batchStmt.setInt(1, taskId);
-                ResultSet batchRs = batchStmt.executeQuery();
+            // Actualizar estado en la base de datos usando el taskId que ya tenemos
+            PreparedStatement batchStmt = conn.prepareStatement(
+                "SELECT DISTINCT batch_id FROM submissions WHERE task_id = ? AND batch_id IS NOT NULL ORDER BY id DESC LIMIT 1"
+            );
+            batchStmt.setInt(1, taskId);
+            ResultSet batchRs = batchStmt.executeQuery();
 
-                if (batchRs.next()) {
-                    String batchId = batchRs.getString("batch_id");
+            if (batchRs.next()) {
+                String batchId = batchRs.getString("batch_id");
 
-                    PreparedStatement updateStmt = conn.prepareStatement(
-                        "UPDATE submissions SET status = ? WHERE batch_id = ?"
-                    );
-                    updateStmt.setString(1, "packaged");
-                    updateStmt.setString(2, batchId);
-                    int updated = updateStmt.executeUpdate();
-                    updateStmt.close();
+                // Las entregas que agotaron los reintentos siguen como 'failed'
+                PreparedStatement updateStmt = conn.prepareStatement(
+                    "UPDATE submissions SET status = ? WHERE batch_id = ? AND status <> 'failed'"
+                );
+                updateStmt.setString(1, "packaged");
+                updateStmt.setString(2, batchId);
+                int updated = updateStmt.executeUpdate();
+                updateStmt.close();
 
-                    if (updated > 0) {
-                        System.out.println("\nEstado actualizado en la base de datos: packaged");
-                    }
+                if (updated > 0) {
+                    System.out.println("\nEstado actualizado en la base de datos: packaged");
                 }
-                batchRs.close();
-                batchStmt.close();
-
-                System.out.println("\n" + "=".repeat(60));
-                System.out.println("✓ Paquete de feedback generado exitosamente");
-                System.out.println("\nEl archivo " + zipFileName + " contiene el feedback");
-                System.out.println("en formato Markdown (.md) para cada estudiante.");
+            }
+            batchRs.close();
+            batchStmt.close();
 
+            System.out.println("\n" + "=".repeat(60));
+            System.out.println("✓ Paquete de feedback generado exitosamente");
+            System.out.println("\nEl archivo " + zipFileName + " contiene el feedback");
+            if (moodle) {
+                System.out.println("en formato HTML en una carpeta por participante de Moodle.");
             } else {
-                System.err.println("\nError: El archivo ZIP no se generó correctamente.");
+                System.out.println("en formato Markdown (.md) para cada estudiante.");
             }
-
-        } catch (Exception e) {
-            System.err.println("Error al generar el paquete de feedback: " + e.getMessage());
-            e.printStackTrace();
-            throw new IOException("Error generando feedback ZIP", e);
+            return true;
         }
+
+        System.err.println("\nError: El archivo ZIP no se generó correctamente.");
+        return false;
     }
 
     // Comando: status [numero_tarea]
-    private static void statusCommand(Integer taskNumber) throws SQLException {
-        if (taskNumber == null) {
+    private static void statusCommand(String taskRef) throws SQLException {
+        if (taskRef == null) {
             // Modo lista: mostrar todas las tareas con su estado
             listTasksWithStatus();
         } else {
             // Modo detalle: mostrar detalles de una tarea específica
-            showTaskDetails(taskNumber);
+            showTaskDetails(taskRef);
         }
     }
 
     // Muestra detalles de una tarea específica
-    private static void showTaskDetails(Integer taskNumber) throws SQLException {
+    private static void showTaskDetails(String taskRef) throws SQLException {
         try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + getDatabasePath())) {
-            // Obtener la tarea por número de lista (ordenada por created_at DESC)
-            Statement stmt = conn.createStatement();
-            ResultSet tasksRs = stmt.executeQuery(
-                "SELECT t.id, t.name, t.moodle_task_id, t.grading_config_id, " +
-                "COUNT(DISTINCT s.id) as total_submissions " +
-                "FROM tasks t " +
-                "LEFT JOIN submissions s ON t.id = s.task_id " +
-                "GROUP BY t.id, t.name, t.moodle_task_id, t.grading_config_id " +
-                "ORDER BY t.created_at DESC"
-            );
-
-            // Avanzar hasta el número de tarea especificado
-            int currentNumber = 0;
-            int taskId = -1;
-            String taskName = null;
-            String moodleTaskId = null;
-            int totalSubmissions = 0;
-            boolean found = false;
-
-            while (tasksRs.next()) {
-                currentNumber++;
-                if (currentNumber == taskNumber) {
-                    taskId = tasksRs.getInt("id");
-                    taskName = tasksRs.getString("name");
-                    moodleTaskId = tasksRs.getString("moodle_task_id");
-                    totalSubmissions = tasksRs.getInt("total_submissions");
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found) {
-                System.err.println("Error: No existe la tarea número " + taskNumber);
+            // Obtener la tarea (número de lista, id:<id> o moodle:<id>) y contar solo sus entregas
+            TaskResolver resolver = new TaskResolver(conn);
+            TaskResolver.ResolvedTask task = resolver.resolve(taskRef);
+            if (task == null) {
+                UIUtils.printError("No existe la tarea " + taskRef);
                 System.err.println("Usa 'status' sin argumentos para ver todas las tareas.");
                 return;
             }
 
+            int taskId = task.getId();
+            String taskName = task.getName();
+            String moodleTaskId = task.getMoodleTaskId();
+            int totalSubmissions = resolver.countSubmissions(taskId);
+
             System.out.println("=".repeat(60));
-            System.out.println("DETALLES DE LA TAREA #" + taskNumber);
+            System.out.println("DETALLES DE LA TAREA #" + taskRef);
             System.out.println("=".repeat(60));
             System.out.println("Nombre: " + taskName);
+            System.out.println("ID: " + taskId);
             if (moodleTaskId != null) {
                 System.out.println("Moodle Task ID: " + moodleTaskId);
             }
@@ -1739,6 +2167,7 @@ public class App {
             }
             statsRs.close();
             statsStmt.close();
+            System.out.println("  con feedback importado: " + BatchResults.countSubmissionsWithFeedback(conn, taskId));
 
             // Obtener batch_id si existe
             PreparedStatement batchStmt = conn.prepareStatement(
@@ -1750,7 +2179,7 @@ public class App {
             if (batchRs.next()) {
                 String batchId = batchRs.getString("batch_id");
                 System.out.println("\nBatch ID: " + batchId);
-                System.out.println("\nUsa 'check " + taskNumber + "' para ver el estado del batch");
+                System.out.println("\nUsa 'check " + taskRef + "' para ver el estado del batch");
             }
             batchRs.close();
             batchStmt.close();
@@ -1974,6 +2403,8 @@ public class App {
                 "submission_number INTEGER DEFAULT 1, " +
                 "submission_id TEXT UNIQUE, " +
                 "batch_id TEXT, " +
+                "custom_id TEXT, " +
+                "retry_count INTEGER DEFAULT 0, " +
                 "status TEXT DEFAULT 'pending', " +
                 "feedback TEXT, " +
                 "grade REAL, " +
@@ -1992,6 +2423,7 @@ public class App {
                 "file_name TEXT NOT NULL, " +
                 "file_type TEXT, " +
                 "file_size INTEGER, " +
+                "file_mtime INTEGER, " +
                 "openai_file_id TEXT, " +
                 "is_text_file INTEGER DEFAULT 0, " +
                 "content_extracted TEXT, " +
@@ -2013,32 +2445,7 @@ public class App {
                 "file_id TEXT, " +
                 "batch_id TEXT)");
 
-            // Migración: Añadir campos de caché si no existen
-            try {
-                // Verificar si la columna last_check_timestamp existe en tasks
-                ResultSet columns = conn.getMetaData().getColumns(null, null, "tasks", "last_check_timestamp");
-                if (!columns.next()) {
-                    stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN last_check_timestamp INTEGER");
-                }
-                columns.close();
-
-                columns = conn.getMetaData().getColumns(null, null, "tasks", "cached_batch_status");
-                if (!columns.next()) {
-                    stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN cached_batch_status TEXT");
-                }
-                columns.close();
-
-                // Verificar si la columna updated_at existe en submissions
-                columns = conn.getMetaData().getColumns(null, null, "submissions", "updated_at");
-                if (!columns.next()) {
-                    stmt.executeUpdate("ALTER TABLE submissions ADD COLUMN updated_at INTEGER");
-                }
-                columns.close();
-            } catch (SQLException e) {
-                // Si falla la migración, puede ser que las columnas ya existan
-                // No es crítico, así que solo registramos el error
-                System.err.println("Advertencia: No se pudieron añadir columnas en la migración: " + e.getMessage());
-            }
+            DatabaseUtils.migrateDatabase(conn);
         }
     }
 
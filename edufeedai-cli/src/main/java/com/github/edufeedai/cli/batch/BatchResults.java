@@ -0,0 +1,270 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.batch;
+
+import com.github.edufeedai.BatchResultsImporter;
+import com.github.edufeedai.BatchRetry;
+import com.github.edufeedai.cli.config.AppConfig;
+import com.github.edufeedai.cli.utils.DatabaseUtils;
+import com.github.edufeedai.model.DigestAlgorithm;
+import com.github.edufeedai.model.openai.platform.api.OpenAIBatchProcess;
+import com.github.edufeedai.model.openai.platform.api.OpenAIFileManagement;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Operaciones sobre los resultados de las tareas en la base de datos: custom_id de las entregas,
+ * importación de las respuestas, tareas resueltas sin batch en OpenAI y reintento de las
+ * peticiones fallidas de un batch.
+ */
+public class BatchResults {
+
+    /** Prefijo de los batch_id de tareas resueltas localmente (sin batch en OpenAI). */
+    public static final String LOCAL_BATCH_PREFIX = "local_";
+    /** Hash del nombre del estudiante que identifica cada entrega (custom_id, submission_id_map). */
+    public static final DigestAlgorithm CUSTOM_ID_ALGORITHM = DigestAlgorithm.SHA1;
+    private static final int DEFAULT_BATCH_MAX_RETRIES = 2;
+
+    /**
+     * Calcula el custom_id de una entrega a partir del nombre del estudiante.
+     */
+    public static String customIdFor(String studentName) throws SQLException {
+        try {
+            return CUSTOM_ID_ALGORITHM.create().digest(studentName);
+        } catch (DigestException e) {
+            throw new SQLException("No se pudo calcular el custom_id de " + studentName, e);
+        }
+    }
+
+    /**
+     * Guarda en submissions el custom_id de cada entrega de la tarea: el mismo hash del nombre
+     * del estudiante que usa BatchJSONLGenerator.
+     */
+    public static void assignCustomIds(Connection conn, int taskId) throws SQLException {
+        PreparedStatement selectStmt = conn.prepareStatement(
+            "SELECT id, student_name FROM submissions WHERE task_id = ? AND custom_id IS NULL"
+        );
+        selectStmt.setInt(1, taskId);
+        ResultSet rs = selectStmt.executeQuery();
+
+        PreparedStatement updateStmt = conn.prepareStatement("UPDATE submissions SET custom_id = ? WHERE id = ?");
+        while (rs.next()) {
+            updateStmt.setString(1, customIdFor(rs.getString("student_name")));
+            updateStmt.setInt(2, rs.getInt("id"));
+            updateStmt.executeUpdate();
+        }
+        updateStmt.close();
+        rs.close();
+        selectStmt.close();
+    }
+
+    /**
+     * Devuelve el JSONL generado por 'process' para la tarea (se nombra con el moodle_task_id o el id de la tarea).
+     */
+    public static File getTaskJsonlFile(Connection conn, int taskId, Path taskDir) throws SQLException {
+        String baseName = String.valueOf(taskId);
+        PreparedStatement stmt = conn.prepareStatement("SELECT moodle_task_id FROM tasks WHERE id = ?");
+        stmt.setInt(1, taskId);
+        ResultSet rs = stmt.executeQuery();
+        if (rs.next() && rs.getString("moodle_task_id") != null && !rs.getString("moodle_task_id").isEmpty()) {
+            baseName = rs.getString("moodle_task_id");
+        }
+        rs.close();
+        stmt.close();
+        return taskDir.resolve(baseName + ".jsonl").toFile();
+    }
+
+    /**
+     * Importa las respuestas de assessment_responses.jsonl en la columna feedback de submissions.
+     * @return número de entregas actualizadas
+     */
+    public static int importResults(Connection conn, int taskId, File responsesFile, MetricsRegistry metrics)
+            throws SQLException, IOException {
+        assignCustomIds(conn, taskId);
+        BatchResultsImporter importer = new BatchResultsImporter(conn, taskId);
+        int imported;
+        try (MetricsRegistry.Sample sample = metrics.start("db.write")) {
+            imported = importer.importResults(responsesFile);
+        }
+        System.out.println("Respuestas importadas en la base de datos: " + imported);
+        if (importer.getUnmatchedCount() > 0) {
+            System.out.println("⚠ Respuestas sin entrega asociada: " + importer.getUnmatchedCount());
+        }
+        return imported;
+    }
+
+    /**
+     * Cuenta las entregas de la tarea que ya tienen el feedback importado.
+     */
+    public static int countSubmissionsWithFeedback(Connection conn, int taskId) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(
+            "SELECT COUNT(*) FROM submissions WHERE task_id = ? AND feedback IS NOT NULL"
+        );
+        stmt.setInt(1, taskId);
+        ResultSet rs = stmt.executeQuery();
+        int count = rs.next() ? rs.getInt(1) : 0;
+        rs.close();
+        stmt.close();
+        return count;
+    }
+
+    /**
+     * Cuenta las entregas de la tarea que están en el estado indicado.
+     */
+    public static int countSubmissionsWithStatus(Connection conn, int taskId, String status) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM submissions WHERE task_id = ? AND status = ?")) {
+            stmt.setInt(1, taskId);
+            stmt.setString(2, status);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Registra el resultado de una tarea resuelta sin batch en OpenAI (caché o modo interactivo):
+     * asigna un batch_id local a sus entregas, marca como 'downloaded' las que tienen respuesta en
+     * assessment_responses.jsonl y como 'failed' el resto (las de assessment_errors.jsonl y las que
+     * dependían de ellas en la caché).
+     * @return número de entregas marcadas como 'downloaded'
+     */
+    public static int markLocalResults(Connection conn, int taskId, File responsesFile)
+            throws SQLException, IOException {
+        Set<String> answeredIds = BatchRetry.readCustomIds(responsesFile);
+        String localBatchId = LOCAL_BATCH_PREFIX + (System.currentTimeMillis() / 1000);
+        long now = System.currentTimeMillis() / 1000;
+
+        try (PreparedStatement failStmt = conn.prepareStatement(
+                "UPDATE submissions SET batch_id = ?, status = 'failed', updated_at = ? WHERE task_id = ?");
+             PreparedStatement downloadStmt = conn.prepareStatement(
+                "UPDATE submissions SET status = 'downloaded' WHERE task_id = ? AND custom_id = ?")) {
+            failStmt.setString(1, localBatchId);
+            failStmt.setLong(2, now);
+            failStmt.setInt(3, taskId);
+            failStmt.executeUpdate();
+
+            int updatedRows = 0;
+            for (String customId : answeredIds) {
+                downloadStmt.setInt(1, taskId);
+                downloadStmt.setString(2, customId);
+                updatedRows += downloadStmt.executeUpdate();
+            }
+            return updatedRows;
+        }
+    }
+
+    /**
+     * Marca como fallidas las entregas de las peticiones que han fallado en un batch y crea un batch
+     * de reintento con las que no han superado BATCH_MAX_RETRIES.
+     * @return true si se ha creado un batch de reintento
+     */
+    public static boolean retryFailedRequests(Connection conn, String apiKey, int taskId, Path taskDir,
+                                              String batchId, Set<String> failedIds, MetricsRegistry metrics)
+            throws SQLException, IOException, OpenAIAPIException {
+        System.out.println("\n⚠ Peticiones fallidas en el batch: " + failedIds.size());
+
+        // Las tareas procesadas antes de guardar el custom_id no lo tienen todavía
+        assignCustomIds(conn, taskId);
+
+        int maxRetries = AppConfig.getIntSetting("BATCH_MAX_RETRIES", DEFAULT_BATCH_MAX_RETRIES);
+        Set<String> retryIds = new LinkedHashSet<>();
+        int attempt = 1;
+
+        PreparedStatement failStmt = conn.prepareStatement(
+            "UPDATE submissions SET status = 'failed', updated_at = ? WHERE task_id = ? AND custom_id = ?"
+        );
+        PreparedStatement retryCountStmt = conn.prepareStatement(
+            "SELECT retry_count FROM submissions WHERE task_id = ? AND custom_id = ?"
+        );
+        for (String customId : failedIds) {
+            failStmt.setLong(1, System.currentTimeMillis() / 1000);
+            failStmt.setInt(2, taskId);
+            failStmt.setString(3, customId);
+            failStmt.executeUpdate();
+
+            retryCountStmt.setInt(1, taskId);
+            retryCountStmt.setString(2, customId);
+            ResultSet rs = retryCountStmt.executeQuery();
+            if (rs.next() && rs.getInt("retry_count") < maxRetries) {
+                retryIds.add(customId);
+                attempt = Math.max(attempt, rs.getInt("retry_count") + 1);
+            }
+            rs.close();
+        }
+        failStmt.close();
+        retryCountStmt.close();
+
+        if (retryIds.isEmpty()) {
+            System.out.println("No se reintentan: se ha alcanzado el máximo de " + maxRetries + " reintentos.");
+            System.out.println("Detalles en assessment_errors.jsonl");
+            return false;
+        }
+
+        // El batch de reintento se construye a partir del JSONL original de la tarea
+        File requestsFile = getTaskJsonlFile(conn, taskId, taskDir);
+        String baseName = requestsFile.getName().substring(0, requestsFile.getName().length() - ".jsonl".length());
+        File retryFile = taskDir.resolve(baseName + ".retry" + attempt + ".jsonl").toFile();
+        if (!requestsFile.exists() || BatchRetry.writeRetryJsonl(requestsFile, retryIds, retryFile) == 0) {
+            System.err.println("No se encontraron las peticiones fallidas en " + requestsFile.getName()
+                + "; ejecuta 'process' de nuevo para reenviar la tarea.");
+            return false;
+        }
+
+        System.out.println("Creando batch de reintento " + attempt + " con " + retryIds.size() + " peticiones...");
+        String retryFileId;
+        try (OpenAIFileManagement fileManager = new OpenAIFileManagement(apiKey)) {
+            try (MetricsRegistry.Sample sample = metrics.start("upload")) {
+                retryFileId = BatchUpload.upload(fileManager, retryFile);
+            }
+        }
+        BatchJob retryJob = new OpenAIBatchProcess(apiKey).enqueueBatchProcess(retryFileId);
+
+        // Toda la tarea pasa al nuevo batch para que 'check', 'download' y 'watch' lo encuentren;
+        // solo las entregas reintentadas vuelven a 'processing'
+        long now = System.currentTimeMillis() / 1000;
+        PreparedStatement moveStmt = conn.prepareStatement(
+            "UPDATE submissions SET batch_id = ?, updated_at = ? WHERE task_id = ? AND batch_id = ?"
+        );
+        moveStmt.setString(1, retryJob.getId());
+        moveStmt.setLong(2, now);
+        moveStmt.setInt(3, taskId);
+        moveStmt.setString(4, batchId);
+        moveStmt.executeUpdate();
+        moveStmt.close();
+
+        PreparedStatement retryStmt = conn.prepareStatement(
+            "UPDATE submissions SET status = 'processing', retry_count = retry_count + 1 WHERE task_id = ? AND custom_id = ?"
+        );
+        for (String customId : retryIds) {
+            retryStmt.setInt(1, taskId);
+            retryStmt.setString(2, customId);
+            retryStmt.executeUpdate();
+        }
+        retryStmt.close();
+        DatabaseUtils.updateCachedBatchStatus(conn, taskId, retryJob.getStatus());
+
+        System.out.println("✓ Batch de reintento creado: " + retryJob.getId());
+        if (retryIds.size() < failedIds.size()) {
+            System.out.println("  " + (failedIds.size() - retryIds.size())
+                + " peticiones han alcanzado el máximo de reintentos y quedan como fallidas");
+        }
+        return true;
+    }
+}
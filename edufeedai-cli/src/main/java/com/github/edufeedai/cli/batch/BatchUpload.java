@@ -0,0 +1,54 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.batch;
+
+import com.github.edufeedai.cli.utils.UIUtils;
+import com.github.edufeedai.model.openai.platform.api.OpenAIFileManagement;
+import com.github.edufeedai.model.openai.platform.api.OpenAIMultipartUpload;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+
+import java.io.File;
+
+/**
+ * Sube a OpenAI el JSONL de un batch. Los archivos que superan
+ * {@link OpenAIFileManagement#CHUNKED_UPLOAD_THRESHOLD} se suben por partes y se muestra
+ * el progreso a medida que termina cada parte.
+ */
+public class BatchUpload {
+
+    /**
+     * Sube el archivo y devuelve su file ID.
+     */
+    public static String upload(OpenAIFileManagement fileManager, File file) throws OpenAIAPIException {
+        if (file.length() <= OpenAIFileManagement.CHUNKED_UPLOAD_THRESHOLD) {
+            return fileManager.uploadBatchFile(file);
+        }
+
+        long partSize = OpenAIMultipartUpload.DEFAULT_PART_SIZE;
+        int totalParts = (int) ((file.length() + partSize - 1) / partSize);
+        System.out.println("  " + formatMegabytes(file.length()) + ": se sube en " + totalParts
+            + " partes de " + formatMegabytes(partSize));
+
+        // Las partes terminan en paralelo: se numeran en el orden en que acaban
+        Object lock = new Object();
+        int[] partsDone = { 0 };
+        long[] bytesDone = { 0 };
+        return fileManager.uploadBatchFileInParts(file, (bytesUploaded, totalBytes) -> {
+            synchronized (lock) {
+                partsDone[0]++;
+                bytesDone[0] = Math.max(bytesDone[0], bytesUploaded);
+                System.out.println("  " + UIUtils.createProgressBar(partsDone[0], totalParts)
+                    + " Parte " + partsDone[0] + "/" + totalParts
+                    + " (" + formatMegabytes(bytesDone[0]) + " de " + formatMegabytes(totalBytes) + ")");
+            }
+        });
+    }
+
+    private static String formatMegabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
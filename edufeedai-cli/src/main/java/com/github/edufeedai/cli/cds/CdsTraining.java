@@ -0,0 +1,94 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.cds;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.github.edufeedai.App;
+
+/**
+ * Ejecuta los comandos habituales del CLI sobre un workspace de prueba para entrenar el archivo
+ * AppCDS de la distribución (perfil Maven 'dist'). Se lanza con -XX:ArchiveClassesAtExit, de modo
+ * que al salir la JVM guarda en el archivo todas las clases que han cargado estos comandos.
+ *
+ * Se ejecuta con el directorio de trabajo como workspace. Solo trabaja en un directorio vacío
+ * o creado por una ejecución anterior, porque lo vacía antes de empezar.
+ */
+public class CdsTraining {
+
+    private static final String MARKER_FILE = ".cds-training";
+
+    public static void main(String[] args) throws IOException {
+        Path workspace = Paths.get("").toAbsolutePath();
+        prepareWorkspace(workspace);
+
+        Path zip = workspace.resolve("Tarea de entrenamiento-1.zip");
+        writeFixtureZip(zip);
+
+        run("help");
+        run("init", workspace.toString());
+        run("add", zip.toString());
+        run("status");
+        run("status", "1");
+        run("grading");
+        run("process");
+        run("check");
+        run("check", "1");
+    }
+
+    private static void run(String... args) {
+        System.out.println("\n>>> " + String.join(" ", args));
+        App.main(args);
+    }
+
+    private static void prepareWorkspace(Path workspace) throws IOException {
+        List<Path> contents;
+        try (Stream<Path> entries = Files.list(workspace)) {
+            contents = entries.collect(Collectors.toList());
+        }
+        if (!contents.isEmpty() && !Files.exists(workspace.resolve(MARKER_FILE))) {
+            throw new IllegalStateException("El workspace de entrenamiento no está vacío: " + workspace);
+        }
+        for (Path entry : contents) {
+            try (Stream<Path> paths = Files.walk(entry)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+        Files.createFile(workspace.resolve(MARKER_FILE));
+    }
+
+    /**
+     * ZIP con el formato de una descarga de entregas de Moodle.
+     */
+    private static void writeFixtureZip(Path zip) throws IOException {
+        try (OutputStream out = Files.newOutputStream(zip);
+             ZipOutputStream zipOut = new ZipOutputStream(out)) {
+            for (int i = 1; i <= 3; i++) {
+                String folder = "Alumno " + i + "_" + (100 + i) + "_assignsubmission_file_/";
+                zipOut.putNextEntry(new ZipEntry(folder + "practica.sql"));
+                zipOut.write(("SELECT * FROM alumnos WHERE id = " + i + ";\n").getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+                zipOut.putNextEntry(new ZipEntry(folder + "memoria.txt"));
+                zipOut.write(("Memoria de la práctica del alumno " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+            }
+        }
+    }
+}
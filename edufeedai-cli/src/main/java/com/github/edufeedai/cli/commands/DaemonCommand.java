@@ -0,0 +1,85 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.commands;
+
+import com.github.edufeedai.cli.config.AppConfig;
+import com.github.edufeedai.cli.daemon.DaemonClient;
+import com.github.edufeedai.cli.daemon.DaemonServer;
+import com.github.edufeedai.cli.utils.DatabaseUtils;
+import com.github.edufeedai.cli.utils.UIUtils;
+import com.github.edufeedai.model.FileProcessor;
+import com.github.edufeedai.model.ocrlib.OCROpenCVImagePreprocess;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Comando 'daemon': precarga SQLite, Tika, PDFBox y OpenCV y arranca el servidor residente
+ * que atiende los comandos reenviados desde otras terminales.
+ */
+public class DaemonCommand implements Command {
+
+    private final FileProcessor fileProcessor;
+    private final ToIntFunction<String[]> commandRunner;
+
+    /**
+     * @param fileProcessor procesador de archivos que compartirán los comandos del servidor
+     * @param commandRunner ejecuta un comando reenviado y devuelve su código de salida
+     */
+    public DaemonCommand(FileProcessor fileProcessor, ToIntFunction<String[]> commandRunner) {
+        this.fileProcessor = fileProcessor;
+        this.commandRunner = commandRunner;
+    }
+
+    @Override
+    public void execute(String[] args) throws IOException, SQLException {
+        File dbFile = new File(AppConfig.getDatabasePath());
+        if (!dbFile.exists()) {
+            UIUtils.printError("Workspace no inicializado.");
+            System.err.println("Ejecuta 'init' primero para crear el workspace.");
+            return;
+        }
+
+        Path socketPath = AppConfig.getDaemonSocketPath();
+        if (DaemonClient.isRunning(socketPath)) {
+            UIUtils.printError("Ya hay un servidor residente en marcha en " + socketPath);
+            return;
+        }
+
+        // Precargar lo que cada comando inicializaría por su cuenta
+        System.out.println("Precargando SQLite, Tika, PDFBox y OpenCV...");
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseUtils.getConnection()) {
+            DatabaseUtils.migrateDatabase(conn);
+        }
+        fileProcessor.detectMimeType(dbFile);
+        org.apache.pdfbox.pdmodel.font.FontMappers.instance().getFontBoxFont("Helvetica", null);
+        try {
+            Class.forName(OCROpenCVImagePreprocess.class.getName());
+        } catch (ClassNotFoundException | LinkageError e) {
+            UIUtils.printWarning("OpenCV no disponible: " + e.getMessage());
+        }
+        UIUtils.printSuccess("Listo en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.out.println("Los cambios en el .env no se aplican hasta reiniciar el servidor.\n");
+
+        new DaemonServer(socketPath, commandRunner).serve();
+    }
+
+    @Override
+    public String getName() {
+        return "daemon";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Arranca el servidor residente que atiende add, process, check y status";
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.commands;
+
+import com.github.edufeedai.MetricsStore;
+import com.github.edufeedai.cli.config.AppConfig;
+import com.github.edufeedai.cli.utils.DatabaseUtils;
+import com.github.edufeedai.cli.utils.UIUtils;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comando 'stats [ejecuciones] [comando]': muestra las métricas por etapa de las últimas
+ * ejecuciones guardadas en la base de datos.
+ */
+public class StatsCommand implements Command {
+
+    private static final int DEFAULT_RUN_COUNT = 20;
+
+    @Override
+    public void execute(String[] args) throws SQLException {
+        int runCount = DEFAULT_RUN_COUNT;
+        if (args.length >= 1) {
+            try {
+                runCount = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                UIUtils.printError("El número de ejecuciones debe ser un número entero.");
+                return;
+            }
+        }
+        String command = args.length >= 2 ? args[1] : null;
+
+        File dbFile = new File(AppConfig.getDatabasePath());
+        if (!dbFile.exists()) {
+            UIUtils.printError("Workspace no inicializado.");
+            System.err.println("Ejecuta 'init' primero para crear el workspace.");
+            return;
+        }
+
+        try (Connection conn = DatabaseUtils.getConnection()) {
+            MetricsStore store = new MetricsStore(conn);
+            List<MetricsStore.Run> runs = store.listRuns(runCount, command);
+            if (runs.isEmpty()) {
+                System.out.println("No hay métricas registradas" + (command != null ? " de '" + command + "'" : "") + ".");
+                System.out.println("Se registran al ejecutar add, process, check, download, package y watch.");
+                return;
+            }
+
+            // Las ejecuciones se agregan: los percentiles salen de los histogramas combinados
+            MetricsRegistry merged = store.load(runs);
+            long wallNanos = 0;
+            for (MetricsStore.Run run : runs) {
+                wallNanos += run.getDurationNanos();
+            }
+
+            System.out.println("=== Métricas del pipeline ===\n");
+            System.out.println("Ejecuciones: " + runs.size() + " (tiempo total " + formatDuration(wallNanos) + ")");
+            for (MetricsStore.Run run : runs) {
+                System.out.printf("  #%-5d %-14s %s  %s%n", run.getId(), run.getCommand(),
+                    UIUtils.formatTimestamp(run.getStartedAt()), formatDuration(run.getDurationNanos()));
+            }
+
+            // Etapas ordenadas por tiempo total: la primera es la que más conviene escalar
+            List<Map.Entry<String, MetricsRegistry.Timer>> stages = new ArrayList<>(merged.getTimers().entrySet());
+            stages.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+
+            System.out.println();
+            System.out.printf("%-18s %7s %10s %7s %9s %10s %10s %10s %10s%n",
+                "Etapa", "Ops", "Total", "% Tiempo", "Ops/s", "p50", "p95", "p99", "Máx");
+            System.out.println("-".repeat(100));
+            for (Map.Entry<String, MetricsRegistry.Timer> stage : stages) {
+                MetricsRegistry.Timer timer = stage.getValue();
+                double seconds = timer.getTotalNanos() / 1e9;
+                System.out.printf("%-18s %7d %10s %7.1f%% %9.1f %10s %10s %10s %10s%n",
+                    stage.getKey(),
+                    timer.getCount(),
+                    formatDuration(timer.getTotalNanos()),
+                    wallNanos > 0 ? 100.0 * timer.getTotalNanos() / wallNanos : 0.0,
+                    seconds > 0 ? timer.getCount() / seconds : 0.0,
+                    formatDuration(timer.percentile(50)),
+                    formatDuration(timer.percentile(95)),
+                    formatDuration(timer.percentile(99)),
+                    formatDuration(timer.getMaxNanos()));
+            }
+            System.out.println("\n% Tiempo es relativo a la duración de las ejecuciones; algunas etapas incluyen a otras");
+            System.out.println("(ingest.submission incluye su db.write), así que la suma puede superar el 100%.");
+            System.out.println("Ops/s es el rendimiento de la etapa mientras se ejecuta.");
+
+            Map<String, Long> counters = merged.getCounters();
+            if (!counters.isEmpty()) {
+                System.out.println("\nContadores:");
+                for (Map.Entry<String, Long> counter : counters.entrySet()) {
+                    System.out.printf("  %-18s %d%n", counter.getKey(), counter.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "stats";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Muestra las métricas por etapa de las últimas ejecuciones";
+    }
+
+    private static String formatDuration(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.0f µs", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.commands;
+
+import com.github.edufeedai.MetricsStore;
+import com.github.edufeedai.cli.config.AppConfig;
+import com.github.edufeedai.cli.ingest.SubmissionExtractor;
+import com.github.edufeedai.cli.utils.DatabaseUtils;
+import com.github.edufeedai.cli.utils.FileUtils;
+import com.github.edufeedai.cli.utils.UIUtils;
+import com.github.edufeedai.model.FileProcessor;
+import com.github.edufeedai.utils.DebouncedDirectoryWatcher;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Comando 'watch --files': vigila el workspace e ingiere los ZIP de Moodle que se copian en él
+ * y las carpetas de entrega que se modifican, sin enviar nada a OpenAI.
+ */
+public class WatchFilesCommand implements Command {
+
+    private final FileProcessor fileProcessor;
+    private MetricsRegistry metrics = new MetricsRegistry();
+    private SubmissionExtractor extractor;
+
+    /**
+     * @param fileProcessor procesador de archivos compartido (en el servidor residente, ya inicializado)
+     */
+    public WatchFilesCommand(FileProcessor fileProcessor) {
+        this.fileProcessor = fileProcessor;
+    }
+
+    @Override
+    public void execute(String[] args) throws IOException, SQLException {
+        File dbFile = new File(AppConfig.getDatabasePath());
+        if (!dbFile.exists()) {
+            UIUtils.printError("Workspace no inicializado.");
+            System.err.println("Ejecuta 'init' primero para crear el workspace.");
+            return;
+        }
+
+        String workDir = AppConfig.getWorkingDirectory();
+        Path workDirPath = Paths.get(workDir).toAbsolutePath().normalize();
+        Duration quietPeriod = Duration.ofSeconds(AppConfig.getIntSetting("WATCH_DEBOUNCE", 2));
+
+        // Los directorios ocultos (.edufeedai con la base de datos y los originales de OCR) no se vigilan
+        try (Connection conn = DatabaseUtils.getConnection();
+             DebouncedDirectoryWatcher watcher = new DebouncedDirectoryWatcher(workDirPath, quietPeriod,
+                 dir -> !dir.getFileName().toString().startsWith("."))) {
+            DatabaseUtils.migrateDatabase(conn);
+
+            System.out.println("Vigilando " + workDirPath + " (Ctrl+C para salir)...");
+            System.out.println("Copia un ZIP de Moodle o modifica la carpeta de una entrega para ingerirla.\n");
+
+            watcher.run(changedPaths -> {
+                // Cada lote de cambios se guarda como una ejecución en las métricas ('stats')
+                metrics = new MetricsRegistry();
+                fileProcessor.setMetrics(metrics);
+                extractor = new SubmissionExtractor(fileProcessor, metrics, workDir);
+                long startedAt = System.currentTimeMillis() / 1000;
+                long startNanos = System.nanoTime();
+                try {
+                    ingestChangedPaths(conn, workDirPath, changedPaths);
+                } catch (SQLException | IOException e) {
+                    System.err.println("✗ Error ingiriendo los cambios: " + e.getMessage());
+                }
+                saveMetrics(conn, startedAt, System.nanoTime() - startNanos);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "watch --files";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Vigila el workspace e ingiere los ZIP nuevos y las entregas modificadas";
+    }
+
+    /**
+     * Guarda las métricas de un lote de cambios, si ha registrado alguna.
+     */
+    private void saveMetrics(Connection conn, long startedAt, long durationNanos) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        try {
+            new MetricsStore(conn).saveRun(getName(), startedAt, durationNanos, metrics);
+        } catch (SQLException e) {
+            System.err.println("Advertencia: No se pudieron guardar las métricas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ingiere un lote de rutas cambiadas: los ZIP de la raíz del workspace se añaden como tareas
+     * y las carpetas de entrega modificadas se vuelven a extraer. El resto de rutas se ignoran.
+     */
+    private void ingestChangedPaths(Connection conn, Path workDirPath, Set<Path> changedPaths)
+            throws SQLException, IOException {
+        // Entregas afectadas, agrupadas por tarea
+        Map<String, Set<String>> changedSubmissions = new HashMap<>();
+
+        for (Path path : changedPaths) {
+            if (path.equals(workDirPath)) {
+                // Se han perdido eventos: revisar todas las entregas conocidas
+                for (Map.Entry<String, Set<String>> task : listKnownSubmissions(conn).entrySet()) {
+                    changedSubmissions.computeIfAbsent(task.getKey(), k -> new LinkedHashSet<>())
+                        .addAll(task.getValue());
+                }
+                continue;
+            }
+
+            Path relative = workDirPath.relativize(path);
+            if (!isWatchedPath(relative)) {
+                continue;
+            }
+
+            if (relative.getNameCount() == 1) {
+                if (relative.toString().toLowerCase().endsWith(".zip") && Files.isRegularFile(path)) {
+                    ingestZip(conn, workDirPath, path);
+                }
+                continue;
+            }
+
+            // Los archivos sueltos de la carpeta de la tarea son salidas de EduFeedAI, no entregas
+            if (relative.getNameCount() == 2 && !Files.isDirectory(path)) {
+                continue;
+            }
+
+            changedSubmissions.computeIfAbsent(relative.getName(0).toString(), k -> new LinkedHashSet<>())
+                .add(relative.getName(1).toString());
+        }
+
+        for (Map.Entry<String, Set<String>> task : changedSubmissions.entrySet()) {
+            int taskId;
+            String moodleTaskId;
+            try (PreparedStatement taskStmt = conn.prepareStatement(
+                    "SELECT id, moodle_task_id FROM tasks WHERE name = ?")) {
+                taskStmt.setString(1, task.getKey());
+                try (ResultSet taskRs = taskStmt.executeQuery()) {
+                    if (!taskRs.next()) {
+                        // Carpeta que no corresponde a ninguna tarea
+                        continue;
+                    }
+                    taskId = taskRs.getInt("id");
+                    moodleTaskId = taskRs.getString("moodle_task_id");
+                }
+            }
+
+            int updated = 0;
+            for (String studentName : task.getValue()) {
+                if (extractor.syncSubmission(conn, workDirPath.resolve(task.getKey()), taskId,
+                        moodleTaskId, studentName)) {
+                    updated++;
+                }
+            }
+            if (updated > 0) {
+                System.out.println("[" + UIUtils.formatTimestamp(System.currentTimeMillis() / 1000) + "] "
+                    + task.getKey() + ": " + updated + " entregas actualizadas (usa 'process' para enviarlas)\n");
+            }
+        }
+    }
+
+    /**
+     * Indica si una ruta relativa al workspace puede contener entregas: se excluyen los archivos
+     * y carpetas ocultos y los temporales que se están escribiendo.
+     */
+    private static boolean isWatchedPath(Path relative) {
+        for (Path name : relative) {
+            if (name.toString().startsWith(".")) {
+                return false;
+            }
+        }
+        String fileName = relative.getFileName().toString();
+        return !fileName.endsWith(".tmp") && !fileName.endsWith("~");
+    }
+
+    /**
+     * Devuelve los nombres de las entregas registradas, agrupados por nombre de tarea.
+     */
+    private Map<String, Set<String>> listKnownSubmissions(Connection conn) throws SQLException {
+        Map<String, Set<String>> submissions = new HashMap<>();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT t.name, s.student_name FROM submissions s JOIN tasks t ON s.task_id = t.id"
+        );
+        while (rs.next()) {
+            submissions.computeIfAbsent(rs.getString("name"), k -> new LinkedHashSet<>())
+                .add(rs.getString("student_name"));
+        }
+        stmt.close();
+        return submissions;
+    }
+
+    /**
+     * Añade las entregas de un ZIP sin borrar las existentes: crea la tarea si no existe,
+     * copia las carpetas de los estudiantes sobre las actuales y extrae solo lo que ha cambiado.
+     */
+    private void ingestZip(Connection conn, Path workDirPath, Path zipPath)
+            throws SQLException, IOException {
+        String zipFileName = zipPath.getFileName().toString();
+        String taskName = zipFileName.replaceFirst("[.][^.]+$", "");
+        String moodleTaskId = FileUtils.extractMoodleTaskId(zipFileName);
+
+        System.out.println("[" + UIUtils.formatTimestamp(System.currentTimeMillis() / 1000) + "] Nuevo ZIP: " + zipFileName);
+
+        int taskId = -1;
+        try (PreparedStatement checkStmt = conn.prepareStatement("SELECT id FROM tasks WHERE name = ?")) {
+            checkStmt.setString(1, taskName);
+            try (ResultSet rs = checkStmt.executeQuery()) {
+                if (rs.next()) {
+                    taskId = rs.getInt("id");
+                }
+            }
+        }
+        if (taskId < 0) {
+            try (PreparedStatement insertStmt = conn.prepareStatement(
+                    "INSERT INTO tasks (name, moodle_task_id, created_at) VALUES (?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                insertStmt.setString(1, taskName);
+                insertStmt.setString(2, moodleTaskId);
+                insertStmt.setLong(3, System.currentTimeMillis() / 1000);
+                insertStmt.executeUpdate();
+                try (ResultSet genKeys = insertStmt.getGeneratedKeys()) {
+                    if (!genKeys.next()) {
+                        throw new SQLException("No se pudo crear la tarea");
+                    }
+                    taskId = genKeys.getInt(1);
+                }
+            }
+            System.out.println("✓ Tarea creada: " + taskName + " (ID: " + taskId + ")");
+        }
+
+        Path taskDir = workDirPath.resolve(taskName);
+        Files.createDirectories(taskDir);
+
+        Path tempDir = Files.createTempDirectory("edufeedai_extract_");
+        try {
+            try {
+                try (MetricsRegistry.Sample sample = metrics.start("ingest.unzip")) {
+                    FileUtils.unzip(zipPath.toString(), tempDir);
+                }
+            } catch (IOException e) {
+                // Puede que el ZIP aún se esté copiando; se reintentará con el siguiente evento
+                System.err.println("✗ No se pudo descomprimir " + zipFileName + ": " + e.getMessage());
+                return;
+            }
+
+            File[] studentDirs = tempDir.toFile().listFiles(File::isDirectory);
+            if (studentDirs == null || studentDirs.length == 0) {
+                System.err.println("Advertencia: No se encontraron directorios de estudiantes en el ZIP.");
+                return;
+            }
+
+            int updated = 0;
+            for (File studentDir : studentDirs) {
+                FileUtils.copyDirectory(studentDir.toPath(), taskDir.resolve(studentDir.getName()));
+                if (extractor.syncSubmission(conn, taskDir, taskId, moodleTaskId, studentDir.getName())) {
+                    updated++;
+                }
+            }
+            System.out.println("✓ " + taskName + ": " + updated + " de " + studentDirs.length
+                + " entregas nuevas o actualizadas (usa 'process' para enviarlas)\n");
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+}
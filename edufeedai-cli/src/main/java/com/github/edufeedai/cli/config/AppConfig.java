@@ -6,6 +6,12 @@
 
 package com.github.edufeedai.cli.config;
 
+import com.github.edufeedai.ZipFeedbackPackager;
+import com.github.edufeedai.model.Digest;
+import com.github.edufeedai.model.DigestAlgorithm;
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.OpenAIInteractiveProcess;
+
 import io.github.cdimascio.dotenv.Dotenv;
 
 import java.nio.file.Path;
@@ -17,6 +23,7 @@ import java.nio.file.Paths;
 public class AppConfig {
 
     private static final String CONFIG_FOLDER = ".edufeedai";
+    private static final int DEFAULT_INTERACTIVE_MAX_REQUESTS = 20;
     private static final Dotenv dotenv = loadDotenv();
 
     /**
@@ -91,4 +98,108 @@ public class AppConfig {
     public static Path getConfigPath() {
         return Paths.get(getWorkingDirectory()).resolve(CONFIG_FOLDER);
     }
+
+    /**
+     * Decide si una tarea se corrige en modo interactivo según EXECUTION_MODE (batch, auto o interactive,
+     * por defecto auto). En modo auto se usa el modo interactivo cuando el número de peticiones no supera
+     * INTERACTIVE_MAX_REQUESTS.
+     */
+    public static boolean useInteractiveMode(int requestCount) {
+        String mode = dotenv.get("EXECUTION_MODE");
+        if (mode == null || mode.isEmpty()) {
+            mode = "auto";
+        }
+        if (mode.equalsIgnoreCase("batch")) {
+            return false;
+        }
+        if (mode.equalsIgnoreCase("interactive")) {
+            return true;
+        }
+        if (!mode.equalsIgnoreCase("auto")) {
+            System.err.println("⚠ EXECUTION_MODE desconocido '" + mode + "', se usa 'auto'");
+        }
+        return requestCount <= getIntSetting("INTERACTIVE_MAX_REQUESTS", DEFAULT_INTERACTIVE_MAX_REQUESTS);
+    }
+
+    /**
+     * Número de peticiones simultáneas en modo interactivo (INTERACTIVE_CONCURRENCY).
+     */
+    public static int getInteractiveConcurrency() {
+        int concurrency = getIntSetting("INTERACTIVE_CONCURRENCY", OpenAIInteractiveProcess.DEFAULT_CONCURRENCY);
+        return concurrency > 0 ? concurrency : OpenAIInteractiveProcess.DEFAULT_CONCURRENCY;
+    }
+
+    /**
+     * Formato del ZIP de feedback por defecto (PACKAGE_LAYOUT=flat|moodle).
+     */
+    public static ZipFeedbackPackager.Layout getPackageLayout() {
+        String layout = dotenv.get("PACKAGE_LAYOUT");
+        if (layout != null && layout.trim().equalsIgnoreCase("moodle")) {
+            return ZipFeedbackPackager.Layout.MOODLE;
+        }
+        return ZipFeedbackPackager.Layout.FLAT;
+    }
+
+    /**
+     * Aplica al cliente HTTP compartido los tiempos de espera de OPENAI_CONNECT_TIMEOUT,
+     * OPENAI_READ_TIMEOUT y OPENAI_WRITE_TIMEOUT (en segundos).
+     */
+    public static void configureHttpClient() {
+        OpenAIHttpClient.configureTimeouts(
+            java.time.Duration.ofSeconds(getIntSetting("OPENAI_CONNECT_TIMEOUT",
+                (int) OpenAIHttpClient.DEFAULT_CONNECT_TIMEOUT.getSeconds())),
+            java.time.Duration.ofSeconds(getIntSetting("OPENAI_READ_TIMEOUT",
+                (int) OpenAIHttpClient.DEFAULT_READ_TIMEOUT.getSeconds())),
+            java.time.Duration.ofSeconds(getIntSetting("OPENAI_WRITE_TIMEOUT",
+                (int) OpenAIHttpClient.DEFAULT_WRITE_TIMEOUT.getSeconds())));
+    }
+
+    /**
+     * Lee un ajuste entero del .env; si falta o no es un número se usa el valor por defecto.
+     */
+    public static int getIntSetting(String name, int defaultValue) {
+        String value = dotenv.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠ Valor inválido para " + name + ": '" + value + "', se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Indica si la caché de respuestas está habilitada (RESPONSE_CACHE_ENABLED, por defecto true).
+     */
+    public static boolean isResponseCacheEnabled() {
+        String enabled = dotenv.get("RESPONSE_CACHE_ENABLED");
+        return enabled == null || enabled.isEmpty() || Boolean.parseBoolean(enabled);
+    }
+
+    /**
+     * Algoritmo de las claves de la caché de respuestas (RESPONSE_CACHE_DIGEST, por defecto sha256).
+     * Con xxh64 las claves se calculan mucho más rápido; al cambiarlo, las respuestas
+     * guardadas con el algoritmo anterior dejan de encontrarse.
+     */
+    public static Digest getResponseCacheDigest() {
+        String name = dotenv.get("RESPONSE_CACHE_DIGEST");
+        if (name == null || name.isEmpty()) {
+            return DigestAlgorithm.SHA256.create();
+        }
+        try {
+            return DigestAlgorithm.fromName(name).create();
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠ Valor inválido para RESPONSE_CACHE_DIGEST: '" + name + "', se usa sha256");
+            return DigestAlgorithm.SHA256.create();
+        }
+    }
+
+    /**
+     * Obtiene la ruta del socket del servidor residente en el directorio de trabajo
+     */
+    public static Path getDaemonSocketPath() {
+        return getConfigPath().resolve("daemon.sock").toAbsolutePath();
+    }
 }
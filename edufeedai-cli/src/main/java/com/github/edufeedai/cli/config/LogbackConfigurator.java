@@ -0,0 +1,164 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import java.io.File;
+import java.util.function.Supplier;
+
+/**
+ * Configuración de logback por código, registrada como servicio en
+ * META-INF/services/ch.qos.logback.classic.spi.Configurator.
+ *
+ * Equivale al antiguo logback.xml (consola y logs/edufeedai.log con rotación diaria),
+ * pero evita cargar el parser XML de Joran, que era la mayor parte del arranque de
+ * comandos cortos como 'status', y no crea los appenders hasta el primer evento.
+ *
+ * La configuración en XML sigue teniendo prioridad, por este orden:
+ * -Dlogback.configurationFile, .edufeedai/logback.xml en el directorio de trabajo
+ * (WORK_DIR o el directorio actual) y un logback.xml o logback-test.xml en el classpath.
+ * Solo si no hay ninguno se usa la configuración por código.
+ */
+public class LogbackConfigurator extends ContextAwareBase implements Configurator {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+    private static final String WORKSPACE_CONFIG_FILE = ".edufeedai/logback.xml";
+
+    @Override
+    public ExecutionStatus configure(LoggerContext context) {
+        // El configurador por defecto de logback lee -Dlogback.configurationFile y el classpath
+        if (System.getProperty("logback.configurationFile") != null) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+
+        File workspaceConfig = getWorkspaceConfigFile();
+        if (workspaceConfig.isFile() && configureFromFile(context, workspaceConfig)) {
+            return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+        }
+
+        ClassLoader classLoader = LogbackConfigurator.class.getClassLoader();
+        if (classLoader.getResource("logback-test.xml") != null || classLoader.getResource("logback.xml") != null) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(new LazyAppender(context, "CONSOLE", () -> {
+            ConsoleAppender<ILoggingEvent> console = new ConsoleAppender<>();
+            console.setContext(context);
+            console.setName("CONSOLE");
+            console.setEncoder(encoder(context));
+            console.start();
+            return console;
+        }));
+        root.addAppender(new LazyAppender(context, "FILE", () -> {
+            RollingFileAppender<ILoggingEvent> file = new RollingFileAppender<>();
+            file.setContext(context);
+            file.setName("FILE");
+            file.setFile("logs/edufeedai.log");
+            TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new TimeBasedRollingPolicy<>();
+            rollingPolicy.setContext(context);
+            rollingPolicy.setParent(file);
+            rollingPolicy.setFileNamePattern("logs/edufeedai.%d{yyyy-MM-dd}.log");
+            rollingPolicy.setMaxHistory(30);
+            rollingPolicy.start();
+            file.setRollingPolicy(rollingPolicy);
+            file.setEncoder(encoder(context));
+            file.start();
+            return file;
+        }));
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+
+    /**
+     * Resuelve WORK_DIR igual que App: primero el archivo .env, después las variables de entorno
+     * y, si no está definido, el directorio actual.
+     */
+    private static File getWorkspaceConfigFile() {
+        String workDir;
+        try {
+            workDir = Dotenv.configure().ignoreIfMissing().load().get("WORK_DIR");
+        } catch (Exception e) {
+            workDir = System.getenv("WORK_DIR");
+        }
+        return new File(workDir == null || workDir.isEmpty() ? "." : workDir, WORKSPACE_CONFIG_FILE);
+    }
+
+    /**
+     * Configura logback con un archivo XML.
+     * @return false si el archivo no es válido; se usa entonces la configuración por código
+     */
+    private boolean configureFromFile(LoggerContext context, File configFile) {
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        try {
+            configurator.doConfigure(configFile);
+            return true;
+        } catch (JoranException e) {
+            addError("No se pudo leer " + configFile + ", se usa la configuración por defecto", e);
+            context.reset();
+            return false;
+        }
+    }
+
+    private static PatternLayoutEncoder encoder(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    /**
+     * Appender que crea el appender real con el primer evento. Los comandos que no escriben
+     * ningún log (como 'status') no llegan a abrir logs/edufeedai.log ni a compilar los patrones.
+     */
+    private static class LazyAppender extends AppenderBase<ILoggingEvent> {
+
+        private final Supplier<Appender<ILoggingEvent>> factory;
+        private Appender<ILoggingEvent> delegate;
+
+        LazyAppender(LoggerContext context, String name, Supplier<Appender<ILoggingEvent>> factory) {
+            this.factory = factory;
+            setContext(context);
+            setName(name);
+            start();
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            // AppenderBase.doAppend es synchronized, así que el appender se crea una sola vez
+            if (delegate == null) {
+                delegate = factory.get();
+            }
+            delegate.doAppend(event);
+        }
+
+        @Override
+        public void stop() {
+            super.stop();
+            if (delegate != null) {
+                delegate.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Cliente ligero que reenvía un comando al {@link DaemonServer} y muestra su salida.
+ */
+public class DaemonClient {
+
+    /**
+     * Comandos que se reenvían al servidor si está en marcha.
+     */
+    public static final Set<String> FORWARDED_COMMANDS = Set.of("add", "process", "check", "status");
+
+    /**
+     * Resultado de {@link #forward(Path, String[])} cuando no hay ningún servidor escuchando.
+     */
+    public static final int NOT_RUNNING = -1;
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Comprueba si hay un servidor escuchando en el socket.
+     *
+     * @param socketPath ruta del socket del servidor
+     * @return false si el socket no existe o rechaza la conexión (quedó de un servidor que ya no está en marcha)
+     * @throws IOException si no se puede comprobar por otro motivo, como la falta de permisos
+     */
+    public static boolean isRunning(Path socketPath) throws IOException {
+        if (!Files.exists(socketPath)) {
+            return false;
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return true;
+        } catch (ConnectException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reenvía un comando al servidor que escucha en el socket. La entrada estándar se reenvía
+     * para las confirmaciones que piden algunos comandos.
+     *
+     * @param socketPath ruta del socket del servidor
+     * @param args argumentos del comando; las rutas deben ser absolutas porque el servidor
+     *             puede tener otro directorio actual
+     * @return el código de salida del comando, o {@link #NOT_RUNNING} si no hay ningún servidor
+     *         escuchando y el comando debe ejecutarse localmente
+     * @throws IOException si la conexión se pierde una vez enviado el comando
+     */
+    public static int forward(Path socketPath, String[] args) throws IOException {
+        return forward(socketPath, args, System.in, System.out, System.err);
+    }
+
+    /**
+     * Como {@link #forward(Path, String[])}, con la entrada y las salidas indicadas.
+     */
+    static int forward(Path socketPath, String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr)
+            throws IOException {
+        if (!Files.exists(socketPath)) {
+            return NOT_RUNNING;
+        }
+
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            // Socket de un servidor que ya no está en marcha
+            channel.close();
+            return NOT_RUNNING;
+        }
+
+        try (channel) {
+            OutputStream rawOut = DaemonProtocol.outputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(rawOut));
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            Thread stdinForwarder = new Thread(() -> forwardStdin(stdin, rawOut, channel), "daemon-stdin");
+            stdinForwarder.setDaemon(true);
+            stdinForwarder.start();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(DaemonProtocol.inputStream(channel)));
+            while (true) {
+                byte type = in.readByte();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                if (type == DaemonProtocol.END) {
+                    return data.length >= Integer.BYTES ? ByteBuffer.wrap(data).getInt() : 0;
+                }
+                PrintStream target = type == DaemonProtocol.STDERR ? stderr : stdout;
+                target.write(data);
+                target.flush();
+            }
+        }
+    }
+
+    private static void forwardStdin(InputStream stdin, OutputStream out, SocketChannel channel) {
+        byte[] buffer = new byte[1024];
+        try {
+            int read;
+            while ((read = stdin.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            channel.shutdownOutput();
+        } catch (IOException e) {
+            // El comando ha terminado y la conexión está cerrada
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.daemon;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Protocolo entre el cliente y el servidor residente.
+ *
+ * El cliente envía el número de argumentos y cada argumento (DataOutputStream.writeUTF),
+ * y a continuación reenvía su entrada estándar sin formato. El servidor responde con tramas
+ * {@code tipo (byte), longitud (int), datos} con la salida y los errores del comando,
+ * y termina con una trama {@link #END} cuyos datos son el código de salida (int).
+ */
+final class DaemonProtocol {
+
+    static final byte END = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+
+    private DaemonProtocol() {
+    }
+
+    /**
+     * Stream de lectura sobre el canal. No se usa Channels.newInputStream porque bloquea
+     * el canal completo mientras lee, y el cliente escribe su entrada estándar a la vez.
+     */
+    static InputStream inputStream(SocketChannel channel) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                return channel.read(ByteBuffer.wrap(b, off, len));
+            }
+        };
+    }
+
+    /**
+     * Stream de escritura sobre el canal (ver {@link #inputStream(SocketChannel)}).
+     */
+    static OutputStream outputStream(SocketChannel channel) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        };
+    }
+
+    /**
+     * OutputStream que envía lo escrito como tramas de un tipo. Varios FrameOutputStream
+     * pueden compartir el mismo DataOutputStream.
+     */
+    static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.function.ToIntFunction;
+
+/**
+ * Servidor residente que ejecuta los comandos reenviados por {@link DaemonClient}.
+ *
+ * Mantiene cargados en la misma JVM el driver de SQLite, Tika, PDFBox y OpenCV, de modo que
+ * los comandos no pagan su inicialización y las ejecuciones repetidas aprovechan el código
+ * ya compilado por el JIT. Los comandos se ejecutan de uno en uno, en el orden de llegada:
+ * durante cada uno, System.out, System.err y System.in se redirigen a la conexión del cliente.
+ * Por eso un comando largo (un 'process', por ejemplo) deja en espera a los que lleguen
+ * desde otras terminales. El código de salida del comando se devuelve al cliente; uno que
+ * lanza una excepción termina con código 1.
+ */
+public class DaemonServer {
+
+    private final Path socketPath;
+    private final ToIntFunction<String[]> commandRunner;
+
+    /**
+     * @param socketPath ruta del socket Unix en la que escuchar
+     * @param commandRunner ejecuta un comando a partir de sus argumentos (como App.main)
+     *        y devuelve su código de salida
+     */
+    public DaemonServer(Path socketPath, ToIntFunction<String[]> commandRunner) {
+        this.socketPath = socketPath;
+        this.commandRunner = commandRunner;
+    }
+
+    /**
+     * Atiende comandos hasta que se detiene el proceso. El socket se borra al salir.
+     *
+     * @throws IOException si ya hay otro servidor escuchando en el socket o no se puede crear
+     */
+    public void serve() throws IOException {
+        if (DaemonClient.isRunning(socketPath)) {
+            throw new IOException("Ya hay un servidor residente escuchando en " + socketPath);
+        }
+        // Un socket que quedó de un servidor anterior (rechaza las conexiones) impediría el bind
+        Files.deleteIfExists(socketPath);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            try {
+                // Solo el propietario puede enviar comandos
+                Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Sistema de archivos sin permisos POSIX
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socketPath);
+                } catch (IOException e) {
+                    // El proceso termina de todos modos
+                }
+            }));
+
+            System.out.println("Servidor escuchando en " + socketPath + " (Ctrl+C para salir)");
+
+            while (true) {
+                try (SocketChannel client = server.accept()) {
+                    handle(client);
+                } catch (EOFException e) {
+                    // Conexión sin comando: otro servidor comprobando si este está en marcha
+                } catch (IOException e) {
+                    // El cliente se desconectó a mitad del comando
+                    System.err.println("Conexión con el cliente interrumpida: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(SocketChannel client) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(DaemonProtocol.inputStream(client)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(DaemonProtocol.outputStream(client)));
+
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        System.out.println("> " + String.join(" ", args));
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        InputStream originalIn = System.in;
+        PrintStream clientOut = new PrintStream(
+            new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDOUT), true, StandardCharsets.UTF_8);
+        PrintStream clientErr = new PrintStream(
+            new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDERR), true, StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        int exitCode = 0;
+        try {
+            System.setOut(clientOut);
+            System.setErr(clientErr);
+            System.setIn(in);
+            exitCode = commandRunner.applyAsInt(args);
+        } catch (RuntimeException e) {
+            e.printStackTrace(clientErr);
+            exitCode = 1;
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            System.setIn(originalIn);
+            clientOut.flush();
+            clientErr.flush();
+        }
+
+        synchronized (out) {
+            out.writeByte(DaemonProtocol.END);
+            out.writeInt(Integer.BYTES);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+        System.out.println("  completado en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.ingest;
+
+import com.github.edufeedai.cli.batch.BatchResults;
+import com.github.edufeedai.model.FileProcessor;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extrae el contenido de los archivos de las entregas y lo guarda en submission_files.
+ * Lo usan 'process', que extrae todas las entregas de una tarea, y 'watch --files', que
+ * sincroniza solo las carpetas que han cambiado. Cuenta los archivos procesados por tipo.
+ */
+public class SubmissionExtractor {
+
+    private final FileProcessor fileProcessor;
+    private final MetricsRegistry metrics;
+    private final String workDir;
+
+    private int files;
+    private int textFiles;
+    private int pdfFiles;
+    private int unsupportedFiles;
+
+    /**
+     * @param fileProcessor detecta el tipo de los archivos y extrae su texto
+     * @param metrics métricas en las que se registra la escritura en la base de datos
+     * @param workDir directorio de trabajo (OCRmyPDF guarda en él los PDF originales)
+     */
+    public SubmissionExtractor(FileProcessor fileProcessor, MetricsRegistry metrics, String workDir) {
+        this.fileProcessor = fileProcessor;
+        this.metrics = metrics;
+        this.workDir = workDir;
+    }
+
+    /**
+     * Extrae el contenido de un archivo de una entrega y lo guarda (o actualiza) en submission_files.
+     * Los errores se muestran y no interrumpen el procesamiento del resto de archivos.
+     */
+    public void extractFile(Connection conn, Path taskDir, int submissionId, String studentName,
+                            String moodleTaskId, File file) {
+        try {
+            // Procesar el archivo y detectar su tipo
+            FileProcessor.FileProcessingResult result = fileProcessor.processFile(file, studentName);
+            files++;
+
+            String relativeFilePath = taskDir.relativize(file.toPath()).toString();
+            String contentExtracted = null;
+            int isTextFile = 0;
+
+            // Extraer contenido según el tipo de archivo
+            switch (result.getProcessingType()) {
+                case TEXT_PLAIN:
+                    // Archivo de texto: usar contenido extraído
+                    contentExtracted = result.getExtractedText();
+                    isTextFile = 1;
+                    textFiles++;
+                    System.out.println("  ✓ " + file.getName() + " (texto plano, " +
+                        contentExtracted.length() + " caracteres)");
+                    break;
+
+                case PDF_ORIGINAL:
+                    // PDF: extraer texto usando OCRMyPDF
+                    try {
+                        FileProcessor.FileProcessingResult pdfResult =
+                            fileProcessor.extractTextFromPdf(file, moodleTaskId, studentName, workDir);
+                        contentExtracted = pdfResult.getExtractedText();
+                        pdfFiles++;
+                        System.out.println("  ✓ " + file.getName() + " (PDF con OCR, " +
+                            contentExtracted.length() + " caracteres)");
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        System.err.println("  ✗ Proceso OCR interrumpido para " + file.getName());
+                        contentExtracted = "[Proceso OCR interrumpido]";
+                    } catch (Exception e) {
+                        System.err.println("  ✗ Error extrayendo texto de PDF " +
+                            file.getName() + ": " + e.getMessage());
+                        contentExtracted = "[Error al extraer texto del PDF]";
+                    }
+                    break;
+
+                case UNSUPPORTED:
+                    unsupportedFiles++;
+                    System.out.println("  ⚠ " + file.getName() + " (tipo no soportado: " +
+                        result.getMimeType() + ")");
+                    break;
+
+                default:
+                    System.out.println("  ? " + file.getName() + " (tipo desconocido)");
+                    break;
+            }
+
+            try (MetricsRegistry.Sample dbSample = metrics.start("db.write")) {
+                // Verificar si el archivo ya existe en la base de datos
+                boolean fileExists;
+                try (PreparedStatement checkFileStmt = conn.prepareStatement(
+                        "SELECT id FROM submission_files WHERE submission_id = ? AND file_path = ?")) {
+                    checkFileStmt.setInt(1, submissionId);
+                    checkFileStmt.setString(2, relativeFilePath);
+                    try (ResultSet existingFileRs = checkFileStmt.executeQuery()) {
+                        fileExists = existingFileRs.next();
+                    }
+                }
+
+                // Guardar o actualizar información del archivo en la base de datos. El tamaño y la
+                // fecha de modificación se leen tras la extracción, que puede reescribir los PDF
+                if (fileExists) {
+                    // Actualizar registro existente
+                    try (PreparedStatement updateFileStmt = conn.prepareStatement(
+                            "UPDATE submission_files SET file_type = ?, file_size = ?, file_mtime = ?, " +
+                            "is_text_file = ?, content_extracted = ?, updated_at = ? " +
+                            "WHERE submission_id = ? AND file_path = ?")) {
+                        updateFileStmt.setString(1, result.getMimeType());
+                        updateFileStmt.setLong(2, file.length());
+                        updateFileStmt.setLong(3, file.lastModified());
+                        updateFileStmt.setInt(4, isTextFile);
+                        updateFileStmt.setString(5, contentExtracted);
+                        updateFileStmt.setLong(6, System.currentTimeMillis() / 1000);
+                        updateFileStmt.setInt(7, submissionId);
+                        updateFileStmt.setString(8, relativeFilePath);
+                        updateFileStmt.executeUpdate();
+                    }
+                } else {
+                    // Insertar nuevo registro (sin openai_file_id)
+                    try (PreparedStatement insertFileStmt = conn.prepareStatement(
+                            "INSERT INTO submission_files (submission_id, file_path, file_name, file_type, " +
+                            "file_size, file_mtime, is_text_file, content_extracted, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                        insertFileStmt.setInt(1, submissionId);
+                        insertFileStmt.setString(2, relativeFilePath);
+                        insertFileStmt.setString(3, file.getName());
+                        insertFileStmt.setString(4, result.getMimeType());
+                        insertFileStmt.setLong(5, file.length());
+                        insertFileStmt.setLong(6, file.lastModified());
+                        insertFileStmt.setInt(7, isTextFile);
+                        insertFileStmt.setString(8, contentExtracted);
+                        insertFileStmt.setLong(9, System.currentTimeMillis() / 1000);
+                        insertFileStmt.executeUpdate();
+                    }
+                }
+            }
+
+        } catch (Exception e) {
+            System.err.println("  ✗ Error procesando " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sincroniza una carpeta de entrega con la base de datos. Crea la entrega si no existe,
+     * extrae solo los archivos nuevos o modificados (distinto tamaño o fecha de modificación, en
+     * milisegundos, posterior a la registrada) y borra los registros de los archivos que ya no
+     * están. Los PDF que OCRmyPDF reescribe tras extraerlos no se vuelven a extraer porque su
+     * registro ya tiene el tamaño y la fecha nuevos. Las entregas que están en un batch en curso
+     * no vuelven a 'pending'.
+     *
+     * @return true si la entrega ha cambiado
+     */
+    public boolean syncSubmission(Connection conn, Path taskDir, int taskId, String moodleTaskId,
+                                  String studentName) throws SQLException, IOException {
+        Path studentDir = taskDir.resolve(studentName);
+        if (!Files.isDirectory(studentDir)) {
+            return false;
+        }
+
+        int submissionId = findOrCreateSubmission(conn, taskId, studentName);
+
+        // Tamaño y fecha de modificación (ms) de los archivos ya registrados; los registros anteriores
+        // a file_mtime usan la fecha de extracción
+        Map<String, long[]> knownFiles = new HashMap<>();
+        try (PreparedStatement filesStmt = conn.prepareStatement(
+                "SELECT file_path, file_size, " +
+                "COALESCE(file_mtime, COALESCE(updated_at, created_at) * 1000) AS known_mtime " +
+                "FROM submission_files WHERE submission_id = ?")) {
+            filesStmt.setInt(1, submissionId);
+            try (ResultSet filesRs = filesStmt.executeQuery()) {
+                while (filesRs.next()) {
+                    knownFiles.put(filesRs.getString("file_path"),
+                        new long[] { filesRs.getLong("file_size"), filesRs.getLong("known_mtime") });
+                }
+            }
+        }
+
+        List<File> changedFiles = new ArrayList<>();
+        for (File file : fileProcessor.getAllFiles(studentDir.toFile())) {
+            long[] known = knownFiles.remove(taskDir.relativize(file.toPath()).toString());
+            if (known == null || known[0] != file.length() || known[1] < file.lastModified()) {
+                changedFiles.add(file);
+            }
+        }
+
+        if (changedFiles.isEmpty() && knownFiles.isEmpty()) {
+            return false;
+        }
+
+        System.out.println("Procesando: " + studentName);
+        for (File file : changedFiles) {
+            extractFile(conn, taskDir, submissionId, studentName, moodleTaskId, file);
+        }
+
+        try (PreparedStatement deleteStmt = conn.prepareStatement(
+                "DELETE FROM submission_files WHERE submission_id = ? AND file_path = ?")) {
+            for (String removedPath : knownFiles.keySet()) {
+                deleteStmt.setInt(1, submissionId);
+                deleteStmt.setString(2, removedPath);
+                deleteStmt.executeUpdate();
+                System.out.println("  - " + removedPath + " (eliminado)");
+            }
+        }
+
+        try (PreparedStatement statusStmt = conn.prepareStatement(
+                "UPDATE submissions SET status = 'pending', updated_at = ? " +
+                "WHERE id = ? AND status NOT IN ('processing')")) {
+            statusStmt.setLong(1, System.currentTimeMillis() / 1000);
+            statusStmt.setInt(2, submissionId);
+            statusStmt.executeUpdate();
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve el id de la entrega de un estudiante, creándola con su custom_id si no existe.
+     */
+    public int findOrCreateSubmission(Connection conn, int taskId, String studentName) throws SQLException {
+        try (PreparedStatement findStmt = conn.prepareStatement(
+                "SELECT id FROM submissions WHERE task_id = ? AND student_name = ? ORDER BY submission_number DESC")) {
+            findStmt.setInt(1, taskId);
+            findStmt.setString(2, studentName);
+            try (ResultSet rs = findStmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("id");
+                }
+            }
+        }
+
+        String customId = BatchResults.customIdFor(studentName);
+        long now = System.currentTimeMillis() / 1000;
+        try (PreparedStatement insertStmt = conn.prepareStatement(
+                "INSERT INTO submissions (task_id, student_name, custom_id, submission_number, submitted_at, created_at) " +
+                "VALUES (?, ?, ?, 1, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insertStmt.setInt(1, taskId);
+            insertStmt.setString(2, studentName);
+            insertStmt.setString(3, customId);
+            insertStmt.setLong(4, now);
+            insertStmt.setLong(5, now);
+            insertStmt.executeUpdate();
+            try (ResultSet genKeys = insertStmt.getGeneratedKeys()) {
+                if (!genKeys.next()) {
+                    throw new SQLException("No se pudo crear la entrega");
+                }
+                return genKeys.getInt(1);
+            }
+        }
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public int getTextFiles() {
+        return textFiles;
+    }
+
+    public int getPdfFiles() {
+        return pdfFiles;
+    }
+
+    public int getUnsupportedFiles() {
+        return unsupportedFiles;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Grabación de Java Flight Recorder de una ejecución del CLI (opción {@code --jfr}).
+ *
+ * Usa la configuración "default" del JDK, pensada para producción (sobrecarga en torno al 1 %),
+ * y graba todos los eventos propios de EduFeedAI: procesamiento de archivos, extracción de PDF,
+ * OCR, llamadas HTTP a OpenAI y commits de lotes en la base de datos. Al cerrarse guarda la
+ * grabación en el archivo indicado, que se puede abrir con JDK Mission Control o con
+ * {@code jfr print --events edufeedai.FileProcess <archivo>}.
+ */
+public class FlightRecording implements AutoCloseable {
+
+    /** Opción de línea de comandos: {@code --jfr} o {@code --jfr=<archivo.jfr>} */
+    public static final String OPTION = "--jfr";
+
+    /** Eventos propios, grabados siempre y sin umbral de duración */
+    public static final List<String> EVENTS = List.of(
+        "edufeedai.FileProcess",
+        "edufeedai.PdfExtract",
+        "edufeedai.Ocr",
+        "edufeedai.OpenAICall",
+        "edufeedai.DbCommit"
+    );
+
+    private final Recording recording;
+    private final Path output;
+
+    private FlightRecording(Recording recording, Path output) {
+        this.recording = recording;
+        this.output = output;
+    }
+
+    /**
+     * Busca la opción {@code --jfr} en los argumentos.
+     * @param args Argumentos de la línea de comandos
+     * @return null si no aparece, "" si aparece sin archivo, o el archivo indicado
+     */
+    public static String getOption(String[] args) {
+        String option = null;
+        for (String arg : args) {
+            if (arg.equals(OPTION)) {
+                option = "";
+            } else if (arg.startsWith(OPTION + "=")) {
+                option = arg.substring(OPTION.length() + 1);
+            }
+        }
+        return option;
+    }
+
+    /**
+     * Devuelve los argumentos sin la opción {@code --jfr}.
+     * @param args Argumentos de la línea de comandos
+     * @return Argumentos del comando
+     */
+    public static String[] withoutOption(String[] args) {
+        return Arrays.stream(args)
+            .filter(arg -> !arg.equals(OPTION) && !arg.startsWith(OPTION + "="))
+            .toArray(String[]::new);
+    }
+
+    /**
+     * Inicia una grabación que se guardará en el archivo indicado al cerrarla.
+     * @param output Archivo .jfr de salida
+     * @return Grabación en curso
+     * @throws IOException Si no se puede crear el directorio del archivo
+     * @throws ParseException Si la configuración "default" del JDK no es válida
+     */
+    public static FlightRecording start(Path output) throws IOException, ParseException {
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("edufeedai");
+        for (String event : EVENTS) {
+            recording.enable(event).withThreshold(Duration.ZERO);
+        }
+        recording.setToDisk(true);
+        recording.start();
+        return new FlightRecording(recording, output);
+    }
+
+    /**
+     * @return Archivo en el que se guarda la grabación
+     */
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Detiene la grabación y la guarda en el archivo de salida.
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            recording.stop();
+            recording.dump(output);
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -6,6 +6,7 @@
 
 package com.github.edufeedai.cli.utils;
 
+import com.github.edufeedai.TaskStatusCounts;
 import com.github.edufeedai.cli.config.AppConfig;
 
 import java.io.IOException;
@@ -14,6 +15,7 @@ import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -97,6 +99,7 @@ public class DatabaseUtils {
                 "file_name TEXT NOT NULL, " +
                 "file_type TEXT, " +
                 "file_size INTEGER, " +
+                "file_mtime INTEGER, " +
                 "openai_file_id TEXT, " +
                 "is_text_file INTEGER DEFAULT 0, " +
                 "content_extracted TEXT, " +
@@ -106,6 +109,72 @@ public class DatabaseUtils {
         }
     }
 
+    /**
+     * Añade a una base de datos existente las columnas e índices de versiones posteriores.
+     */
+    public static void migrateDatabase(Connection conn) throws SQLException {
+        Statement stmt = conn.createStatement();
+        try {
+            // Verificar si la columna last_check_timestamp existe en tasks
+            ResultSet columns = conn.getMetaData().getColumns(null, null, "tasks", "last_check_timestamp");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN last_check_timestamp INTEGER");
+            }
+            columns.close();
+
+            columns = conn.getMetaData().getColumns(null, null, "tasks", "cached_batch_status");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN cached_batch_status TEXT");
+            }
+            columns.close();
+
+            // Verificar si la columna updated_at existe en submissions
+            columns = conn.getMetaData().getColumns(null, null, "submissions", "updated_at");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE submissions ADD COLUMN updated_at INTEGER");
+            }
+            columns.close();
+
+            // custom_id y retry_count: reintento de las peticiones fallidas de un batch
+            columns = conn.getMetaData().getColumns(null, null, "submissions", "custom_id");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE submissions ADD COLUMN custom_id TEXT");
+            }
+            columns.close();
+
+            columns = conn.getMetaData().getColumns(null, null, "submissions", "retry_count");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE submissions ADD COLUMN retry_count INTEGER DEFAULT 0");
+            }
+            columns.close();
+
+            // updated_at en submission_files: fecha de la última extracción ('watch --files' la compara con el archivo)
+            columns = conn.getMetaData().getColumns(null, null, "submission_files", "updated_at");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE submission_files ADD COLUMN updated_at INTEGER");
+            }
+            columns.close();
+
+            // file_mtime: fecha de modificación del archivo extraído, en milisegundos
+            columns = conn.getMetaData().getColumns(null, null, "submission_files", "file_mtime");
+            if (!columns.next()) {
+                stmt.executeUpdate("ALTER TABLE submission_files ADD COLUMN file_mtime INTEGER");
+            }
+            columns.close();
+
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_submissions_custom_id ON submissions(task_id, custom_id)");
+
+            // Contadores por tarea para los listados (se rellenan al crearse)
+            TaskStatusCounts.ensureSchema(conn);
+        } catch (SQLException e) {
+            // Si falla la migración, puede ser que las columnas ya existan
+            // No es crítico, así que solo registramos el error
+            System.err.println("Advertencia: No se pudieron añadir columnas en la migración: " + e.getMessage());
+        } finally {
+            stmt.close();
+        }
+    }
+
     /**
      * Mapea el estado de batch de OpenAI a estado de submission.
      */
@@ -13,6 +13,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
@@ -24,7 +25,7 @@ import java.util.zip.ZipFile;
 public class FileUtils {
 
     /**
-     * Copia un directorio recursivamente.
+     * Copia un directorio recursivamente, sobrescribiendo los archivos que ya existen.
      */
     public static void copyDirectory(Path source, Path target) throws IOException {
         Files.walk(source).forEach(sourcePath -> {
@@ -35,7 +36,7 @@ public class FileUtils {
                         Files.createDirectories(targetPath);
                     }
                 } else {
-                    Files.copy(sourcePath, targetPath);
+                    Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
@@ -15,6 +15,8 @@ import java.time.format.DateTimeFormatter;
  */
 public class UIUtils {
 
+    private static volatile boolean errorPrinted;
+
     /**
      * Crea una barra de progreso visual.
      */
@@ -62,12 +64,28 @@ public class UIUtils {
     }
 
     /**
-     * Imprime un mensaje de error.
+     * Imprime un mensaje de error. El comando en curso termina con código de salida 1
+     * aunque no lance ninguna excepción (ver {@link #hasPrintedError()}).
      */
     public static void printError(String message) {
+        errorPrinted = true;
         System.err.println("Error: " + message);
     }
 
+    /**
+     * Indica si se ha impreso algún error desde la última llamada a {@link #resetErrors()}.
+     */
+    public static boolean hasPrintedError() {
+        return errorPrinted;
+    }
+
+    /**
+     * Olvida los errores impresos; se llama al empezar cada comando.
+     */
+    public static void resetErrors() {
+        errorPrinted = false;
+    }
+
     /**
      * Imprime un mensaje de éxito.
      */
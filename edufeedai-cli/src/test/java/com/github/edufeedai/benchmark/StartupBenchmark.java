@@ -0,0 +1,171 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Mide el tiempo de arranque de cada comando: cada iteración lanza una JVM nueva con el CLI,
+ * como al usarlo desde la terminal, sobre un workspace de 40 tareas con 50 entregas cada una.
+ * Con {@code launch=classpath} se ejecuta desde las clases compiladas y sus dependencias;
+ * con {@code launch=dist}, con el lanzador de la distribución (JAR único y archivo AppCDS),
+ * que hay que generar antes con el perfil 'dist'.
+ *
+ * <pre>
+ * mvn -pl edufeedai-cli -am install -DskipTests
+ * mvn -pl edufeedai-cli -Pdist -DskipTests verify
+ * mvn -pl edufeedai-cli test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp edufeedai-cli/target/test-classes:edufeedai-cli/target/classes:$(cat edufeedai-cli/target/cp.txt) \
+ *     com.github.edufeedai.benchmark.StartupBenchmark
+ * </pre>
+ *
+ * La ruta de la distribución se puede indicar con -Dedufeedai.dist (por defecto edufeedai-cli/target/dist).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final int TASKS = 40;
+    private static final int SUBMISSIONS_PER_TASK = 50;
+
+    @Param({"help", "status", "status 1", "grading", "check"})
+    public String command;
+
+    @Param({"classpath", "dist"})
+    public String launch;
+
+    private Path workspace;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (launch.equals("dist") && !Files.exists(launcher())) {
+            throw new IllegalStateException("No existe el lanzador " + launcher()
+                + ": genera la distribución con 'mvn -Pdist -DskipTests verify'");
+        }
+        workspace = Files.createTempDirectory("edufeedai_startup_");
+        if (runCli("init", workspace.toString()) != 0) {
+            throw new IllegalStateException("No se pudo inicializar el workspace " + workspace);
+        }
+
+        try (Connection conn = DriverManager.getConnection(
+                "jdbc:sqlite:" + workspace.resolve(".edufeedai").resolve("edufeedai.db"))) {
+            conn.setAutoCommit(false);
+            long now = System.currentTimeMillis() / 1000;
+            PreparedStatement taskStmt = conn.prepareStatement(
+                "INSERT INTO tasks (id, name, moodle_task_id, created_at) VALUES (?, ?, ?, ?)");
+            PreparedStatement submissionStmt = conn.prepareStatement(
+                "INSERT INTO submissions (task_id, student_name, status, submitted_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)");
+            for (int t = 1; t <= TASKS; t++) {
+                taskStmt.setInt(1, t);
+                taskStmt.setString(2, "Tarea " + t);
+                taskStmt.setString(3, String.valueOf(1000 + t));
+                taskStmt.setLong(4, now);
+                taskStmt.executeUpdate();
+                for (int s = 1; s <= SUBMISSIONS_PER_TASK; s++) {
+                    submissionStmt.setInt(1, t);
+                    submissionStmt.setString(2, "Alumno " + s + "_" + s + "_assignsubmission_file_");
+                    submissionStmt.setString(3, s % 3 == 0 ? "pending" : "completed");
+                    submissionStmt.setLong(4, now);
+                    submissionStmt.setLong(5, now);
+                    submissionStmt.addBatch();
+                }
+                submissionStmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workspace)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int runCommand() throws Exception {
+        return runCli(command.split(" "));
+    }
+
+    private int runCli(String... args) throws IOException, InterruptedException {
+        List<String> commandLine = new ArrayList<>();
+        if (launch.equals("dist")) {
+            commandLine.add(launcher().toString());
+        } else {
+            commandLine.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            commandLine.add("-cp");
+            commandLine.add(classPath());
+            commandLine.add("com.github.edufeedai.App");
+        }
+        commandLine.addAll(List.of(args));
+
+        ProcessBuilder builder = new ProcessBuilder(commandLine)
+            .directory(workspace.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("WORK_DIR", workspace.toString());
+        builder.environment().put("OPENAI_API_KEY", "sk-benchmark");
+        return builder.start().waitFor();
+    }
+
+    private static Path launcher() {
+        return Paths.get(System.getProperty("edufeedai.dist", "edufeedai-cli/target/dist"))
+            .toAbsolutePath().resolve("edufeedai");
+    }
+
+    /**
+     * Classpath de esta JVM con rutas absolutas, porque el CLI se lanza desde el workspace.
+     */
+    private static String classPath() {
+        return Stream.of(System.getProperty("java.class.path").split(File.pathSeparator))
+            .map(entry -> Paths.get(entry).toAbsolutePath().toString())
+            .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(StartupBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
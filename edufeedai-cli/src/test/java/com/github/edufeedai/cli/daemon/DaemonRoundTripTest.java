@@ -0,0 +1,172 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.cli.daemon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DaemonRoundTripTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFramesKeepTypeAndLength() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDOUT).write("hola".getBytes(StandardCharsets.UTF_8));
+        new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDERR).write(new byte[0]);
+        new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDERR).write('!');
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(DaemonProtocol.STDOUT, in.readByte());
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        assertEquals("hola", new String(data, StandardCharsets.UTF_8));
+        // Las escrituras vacías no generan trama
+        assertEquals(DaemonProtocol.STDERR, in.readByte());
+        assertEquals(1, in.readInt());
+        assertEquals('!', in.readByte());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void testCommandRoundTrip() throws Exception {
+        Path socket = tempDir.resolve("daemon.sock");
+        startServer(socket, args -> {
+            if (args[0].equals("fail")) {
+                throw new IllegalStateException("fallo del comando");
+            }
+            if (args[0].equals("error")) {
+                System.err.println("Error: sin workspace");
+                return 1;
+            }
+            System.out.println("args=" + String.join(",", args));
+            try {
+                // Como las confirmaciones de los comandos: se lee la entrada del cliente
+                String answer = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+                System.err.println("respuesta=" + answer);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return 0;
+        });
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        int exitCode = DaemonClient.forward(socket, new String[] { "status", "ñandú" },
+            new ByteArrayInputStream("sí\n".getBytes(StandardCharsets.UTF_8)),
+            new PrintStream(stdout, true, StandardCharsets.UTF_8), new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, exitCode);
+        assertEquals("args=status,ñandú" + System.lineSeparator(), stdout.toString(StandardCharsets.UTF_8));
+        assertEquals("respuesta=sí" + System.lineSeparator(), stderr.toString(StandardCharsets.UTF_8));
+
+        // Una excepción del comando llega como código de salida y el servidor sigue atendiendo
+        stderr.reset();
+        exitCode = DaemonClient.forward(socket, new String[] { "fail" }, new ByteArrayInputStream(new byte[0]),
+            new PrintStream(stdout, true, StandardCharsets.UTF_8), new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        assertEquals(1, exitCode);
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("fallo del comando"));
+        assertTrue(DaemonClient.isRunning(socket));
+
+        // También el código de un comando que falla sin excepción
+        stderr.reset();
+        exitCode = DaemonClient.forward(socket, new String[] { "error" }, new ByteArrayInputStream(new byte[0]),
+            new PrintStream(stdout, true, StandardCharsets.UTF_8), new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        assertEquals(1, exitCode);
+        assertEquals("Error: sin workspace" + System.lineSeparator(), stderr.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testClientFallsBackWithoutServer() throws Exception {
+        Path socket = tempDir.resolve("daemon.sock");
+        assertFalse(DaemonClient.isRunning(socket));
+        assertEquals(DaemonClient.NOT_RUNNING, DaemonClient.forward(socket, new String[] { "status" }));
+
+        // Socket que quedó de un servidor que ya no está en marcha
+        try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(socket));
+        }
+        assertTrue(Files.exists(socket));
+        assertFalse(DaemonClient.isRunning(socket));
+        assertEquals(DaemonClient.NOT_RUNNING, DaemonClient.forward(socket, new String[] { "status" }));
+
+        // Un servidor nuevo lo sustituye
+        startServer(socket, args -> {
+            System.out.print("ok");
+            return 0;
+        });
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        assertEquals(0, DaemonClient.forward(socket, new String[] { "status" }, new ByteArrayInputStream(new byte[0]),
+            new PrintStream(stdout, true, StandardCharsets.UTF_8), System.err));
+        assertEquals("ok", stdout.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSecondServerDoesNotReplaceRunningOne() throws Exception {
+        Path socket = tempDir.resolve("daemon.sock");
+        startServer(socket, args -> {
+            System.out.print("primero");
+            return 0;
+        });
+
+        IOException error = assertThrows(IOException.class,
+            () -> new DaemonServer(socket, args -> 0).serve());
+        assertTrue(error.getMessage().contains("Ya hay un servidor"));
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        assertEquals(0, DaemonClient.forward(socket, new String[] { "status" }, new ByteArrayInputStream(new byte[0]),
+            new PrintStream(stdout, true, StandardCharsets.UTF_8), System.err));
+        assertEquals("primero", stdout.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Arranca un servidor en un hilo y espera a que acepte conexiones.
+     */
+    private static void startServer(Path socket, ToIntFunction<String[]> commandRunner) throws Exception {
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread server = new Thread(() -> {
+            try {
+                new DaemonServer(socket, commandRunner).serve();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        }, "daemon-server");
+        server.setDaemon(true);
+        server.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!DaemonClient.isRunning(socket)) {
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "el servidor no ha arrancado");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -16,7 +16,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,13 +38,20 @@ public class BatchJSONLGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(BatchJSONLGenerator.class);
 
+    /** Model used for the correction requests. */
+    public static final String DEFAULT_MODEL = "gpt-4o";
+
     private final Connection connection;
     private final int taskId;
     private final String taskDirectory;
     private final String instructions;
     private final Digest digest;
+    private final ResponseCache responseCache;
     private final Gson gson;
 
+    private int batchRequestCount;
+    private int cachedRequestCount;
+
     /**
      * Constructs a BatchJSONLGenerator.
      *
@@ -53,11 +62,29 @@ public class BatchJSONLGenerator {
      * @param digest the digest algorithm to use for generating submission IDs
      */
     public BatchJSONLGenerator(Connection connection, int taskId, String taskDirectory, String instructions, Digest digest) {
+        this(connection, taskId, taskDirectory, instructions, digest, null);
+    }
+
+    /**
+     * Constructs a BatchJSONLGenerator that skips requests whose response is already cached.
+     * Requests found in the cache, or identical to another request of the same batch, are
+     * registered in the cache instead of being written to the JSONL file.
+     *
+     * @param connection database connection
+     * @param taskId the task ID to generate JSONL for
+     * @param taskDirectory the directory where the JSONL file will be saved
+     * @param instructions the system instructions for the correction prompt
+     * @param digest the digest algorithm to use for generating submission IDs
+     * @param responseCache the response cache, or null to disable caching
+     */
+    public BatchJSONLGenerator(Connection connection, int taskId, String taskDirectory, String instructions,
+                               Digest digest, ResponseCache responseCache) {
         this.connection = connection;
         this.taskId = taskId;
         this.taskDirectory = taskDirectory;
         this.instructions = instructions;
         this.digest = digest;
+        this.responseCache = responseCache;
         // No incluir campos nulos en el JSON (comportamiento por defecto de Gson, importante para la API de OpenAI)
         this.gson = new Gson();
     }
@@ -86,9 +113,23 @@ public class BatchJSONLGenerator {
         logger.debug("JSONL file will be saved as: {}", jsonlFilePath);
 
         StringBuilder jsonlContent = new StringBuilder();
+        Set<String> batchKeys = new HashSet<>();
+        batchRequestCount = 0;
+        cachedRequestCount = 0;
+
+        if (responseCache != null) {
+            responseCache.clearRequests(taskId);
+        }
 
         for (SubmissionData submission : submissions) {
             JSONLine jsonLine = buildJSONLine(submission);
+
+            if (responseCache != null && isServedFromCache(jsonLine, submission, batchKeys)) {
+                cachedRequestCount++;
+                continue;
+            }
+
+            batchRequestCount++;
             String json = gson.toJson(jsonLine);
             // Remove pretty printing for JSONL format (one line per entry)
             json = json.replaceAll("\\s+", " ").trim();
@@ -96,11 +137,71 @@ public class BatchJSONLGenerator {
         }
 
         Files.write(Paths.get(jsonlFilePath), jsonlContent.toString().getBytes());
-        logger.info("JSONL file generated successfully: {}", jsonlFilePath);
+        logger.info("JSONL file generated successfully: {} ({} requests, {} served from cache)",
+            jsonlFilePath, batchRequestCount, cachedRequestCount);
 
         return jsonlFilePath;
     }
 
+    /**
+     * Returns the number of requests written to the JSONL file by the last call to {@link #generateJsonl()}.
+     *
+     * @return the number of requests that must be sent to the Batch API
+     */
+    public int getBatchRequestCount() {
+        return batchRequestCount;
+    }
+
+    /**
+     * Returns the number of requests skipped by the last call to {@link #generateJsonl()}
+     * because their response is (or will be) available in the cache.
+     *
+     * @return the number of requests served from the cache
+     */
+    public int getCachedRequestCount() {
+        return cachedRequestCount;
+    }
+
+    /**
+     * Registers the request in the response cache and decides whether it can be skipped.
+     * A request is skipped when its response is already cached or when an identical request
+     * has already been added to this batch.
+     *
+     * @param jsonLine the request
+     * @param submission the submission the request was built from
+     * @param batchKeys cache keys of the requests already added to the batch
+     * @return true if the request must not be written to the JSONL file
+     * @throws SQLException if database access fails
+     */
+    private boolean isServedFromCache(JSONLine jsonLine, SubmissionData submission, Set<String> batchKeys)
+            throws SQLException {
+        Body body = jsonLine.getBody();
+        List<String> fileNames = new ArrayList<>();
+        List<String> fileContents = new ArrayList<>();
+        for (SubmissionData.FileContent fileContent : submission.fileContents) {
+            fileNames.add(fileContent.fileName);
+            fileContents.add(fileContent.content);
+        }
+
+        String key;
+        try {
+            key = responseCache.computeKey(body.getModel(), instructions, fileNames, fileContents);
+        } catch (DigestException e) {
+            logger.warn("Could not compute cache key for {}: {}", jsonLine.getCustom_id(), e.getMessage());
+            return false;
+        }
+
+        if (batchKeys.contains(key) || responseCache.contains(key)) {
+            logger.debug("Request {} served from response cache", jsonLine.getCustom_id());
+            responseCache.registerRequest(taskId, jsonLine.getCustom_id(), key, ResponseCache.SOURCE_CACHE);
+            return true;
+        }
+
+        batchKeys.add(key);
+        responseCache.registerRequest(taskId, jsonLine.getCustom_id(), key, ResponseCache.SOURCE_BATCH);
+        return false;
+    }
+
     /**
      * Gets the Moodle task ID from the database, or falls back to the local task ID.
      *
@@ -139,7 +240,7 @@ public class BatchJSONLGenerator {
         List<SubmissionData> submissions = new ArrayList<>();
 
         String query =
-            "SELECT s.id, s.student_name, sf.file_name, sf.content_extracted " +
+            "SELECT s.id, s.student_name, s.custom_id, sf.file_name, sf.content_extracted " +
             "FROM submissions s " +
             "INNER JOIN submission_files sf ON s.id = sf.submission_id " +
             "WHERE s.task_id = ? AND sf.content_extracted IS NOT NULL " +
@@ -163,7 +264,7 @@ public class BatchJSONLGenerator {
                         if (currentSubmission != null) {
                             submissions.add(currentSubmission);
                         }
-                        currentSubmission = new SubmissionData(submissionId, studentName);
+                        currentSubmission = new SubmissionData(submissionId, studentName, rs.getString("custom_id"));
                         currentSubmissionId = submissionId;
                     }
 
@@ -192,13 +293,15 @@ public class BatchJSONLGenerator {
     private JSONLine buildJSONLine(SubmissionData submission) {
         JSONLine jsonLine = new JSONLine();
 
-        // Generar submission_id usando el hash del nombre del estudiante
-        String submissionId;
-        try {
-            submissionId = digest.digest(submission.studentName);
-        } catch (DigestException e) {
-            logger.error("Error generating submission ID for student {}: {}", submission.studentName, e.getMessage());
-            submissionId = "error_" + submission.submissionId;
+        // custom_id guardado al añadir la entrega; si no existe, el hash del nombre del estudiante
+        String submissionId = submission.customId;
+        if (submissionId == null) {
+            try {
+                submissionId = digest.digest(submission.studentName);
+            } catch (DigestException e) {
+                logger.error("Error generating submission ID for student {}: {}", submission.studentName, e.getMessage());
+                submissionId = "error_" + submission.submissionId;
+            }
         }
 
         jsonLine.setCustom_id(submissionId);
@@ -206,7 +309,7 @@ public class BatchJSONLGenerator {
         jsonLine.setUrl("/v1/chat/completions");
 
         Body body = new Body();
-        body.setModel("gpt-4o");
+        body.setModel(DEFAULT_MODEL);
 
         Message[] messages = new Message[2];
 
@@ -244,11 +347,13 @@ public class BatchJSONLGenerator {
     private static class SubmissionData {
         final int submissionId;
         final String studentName;
+        final String customId;
         final List<FileContent> fileContents;
 
-        SubmissionData(int submissionId, String studentName) {
+        SubmissionData(int submissionId, String studentName, String customId) {
             this.submissionId = submissionId;
             this.studentName = studentName;
+            this.customId = customId;
             this.fileContents = new ArrayList<>();
         }
 
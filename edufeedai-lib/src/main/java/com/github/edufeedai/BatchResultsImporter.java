@@ -0,0 +1,212 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import com.github.edufeedai.utils.jfr.DbCommitEvent;
+
+/**
+ * Imports the responses of a batch output file into the {@code submissions} table.
+ * The file is streamed one JSON value at a time, so memory use does not grow with its size,
+ * and the feedback of each successful response is written to the submission with the same
+ * custom_id in batched transactions.
+ */
+public class BatchResultsImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchResultsImporter.class);
+
+    /** Number of updates committed in each transaction. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final Connection connection;
+    private final int taskId;
+    private final int batchSize;
+
+    private int unmatchedCount;
+
+    /**
+     * Constructs a BatchResultsImporter.
+     *
+     * @param connection database connection
+     * @param taskId the task whose submissions receive the responses
+     */
+    public BatchResultsImporter(Connection connection, int taskId) {
+        this(connection, taskId, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a BatchResultsImporter.
+     *
+     * @param connection database connection
+     * @param taskId the task whose submissions receive the responses
+     * @param batchSize number of updates committed in each transaction
+     */
+    public BatchResultsImporter(Connection connection, int taskId, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.connection = connection;
+        this.taskId = taskId;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every successful response of a batch output file.
+     * Sets {@code feedback}, {@code processed_at} and {@code updated_at} of the submission
+     * whose {@code custom_id} matches the response.
+     *
+     * @param responsesFile the batch output file (assessment_responses.jsonl)
+     * @return the number of submissions updated
+     * @throws IOException if the file cannot be read or is not valid JSONL
+     * @throws SQLException if database access fails
+     */
+    public int importResults(File responsesFile) throws IOException, SQLException {
+        logger.info("Importing batch results from {} into task {}", responsesFile.getName(), taskId);
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        int imported = 0;
+        int pending = 0;
+        unmatchedCount = 0;
+
+        try (Reader fileReader = Files.newBufferedReader(responsesFile.toPath(), StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(fileReader);
+             PreparedStatement stmt = connection.prepareStatement(
+                 "UPDATE submissions SET feedback = ?, processed_at = ?, updated_at = ? " +
+                 "WHERE task_id = ? AND custom_id = ?")) {
+
+            // JSONL: una secuencia de valores JSON de nivel superior
+            reader.setLenient(true);
+            long now = System.currentTimeMillis() / 1000;
+
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                JsonObject batchLine = JsonParser.parseReader(reader).getAsJsonObject();
+                String customId = getString(batchLine, "custom_id");
+                String feedback = getFeedback(batchLine);
+                if (customId == null || feedback == null) {
+                    continue;
+                }
+
+                stmt.setString(1, feedback);
+                stmt.setLong(2, now);
+                stmt.setLong(3, now);
+                stmt.setInt(4, taskId);
+                stmt.setString(5, customId);
+                stmt.addBatch();
+
+                if (++pending == batchSize) {
+                    imported += flush(stmt, pending);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                imported += flush(stmt, pending);
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        if (unmatchedCount > 0) {
+            logger.warn("{} responses did not match any submission of task {}", unmatchedCount, taskId);
+        }
+        logger.info("Imported {} responses into task {}", imported, taskId);
+        return imported;
+    }
+
+    /**
+     * Returns the number of successful responses of the last import that did not match any submission.
+     *
+     * @return the number of unmatched responses
+     */
+    public int getUnmatchedCount() {
+        return unmatchedCount;
+    }
+
+    private int flush(PreparedStatement stmt, int rows) throws SQLException {
+        DbCommitEvent event = new DbCommitEvent();
+        event.begin();
+        String outcome = "ok";
+        try {
+            int updated = 0;
+            for (int count : stmt.executeBatch()) {
+                if (count > 0) {
+                    updated += count;
+                } else if (count == 0) {
+                    unmatchedCount++;
+                }
+            }
+            connection.commit();
+            return updated;
+        } catch (SQLException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "results.import";
+                event.rows = rows;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the message content of a successful response, or null if the line is not one.
+     */
+    private static String getFeedback(JsonObject batchLine) {
+        JsonElement error = batchLine.get("error");
+        JsonElement response = batchLine.get("response");
+        if ((error != null && !error.isJsonNull()) || response == null || !response.isJsonObject()) {
+            return null;
+        }
+
+        JsonObject responseObject = response.getAsJsonObject();
+        JsonElement statusCode = responseObject.get("status_code");
+        JsonElement body = responseObject.get("body");
+        if (statusCode == null || statusCode.getAsInt() / 100 != 2 || body == null || !body.isJsonObject()) {
+            return null;
+        }
+
+        JsonElement choices = body.getAsJsonObject().get("choices");
+        if (choices == null || !choices.isJsonArray() || ((JsonArray) choices).isEmpty()) {
+            return null;
+        }
+        JsonElement message = ((JsonArray) choices).get(0).getAsJsonObject().get("message");
+        if (message == null || !message.isJsonObject()) {
+            return null;
+        }
+        return getString(message.getAsJsonObject(), "content");
+    }
+
+    private static String getString(JsonObject object, String member) {
+        JsonElement value = object.get(member);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+}
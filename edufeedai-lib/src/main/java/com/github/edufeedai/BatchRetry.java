@@ -0,0 +1,202 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Helpers to recover the requests of a batch that failed.
+ * Failed requests are read from the batch error file (and from non-2xx lines of the output
+ * file), successful responses are merged by custom_id into the task responses file, and a
+ * retry JSONL containing only the failed requests is built from the original batch input.
+ */
+public final class BatchRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRetry.class);
+
+    private BatchRetry() {
+    }
+
+    /**
+     * Reads the custom_id of every request listed in a batch error file.
+     *
+     * @param errorFile the batch error file
+     * @return the custom_ids, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static Set<String> readFailedCustomIds(File errorFile) throws IOException {
+        Set<String> failedIds = new LinkedHashSet<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(errorFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String customId = getCustomId(JsonParser.parseString(line).getAsJsonObject());
+                if (customId != null) {
+                    failedIds.add(customId);
+                }
+            }
+        }
+
+        logger.info("Found {} failed requests in {}", failedIds.size(), errorFile.getName());
+        return failedIds;
+    }
+
+    /**
+     * Reads the custom_id of every line of a responses file.
+     *
+     * @param responsesFile the task responses file (assessment_responses.jsonl)
+     * @return the custom_ids, in file order; empty if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public static Set<String> readCustomIds(File responsesFile) throws IOException {
+        Map<String, String> lines = new LinkedHashMap<>();
+        if (responsesFile.exists()) {
+            readLinesByCustomId(responsesFile, lines);
+        }
+        return new LinkedHashSet<>(lines.keySet());
+    }
+
+    /**
+     * Merges the successful responses of a batch output file into the task responses file.
+     * A response replaces any previous line with the same custom_id. Lines whose response is
+     * not successful are left out and their custom_id is added to {@code failedIds}.
+     *
+     * @param batchOutput the downloaded batch output file
+     * @param responsesFile the task responses file (assessment_responses.jsonl); created if it does not exist
+     * @param failedIds collects the custom_ids of the unsuccessful lines
+     * @return the number of successful responses merged
+     * @throws IOException if a file cannot be read or written
+     */
+    public static int mergeResponses(File batchOutput, File responsesFile, Set<String> failedIds) throws IOException {
+        Map<String, String> lines = new LinkedHashMap<>();
+        if (responsesFile.exists()) {
+            readLinesByCustomId(responsesFile, lines);
+        }
+
+        int merged = 0;
+        try (BufferedReader reader = Files.newBufferedReader(batchOutput.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonObject batchLine = JsonParser.parseString(line).getAsJsonObject();
+                String customId = getCustomId(batchLine);
+                if (customId == null) {
+                    continue;
+                }
+                if (!isSuccessful(batchLine)) {
+                    failedIds.add(customId);
+                    continue;
+                }
+                lines.put(customId, line);
+                failedIds.remove(customId);
+                merged++;
+            }
+        }
+
+        Path tmp = responsesFile.toPath().resolveSibling(responsesFile.getName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (String line : lines.values()) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, responsesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        logger.info("Merged {} responses from {} into {}", merged, batchOutput.getName(), responsesFile.getName());
+        return merged;
+    }
+
+    /**
+     * Writes a batch input file containing only the requests of {@code requestsJsonl} whose
+     * custom_id is in {@code customIds}.
+     *
+     * @param requestsJsonl the original batch input file
+     * @param customIds the custom_ids to retry
+     * @param retryJsonl the retry batch input file to write
+     * @return the number of requests written
+     * @throws IOException if a file cannot be read or written
+     */
+    public static int writeRetryJsonl(File requestsJsonl, Set<String> customIds, File retryJsonl) throws IOException {
+        int written = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(requestsJsonl.toPath(), StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(retryJsonl.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String customId = getCustomId(JsonParser.parseString(line).getAsJsonObject());
+                if (customId != null && customIds.contains(customId)) {
+                    writer.write(line);
+                    writer.newLine();
+                    written++;
+                }
+            }
+        }
+
+        logger.info("Retry batch file {} written with {} of {} failed requests",
+            retryJsonl.getName(), written, customIds.size());
+        return written;
+    }
+
+    private static void readLinesByCustomId(File file, Map<String, String> lines) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String customId = getCustomId(JsonParser.parseString(line).getAsJsonObject());
+                if (customId != null) {
+                    lines.put(customId, line);
+                }
+            }
+        }
+    }
+
+    private static boolean isSuccessful(JsonObject batchLine) {
+        JsonElement error = batchLine.get("error");
+        if (error != null && !error.isJsonNull()) {
+            return false;
+        }
+        JsonElement response = batchLine.get("response");
+        if (response == null || !response.isJsonObject()) {
+            return false;
+        }
+        JsonElement statusCode = response.getAsJsonObject().get("status_code");
+        return statusCode != null && statusCode.getAsInt() / 100 == 2;
+    }
+
+    private static String getCustomId(JsonObject batchLine) {
+        JsonElement customId = batchLine.get("custom_id");
+        return customId != null && !customId.isJsonNull() ? customId.getAsString() : null;
+    }
+}
@@ -7,10 +7,17 @@
 package com.github.edufeedai;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.DigestException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import static java.util.Arrays.stream;
 import java.util.Comparator;
@@ -22,10 +29,12 @@ import com.github.edufeedai.model.Digest;
 import com.github.edufeedai.model.SubmissionIdMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Clase responsable de generar y guardar mapas de IDs de entregas de estudiantes
- * a partir de los nombres de carpeta en un directorio de evaluación.
+ * a partir de los nombres de carpeta en un directorio de evaluación, o de la columna
+ * {@code custom_id} de la tabla {@code submissions}.
  */
 public class GenerateSubmissionIDMap {
     /** Ruta al directorio de la evaluación. */
@@ -102,4 +111,42 @@ public class GenerateSubmissionIDMap {
             return null;
         }
     }
+
+    /**
+     * Escribe el mapa de IDs de una tarea a partir de la columna {@code custom_id} de la tabla
+     * {@code submissions}, sin recorrer las carpetas ni recalcular las huellas.
+     * Las entregas se escriben una a una según se leen, ordenadas por nombre de estudiante.
+     * Las entregas sin custom_id se omiten.
+     * @param connection Conexión a la base de datos
+     * @param taskId ID de la tarea
+     * @param assessmentIdMapFile Nombre del archivo de salida
+     * @return Nombre del archivo guardado
+     * @throws SQLException si falla la consulta
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public String saveSubmissionIDMaps(Connection connection, int taskId, String assessmentIdMapFile)
+            throws SQLException, IOException {
+        File file = new File(assessmentFolder + File.separator + assessmentIdMapFile);
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT student_name, custom_id FROM submissions " +
+                "WHERE task_id = ? AND custom_id IS NOT NULL ORDER BY student_name")) {
+            stmt.setInt(1, taskId);
+
+            try (ResultSet rs = stmt.executeQuery();
+                 Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+                 JsonWriter writer = new JsonWriter(out)) {
+                writer.setIndent("  ");
+                writer.beginArray();
+                while (rs.next()) {
+                    writer.beginObject();
+                    writer.name("custom_id").value(rs.getString("student_name"));
+                    writer.name("submission_id").value(rs.getString("custom_id"));
+                    writer.endObject();
+                }
+                writer.endArray();
+            }
+        }
+        return file.getName();
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.github.edufeedai.utils.MetricsRegistry;
+import com.github.edufeedai.utils.jfr.DbCommitEvent;
+
+/**
+ * Stores the pipeline metrics of each command run in the workspace database, so that the
+ * timings of several runs can be compared and aggregated later.
+ *
+ * <p>Each run is a row of {@code metrics_runs}; its counters and timers are rows of
+ * {@code metrics_values}, with the timer histograms encoded as text.</p>
+ */
+public class MetricsStore {
+
+    private static final String KIND_COUNTER = "counter";
+    private static final String KIND_TIMER = "timer";
+
+    private final Connection connection;
+
+    /**
+     * Constructs a MetricsStore, creating its tables if they do not exist yet.
+     *
+     * @param connection database connection
+     * @throws SQLException if the tables cannot be created
+     */
+    public MetricsStore(Connection connection) throws SQLException {
+        this.connection = connection;
+        createTablesIfNotExist();
+    }
+
+    private void createTablesIfNotExist() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS metrics_runs (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "command TEXT NOT NULL, " +
+                "started_at INTEGER NOT NULL, " +
+                "duration_nanos INTEGER NOT NULL)");
+
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS metrics_values (" +
+                "run_id INTEGER NOT NULL, " +
+                "name TEXT NOT NULL, " +
+                "kind TEXT NOT NULL, " +
+                "count INTEGER NOT NULL, " +
+                "total_nanos INTEGER, " +
+                "max_nanos INTEGER, " +
+                "histogram TEXT, " +
+                "PRIMARY KEY (run_id, name), " +
+                "FOREIGN KEY (run_id) REFERENCES metrics_runs(id) ON DELETE CASCADE)");
+        }
+    }
+
+    /**
+     * Saves the metrics of a run in a single transaction.
+     *
+     * @param command the command that was run
+     * @param startedAt when the run started, in seconds since the epoch
+     * @param durationNanos the wall-clock duration of the run
+     * @param metrics the metrics collected during the run
+     * @return the ID of the run
+     * @throws SQLException if the metrics cannot be saved
+     */
+    public long saveRun(String command, long startedAt, long durationNanos, MetricsRegistry metrics)
+            throws SQLException {
+        DbCommitEvent event = new DbCommitEvent();
+        event.begin();
+        String outcome = "ok";
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long runId;
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO metrics_runs (command, started_at, duration_nanos) VALUES (?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, command);
+                stmt.setLong(2, startedAt);
+                stmt.setLong(3, durationNanos);
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("No ID generated for the metrics run");
+                    }
+                    runId = keys.getLong(1);
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO metrics_values (run_id, name, kind, count, total_nanos, max_nanos, histogram) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+                    stmt.setLong(1, runId);
+                    stmt.setString(2, counter.getKey());
+                    stmt.setString(3, KIND_COUNTER);
+                    stmt.setLong(4, counter.getValue());
+                    stmt.setNull(5, Types.INTEGER);
+                    stmt.setNull(6, Types.INTEGER);
+                    stmt.setNull(7, Types.VARCHAR);
+                    stmt.addBatch();
+                }
+                for (Map.Entry<String, MetricsRegistry.Timer> entry : metrics.getTimers().entrySet()) {
+                    MetricsRegistry.Timer timer = entry.getValue();
+                    stmt.setLong(1, runId);
+                    stmt.setString(2, entry.getKey());
+                    stmt.setString(3, KIND_TIMER);
+                    stmt.setLong(4, timer.getCount());
+                    stmt.setLong(5, timer.getTotalNanos());
+                    stmt.setLong(6, timer.getMaxNanos());
+                    stmt.setString(7, timer.encodeHistogram());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            connection.commit();
+            return runId;
+        } catch (SQLException e) {
+            outcome = e.getClass().getSimpleName();
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "metrics.save";
+                event.rows = 1 + metrics.getCounters().size() + metrics.getTimers().size();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Lists the most recent runs, newest first.
+     *
+     * @param limit the maximum number of runs
+     * @param command only runs of this command, or null for all
+     * @return the runs
+     * @throws SQLException if the query fails
+     */
+    public List<Run> listRuns(int limit, String command) throws SQLException {
+        List<Run> runs = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT id, command, started_at, duration_nanos FROM metrics_runs " +
+                "WHERE ? IS NULL OR command = ? ORDER BY id DESC LIMIT ?")) {
+            stmt.setString(1, command);
+            stmt.setString(2, command);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    runs.add(new Run(rs.getLong("id"), rs.getString("command"),
+                        rs.getLong("started_at"), rs.getLong("duration_nanos")));
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Loads the metrics of several runs merged into one registry: counters are added up and
+     * timer histograms are merged, so percentiles cover the operations of all the runs.
+     *
+     * @param runs the runs to load
+     * @return the merged metrics
+     * @throws SQLException if the query fails
+     */
+    public MetricsRegistry load(List<Run> runs) throws SQLException {
+        MetricsRegistry merged = new MetricsRegistry();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT name, kind, count, total_nanos, max_nanos, histogram FROM metrics_values WHERE run_id = ?")) {
+            for (Run run : runs) {
+                stmt.setLong(1, run.getId());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String name = rs.getString("name");
+                        if (KIND_TIMER.equals(rs.getString("kind"))) {
+                            merged.timer(name).merge(MetricsRegistry.Timer.decode(rs.getLong("count"),
+                                rs.getLong("total_nanos"), rs.getLong("max_nanos"), rs.getString("histogram")));
+                        } else {
+                            merged.add(name, rs.getLong("count"));
+                        }
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * A stored run.
+     */
+    public static class Run {
+
+        private final long id;
+        private final String command;
+        private final long startedAt;
+        private final long durationNanos;
+
+        public Run(long id, String command, long startedAt, long durationNanos) {
+            this.id = id;
+            this.command = command;
+            this.startedAt = startedAt;
+            this.durationNanos = durationNanos;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        /**
+         * @return when the run started, in seconds since the epoch
+         */
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
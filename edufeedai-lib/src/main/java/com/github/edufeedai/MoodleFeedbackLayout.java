@@ -0,0 +1,70 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+/**
+ * Layout of the feedback files accepted by Moodle's "Upload multiple feedback files in a zip".
+ * Each student gets a folder named like the submission folder of the Moodle download
+ * ({@code <full name>_<participant id>_assignsubmission_file_}) with the feedback rendered as HTML.
+ * Parser and renderer are immutable, so one instance can render from several threads.
+ */
+public class MoodleFeedbackLayout {
+
+    /** Name of the feedback file inside each participant folder. */
+    public static final String FEEDBACK_FILE_NAME = "feedback.html";
+
+    private static final Pattern SUBMISSION_FOLDER =
+        Pattern.compile("^(.+)_(\\d+)_assignsubmission_[a-z]+_?$");
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(true).build();
+
+    /**
+     * Returns the Moodle participant ID of a submission folder name, or null if the name
+     * does not follow the Moodle download layout.
+     *
+     * @param submissionFolder the submission folder name, e.g. {@code Ana Pérez_123456_assignsubmission_file_}
+     * @return the participant ID, or null
+     */
+    public static String parseParticipantId(String submissionFolder) {
+        Matcher matcher = SUBMISSION_FOLDER.matcher(submissionFolder);
+        return matcher.matches() ? matcher.group(2) : null;
+    }
+
+    /**
+     * Returns the zip entry name of the feedback of a submission, or null if the participant
+     * cannot be identified from the folder name.
+     *
+     * @param submissionFolder the submission folder name
+     * @return the entry name, e.g. {@code Ana Pérez_123456_assignsubmission_file_/feedback.html}
+     */
+    public static String entryName(String submissionFolder) {
+        Matcher matcher = SUBMISSION_FOLDER.matcher(submissionFolder);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return matcher.group(1) + "_" + matcher.group(2) + "_assignsubmission_file_/" + FEEDBACK_FILE_NAME;
+    }
+
+    /**
+     * Renders a Markdown feedback as a standalone HTML document.
+     *
+     * @param markdown the feedback in Markdown
+     * @return the HTML document
+     */
+    public String render(String markdown) {
+        return "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Feedback</title>\n</head>\n<body>\n"
+            + renderer.render(parser.parse(markdown))
+            + "</body>\n</html>\n";
+    }
+}
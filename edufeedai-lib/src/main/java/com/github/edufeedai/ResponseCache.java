@@ -0,0 +1,473 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.edufeedai.model.Digest;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Persistent cache of OpenAI chat completion responses, stored in the workspace database.
+ * Responses are keyed by a hash of (model, system instructions, normalized file contents),
+ * so byte-identical submissions (or unchanged resubmissions) are graded only once, whatever
+ * the names of their files. Only successful responses are ever cached.
+ *
+ * <p>The cache also records, per task, which {@code custom_id} was sent in the batch and which
+ * one was served from the cache, so that cached results can be materialised into the
+ * {@code assessment_responses.jsonl} file used by the download and package stages.</p>
+ */
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    /** The request was included in the batch sent to OpenAI. */
+    public static final String SOURCE_BATCH = "batch";
+    /** The request was served from the cache (or shares its key with another request of the batch). */
+    public static final String SOURCE_CACHE = "cache";
+
+    /** Separates the file contents in the key source (a control character not expected in submissions). */
+    private static final char FILE_SEPARATOR = '\u001E';
+
+    private final Connection connection;
+    private final Digest digest;
+
+    /**
+     * Constructs a ResponseCache, creating its tables if they do not exist yet.
+     *
+     * @param connection database connection
+     * @param digest the digest algorithm used to build cache keys
+     * @throws SQLException if the cache tables cannot be created
+     */
+    public ResponseCache(Connection connection, Digest digest) throws SQLException {
+        this.connection = connection;
+        this.digest = digest;
+        createTablesIfNotExist();
+    }
+
+    private void createTablesIfNotExist() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS response_cache (" +
+                "cache_key TEXT PRIMARY KEY, " +
+                "model TEXT NOT NULL, " +
+                "response TEXT NOT NULL, " +
+                "hits INTEGER DEFAULT 0, " +
+                "created_at INTEGER NOT NULL, " +
+                "last_hit_at INTEGER)");
+
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS response_cache_requests (" +
+                "task_id INTEGER NOT NULL, " +
+                "custom_id TEXT NOT NULL, " +
+                "cache_key TEXT NOT NULL, " +
+                "source TEXT NOT NULL, " +
+                "PRIMARY KEY (task_id, custom_id))");
+        }
+    }
+
+    /**
+     * Computes the cache key for a chat completion request.
+     *
+     * @param model the model name
+     * @param instructions the system instructions
+     * @param userContent the user message content
+     * @return the cache key
+     * @throws DigestException if the digest cannot be computed
+     */
+    public String computeKey(String model, String instructions, String userContent) throws DigestException {
+        return computeKey(model, instructions, List.of(""), List.of(userContent != null ? userContent : ""));
+    }
+
+    /**
+     * Computes the cache key for a chat completion request built from the files of a submission.
+     * Each file contributes its name and its normalized content, in order, so the key covers
+     * everything the model sees: submissions with the same contents under different file names
+     * get different keys, and a cached response never quotes another student's file names.
+     *
+     * @param model the model name
+     * @param instructions the system instructions
+     * @param fileNames the names of the submission files
+     * @param fileContents the contents of the submission files, in the same order as the names
+     * @return the cache key
+     * @throws DigestException if the digest cannot be computed
+     */
+    public String computeKey(String model, String instructions, List<String> fileNames, List<String> fileContents)
+            throws DigestException {
+        if (fileNames.size() != fileContents.size()) {
+            throw new IllegalArgumentException("fileNames and fileContents must have the same size");
+        }
+        StringBuilder keySource = new StringBuilder()
+            .append(model).append('\u0000')
+            .append(instructions != null ? instructions.strip() : "").append('\u0000');
+        for (int i = 0; i < fileContents.size(); i++) {
+            if (i > 0) {
+                keySource.append(FILE_SEPARATOR);
+            }
+            String fileName = fileNames.get(i) != null ? fileNames.get(i) : "";
+            keySource.append(Normalizer.normalize(fileName.strip(), Normalizer.Form.NFC)).append('\u0000');
+            keySource.append(normalizeContent(fileContents.get(i)));
+        }
+        return digest.digest(keySource.toString());
+    }
+
+    /**
+     * Normalizes submission content so that irrelevant differences (line endings, trailing
+     * whitespace, blank lines, Unicode composition) do not produce different cache keys.
+     *
+     * @param content the raw content
+     * @return the normalized content
+     */
+    static String normalizeContent(String content) {
+        if (content == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(content, Normalizer.Form.NFC);
+        normalized = normalized.replace("\r\n", "\n").replace('\r', '\n');
+        normalized = normalized.replaceAll("[ \\t]+\\n", "\n");
+        normalized = normalized.replaceAll("\n{2,}", "\n");
+        return normalized.strip();
+    }
+
+    /**
+     * Checks whether a response is cached for the given key.
+     *
+     * @param key the cache key
+     * @return true if a response is cached
+     * @throws SQLException if database access fails
+     */
+    public boolean contains(String key) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT 1 FROM response_cache WHERE cache_key = ?")) {
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached response object (the {@code response} field of a batch output line)
+     * for the given key, or null if there is none.
+     *
+     * @param key the cache key
+     * @return the cached response as JSON, or null
+     * @throws SQLException if database access fails
+     */
+    public JsonObject lookup(String key) throws SQLException {
+        String response = null;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT response FROM response_cache WHERE cache_key = ?")) {
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    response = rs.getString("response");
+                }
+            }
+        }
+
+        if (response == null) {
+            return null;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE response_cache SET hits = hits + 1, last_hit_at = ? WHERE cache_key = ?")) {
+            stmt.setLong(1, System.currentTimeMillis() / 1000);
+            stmt.setString(2, key);
+            stmt.executeUpdate();
+        }
+
+        return JsonParser.parseString(response).getAsJsonObject();
+    }
+
+    /**
+     * Stores a response in the cache, replacing any previous entry with the same key.
+     *
+     * @param key the cache key
+     * @param model the model that produced the response
+     * @param response the response object (the {@code response} field of a batch output line)
+     * @throws IllegalArgumentException if the response is not a successful one
+     * @throws SQLException if database access fails
+     */
+    public void store(String key, String model, JsonObject response) throws SQLException {
+        if (!isSuccessful(response)) {
+            throw new IllegalArgumentException("Only successful responses can be cached");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO response_cache (cache_key, model, response, hits, created_at) " +
+                "VALUES (?, ?, ?, 0, ?)")) {
+            stmt.setString(1, key);
+            stmt.setString(2, model);
+            stmt.setString(3, response.toString());
+            stmt.setLong(4, System.currentTimeMillis() / 1000);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Forgets the requests registered for a task. Called before a new JSONL is generated.
+     *
+     * @param taskId the task ID
+     * @throws SQLException if database access fails
+     */
+    public void clearRequests(int taskId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "DELETE FROM response_cache_requests WHERE task_id = ?")) {
+            stmt.setInt(1, taskId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Records the cache key of a request and whether it was sent in the batch or served from the cache.
+     *
+     * @param taskId the task ID
+     * @param customId the custom_id of the request
+     * @param key the cache key
+     * @param source {@link #SOURCE_BATCH} or {@link #SOURCE_CACHE}
+     * @throws SQLException if database access fails
+     */
+    public void registerRequest(int taskId, String customId, String key, String source) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO response_cache_requests (task_id, custom_id, cache_key, source) " +
+                "VALUES (?, ?, ?, ?)")) {
+            stmt.setInt(1, taskId);
+            stmt.setString(2, customId);
+            stmt.setString(3, key);
+            stmt.setString(4, source);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Stores in the cache every successful response of a downloaded batch output file
+     * whose request was registered for the task.
+     *
+     * @param taskId the task ID
+     * @param responsesFile the batch output file (assessment_responses.jsonl)
+     * @return the number of responses stored
+     * @throws IOException if the file cannot be read
+     * @throws SQLException if database access fails
+     */
+    public int storeBatchResults(int taskId, File responsesFile) throws IOException, SQLException {
+        int stored = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(responsesFile.toPath(), StandardCharsets.UTF_8);
+             PreparedStatement keyStmt = connection.prepareStatement(
+                 "SELECT cache_key FROM response_cache_requests WHERE task_id = ? AND custom_id = ? AND source = ?")) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                JsonObject batchLine = JsonParser.parseString(line).getAsJsonObject();
+                JsonElement customId = batchLine.get("custom_id");
+                if (customId == null || customId.isJsonNull()) {
+                    continue;
+                }
+                JsonObject response = getSuccessfulResponse(batchLine);
+                if (response == null) {
+                    evictFailed(taskId, Set.of(customId.getAsString()));
+                    continue;
+                }
+
+                keyStmt.setInt(1, taskId);
+                keyStmt.setString(2, customId.getAsString());
+                keyStmt.setString(3, SOURCE_BATCH);
+                try (ResultSet rs = keyStmt.executeQuery()) {
+                    if (rs.next()) {
+                        JsonObject body = response.getAsJsonObject("body");
+                        String model = body.has("model") ? body.get("model").getAsString() : "unknown";
+                        store(rs.getString("cache_key"), model, response);
+                        stored++;
+                    }
+                }
+            }
+        }
+
+        logger.info("Stored {} responses in the response cache for task {}", stored, taskId);
+        return stored;
+    }
+
+    /**
+     * Handles requests of the task that were sent and failed: their cache entries are evicted,
+     * and the requests that were going to be served from their response (identical submissions
+     * registered as {@link #SOURCE_CACHE}) are returned, so that the caller marks them as failed
+     * too. They stay registered with the same key, so they are materialised as soon as a retry
+     * of the original request succeeds.
+     *
+     * @param taskId the task ID
+     * @param failedCustomIds the custom_ids of the failed requests
+     * @return the custom_ids of the cache-served requests that depended on a failed request
+     * @throws SQLException if database access fails
+     */
+    public Set<String> evictFailed(int taskId, Collection<String> failedCustomIds) throws SQLException {
+        Set<String> dependents = new LinkedHashSet<>();
+        try (PreparedStatement keyStmt = connection.prepareStatement(
+                 "SELECT cache_key FROM response_cache_requests WHERE task_id = ? AND custom_id = ? AND source = ?");
+             PreparedStatement evictStmt = connection.prepareStatement(
+                 "DELETE FROM response_cache WHERE cache_key = ?");
+             PreparedStatement dependentsStmt = connection.prepareStatement(
+                 "SELECT custom_id FROM response_cache_requests WHERE task_id = ? AND cache_key = ? AND source = ?")) {
+
+            for (String customId : failedCustomIds) {
+                keyStmt.setInt(1, taskId);
+                keyStmt.setString(2, customId);
+                keyStmt.setString(3, SOURCE_BATCH);
+                String key;
+                try (ResultSet rs = keyStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        continue;
+                    }
+                    key = rs.getString("cache_key");
+                }
+
+                evictStmt.setString(1, key);
+                if (evictStmt.executeUpdate() > 0) {
+                    logger.info("Evicted cached response {} after request {} failed", key, customId);
+                }
+
+                dependentsStmt.setInt(1, taskId);
+                dependentsStmt.setString(2, key);
+                dependentsStmt.setString(3, SOURCE_CACHE);
+                try (ResultSet rs = dependentsStmt.executeQuery()) {
+                    while (rs.next()) {
+                        dependents.add(rs.getString("custom_id"));
+                    }
+                }
+            }
+        }
+
+        if (!dependents.isEmpty()) {
+            logger.warn("{} cache-served requests of task {} depend on failed requests", dependents.size(), taskId);
+        }
+        return dependents;
+    }
+
+    /**
+     * Appends to the batch output file a line for every request of the task that was served
+     * from the cache, using the same format as the Batch API output.
+     * Requests already present in the file are skipped.
+     *
+     * @param taskId the task ID
+     * @param responsesFile the batch output file (assessment_responses.jsonl); created if it does not exist
+     * @return the number of lines appended
+     * @throws IOException if the file cannot be read or written
+     * @throws SQLException if database access fails
+     */
+    public int materialiseCachedResults(int taskId, File responsesFile) throws IOException, SQLException {
+        Set<String> presentIds = new HashSet<>();
+        if (responsesFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(responsesFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        JsonElement customId = JsonParser.parseString(line).getAsJsonObject().get("custom_id");
+                        if (customId != null && !customId.isJsonNull()) {
+                            presentIds.add(customId.getAsString());
+                        }
+                    }
+                }
+            }
+        }
+
+        int appended = 0;
+        int missing = 0;
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT custom_id, cache_key FROM response_cache_requests WHERE task_id = ? AND source = ? ORDER BY custom_id");
+             BufferedWriter writer = Files.newBufferedWriter(responsesFile.toPath(), StandardCharsets.UTF_8,
+                 StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            stmt.setInt(1, taskId);
+            stmt.setString(2, SOURCE_CACHE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String customId = rs.getString("custom_id");
+                    if (presentIds.contains(customId)) {
+                        continue;
+                    }
+
+                    String key = rs.getString("cache_key");
+                    JsonObject response = lookup(key);
+                    if (response == null) {
+                        // La petición original con la misma clave falló o aún no se ha descargado
+                        missing++;
+                        continue;
+                    }
+
+                    JsonObject batchLine = new JsonObject();
+                    batchLine.addProperty("id", "cache_" + key);
+                    batchLine.addProperty("custom_id", customId);
+                    batchLine.add("response", response);
+                    batchLine.add("error", null);
+
+                    writer.write(batchLine.toString());
+                    writer.newLine();
+                    appended++;
+                }
+            }
+        }
+
+        if (missing > 0) {
+            logger.warn("{} cached requests of task {} have no stored response yet", missing, taskId);
+        }
+        logger.info("Materialised {} cached responses for task {} into {}", appended, taskId, responsesFile);
+        return appended;
+    }
+
+    /**
+     * Returns the response object of a batch output line if the request succeeded, or null otherwise.
+     */
+    private JsonObject getSuccessfulResponse(JsonObject batchLine) {
+        JsonElement error = batchLine.get("error");
+        if (error != null && !error.isJsonNull()) {
+            return null;
+        }
+
+        JsonElement response = batchLine.get("response");
+        if (response == null || !response.isJsonObject()) {
+            return null;
+        }
+
+        JsonObject responseObject = response.getAsJsonObject();
+        return isSuccessful(responseObject) ? responseObject : null;
+    }
+
+    /**
+     * Checks that a response object has status 200 and a body.
+     */
+    private static boolean isSuccessful(JsonObject response) {
+        JsonElement statusCode = response.get("status_code");
+        return statusCode != null && !statusCode.isJsonNull() && statusCode.getAsInt() == 200
+            && response.has("body") && response.get("body").isJsonObject();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Resolves the task a user refers to on the command line to its row in the {@code tasks} table.
+ *
+ * <p>A reference is either the number shown in the task lists (1 is the most recent task),
+ * {@code id:<n>} for the stable task ID, or {@code moodle:<id>} for the Moodle assignment ID.
+ * List numbers are looked up with {@code LIMIT 1 OFFSET n-1} over the index on
+ * {@code tasks.created_at}, so only the requested row is read, and per-task aggregates such as
+ * the submission count are computed only for the resolved task.</p>
+ */
+public class TaskResolver {
+
+    /**
+     * Order of the task lists. The ID breaks ties between tasks added in the same second,
+     * so that list numbers are stable; the index on created_at also covers it, since SQLite
+     * stores the rowid in every index entry.
+     */
+    public static final String LIST_ORDER = "created_at DESC, id DESC";
+
+    /** Prefix of references to the stable task ID. */
+    public static final String ID_PREFIX = "id:";
+    /** Prefix of references to the Moodle assignment ID. */
+    public static final String MOODLE_PREFIX = "moodle:";
+
+    private static final String COLUMNS = "SELECT id, name, moodle_task_id, grading_config_id FROM tasks ";
+
+    private final Connection connection;
+
+    /**
+     * Constructs a TaskResolver, creating the indexes it relies on if they do not exist yet.
+     *
+     * @param connection database connection
+     * @throws SQLException if the indexes cannot be created
+     */
+    public TaskResolver(Connection connection) throws SQLException {
+        this.connection = connection;
+        createIndexesIfNotExist();
+    }
+
+    private void createIndexesIfNotExist() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_created_at ON tasks(created_at)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_moodle_task_id ON tasks(moodle_task_id)");
+        }
+    }
+
+    /**
+     * Checks whether a command-line argument is a well-formed task reference.
+     *
+     * @param reference the argument
+     * @return true for a positive list number, {@code id:<n>} with a positive n, or a non-empty
+     *         {@code moodle:<id>}
+     */
+    public static boolean isValidReference(String reference) {
+        try {
+            if (reference.startsWith(ID_PREFIX)) {
+                return Integer.parseInt(reference.substring(ID_PREFIX.length())) > 0;
+            }
+            if (reference.startsWith(MOODLE_PREFIX)) {
+                return !reference.substring(MOODLE_PREFIX.length()).isEmpty();
+            }
+            return Integer.parseInt(reference) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves a task reference.
+     *
+     * @param reference a list number, {@code id:<n>} or {@code moodle:<id>}
+     * @return the task, or null if no task matches
+     * @throws IllegalArgumentException if the reference is not well formed
+     * @throws SQLException if the query fails
+     */
+    public ResolvedTask resolve(String reference) throws SQLException {
+        if (!isValidReference(reference)) {
+            throw new IllegalArgumentException("Invalid task reference: " + reference);
+        }
+        if (reference.startsWith(ID_PREFIX)) {
+            return findById(Integer.parseInt(reference.substring(ID_PREFIX.length())));
+        }
+        if (reference.startsWith(MOODLE_PREFIX)) {
+            return findByMoodleId(reference.substring(MOODLE_PREFIX.length()));
+        }
+        return findByListNumber(Integer.parseInt(reference));
+    }
+
+    /**
+     * Finds the task shown with the given number in the task lists.
+     *
+     * @param listNumber 1-based position in {@link #LIST_ORDER}
+     * @return the task, or null if there are fewer tasks
+     * @throws SQLException if the query fails
+     */
+    public ResolvedTask findByListNumber(int listNumber) throws SQLException {
+        if (listNumber < 1) {
+            return null;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                COLUMNS + "ORDER BY " + LIST_ORDER + " LIMIT 1 OFFSET ?")) {
+            stmt.setInt(1, listNumber - 1);
+            return readTask(stmt);
+        }
+    }
+
+    /**
+     * Finds a task by its ID.
+     *
+     * @param taskId the task ID
+     * @return the task, or null if it does not exist
+     * @throws SQLException if the query fails
+     */
+    public ResolvedTask findById(int taskId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(COLUMNS + "WHERE id = ?")) {
+            stmt.setInt(1, taskId);
+            return readTask(stmt);
+        }
+    }
+
+    /**
+     * Finds a task by its Moodle assignment ID. If the same assignment was added more than
+     * once, the most recent task is returned.
+     *
+     * @param moodleTaskId the Moodle assignment ID
+     * @return the task, or null if no task has that ID
+     * @throws SQLException if the query fails
+     */
+    public ResolvedTask findByMoodleId(String moodleTaskId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                COLUMNS + "WHERE moodle_task_id = ? ORDER BY " + LIST_ORDER + " LIMIT 1")) {
+            stmt.setString(1, moodleTaskId);
+            return readTask(stmt);
+        }
+    }
+
+    /**
+     * Counts the submissions of a single task, using the index on {@code submissions.task_id}.
+     *
+     * @param taskId the task ID
+     * @return the number of submissions
+     * @throws SQLException if the query fails
+     */
+    public int countSubmissions(int taskId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT COUNT(*) FROM submissions WHERE task_id = ?")) {
+            stmt.setInt(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static ResolvedTask readTask(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            Integer gradingConfigId = rs.getObject("grading_config_id") != null
+                ? rs.getInt("grading_config_id") : null;
+            return new ResolvedTask(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("moodle_task_id"),
+                gradingConfigId);
+        }
+    }
+
+    /**
+     * A row of the {@code tasks} table.
+     */
+    public static class ResolvedTask {
+
+        private final int id;
+        private final String name;
+        private final String moodleTaskId;
+        private final Integer gradingConfigId;
+
+        public ResolvedTask(int id, String name, String moodleTaskId, Integer gradingConfigId) {
+            this.id = id;
+            this.name = name;
+            this.moodleTaskId = moodleTaskId;
+            this.gradingConfigId = gradingConfigId;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getMoodleTaskId() {
+            return moodleTaskId;
+        }
+
+        /**
+         * @return the grading configuration ID, or null if the task has no rubric yet
+         */
+        public Integer getGradingConfigId() {
+            return gradingConfigId;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-task submission counters, stored in the {@code task_status_counts} table and kept up to
+ * date by triggers on {@code submissions}. Task listings join this table instead of aggregating
+ * every submission of every task, so their cost depends on the number of tasks only.
+ *
+ * <p>The counters follow the same rules as the listings: {@code pending} counts submissions
+ * whose status is 'pending', and {@code completed} those with any other non-null status.
+ * Since the triggers live in the database, the counters stay consistent whichever code
+ * writes the submissions.</p>
+ */
+public class TaskStatusCounts {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatusCounts.class);
+
+    /** Name of the summary table, with the columns task_id, total, pending and completed. */
+    public static final String TABLE = "task_status_counts";
+
+    private static final String PENDING = "(%1$s.status IS 'pending')";
+    private static final String COMPLETED = "(%1$s.status IS NOT NULL AND %1$s.status IS NOT 'pending')";
+
+    private final Connection connection;
+
+    /**
+     * Constructs a TaskStatusCounts, creating the summary table and its triggers if they do not
+     * exist yet. When the table is created, it is filled from the existing submissions.
+     *
+     * @param connection database connection
+     * @throws SQLException if the table or the triggers cannot be created
+     */
+    public TaskStatusCounts(Connection connection) throws SQLException {
+        this.connection = connection;
+        ensureSchema(connection);
+    }
+
+    /**
+     * Creates the summary table and its triggers if they do not exist yet, filling the table
+     * from the existing submissions when it is created. Callers that only read the table
+     * (or rely on the triggers) need nothing else.
+     *
+     * @param connection database connection
+     * @throws SQLException if the table or the triggers cannot be created
+     */
+    public static void ensureSchema(Connection connection) throws SQLException {
+        if (!tableExists(connection)) {
+            createTable(connection);
+        }
+    }
+
+    private static boolean tableExists(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + TABLE + "'")) {
+            return rs.next();
+        }
+    }
+
+    private static void createTable(Connection connection) throws SQLException {
+        // The table, its triggers and its initial contents are created atomically,
+        // unless the caller already has a transaction open
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "task_id INTEGER PRIMARY KEY, " +
+                "total INTEGER NOT NULL DEFAULT 0, " +
+                "pending INTEGER NOT NULL DEFAULT 0, " +
+                "completed INTEGER NOT NULL DEFAULT 0)");
+
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS trg_task_status_counts_insert " +
+                "AFTER INSERT ON submissions BEGIN " +
+                increment("NEW") +
+                "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS trg_task_status_counts_delete " +
+                "AFTER DELETE ON submissions BEGIN " +
+                decrement("OLD") +
+                "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS trg_task_status_counts_update " +
+                "AFTER UPDATE OF status, task_id ON submissions " +
+                "WHEN OLD.status IS NOT NEW.status OR OLD.task_id IS NOT NEW.task_id BEGIN " +
+                decrement("OLD") +
+                increment("NEW") +
+                "END");
+            stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS trg_task_status_counts_task_delete " +
+                "AFTER DELETE ON tasks BEGIN " +
+                "DELETE FROM " + TABLE + " WHERE task_id = OLD.id; " +
+                "END");
+
+            rebuild(stmt);
+            if (autoCommit) {
+                connection.commit();
+            }
+            logger.debug("Created {} from the existing submissions", TABLE);
+        } catch (SQLException e) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static String increment(String row) {
+        return "INSERT OR IGNORE INTO " + TABLE + " (task_id) VALUES (" + row + ".task_id); " +
+            "UPDATE " + TABLE + " SET total = total + 1, " +
+            "pending = pending + " + String.format(PENDING, row) + ", " +
+            "completed = completed + " + String.format(COMPLETED, row) + " " +
+            "WHERE task_id = " + row + ".task_id; ";
+    }
+
+    private static String decrement(String row) {
+        return "UPDATE " + TABLE + " SET total = total - 1, " +
+            "pending = pending - " + String.format(PENDING, row) + ", " +
+            "completed = completed - " + String.format(COMPLETED, row) + " " +
+            "WHERE task_id = " + row + ".task_id; ";
+    }
+
+    /**
+     * Recomputes every counter from the submissions table, for example after the submissions
+     * were modified with the triggers disabled.
+     *
+     * @throws SQLException if the counters cannot be rebuilt
+     */
+    public void rebuild() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            rebuild(stmt);
+        }
+    }
+
+    private static void rebuild(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM " + TABLE);
+        stmt.executeUpdate("INSERT INTO " + TABLE + " (task_id, total, pending, completed) " +
+            "SELECT task_id, COUNT(*), " +
+            "SUM" + String.format(PENDING, "s") + ", " +
+            "SUM" + String.format(COMPLETED, "s") + " " +
+            "FROM submissions s GROUP BY task_id");
+    }
+}
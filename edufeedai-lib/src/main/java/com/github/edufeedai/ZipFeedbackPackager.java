@@ -10,23 +10,65 @@ import com.github.edufeedai.model.SubmissionIdMap;
 import com.github.edufeedai.model.openai.platform.response.BatchRequest;
 import com.google.gson.Gson;
 
-import java.io.ByteArrayOutputStream;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
+/**
+ * Packages the feedback of each student into a zip file with one Markdown entry per student.
+ * Entries are streamed to the zip file as they are read, so memory use does not grow with the
+ * cohort size. With more than one compression thread the entries are rendered and deflated in parallel.
+ */
 public class ZipFeedbackPackager {
 
+    private static final Logger logger = LoggerFactory.getLogger(ZipFeedbackPackager.class);
+
+    /**
+     * Layout of the entries in the zip file.
+     */
+    public enum Layout {
+        /** One {@code <student>.md} file per student at the root of the zip. */
+        FLAT,
+        /** One folder per Moodle participant with the feedback rendered as HTML (see {@link MoodleFeedbackLayout}). */
+        MOODLE
+    }
+
     final String assessmentFolder;
     final String submissionIdMapFile;
     final String feedbackFile;
     final String zipFileName;
+    final Connection connection;
+    final int taskId;
+
+    private int compressionThreads = 1;
+    private Layout layout = Layout.FLAT;
+    private MoodleFeedbackLayout moodleLayout;
+    private int skippedCount;
 
 
     public ZipFeedbackPackager(String assessmentFolder, String submissionIdMapFile, String feedbackFile, String zipFileName) {
@@ -35,6 +77,26 @@ public class ZipFeedbackPackager {
         this.submissionIdMapFile = submissionIdMapFile;
         this.feedbackFile = feedbackFile;
         this.zipFileName = zipFileName;
+        this.connection = null;
+        this.taskId = -1;
+    }
+
+    /**
+     * Creates a packager that reads the feedback of each submission from the database
+     * (imported with {@link BatchResultsImporter}) instead of parsing the batch output file.
+     *
+     * @param connection database connection
+     * @param taskId the task to package
+     * @param assessmentFolder the folder where the zip file will be created
+     * @param zipFileName the name of the zip file
+     */
+    public ZipFeedbackPackager(Connection connection, int taskId, String assessmentFolder, String zipFileName) {
+        this.assessmentFolder = assessmentFolder;
+        this.submissionIdMapFile = null;
+        this.feedbackFile = null;
+        this.zipFileName = zipFileName;
+        this.connection = connection;
+        this.taskId = taskId;
     }
 
     public ZipFeedbackPackager(String assessmentFolder, String submissionIdMapFile, String feedbackFile) {
@@ -42,118 +104,261 @@ public class ZipFeedbackPackager {
     }
 
     /**
-     * Generates a zip file containing the feedback files for each student.
-     * The zip file will be named "feedback.zip" and will be created in the assessment folder.
+     * Sets the number of threads used to deflate the entries. With 1 (the default) entries are
+     * compressed sequentially while they are written.
+     *
+     * @param compressionThreads the number of compression threads
      */
-    public void generateFeedbackZip() {
+    public void setCompressionThreads(int compressionThreads) {
+        if (compressionThreads < 1) {
+            throw new IllegalArgumentException("compressionThreads must be at least 1");
+        }
+        this.compressionThreads = compressionThreads;
+    }
 
-        SubmissionIdMap[] submissionIdMapArray = getSubmissionIdMap();
-        BatchRequest[] batchRequests = getBatchRequest();
+    /**
+     * Sets the layout of the entries in the zip file. Defaults to {@link Layout#FLAT}.
+     *
+     * @param layout the layout
+     */
+    public void setLayout(Layout layout) {
+        this.layout = Objects.requireNonNull(layout);
+        this.moodleLayout = layout == Layout.MOODLE ? new MoodleFeedbackLayout() : null;
+    }
 
-        Map<String,String> fileContent = new HashMap<>();
+    /**
+     * Returns the number of students left out of the last zip because their submission folder
+     * name does not identify a Moodle participant. Always 0 with the {@link Layout#FLAT} layout.
+     *
+     * @return the number of skipped students
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
 
+    /**
+     * Generates a zip file containing the feedback files for each student.
+     * The zip file is written to a temporary file in the assessment folder and moved into place
+     * once complete, so an interrupted run never leaves a truncated zip behind.
+     */
+    public void generateFeedbackZip() {
 
-        Map<String, String> submissionIdMap = new HashMap<>();
+        Path zipFile = Path.of(assessmentFolder, zipFileName);
+        Path tmpFile = zipFile.resolveSibling(zipFileName + ".tmp");
 
-        for (SubmissionIdMap submissionIdMapEntry : submissionIdMapArray) {
+        try {
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(channel)) {
+
+                if (compressionThreads > 1) {
+                    writeEntriesInParallel(zipOut);
+                } else {
+                    writeEntries((name, content) -> {
+                        zipOut.putArchiveEntry(newEntry(name));
+                        zipOut.write(content.get());
+                        zipOut.closeArchiveEntry();
+                    });
+                }
+            }
 
-            submissionIdMap.put( submissionIdMapEntry.getSubmission_id() , submissionIdMapEntry.getCustom_id());
+            try {
+                Files.move(tmpFile, zipFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, zipFile, StandardCopyOption.REPLACE_EXISTING);
+            }
 
+        } catch (IOException e) {
+            deleteQuietly(tmpFile);
+            throw new RuntimeException("Error writing zip file: " + zipFile.toAbsolutePath(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmpFile);
+            throw e;
         }
 
-        for (BatchRequest batchRequest : batchRequests) {
+    }
 
-            String submissionId = batchRequest.getCustom_id();
-            String response = batchRequest.getResponse().getBody().getChoices().get(0).getMessage().getContent();
+    /**
+     * Receives each zip entry as it is read. The content is produced on demand, so the
+     * parallel writer renders it on the compression threads.
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(String name, Supplier<byte[]> content) throws IOException;
+    }
 
-            String archivo = submissionIdMap.get(submissionId) + ".md";
+    /**
+     * Receives the feedback of each student as it is read.
+     */
+    @FunctionalInterface
+    private interface FeedbackConsumer {
+        void accept(String studentName, String feedback) throws IOException;
+    }
 
-            fileContent.put(archivo, response);
+    /**
+     * Renders and deflates the entries on a bounded pool of threads. The submitting thread compresses
+     * entries itself when the queue is full, which keeps the pending entries bounded.
+     */
+    private void writeEntriesInParallel(ZipArchiveOutputStream zipOut) throws IOException {
 
-        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(compressionThreads, compressionThreads,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(compressionThreads * 4),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        ParallelScatterZipCreator creator = new ParallelScatterZipCreator(executor);
 
-        createZipFile(fileContent);
+        try {
+            writeEntries((name, content) ->
+                creator.addArchiveEntry(newEntry(name), () -> new ByteArrayInputStream(content.get())));
+            creator.writeTo(zipOut);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing feedback entries", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error compressing feedback entries", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    private static ZipArchiveEntry newEntry(String name) {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        return entry;
     }
 
-    private SubmissionIdMap[] getSubmissionIdMap(String assessmentFolder, String submissionIdMapFile) {
+    /**
+     * Reads the feedback entries from the database or the batch output file and passes them to the writer.
+     * Only the first entry for each student is kept.
+     */
+    private void writeEntries(EntryWriter writer) throws IOException {
 
-        Gson gson = new Gson();
-        File file = new File(assessmentFolder + File.separator + submissionIdMapFile);
+        Set<String> written = new HashSet<>();
+        skippedCount = 0;
 
-        try {
-            String json = java.nio.file.Files.readString(file.toPath());
-            return gson.fromJson(json, SubmissionIdMap[].class);
+        FeedbackConsumer consumer = (studentName, feedback) -> {
+            String name = entryName(studentName);
+            if (name == null) {
+                skippedCount++;
+                logger.warn("Skipping {}: the folder name does not identify a Moodle participant", studentName);
+                return;
+            }
+            if (written.add(name)) {
+                writer.write(name, () -> render(feedback));
+            }
+        };
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new SubmissionIdMap[0];
+        if (connection != null) {
+            readFeedbackFromDatabase(consumer);
+        } else {
+            readFeedbackFromFile(consumer);
         }
     }
 
-    private SubmissionIdMap[] getSubmissionIdMap() {
-        return getSubmissionIdMap(assessmentFolder, submissionIdMapFile);
+    private String entryName(String studentName) {
+        if (layout == Layout.FLAT) {
+            return studentName + ".md";
+        }
+        return studentName != null ? MoodleFeedbackLayout.entryName(studentName) : null;
     }
 
-    private BatchRequest[] getBatchRequest(String assessmentFolder, String feedbackFile) {
-
-        Gson gson = new Gson();
-        File file = new File(assessmentFolder + File.separator + feedbackFile);
+    private byte[] render(String feedback) {
+        String content = layout == Layout.MOODLE ? moodleLayout.render(feedback) : feedback;
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
 
-        List<BatchRequest> batchRequests = new ArrayList<>();
+    /**
+     * Streams the imported feedback of every submission of the task.
+     */
+    private void readFeedbackFromDatabase(FeedbackConsumer consumer) throws IOException {
 
-        try ( Scanner sc = new Scanner(new FileInputStream(file))){
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT student_name, feedback FROM submissions " +
+                "WHERE task_id = ? AND feedback IS NOT NULL ORDER BY student_name")) {
 
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine();
-                BatchRequest batchRequest = gson.fromJson(line, BatchRequest.class);
-                batchRequests.add(batchRequest);
+            stmt.setInt(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString("student_name"), rs.getString("feedback"));
+                }
             }
-            BatchRequest[] n = new BatchRequest[batchRequests.size()];
-            return batchRequests.toArray(n);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new BatchRequest[0];
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading feedback of task " + taskId, e);
         }
     }
 
-    private BatchRequest[] getBatchRequest() {
-        return getBatchRequest(assessmentFolder, feedbackFile);
-    }
+    /**
+     * Streams the successful responses of the batch output file, one line at a time.
+     */
+    private void readFeedbackFromFile(FeedbackConsumer consumer) throws IOException {
 
-    private void createZipFile(String zipFileName,Map<String, String> fileContent) {
+        Map<String, String> submissionIdMap = new HashMap<>();
 
-        File zipFile = new File(assessmentFolder + File.separator + zipFileName);
+        for (SubmissionIdMap submissionIdMapEntry : getSubmissionIdMap()) {
 
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        try (ZipOutputStream zipOut = new ZipOutputStream(byteArrayOutputStream)) {
+            submissionIdMap.put( submissionIdMapEntry.getSubmission_id() , submissionIdMapEntry.getCustom_id());
+
+        }
+
+        Gson gson = new Gson();
+        File file = new File(assessmentFolder + File.separator + feedbackFile);
 
-            for (Map.Entry<String, String> entry : fileContent.entrySet()) {
-                String nombreArchivo = entry.getKey();
-                String contenido = entry.getValue();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
 
-                ZipEntry zipEntry = new ZipEntry(nombreArchivo);
-                zipOut.putNextEntry(zipEntry);
-                byte[] datos = contenido.getBytes(StandardCharsets.UTF_8);
-                zipOut.write(datos, 0, datos.length);
-                zipOut.closeEntry();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                BatchRequest batchRequest = gson.fromJson(line, BatchRequest.class);
+                String response = getContent(batchRequest);
+                if (response == null) {
+                    continue;
+                }
+
+                consumer.accept(submissionIdMap.get(batchRequest.getCustom_id()), response);
             }
+        }
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Returns the message content of a successful response, or null for error lines.
+     */
+    private static String getContent(BatchRequest batchRequest) {
+        if (batchRequest.getResponse() == null || batchRequest.getResponse().getBody() == null
+                || batchRequest.getResponse().getBody().getChoices() == null
+                || batchRequest.getResponse().getBody().getChoices().isEmpty()) {
+            return null;
         }
+        return batchRequest.getResponse().getBody().getChoices().get(0).getMessage().getContent();
+    }
+
+    private SubmissionIdMap[] getSubmissionIdMap(String assessmentFolder, String submissionIdMapFile) {
+
+        Gson gson = new Gson();
+        File file = new File(assessmentFolder + File.separator + submissionIdMapFile);
 
         try {
-            Files.write(zipFile.toPath(), byteArrayOutputStream.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Error writing zip file: " + zipFile.getAbsolutePath(), e);
+            String json = java.nio.file.Files.readString(file.toPath());
+            return gson.fromJson(json, SubmissionIdMap[].class);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new SubmissionIdMap[0];
         }
+    }
 
+    private SubmissionIdMap[] getSubmissionIdMap() {
+        return getSubmissionIdMap(assessmentFolder, submissionIdMapFile);
     }
 
-    private void createZipFile(Map<String, String> fileContent) {
-        createZipFile(zipFileName, fileContent);
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // The original error is the one worth reporting
+        }
     }
 
 }
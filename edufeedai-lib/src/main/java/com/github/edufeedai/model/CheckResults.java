@@ -6,17 +6,19 @@
 
 package com.github.edufeedai.model;
 
-import java.net.URL;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-
 import com.github.edufeedai.model.exceptions.AssessmentErrorException;
 import com.google.gson.Gson;
 
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
 public class CheckResults {
 
     private static final String API_URL = "http://localhost:3000/grade";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
     private static CheckResults _instance;
 
@@ -27,8 +29,11 @@ public class CheckResults {
         return _instance;
     }
 
-    private CheckResults(){
+    private final OkHttpClient client;
 
+    private CheckResults(){
+        // Cliente propio: el corrector local no debe pasar por el planificador ni las métricas de OpenAI
+        this.client = new OkHttpClient();
     }
 
     public Assessment createNewAssessment(String gradingCriteria,String taskSubmitted) throws AssessmentErrorException {
@@ -39,23 +44,16 @@ public class CheckResults {
 
         String json = gson.toJson(assessmentBase);
 
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URL(API_URL).toURI())
-                    .POST(HttpRequest.BodyPublishers.ofString(json))
-                    .header("Content-Type", "application/json")
-                    .build();
-
-            HttpClient client = HttpClient.newHttpClient();
+        Request request = new Request.Builder()
+                .url(API_URL)
+                .post(RequestBody.create(json, JSON))
+                .build();
 
-            //client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            //        .thenApply(HttpResponse::body)
-            //        .thenAccept(System.out::println)
-            //        .join();
+        try (Response response = client.newCall(request).execute()) {
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            String body = response.body() != null ? response.body().string() : "";
 
-            AssessmentBase assessmentBaseResponse = gson.fromJson(response.body(), AssessmentBase.class);
+            AssessmentBase assessmentBaseResponse = gson.fromJson(body, AssessmentBase.class);
 
             return new Assessment(assessmentBaseResponse);
 
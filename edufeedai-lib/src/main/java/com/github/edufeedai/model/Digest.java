@@ -6,10 +6,36 @@
 
 package com.github.edufeedai.model;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.DigestException;
 
+/**
+ * Calcula la huella hexadecimal de un texto o de un contenido binario.
+ * Las implementaciones pueden compartirse entre hilos.
+ */
 public interface Digest {
 
+    /**
+     * Calcula la huella de un texto codificado en UTF-8.
+     */
     String digest( String message) throws DigestException;
 
+    /**
+     * Calcula la huella del contenido de un flujo, leyéndolo por bloques hasta el final.
+     * El flujo no se cierra.
+     */
+    String digest(InputStream in) throws DigestException, IOException;
+
+    /**
+     * Calcula la huella del contenido de un archivo sin cargarlo entero en memoria.
+     */
+    default String digest(Path file) throws DigestException, IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return digest(in);
+        }
+    }
+
 }
@@ -0,0 +1,54 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Algoritmos de huella disponibles, para elegir el {@link Digest} de cada uso por nombre.
+ * Las huellas que se guardan de forma persistente (custom_id, claves de caché) cambian
+ * si se cambia el algoritmo.
+ */
+public enum DigestAlgorithm {
+
+    MD5(DigestMD5::new),
+    SHA1(DigestSHA1::new),
+    SHA256(DigestSHA256::new),
+    SHA512(DigestSHA512::new),
+    /** No criptográfico, para claves internas y detección de duplicados. */
+    XXH64(DigestXXH64::new);
+
+    private final Supplier<Digest> factory;
+
+    DigestAlgorithm(Supplier<Digest> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Crea una instancia del algoritmo.
+     */
+    public Digest create() {
+        return factory.get();
+    }
+
+    /**
+     * Devuelve el algoritmo con el nombre indicado, sin distinguir mayúsculas ni guiones
+     * ("sha-256", "SHA256", "xxh64").
+     *
+     * @throws IllegalArgumentException si el nombre no corresponde a ningún algoritmo
+     */
+    public static DigestAlgorithm fromName(String name) {
+        String normalized = name.trim().replace("-", "").toUpperCase(Locale.ROOT);
+        for (DigestAlgorithm algorithm : values()) {
+            if (algorithm.name().equals(normalized)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Algoritmo de huella desconocido: " + name);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Base de los {@link Digest} basados en {@link MessageDigest}.
+ * Cada hilo reutiliza su propia instancia de MessageDigest, de modo que un mismo objeto
+ * puede usarse desde varios hilos sin crear un MessageDigest por llamada.
+ */
+abstract class DigestBase implements Digest {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String algorithm;
+    private final ThreadLocal<MessageDigest> messageDigest;
+
+    DigestBase(String algorithm) {
+        this.algorithm = algorithm;
+        this.messageDigest = ThreadLocal.withInitial(this::newMessageDigest);
+    }
+
+    @Override
+    public String digest(String message) throws DigestException {
+        MessageDigest md = getMessageDigest();
+        md.reset();
+        return HEX.formatHex(md.digest(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String digest(InputStream in) throws DigestException, IOException {
+        MessageDigest md = getMessageDigest();
+        md.reset();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
+        }
+        return HEX.formatHex(md.digest());
+    }
+
+    private MessageDigest getMessageDigest() throws DigestException {
+        try {
+            return messageDigest.get();
+        } catch (IllegalStateException e) {
+            throw new DigestException(e.getMessage(), e.getCause());
+        }
+    }
+
+    private MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algoritmo de huella no disponible: " + algorithm, e);
+        }
+    }
+}
@@ -6,24 +6,9 @@
 
 package com.github.edufeedai.model;
 
-import java.security.DigestException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+public class DigestSHA512 extends DigestBase {
 
-public class DigestSHA512 implements Digest {
-    MessageDigest messageDigest = null;
-    @Override
-    public String digest(String message) throws DigestException {
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-512");
-        } catch (NoSuchAlgorithmException e) {
-            throw new DigestException(e);
-        }
-        byte[] hashBytes = messageDigest.digest(message.getBytes());
-        StringBuilder sb = new StringBuilder();
-        for (byte b : hashBytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+    public DigestSHA512() {
+        super("SHA-512");
     }
 }
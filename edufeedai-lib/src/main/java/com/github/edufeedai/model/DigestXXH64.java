@@ -0,0 +1,42 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Huella no criptográfica XXH64 (16 caracteres hexadecimales).
+ * Es mucho más rápida que las huellas SHA y sirve para detectar contenido duplicado o
+ * como clave de caché, pero no debe usarse donde un atacante pueda provocar colisiones.
+ */
+public class DigestXXH64 implements Digest {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public String digest(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        XXHash64 hash = new XXHash64();
+        hash.update(bytes, 0, bytes.length);
+        return HEX.toHexDigits(hash.digest());
+    }
+
+    @Override
+    public String digest(InputStream in) throws IOException {
+        XXHash64 hash = new XXHash64();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            hash.update(buffer, 0, read);
+        }
+        return HEX.toHexDigits(hash.digest());
+    }
+}
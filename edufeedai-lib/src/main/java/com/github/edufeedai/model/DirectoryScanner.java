@@ -8,41 +8,99 @@ package com.github.edufeedai.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Escanea la estructura de directorios del workspace.
  * Detecta tareas, entregas y archivos.
+ * Las tareas y los metadatos de sus entregas se procesan en paralelo en un ForkJoinPool,
+ * y cada tarea se recorre con una sola pasada de {@link Files#walkFileTree}, de modo que
+ * en workspaces montados en red las latencias de E/S se solapan en lugar de sumarse.
+ * Con un {@link WorkspaceIndex}, los metadatos que no han cambiado se toman del índice.
  */
 public class DirectoryScanner {
 
+    /** Hilos por defecto: la E/S domina, así que se usan al menos 4 aunque haya pocos núcleos. */
+    public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
     private final WorkspaceManager workspaceManager;
+    private final int parallelism;
+    private final WorkspaceIndex index;
 
     public DirectoryScanner(WorkspaceManager workspaceManager) {
+        this(workspaceManager, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param parallelism número de hilos usados para escanear (1 escanea de forma secuencial)
+     */
+    public DirectoryScanner(WorkspaceManager workspaceManager, int parallelism) {
+        this(workspaceManager, parallelism, null);
+    }
+
+    /**
+     * @param parallelism número de hilos usados para escanear (1 escanea de forma secuencial)
+     * @param index índice de metadatos; los archivos que no han cambiado desde el escaneo anterior
+     *              no se vuelven a leer, y el índice se guarda al terminar cada escaneo (puede ser null)
+     */
+    public DirectoryScanner(WorkspaceManager workspaceManager, int parallelism, WorkspaceIndex index) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism debe ser al menos 1");
+        }
         this.workspaceManager = workspaceManager;
+        this.parallelism = parallelism;
+        this.index = index;
     }
 
     /**
-     * Escanea el workspace y retorna todas las tareas encontradas.
+     * Escanea el workspace y retorna todas las tareas encontradas,
+     * en el orden en que aparecen en el directorio.
      */
     public List<TaskDirectory> scanWorkspace() throws IOException {
-        List<TaskDirectory> tasks = new ArrayList<>();
+        List<Path> taskDirs = new ArrayList<>();
         Path workspaceRoot = workspaceManager.getWorkspaceRoot();
 
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(workspaceRoot)) {
             for (Path entry : stream) {
                 if (workspaceManager.isTaskDirectory(entry)) {
-                    TaskMetadata metadata = workspaceManager.readTaskMetadata(entry);
-                    List<SubmissionDirectory> submissions = scanTask(entry);
-                    tasks.add(new TaskDirectory(entry, metadata, submissions));
+                    taskDirs.add(entry);
                 }
             }
         }
 
+        List<TaskDirectory> tasks = invoke(new RecursiveTask<List<TaskDirectory>>() {
+            @Override
+            protected List<TaskDirectory> compute() {
+                List<ForkJoinTask<TaskDirectory>> scans = new ArrayList<>();
+                for (Path taskDir : taskDirs) {
+                    scans.add(ForkJoinTask.adapt(() -> scanTaskDirectory(taskDir)));
+                }
+                return joinAll(scans);
+            }
+        });
+
+        if (index != null) {
+            // Tras un escaneo completo, lo que no se ha visto corresponde a directorios borrados
+            index.retainSeen();
+            index.save();
+        }
         return tasks;
     }
 
@@ -50,19 +108,156 @@ public class DirectoryScanner {
      * Escanea un directorio de tarea y retorna todas las entregas encontradas.
      */
     public List<SubmissionDirectory> scanTask(Path taskDir) throws IOException {
-        List<SubmissionDirectory> submissions = new ArrayList<>();
+        List<SubmissionDirectory> submissions = invoke(new RecursiveTask<List<SubmissionDirectory>>() {
+            @Override
+            protected List<SubmissionDirectory> compute() {
+                return readSubmissions(walkTask(taskDir));
+            }
+        });
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(taskDir)) {
-            for (Path entry : stream) {
-                if (workspaceManager.isSubmissionDirectory(entry)) {
-                    SubmissionMetadata metadata = workspaceManager.readSubmissionMetadata(entry);
-                    List<File> files = scanSubmission(entry);
-                    submissions.add(new SubmissionDirectory(entry, metadata, files));
-                }
+        if (index != null) {
+            index.save();
+        }
+        return submissions;
+    }
+
+    /**
+     * Resultado de recorrer un directorio de tarea: los archivos de cada carpeta de entrega y
+     * los atributos de los archivos de metadatos encontrados.
+     */
+    private static class TaskWalk {
+        BasicFileAttributes taskMetadata;
+        final Map<Path, List<File>> filesBySubmission = new LinkedHashMap<>();
+        final Map<Path, BasicFileAttributes> submissionMetadata = new HashMap<>();
+    }
+
+    private TaskDirectory scanTaskDirectory(Path taskDir) {
+        TaskWalk walk = walkTask(taskDir);
+        try {
+            TaskMetadata metadata = readTaskMetadata(
+                taskDir.resolve(WorkspaceManager.TASK_METADATA_FILE), walk.taskMetadata);
+            return new TaskDirectory(taskDir, metadata, readSubmissions(walk));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recorre la tarea una sola vez: sus metadatos, las carpetas de entrega y sus archivos.
+     * Se siguen los enlaces simbólicos; los que forman un ciclo se omiten.
+     */
+    private TaskWalk walkTask(Path taskDir) {
+        TaskWalk walk = new TaskWalk();
+
+        try {
+            Files.walkFileTree(taskDir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 2,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (dir.equals(taskDir)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        if (!dir.getFileName().toString().startsWith("submission_")) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        walk.filesBySubmission.put(dir, new ArrayList<>());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String name = file.getFileName().toString();
+                        if (file.getParent().equals(taskDir)) {
+                            if (name.equals(WorkspaceManager.TASK_METADATA_FILE)) {
+                                walk.taskMetadata = attrs;
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        List<File> files = walk.filesBySubmission.get(file.getParent());
+                        if (files == null) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        if (name.equals(WorkspaceManager.SUBMISSION_METADATA_FILE)) {
+                            walk.submissionMetadata.put(file.getParent(), attrs);
+                        } else if (attrs.isRegularFile() && !name.startsWith(".")) {
+                            // Excluir archivos de metadatos y directorios
+                            files.add(file.toFile());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                        if (exc instanceof FileSystemLoopException) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        throw exc;
+                    }
+                });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return walk;
+    }
+
+    /**
+     * Lee en paralelo los metadatos de las entregas recorridas. Solo son entregas los directorios
+     * con metadatos, en el orden del recorrido. Debe ejecutarse dentro del ForkJoinPool.
+     */
+    private List<SubmissionDirectory> readSubmissions(TaskWalk walk) {
+        List<ForkJoinTask<SubmissionDirectory>> reads = new ArrayList<>();
+        for (Map.Entry<Path, List<File>> submission : walk.filesBySubmission.entrySet()) {
+            Path submissionDir = submission.getKey();
+            BasicFileAttributes attrs = walk.submissionMetadata.get(submissionDir);
+            if (attrs == null) {
+                continue;
             }
+            reads.add(ForkJoinTask.adapt(() -> {
+                try {
+                    SubmissionMetadata metadata = readSubmissionMetadata(
+                        submissionDir.resolve(WorkspaceManager.SUBMISSION_METADATA_FILE), attrs);
+                    return new SubmissionDirectory(submissionDir, metadata, submission.getValue());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
         }
+        return joinAll(reads);
+    }
 
-        return submissions;
+    private TaskMetadata readTaskMetadata(Path metadataFile, BasicFileAttributes attrs) throws IOException {
+        if (index == null || attrs == null) {
+            return workspaceManager.readTaskMetadataFile(metadataFile);
+        }
+        return index.getTaskMetadata(metadataFile, attrs, workspaceManager);
+    }
+
+    private SubmissionMetadata readSubmissionMetadata(Path metadataFile, BasicFileAttributes attrs) throws IOException {
+        if (index == null) {
+            return workspaceManager.readSubmissionMetadataFile(metadataFile);
+        }
+        return index.getSubmissionMetadata(metadataFile, attrs, workspaceManager);
+    }
+
+    private static <T> List<T> joinAll(List<ForkJoinTask<T>> tasks) {
+        ForkJoinTask.invokeAll(tasks);
+        List<T> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    private <T> T invoke(RecursiveTask<T> task) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /**
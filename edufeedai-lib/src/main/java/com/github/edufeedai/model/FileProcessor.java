@@ -24,6 +24,10 @@ import org.slf4j.LoggerFactory;
 
 import com.github.edufeedai.model.exceptions.PDFExtractTextAndImageException;
 import com.github.edufeedai.model.ocrlib.OCRProcessor;
+import com.github.edufeedai.utils.MetricsRegistry;
+import com.github.edufeedai.utils.jfr.FileProcessEvent;
+import com.github.edufeedai.utils.jfr.OcrEvent;
+import com.github.edufeedai.utils.jfr.PdfExtractEvent;
 
 /**
  * Procesador de archivos que detecta tipos de archivo y extrae su contenido.
@@ -32,7 +36,6 @@ import com.github.edufeedai.model.ocrlib.OCRProcessor;
 public class FileProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(FileProcessor.class);
-    private final Tika tika;
 
     // Tipos MIME soportados para texto plano
     private static final List<String> TEXT_MIME_TYPES = Arrays.asList(
@@ -92,12 +95,34 @@ public class FileProcessor {
         public boolean isSupported() { return processingType != ProcessingType.UNSUPPORTED; }
     }
 
+    /**
+     * Tika se crea con la primera detección de tipo: cargar su registro de tipos MIME es caro
+     * y no todos los usos de FileProcessor lo necesitan (por ejemplo, listar archivos).
+     * Tika puede usarse desde varios hilos, así que se comparte entre instancias.
+     */
+    private static class TikaHolder {
+        static final Tika TIKA = new Tika();
+
+        static {
+            logger.info("FileProcessor inicializado con Apache Tika");
+        }
+    }
+
+    private volatile MetricsRegistry metrics = new MetricsRegistry();
+
     /**
      * Crea un nuevo procesador de archivos.
      */
     public FileProcessor() {
-        this.tika = new Tika();
-        logger.info("FileProcessor inicializado con Apache Tika");
+    }
+
+    /**
+     * Indica dónde registrar los tiempos de cada etapa: detección de tipo ("mime"),
+     * lectura de texto ("extract.text"), OCR ("extract.ocr") y extracción de texto de PDF ("extract.pdf").
+     * @param metrics Registro de métricas de la ejecución actual
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
     }
 
     /**
@@ -107,7 +132,10 @@ public class FileProcessor {
      * @throws IOException Si ocurre un error al leer el archivo
      */
     public String detectMimeType(File file) throws IOException {
-        String mimeType = tika.detect(file);
+        String mimeType;
+        try (MetricsRegistry.Sample sample = metrics.start("mime")) {
+            mimeType = TikaHolder.TIKA.detect(file);
+        }
         logger.debug("Tipo MIME detectado para {}: {}", file.getName(), mimeType);
         return mimeType;
     }
@@ -119,6 +147,31 @@ public class FileProcessor {
      * @throws IOException Si ocurre un error durante el procesamiento
      */
     public FileProcessingResult processFile(File file) throws IOException {
+        return processFile(file, null);
+    }
+
+    /**
+     * Procesa un archivo de la entrega de un estudiante y extrae su contenido según su tipo.
+     * Emite un evento JFR {@code edufeedai.FileProcess} con el tamaño, el tipo MIME y el resultado.
+     * @param file Archivo a procesar
+     * @param studentName Nombre del estudiante (puede ser null)
+     * @return Resultado del procesamiento
+     * @throws IOException Si ocurre un error durante el procesamiento
+     */
+    public FileProcessingResult processFile(File file, String studentName) throws IOException {
+        FileProcessEvent event = new FileProcessEvent();
+        event.begin();
+        try {
+            FileProcessingResult result = processFileContent(file);
+            commitEvent(event, file, studentName, result.getMimeType(), result.getProcessingType().name());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            commitEvent(event, file, studentName, null, e.getClass().getSimpleName());
+            throw e;
+        }
+    }
+
+    private FileProcessingResult processFileContent(File file) throws IOException {
         String mimeType = detectMimeType(file);
 
         // Verificar si es texto plano
@@ -164,7 +217,9 @@ public class FileProcessor {
 
         // Usar PDFExtractTextAndImagesOrdered para extraer contenido
         PDFExtractTextAndImagesOrdered extractor = new PDFExtractTextAndImagesOrdered(ocrProcessor);
-        extractor.extractImagesAndTextFromPDFFile(file.getAbsolutePath());
+        try (MetricsRegistry.Sample sample = metrics.start("extract.ocr")) {
+            extractor.extractImagesAndTextFromPDFFile(file.getAbsolutePath());
+        }
 
         // Obtener el archivo .txt generado
         String txtFilePath = file.getAbsolutePath().replaceFirst("[.][^.]+$", ".txt");
@@ -184,6 +239,7 @@ public class FileProcessor {
     /**
      * Extrae texto de un PDF usando OCRMyPDF y PDFBox.
      * Guarda el PDF original en .edufeedai/originals antes de procesarlo.
+     * Emite un evento JFR {@code edufeedai.PdfExtract} y otro {@code edufeedai.Ocr} por la pasada de OCRMyPDF.
      * @param file Archivo PDF a procesar
      * @param moodleTaskId ID de la tarea de Moodle (puede ser null)
      * @param studentName Nombre del estudiante
@@ -194,7 +250,32 @@ public class FileProcessor {
      */
     public FileProcessingResult extractTextFromPdf(File file, String moodleTaskId, String studentName, String workingDirectory)
             throws IOException, InterruptedException {
+        PdfExtractEvent event = new PdfExtractEvent();
+        event.begin();
+        long size = file.length();
+        String outcome = "ok";
+        try {
+            return extractPdfText(file, moodleTaskId, studentName, workingDirectory, event);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.getPath();
+                event.student = studentName;
+                // Tamaño del PDF recibido: OCRMyPDF lo reemplaza por su versión optimizada
+                event.size = size;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private FileProcessingResult extractPdfText(File file, String moodleTaskId, String studentName,
+            String workingDirectory, PdfExtractEvent event) throws IOException, InterruptedException {
         String mimeType = detectMimeType(file);
+        event.mimeType = mimeType;
 
         if (!isPdfFile(mimeType)) {
             throw new IOException("El archivo no es un PDF: " + file.getName());
@@ -217,7 +298,25 @@ public class FileProcessor {
 
             // 3. Procesar PDF con OCRMyPDF (genera {nombre}.ocr.pdf)
             logger.info("Ejecutando OCRMyPDF sobre: {}", file.getName());
-            Path ocrPdfPath = com.github.edufeedai.model.ocrlib.OCRMyPDF.ocrAndOptimize(file.toPath());
+            Path ocrPdfPath;
+            OcrEvent ocrEvent = new OcrEvent();
+            ocrEvent.begin();
+            String ocrOutcome = "ok";
+            try (MetricsRegistry.Sample sample = metrics.start("extract.ocr")) {
+                ocrPdfPath = com.github.edufeedai.model.ocrlib.OCRMyPDF.ocrAndOptimize(file.toPath());
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                ocrOutcome = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                ocrEvent.end();
+                if (ocrEvent.shouldCommit()) {
+                    ocrEvent.engine = "ocrmypdf";
+                    ocrEvent.path = file.getPath();
+                    ocrEvent.size = file.length();
+                    ocrEvent.outcome = ocrOutcome;
+                    ocrEvent.commit();
+                }
+            }
 
             // 4. Reemplazar el PDF original con la versión OCR
             logger.debug("Reemplazando PDF original con versión OCR");
@@ -258,9 +357,12 @@ public class FileProcessor {
         String extractionMethod = ocrSuccessful ? "PDF procesado con OCR" : "PDF sin OCR (básico)";
         logger.info("Extrayendo texto del {}: {}", extractionMethod, file.getName());
 
-        try (PDDocument document = Loader.loadPDF(file)) {
+        try (MetricsRegistry.Sample sample = metrics.start("extract.pdf");
+             PDDocument document = Loader.loadPDF(file)) {
             PDFTextStripper stripper = new PDFTextStripper();
             String extractedText = stripper.getText(document);
+            event.ocrApplied = ocrSuccessful;
+            event.characters = extractedText.length();
 
             logger.debug("Texto extraído de {}: {} caracteres", file.getName(), extractedText.length());
 
@@ -269,6 +371,19 @@ public class FileProcessor {
         }
     }
 
+    private static void commitEvent(FileProcessEvent event, File file, String studentName,
+                                    String mimeType, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.student = studentName;
+            event.size = file.length();
+            event.mimeType = mimeType;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
     /**
      * Obtiene todos los archivos de un directorio de forma recursiva.
      * @param directory Directorio a escanear
@@ -310,8 +425,10 @@ public class FileProcessor {
      * Lee el contenido de un archivo de texto.
      */
     private String readTextFile(File file) throws IOException {
-        byte[] bytes = Files.readAllBytes(file.toPath());
-        return new String(bytes, StandardCharsets.UTF_8);
+        try (MetricsRegistry.Sample sample = metrics.start("extract.text")) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
     }
 
     /**
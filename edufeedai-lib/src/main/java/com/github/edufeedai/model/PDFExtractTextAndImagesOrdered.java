@@ -9,6 +9,7 @@ package com.github.edufeedai.model;
 import com.github.edufeedai.model.exceptions.PDFExtractTextAndImageException;
 import com.github.edufeedai.model.ocrlib.OCRProcessor;
 import com.github.edufeedai.model.ocrlib.OCRProcessorException;
+import com.github.edufeedai.utils.jfr.OcrEvent;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -125,7 +126,7 @@ public class PDFExtractTextAndImagesOrdered extends PDFStreamEngine {
         File tempImageFile = File.createTempFile("pdf_image_", ".png");
         try {
             ImageIO.write(image.getImage(), "png", tempImageFile);
-            String ocrResult = ocrProcessor.performOCR(tempImageFile);
+            String ocrResult = performOCR(tempImageFile);
             contentBlocks.add(new ContentBlock("image", ocrResult));
             logger.debug("OCR realizado sobre imagen y añadido como bloque de contenido.");
         } catch (OCRProcessorException e) {
@@ -136,6 +137,33 @@ public class PDFExtractTextAndImagesOrdered extends PDFStreamEngine {
         }
     }
 
+    /**
+     * Realiza OCR sobre una imagen, emitiendo un evento JFR {@code edufeedai.Ocr}.
+     * @param imageFile Imagen a procesar
+     * @return Texto reconocido
+     * @throws OCRProcessorException Si el OCR falla
+     */
+    private String performOCR(File imageFile) throws OCRProcessorException {
+        OcrEvent event = new OcrEvent();
+        event.begin();
+        String outcome = "ok";
+        try {
+            return ocrProcessor.performOCR(imageFile);
+        } catch (OCRProcessorException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.engine = ocrProcessor.getClass().getSimpleName();
+                event.path = imageFile.getPath();
+                event.size = imageFile.length();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
     /**
      * Guarda los bloques de contenido en un archivo de texto.
      * @param outputFileName Nombre del archivo de salida
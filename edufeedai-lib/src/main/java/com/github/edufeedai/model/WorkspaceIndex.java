@@ -0,0 +1,232 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Índice persistente de los metadatos del workspace, guardado en
+ * {@code .edufeedai/workspace-index.json}.
+ * Para cada archivo de metadatos guarda su contenido ya leído junto con la fecha de modificación
+ * y el tamaño que tenía al leerlo. Mientras ambos coincidan con los del disco (un único stat,
+ * que el escáner ya obtiene al recorrer el directorio) se devuelve la copia del índice
+ * sin volver a abrir ni parsear el archivo.
+ * Puede usarse desde varios hilos.
+ */
+public class WorkspaceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceIndex.class);
+
+    public static final String INDEX_DIRECTORY = ".edufeedai";
+    public static final String INDEX_FILE = "workspace-index.json";
+
+    private static final int VERSION = 1;
+    private static final Gson GSON = new Gson();
+
+    private final Path workspaceRoot;
+    private final Path indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean dirty;
+
+    /**
+     * Contenido del archivo de índice.
+     */
+    private static class IndexFile {
+        int version;
+        Map<String, Entry> entries;
+    }
+
+    /**
+     * Metadatos de un archivo tal como estaban al leerlo.
+     */
+    private static class Entry {
+        long mtime;
+        long size;
+        TaskMetadata task;
+        SubmissionMetadata submission;
+
+        boolean matches(BasicFileAttributes attrs) {
+            return mtime == attrs.lastModifiedTime().toMillis() && size == attrs.size();
+        }
+    }
+
+    private WorkspaceIndex(Path workspaceRoot) {
+        this.workspaceRoot = workspaceRoot.toAbsolutePath();
+        this.indexFile = this.workspaceRoot.resolve(INDEX_DIRECTORY).resolve(INDEX_FILE);
+    }
+
+    /**
+     * Carga el índice del workspace. Si no existe, es de otra versión o está dañado,
+     * se empieza con un índice vacío.
+     */
+    public static WorkspaceIndex load(Path workspaceRoot) {
+        WorkspaceIndex index = new WorkspaceIndex(workspaceRoot);
+        try (Reader reader = Files.newBufferedReader(index.indexFile, StandardCharsets.UTF_8)) {
+            IndexFile file = GSON.fromJson(reader, IndexFile.class);
+            if (file != null && file.version == VERSION && file.entries != null) {
+                index.entries.putAll(file.entries);
+            }
+        } catch (NoSuchFileException e) {
+            // Primer escaneo del workspace
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable workspace index {}: {}", index.indexFile, e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Devuelve los metadatos de una tarea, del índice si el archivo no ha cambiado.
+     *
+     * @param metadataFile el archivo .task-metadata.json
+     * @param attrs atributos actuales del archivo
+     * @param workspaceManager usado para leer el archivo si ha cambiado
+     */
+    TaskMetadata getTaskMetadata(Path metadataFile, BasicFileAttributes attrs,
+            WorkspaceManager workspaceManager) throws IOException {
+        String key = key(metadataFile);
+        Entry entry = lookup(key, attrs);
+        if (entry != null && entry.task != null) {
+            return entry.task;
+        }
+        Entry updated = newEntry(attrs);
+        updated.task = workspaceManager.readTaskMetadataFile(metadataFile);
+        store(key, updated);
+        return updated.task;
+    }
+
+    /**
+     * Devuelve los metadatos de una entrega, del índice si el archivo no ha cambiado.
+     *
+     * @param metadataFile el archivo .submission-metadata.json
+     * @param attrs atributos actuales del archivo
+     * @param workspaceManager usado para leer el archivo si ha cambiado
+     */
+    SubmissionMetadata getSubmissionMetadata(Path metadataFile, BasicFileAttributes attrs,
+            WorkspaceManager workspaceManager) throws IOException {
+        String key = key(metadataFile);
+        Entry entry = lookup(key, attrs);
+        if (entry != null && entry.submission != null) {
+            return entry.submission;
+        }
+        Entry updated = newEntry(attrs);
+        updated.submission = workspaceManager.readSubmissionMetadataFile(metadataFile);
+        store(key, updated);
+        return updated.submission;
+    }
+
+    /**
+     * Elimina las entradas de los archivos que no se han consultado desde que se cargó el índice
+     * (directorios borrados). Solo tiene sentido tras escanear el workspace completo.
+     */
+    void retainSeen() {
+        Collection<String> stale = new HashSet<>(entries.keySet());
+        stale.removeAll(seen);
+        if (!stale.isEmpty()) {
+            entries.keySet().removeAll(stale);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Guarda el índice si ha cambiado. Se escribe en un archivo temporal que luego
+     * se renombra, de modo que un escaneo interrumpido nunca deja un índice a medias.
+     */
+    public void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Files.createDirectories(indexFile.getParent());
+        Path tmpFile = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+
+        IndexFile file = new IndexFile();
+        file.version = VERSION;
+        file.entries = entries;
+        try (Writer writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+            GSON.toJson(file, writer);
+        }
+        try {
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        dirty = false;
+    }
+
+    /**
+     * Número de metadatos servidos desde el índice.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Número de metadatos leídos del disco porque no estaban en el índice o habían cambiado.
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public Path getIndexFile() {
+        return indexFile;
+    }
+
+    private Entry lookup(String key, BasicFileAttributes attrs) {
+        seen.add(key);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(attrs)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private void store(String key, Entry entry) {
+        entries.put(key, entry);
+        dirty = true;
+    }
+
+    private static Entry newEntry(BasicFileAttributes attrs) {
+        Entry entry = new Entry();
+        entry.mtime = attrs.lastModifiedTime().toMillis();
+        entry.size = attrs.size();
+        return entry;
+    }
+
+    /**
+     * Clave del índice: la ruta relativa al workspace con separadores '/', para que el índice
+     * siga siendo válido si el workspace se mueve o se monta en otra ruta.
+     */
+    private String key(Path metadataFile) {
+        return workspaceRoot.relativize(metadataFile.toAbsolutePath()).toString().replace('\\', '/');
+    }
+}
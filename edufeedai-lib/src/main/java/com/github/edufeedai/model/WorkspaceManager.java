@@ -10,9 +10,10 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -24,20 +25,20 @@ import java.text.Normalizer;
  */
 public class WorkspaceManager {
 
-    private static final String TASK_METADATA_FILE = ".task-metadata.json";
-    private static final String SUBMISSION_METADATA_FILE = ".submission-metadata.json";
+    static final String TASK_METADATA_FILE = ".task-metadata.json";
+    static final String SUBMISSION_METADATA_FILE = ".submission-metadata.json";
+
+    /** Gson es seguro entre hilos: una única instancia para todos los gestores y escáneres. */
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
     private final Path workspaceRoot;
-    private final Gson gson;
 
     public WorkspaceManager(String workspaceRoot) {
         this.workspaceRoot = Paths.get(workspaceRoot).toAbsolutePath();
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
     }
 
     public WorkspaceManager(Path workspaceRoot) {
         this.workspaceRoot = workspaceRoot.toAbsolutePath();
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
     }
 
     /**
@@ -111,9 +112,7 @@ public class WorkspaceManager {
             throw new IOException("Task metadata file not found: " + metadataFile.getAbsolutePath());
         }
 
-        try (FileReader reader = new FileReader(metadataFile)) {
-            return gson.fromJson(reader, TaskMetadata.class);
-        }
+        return readTaskMetadataFile(metadataFile.toPath());
     }
 
     /**
@@ -125,8 +124,24 @@ public class WorkspaceManager {
             throw new IOException("Submission metadata file not found: " + metadataFile.getAbsolutePath());
         }
 
-        try (FileReader reader = new FileReader(metadataFile)) {
-            return gson.fromJson(reader, SubmissionMetadata.class);
+        return readSubmissionMetadataFile(metadataFile.toPath());
+    }
+
+    /**
+     * Lee un archivo .task-metadata.json cuya existencia ya se conoce.
+     */
+    TaskMetadata readTaskMetadataFile(Path metadataFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, TaskMetadata.class);
+        }
+    }
+
+    /**
+     * Lee un archivo .submission-metadata.json cuya existencia ya se conoce.
+     */
+    SubmissionMetadata readSubmissionMetadataFile(Path metadataFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, SubmissionMetadata.class);
         }
     }
 
@@ -135,8 +150,8 @@ public class WorkspaceManager {
      */
     public void writeTaskMetadata(Path taskDir, TaskMetadata metadata) throws IOException {
         File metadataFile = taskDir.resolve(TASK_METADATA_FILE).toFile();
-        try (FileWriter writer = new FileWriter(metadataFile)) {
-            gson.toJson(metadata, writer);
+        try (Writer writer = Files.newBufferedWriter(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(metadata, writer);
         }
     }
 
@@ -145,8 +160,8 @@ public class WorkspaceManager {
      */
     public void writeSubmissionMetadata(Path submissionDir, SubmissionMetadata metadata) throws IOException {
         File metadataFile = submissionDir.resolve(SUBMISSION_METADATA_FILE).toFile();
-        try (FileWriter writer = new FileWriter(metadataFile)) {
-            gson.toJson(metadata, writer);
+        try (Writer writer = Files.newBufferedWriter(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(metadata, writer);
         }
     }
 
@@ -0,0 +1,123 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Implementación incremental de XXH64 (xxHash de 64 bits, semilla 0).
+ * Cada instancia guarda el estado de un único cálculo y no debe compartirse entre hilos.
+ */
+final class XXHash64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static final VarHandle LONG_LE =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE =
+        MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+
+    private final byte[] buffer = new byte[32];
+    private int buffered;
+    private long totalLength;
+
+    void update(byte[] data, int offset, int length) {
+        totalLength += length;
+        int end = offset + length;
+
+        // Completar el bloque pendiente de la llamada anterior
+        if (buffered > 0) {
+            int fill = Math.min(32 - buffered, length);
+            System.arraycopy(data, offset, buffer, buffered, fill);
+            buffered += fill;
+            offset += fill;
+            if (buffered < 32) {
+                return;
+            }
+            processStripe(buffer, 0);
+            buffered = 0;
+        }
+
+        while (offset + 32 <= end) {
+            processStripe(data, offset);
+            offset += 32;
+        }
+
+        if (offset < end) {
+            buffered = end - offset;
+            System.arraycopy(data, offset, buffer, 0, buffered);
+        }
+    }
+
+    long digest() {
+        long hash;
+        if (totalLength >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += totalLength;
+
+        int offset = 0;
+        while (offset + 8 <= buffered) {
+            hash ^= round(0, (long) LONG_LE.get(buffer, offset));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            offset += 8;
+        }
+        if (offset + 4 <= buffered) {
+            hash ^= ((int) INT_LE.get(buffer, offset) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            offset += 4;
+        }
+        while (offset < buffered) {
+            hash ^= (buffer[offset] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            offset++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private void processStripe(byte[] data, int offset) {
+        v1 = round(v1, (long) LONG_LE.get(data, offset));
+        v2 = round(v2, (long) LONG_LE.get(data, offset + 8));
+        v3 = round(v3, (long) LONG_LE.get(data, offset + 16));
+        v4 = round(v4, (long) LONG_LE.get(data, offset + 24));
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME1 + PRIME4;
+    }
+}
@@ -13,18 +13,22 @@ import java.io.File;
 
 public class OCRProcessorTesseract implements OCRProcessor {
 
-    final private ITesseract tesseract;
-
-    public OCRProcessorTesseract() {
-
-        this.tesseract = new Tesseract();
-        tesseract.setDatapath("/usr/share/tesseract-ocr/5/tessdata");
-        tesseract.setLanguage("eng"); // Cambia según el idioma que desees usar
-        tesseract.setVariable("preserve_interword_spaces", "1");
-        tesseract.setPageSegMode(6);
-        tesseract.setVariable("user_defined_dpi", "300"); //PDFBox no proporciona DPI, por lo que es necesario definirlo
-        //tesseract.setVariable("tessedit_char_whitelist", "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ.,:/-_@()[]{}#$%&*=+><|!?~ \n");
-
+    private ITesseract tesseract;
+
+    /**
+     * Tesseract (y su librería nativa) se inicializa con el primer OCR, no al crear el procesador.
+     */
+    private synchronized ITesseract getTesseract() {
+        if (tesseract == null) {
+            tesseract = new Tesseract();
+            tesseract.setDatapath("/usr/share/tesseract-ocr/5/tessdata");
+            tesseract.setLanguage("eng"); // Cambia según el idioma que desees usar
+            tesseract.setVariable("preserve_interword_spaces", "1");
+            tesseract.setPageSegMode(6);
+            tesseract.setVariable("user_defined_dpi", "300"); //PDFBox no proporciona DPI, por lo que es necesario definirlo
+            //tesseract.setVariable("tessedit_char_whitelist", "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ.,:/-_@()[]{}#$%&*=+><|!?~ \n");
+        }
+        return tesseract;
     }
 
     @Override
@@ -33,7 +37,7 @@ public class OCRProcessorTesseract implements OCRProcessor {
         try {
 
             OCROpenCVImagePreprocess.Binarize(imageFile.getAbsolutePath());
-            return tesseract.doOCR(imageFile);
+            return getTesseract().doOCR(imageFile);
 
         } catch (Exception e) {
 
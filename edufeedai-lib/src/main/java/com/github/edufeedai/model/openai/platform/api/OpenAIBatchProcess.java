@@ -6,18 +6,23 @@
 
 package com.github.edufeedai.model.openai.platform.api;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
 import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJobList;
 import com.github.edufeedai.model.openai.platform.api.helpers.GsonResponseHandler;
 import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ContentType;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,23 +30,27 @@ import org.slf4j.LoggerFactory;
 /**
  * Clase para gestionar el procesamiento por lotes (batch) de archivos en la API de OpenAI.
  * Permite enviar un archivo para su procesamiento masivo usando la API REST de OpenAI.
+ * <p>
+ * Es segura para uso concurrente: no guarda estado mutable y cada petición se construye en la
+ * propia llamada. Las variantes {@code *Async} devuelven un {@link CompletableFuture} que se
+ * completa en los hilos del dispatcher del cliente HTTP compartido.
  */
 public class OpenAIBatchProcess {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenAIBatchProcess.class);
     /** Clave de API de OpenAI */
-    String apiKey;
+    final String apiKey;
     /** URL del endpoint batch de OpenAI */
-    String batchUrl;
-    /** Petición HTTP POST configurada para el batch */
-    HttpPost batchRequest;
+    final String batchUrl;
+    /** Cliente HTTP compartido */
+    private final OpenAIHttpClient httpClient;
 
     /**
      * Crea un proceso batch usando la URL por defecto de la API de OpenAI.
      * @param apiKey Clave de API de OpenAI
      */
     public OpenAIBatchProcess(String apiKey){
-        this(apiKey,"https://api.openai.com/v1/batches");
+        this(apiKey, OpenAIHttpClient.DEFAULT_BASE_URL + "/batches");
     }
 
     /**
@@ -50,11 +59,19 @@ public class OpenAIBatchProcess {
      * @param batchUrl URL del endpoint batch de OpenAI
      */
     public OpenAIBatchProcess(String apiKey,String batchUrl){
+        this(apiKey, batchUrl, OpenAIHttpClient.getInstance());
+    }
+
+    /**
+     * Crea un proceso batch que utiliza el cliente HTTP indicado.
+     * @param apiKey Clave de API de OpenAI
+     * @param batchUrl URL del endpoint batch de OpenAI
+     * @param httpClient Cliente HTTP compartido
+     */
+    public OpenAIBatchProcess(String apiKey, String batchUrl, OpenAIHttpClient httpClient){
         this.apiKey = apiKey;
         this.batchUrl = batchUrl;
-        batchRequest = new HttpPost(batchUrl);
-        batchRequest.setHeader("Authorization", "Bearer " + apiKey);
-        batchRequest.setHeader("Content-Type", "application/json");
+        this.httpClient = httpClient;
         logger.info("OpenAIBatchProcess inicializado. Endpoint: {}", batchUrl);
     }
 
@@ -67,52 +84,189 @@ public class OpenAIBatchProcess {
      */
     public BatchJob enqueueBatchProcess(String fileId) throws OpenAIAPIException {
         logger.info("Encolando archivo {} para procesamiento batch.", fileId);
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            // Crea el JSON con los parámetros de batch processing
-            JSONObject json = new JSONObject();
-            json.put("input_file_id", fileId);
-            json.put("endpoint", "/v1/chat/completions");
-            json.put("completion_window","24h");
-            StringEntity requestEntity = new StringEntity(json.toString(), ContentType.APPLICATION_JSON);
-            batchRequest.setEntity(requestEntity);
-            try (CloseableHttpResponse response = httpClient.execute(batchRequest)) {
-                int statusCode = response.getCode();
-                String responseBody = EntityUtils.toString(response.getEntity());
-                logger.debug("Respuesta recibida del endpoint batch. Status: {}", statusCode);
-                if (statusCode == 200) {
-                    logger.info("Procesamiento batch encolado correctamente para archivo {}.", fileId);
-                    return GsonResponseHandler.convertJsonToObject(responseBody,BatchJob.class);
-                } else {
-                    logger.error("Error en respuesta batch: {}", responseBody);
-                    throw new OpenAIAPIException(responseBody);
-                }
-            }
+        BatchJob job = execute(buildEnqueueRequest(fileId), BatchJob.class, "encolar archivo " + fileId);
+        logger.info("Procesamiento batch encolado correctamente para archivo {}.", fileId);
+        return job;
+    }
+
+    /**
+     * Versión asíncrona de {@link #enqueueBatchProcess(String)}.
+     *
+     * @param fileId ID del archivo previamente subido a OpenAI
+     * @return Futuro con el BatchJob creado; se completa con {@link OpenAIAPIException} si falla
+     */
+    public CompletableFuture<BatchJob> enqueueBatchProcessAsync(String fileId) {
+        logger.info("Encolando (async) archivo {} para procesamiento batch.", fileId);
+        return executeAsync(buildEnqueueRequest(fileId), BatchJob.class, "encolar archivo " + fileId);
+    }
+
+    /**
+     * Obtiene la información actual de un batch.
+     *
+     * @param jobId ID del batch
+     * @return El BatchJob con su estado actual
+     * @throws OpenAIAPIException Si ocurre un error en la petición o respuesta de la API
+     */
+    public BatchJob getBatchJob(String jobId) throws OpenAIAPIException {
+        logger.info("Obteniendo información del job batch con ID: {}", jobId);
+        return execute(buildGetRequest(jobId), BatchJob.class, "obtener job batch " + jobId);
+    }
+
+    /**
+     * Versión asíncrona de {@link #getBatchJob(String)}.
+     *
+     * @param jobId ID del batch
+     * @return Futuro con el BatchJob; se completa con {@link OpenAIAPIException} si falla
+     */
+    public CompletableFuture<BatchJob> getBatchJobAsync(String jobId) {
+        logger.debug("Obteniendo (async) información del job batch con ID: {}", jobId);
+        return executeAsync(buildGetRequest(jobId), BatchJob.class, "obtener job batch " + jobId);
+    }
+
+    /**
+     * Cancela un batch en curso. El batch pasa a estado "cancelling" y después a "cancelled".
+     *
+     * @param jobId ID del batch
+     * @return El BatchJob tras solicitar la cancelación
+     * @throws OpenAIAPIException Si ocurre un error en la petición o respuesta de la API
+     */
+    public BatchJob cancelBatchJob(String jobId) throws OpenAIAPIException {
+        logger.info("Cancelando job batch con ID: {}", jobId);
+        return execute(buildCancelRequest(jobId), BatchJob.class, "cancelar job batch " + jobId);
+    }
+
+    /**
+     * Versión asíncrona de {@link #cancelBatchJob(String)}.
+     *
+     * @param jobId ID del batch
+     * @return Futuro con el BatchJob; se completa con {@link OpenAIAPIException} si falla
+     */
+    public CompletableFuture<BatchJob> cancelBatchJobAsync(String jobId) {
+        logger.info("Cancelando (async) job batch con ID: {}", jobId);
+        return executeAsync(buildCancelRequest(jobId), BatchJob.class, "cancelar job batch " + jobId);
+    }
+
+    /**
+     * Lista los batches de la organización, del más reciente al más antiguo.
+     *
+     * @param limit Número máximo de batches a devolver (1-100)
+     * @param after ID del último batch de la página anterior, o null para la primera página
+     * @return Página de resultados
+     * @throws OpenAIAPIException Si ocurre un error en la petición o respuesta de la API
+     */
+    public BatchJobList listBatchJobs(int limit, String after) throws OpenAIAPIException {
+        logger.info("Listando jobs batch (limit={}, after={})", limit, after);
+        return execute(buildListRequest(limit, after), BatchJobList.class, "listar jobs batch");
+    }
+
+    /**
+     * Versión asíncrona de {@link #listBatchJobs(int, String)}.
+     *
+     * @param limit Número máximo de batches a devolver (1-100)
+     * @param after ID del último batch de la página anterior, o null para la primera página
+     * @return Futuro con la página de resultados; se completa con {@link OpenAIAPIException} si falla
+     */
+    public CompletableFuture<BatchJobList> listBatchJobsAsync(int limit, String after) {
+        logger.debug("Listando (async) jobs batch (limit={}, after={})", limit, after);
+        return executeAsync(buildListRequest(limit, after), BatchJobList.class, "listar jobs batch");
+    }
+
+    private Request buildEnqueueRequest(String fileId) {
+        // Crea el JSON con los parámetros de batch processing
+        JSONObject json = new JSONObject();
+        json.put("input_file_id", fileId);
+        json.put("endpoint", "/v1/chat/completions");
+        json.put("completion_window","24h");
+        return httpClient.newRequest(batchUrl, apiKey)
+                .post(RequestBody.create(json.toString(), OpenAIHttpClient.JSON))
+                .build();
+    }
+
+    private Request buildGetRequest(String jobId) {
+        return httpClient.newRequest(batchUrl + "/" + jobId, apiKey)
+                .get()
+                .build();
+    }
+
+    private Request buildCancelRequest(String jobId) {
+        // Cancelar dos veces el mismo batch no tiene efectos adicionales: se puede reintentar
+        return httpClient.newRequest(batchUrl + "/" + jobId + "/cancel", apiKey)
+                .tag(RequestScheduler.Idempotent.class, RequestScheduler.Idempotent.INSTANCE)
+                .post(RequestBody.create(new byte[0], OpenAIHttpClient.JSON))
+                .build();
+    }
+
+    private Request buildListRequest(int limit, String after) {
+        HttpUrl.Builder urlBuilder = HttpUrl.get(batchUrl).newBuilder()
+                .addQueryParameter("limit", String.valueOf(limit));
+        if (after != null && !after.isEmpty()) {
+            urlBuilder.addQueryParameter("after", after);
+        }
+        return httpClient.newRequest(urlBuilder.build().toString(), apiKey)
+                .get()
+                .build();
+    }
+
+    /**
+     * Ejecuta la petición de forma síncrona y convierte la respuesta JSON al tipo indicado.
+     */
+    private <T> T execute(Request request, Class<T> type, String operation) throws OpenAIAPIException {
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            return handleResponse(response, type, operation);
+        } catch (OpenAIAPIException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Excepción al encolar procesamiento batch para archivo {}", fileId, e);
+            logger.error("Excepción al {}", operation, e);
             throw new OpenAIAPIException(e);
         }
     }
 
-    public BatchJob getBatchJob(String jobId) throws OpenAIAPIException {
-        logger.info("Obteniendo información del job batch con ID: {}", jobId);
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(batchUrl + "/" + jobId);
-            request.setHeader("Authorization", "Bearer " + apiKey);
-            request.setHeader("Content-Type", "application/json");
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getCode();
-                String responseBody = EntityUtils.toString(response.getEntity());
-                logger.debug("Respuesta recibida al obtener job batch. Status: {}", statusCode);
-                if (statusCode == 200) {
-                    return GsonResponseHandler.convertJsonToObject(responseBody, BatchJob.class);
-                } else {
-                    logger.error("Error al obtener job batch: {}", responseBody);
-                    throw new OpenAIAPIException(responseBody);
+    /**
+     * Ejecuta la petición de forma asíncrona en el dispatcher del cliente compartido.
+     */
+    private <T> CompletableFuture<T> executeAsync(Request request, Class<T> type, String operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = httpClient.getClient().newCall(request);
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                logger.error("Excepción al {}", operation, e);
+                future.completeExceptionally(new OpenAIAPIException(e));
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                try (response) {
+                    future.complete(handleResponse(response, type, operation));
+                } catch (OpenAIAPIException e) {
+                    future.completeExceptionally(e);
+                } catch (Exception e) {
+                    logger.error("Excepción al {}", operation, e);
+                    future.completeExceptionally(new OpenAIAPIException(e));
                 }
             }
-        } catch (Exception e) {
-            logger.error("Excepción al obtener job batch con ID {}", jobId, e);
-            throw new OpenAIAPIException(e);
+        });
+
+        // Cancelar el futuro cancela también la llamada HTTP
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private <T> T handleResponse(Response response, Class<T> type, String operation)
+            throws IOException, OpenAIAPIException {
+        int statusCode = response.code();
+        ResponseBody body = response.body();
+        String responseBody = body != null ? body.string() : "";
+        logger.debug("Respuesta recibida al {}. Status: {}", operation, statusCode);
+        if (statusCode == 200) {
+            return GsonResponseHandler.convertJsonToObject(responseBody, type);
         }
+        logger.error("Error al {}: {}", operation, responseBody);
+        throw new OpenAIAPIException(responseBody);
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api;
+
+import java.io.IOException;
+
+import com.github.edufeedai.utils.jfr.OpenAICallEvent;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Interceptor que emite un evento JFR {@code edufeedai.OpenAICall} por cada petición a la API.
+ * Se instala detrás del {@link com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler},
+ * de modo que cada reintento es un evento distinto y la espera por el límite de ritmo no cuenta
+ * como duración de la llamada. Sin una grabación JFR activa su coste es despreciable.
+ */
+public class OpenAICallRecorder implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        OpenAICallEvent event = new OpenAICallEvent();
+        event.begin();
+        try {
+            Response response = chain.proceed(request);
+            event.end();
+            if (event.shouldCommit()) {
+                fill(event, request);
+                event.status = response.code();
+                event.responseSize = response.body() != null ? response.body().contentLength() : -1;
+                event.outcome = response.isSuccessful() ? "ok" : "http_error";
+                event.commit();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            event.end();
+            if (event.shouldCommit()) {
+                fill(event, request);
+                event.responseSize = -1;
+                event.outcome = e.getClass().getSimpleName();
+                event.commit();
+            }
+            throw e;
+        }
+    }
+
+    private static void fill(OpenAICallEvent event, Request request) {
+        event.method = request.method();
+        event.path = request.url().encodedPath();
+        RequestBody body = request.body();
+        try {
+            event.requestSize = body != null ? body.contentLength() : 0;
+        } catch (IOException e) {
+            event.requestSize = -1;
+        }
+    }
+}
@@ -13,14 +13,6 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
 
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.ContentType;
-import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -28,6 +20,11 @@ import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIExcept
 import com.github.edufeedai.model.openai.platform.api.interfaces.CorrectionPromptBuilder;
 import com.github.edufeedai.model.openai.platform.api.interfaces.exceptions.APIException;
 
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
 public class OpenAICorrectionPromptBuilder implements CorrectionPromptBuilder {
 
     private String messageRoleSystem;
@@ -35,8 +32,15 @@ public class OpenAICorrectionPromptBuilder implements CorrectionPromptBuilder {
     private String activityStatement;
     private String rubric;
     private String apiKey;
+    private final OpenAIHttpClient httpClient;
 
     public OpenAICorrectionPromptBuilder(String context, String activityStatement, String rubric, String apiKey) {
+        this(context, activityStatement, rubric, apiKey, OpenAIHttpClient.getInstance());
+    }
+
+    public OpenAICorrectionPromptBuilder(String context, String activityStatement, String rubric, String apiKey,
+                                         OpenAIHttpClient httpClient) {
+        this.httpClient = httpClient;
         this.messageRoleSystem = loadSystemConfigFromResources();
         this.context = context;
         this.activityStatement = activityStatement;
@@ -80,59 +84,43 @@ public class OpenAICorrectionPromptBuilder implements CorrectionPromptBuilder {
 
         String prompt = buildPrompt();
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-
-            HttpClientResponseHandler<String> responseHandler = this::handleResponse;
-
-            HttpPost httpPost = new HttpPost("https://api.openai.com/v1/chat/completions");
-            httpPost.setHeader("Content-Type", "application/json");
-            httpPost.setHeader("Authorization", "Bearer " + apiKey);
-
-            // Construir el cuerpo de la solicitud en JSON
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("model", "gpt-4o");
-
-            // Mensajes del chat
-            JSONObject systemMessage = new JSONObject();
-            systemMessage.put("role", "system");
-            systemMessage.put("content", messageRoleSystem);
+        // Construir el cuerpo de la solicitud en JSON
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("model", "gpt-4o");
 
-            JSONObject userMessage = new JSONObject();
-            userMessage.put("role", "user");
-            userMessage.put("content", prompt);
+        // Mensajes del chat
+        JSONObject systemMessage = new JSONObject();
+        systemMessage.put("role", "system");
+        systemMessage.put("content", messageRoleSystem);
 
-            
-            requestBody.put("messages", new JSONArray().put(systemMessage).put(userMessage));
+        JSONObject userMessage = new JSONObject();
+        userMessage.put("role", "user");
+        userMessage.put("content", prompt);
 
-           
-            httpPost.setEntity(new StringEntity(requestBody.toString(), ContentType.APPLICATION_JSON));
+        requestBody.put("messages", new JSONArray().put(systemMessage).put(userMessage));
 
-            // Ejecutamos la petición y manejamos la respuesta
-            return httpClient.execute(httpPost, responseHandler);
+        Request request = httpClient.newRequest(OpenAIHttpClient.DEFAULT_BASE_URL + "/chat/completions", apiKey)
+                .post(RequestBody.create(requestBody.toString(), OpenAIHttpClient.JSON))
+                .build();
 
-        } catch (RuntimeException e) {
-        
-            if (e.getCause() instanceof OpenAIAPIException) {
-                throw (OpenAIAPIException) e.getCause();
-            }
-            throw new OpenAIAPIException("Error inesperado al procesar la solicitud", e);
+        // Ejecutamos la petición y manejamos la respuesta
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            return handleResponse(response);
         } catch (IOException e) {
             throw new OpenAIAPIException("Error de I/O al realizar la solicitud a la API", e);
         }
     }
 
-    private String handleResponse(ClassicHttpResponse response) {
-        try {
-
-            var entity = response.getEntity();
-            String result = EntityUtils.toString(entity);
-
-            if (response.getCode() != 200) {
+    private String handleResponse(Response response) throws IOException, OpenAIAPIException {
+        ResponseBody body = response.body();
+        String result = body != null ? body.string() : "";
 
-                throw new OpenAIAPIException("Error en la petición a la API de OpenAI: código de respuesta "
-                        + response.getCode() + ", mensaje: " + result);
-            }
+        if (response.code() != 200) {
+            throw new OpenAIAPIException("Error en la petición a la API de OpenAI: código de respuesta "
+                    + response.code() + ", mensaje: " + result);
+        }
 
+        try {
             JSONObject jsonResponse = new JSONObject(result);
 
             JSONObject choices = jsonResponse.getJSONArray("choices").getJSONObject(0);
@@ -140,8 +128,7 @@ public class OpenAICorrectionPromptBuilder implements CorrectionPromptBuilder {
             return message.getString("content").trim();
 
         } catch (Exception e) {
-            
-            throw new RuntimeException("Error procesando la respuesta de la API", e);
+            throw new OpenAIAPIException("Error procesando la respuesta de la API", e);
         }
     }
 
@@ -7,16 +7,29 @@
 package com.github.edufeedai.model.openai.platform.api;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.json.JSONObject;
 
 import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.model.openai.platform.api.interfaces.UploadProgressListener;
 
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -25,6 +38,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
 
 public class OpenAIFileManagement implements AutoCloseable {
 
@@ -33,23 +47,32 @@ public class OpenAIFileManagement implements AutoCloseable {
 
     private static final Logger LOGGER = Logger.getLogger(OpenAIFileManagement.class.getName());
 
-    // Cliente reutilizable (mejor que crear uno por request)
+    private static final String PART_SUFFIX = ".part";
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 5;
+    private static final long RESUME_BACKOFF_MS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+    /** Batch files larger than this are sent with the Uploads API in parts */
+    public static final long CHUNKED_UPLOAD_THRESHOLD = 32L * 1024 * 1024;
+
+    // Cliente compartido entre todas las clases que llaman a OpenAI (mismo pool de conexiones)
+    private final OpenAIHttpClient httpClient;
     private final OkHttpClient client;
 
     public OpenAIFileManagement(String apiKey) {
-        this(apiKey, "https://api.openai.com/v1/files");
+        this(apiKey, OpenAIHttpClient.DEFAULT_BASE_URL + "/files");
     }
 
     public OpenAIFileManagement(String apiKey, String url) {
+        this(apiKey, url, OpenAIHttpClient.getInstance());
+    }
+
+    public OpenAIFileManagement(String apiKey, String url, OpenAIHttpClient httpClient) {
         this.apiKey = Objects.requireNonNull(apiKey, "apiKey");
         this.url = Objects.requireNonNull(url, "url");
-
-        this.client = new OkHttpClient.Builder()
-                // Ajusta si subes PDFs grandes
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(120, TimeUnit.SECONDS)
-                .build();
+        this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
+        this.client = httpClient.getClient();
     }
 
     /**
@@ -57,16 +80,44 @@ public class OpenAIFileManagement implements AutoCloseable {
      */
     public String uploadBatchFile(String filePath) throws OpenAIAPIException {
         File jsonlFile = new File(filePath);
-        return uploadFile(jsonlFile, "batch");
+        return uploadBatchFile(jsonlFile);
     }
 
     /**
      * Uploads a file to OpenAI for batch processing.
+     * Files larger than {@link #CHUNKED_UPLOAD_THRESHOLD} are uploaded in parts.
      */
     public String uploadBatchFile(File file) throws OpenAIAPIException {
+        if (file != null && file.length() > CHUNKED_UPLOAD_THRESHOLD) {
+            return uploadBatchFileInParts(file, null);
+        }
         return uploadFile(file, "batch");
     }
 
+    /**
+     * Uploads a batch file using the Uploads API: the file is sent in parts, in parallel,
+     * retrying each part independently, and assembled on the server.
+     *
+     * @param file the JSONL file
+     * @param listener receives progress as parts complete, may be null
+     * @return the ID of the resulting file
+     */
+    public String uploadBatchFileInParts(File file, UploadProgressListener listener) throws OpenAIAPIException {
+        OpenAIMultipartUpload upload = new OpenAIMultipartUpload(apiKey, getUploadsUrl(), httpClient);
+        return upload.upload(file, "batch", "application/jsonl", listener);
+    }
+
+    /**
+     * Derives the Uploads endpoint from the Files endpoint (".../v1/files" -> ".../v1/uploads").
+     */
+    private String getUploadsUrl() {
+        String base = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        if (base.endsWith("/files")) {
+            return base.substring(0, base.length() - "/files".length()) + "/uploads";
+        }
+        return OpenAIHttpClient.DEFAULT_BASE_URL + "/uploads";
+    }
+
     /**
      * Uploads a student file to OpenAI for user data purposes.
      */
@@ -146,6 +197,14 @@ public class OpenAIFileManagement implements AutoCloseable {
         }
     }
 
+    /**
+     * Downloads the content of a file to the given path.
+     * <p>
+     * The body is streamed to {@code <outputFilePath>.part}; if the connection drops, the download
+     * resumes from the bytes already written using an HTTP Range request. Once complete, the size is
+     * checked against Content-Length/Content-Range (and Content-MD5 when the server sends it) and the
+     * temporary file is atomically renamed into place, so the destination never holds a partial file.
+     */
     public void downloadFile(String fileId, String outputFilePath) throws OpenAIAPIException {
         try {
             if (fileId == null || fileId.isBlank()) {
@@ -157,38 +216,40 @@ public class OpenAIFileManagement implements AutoCloseable {
 
             String downloadUrl = url + "/" + fileId + "/content";
 
-            Request request = new Request.Builder()
-                    .url(downloadUrl)
-                    .addHeader("Authorization", "Bearer " + apiKey)
-                    .get()
-                    .build();
-
-            try (Response response = client.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    String responseBodyStr = response.body() != null ? response.body().string() : "";
-                    String errorMsg = "Error HTTP " + response.code() + " al descargar el archivo. Respuesta: " + responseBodyStr;
-                    LOGGER.severe(errorMsg);
-                    throw new OpenAIAPIException(errorMsg);
-                }
+            Path outputFile = Paths.get(outputFilePath).toAbsolutePath();
+            Path parent = outputFile.getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path partFile = outputFile.resolveSibling(outputFile.getFileName() + PART_SUFFIX);
+            // Un .part de una ejecución anterior puede pertenecer a otro archivo remoto
+            Files.deleteIfExists(partFile);
 
-                ResponseBody body = response.body();
-                if (body == null) {
-                    String errorMsg = "Respuesta sin cuerpo al descargar el archivo.";
-                    LOGGER.severe(errorMsg);
-                    throw new OpenAIAPIException(errorMsg);
+            DownloadState state = new DownloadState();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (downloadChunk(downloadUrl, partFile, state)) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    if (attempt >= MAX_DOWNLOAD_ATTEMPTS) {
+                        throw e;
+                    }
+                    long written = Files.exists(partFile) ? Files.size(partFile) : 0;
+                    LOGGER.warning(String.format("Descarga interrumpida (%s). Reanudando desde el byte %d (intento %d/%d)",
+                            e.getMessage(), written, attempt + 1, MAX_DOWNLOAD_ATTEMPTS));
+                    sleepBeforeResume(attempt);
                 }
+            }
 
-                File outputFile = new File(outputFilePath);
-                File parent = outputFile.getParentFile();
-                if (parent != null) parent.mkdirs();
-
-                try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-                    fos.write(body.bytes());
-                }
+            verifyDownload(partFile, state);
 
-                LOGGER.info(() -> String.format("Archivo descargado exitosamente a: %s", outputFilePath));
+            try {
+                Files.move(partFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
             }
 
+            LOGGER.info(() -> String.format("Archivo descargado exitosamente a: %s", outputFilePath));
+
         } catch (OpenAIAPIException e) {
             throw e;
         } catch (IOException e) {
@@ -203,20 +264,163 @@ public class OpenAIFileManagement implements AutoCloseable {
     }
 
     /**
-     * Cierra el cliente OkHttp y libera sus recursos (connection pool, threads, etc.)
+     * Performs one request of the download, resuming from the current size of the temporary file.
+     *
+     * @return true when the whole body has been written, false if the request must be repeated from zero
      */
-    @Override
-    public void close() {
-        if (client != null) {
-            client.dispatcher().executorService().shutdown();
-            client.connectionPool().evictAll();
-            if (client.cache() != null) {
-                try {
-                    client.cache().close();
-                } catch (IOException e) {
-                    LOGGER.warning("Error al cerrar cache de OkHttp: " + e.getMessage());
+    private boolean downloadChunk(String downloadUrl, Path partFile, DownloadState state)
+            throws IOException, OpenAIAPIException {
+        long offset = Files.exists(partFile) ? Files.size(partFile) : 0;
+
+        Request.Builder builder = new Request.Builder()
+                .url(downloadUrl)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .get();
+        if (offset > 0) {
+            builder.header("Range", "bytes=" + offset + "-");
+        }
+
+        try (Response response = client.newCall(builder.build()).execute()) {
+            if (response.code() == 416) {
+                // El fragmento guardado no encaja con el archivo remoto: empezar de cero
+                LOGGER.warning("Rango no satisfacible al reanudar la descarga; se reinicia desde el principio");
+                Files.deleteIfExists(partFile);
+                return false;
+            }
+
+            if (!response.isSuccessful()) {
+                String responseBodyStr = response.body() != null ? response.body().string() : "";
+                String errorMsg = "Error HTTP " + response.code() + " al descargar el archivo. Respuesta: " + responseBodyStr;
+                LOGGER.severe(errorMsg);
+                throw new OpenAIAPIException(errorMsg);
+            }
+
+            ResponseBody body = response.body();
+            if (body == null) {
+                String errorMsg = "Respuesta sin cuerpo al descargar el archivo.";
+                LOGGER.severe(errorMsg);
+                throw new OpenAIAPIException(errorMsg);
+            }
+
+            long position;
+            if (response.code() == 206) {
+                long[] range = parseContentRange(response.header("Content-Range"));
+                if (range == null || range[0] != offset) {
+                    LOGGER.warning("Content-Range inesperado al reanudar: " + response.header("Content-Range"));
+                    Files.deleteIfExists(partFile);
+                    return false;
                 }
+                position = offset;
+                if (range[1] >= 0) state.expectedSize = range[1];
+            } else {
+                // 200: el servidor ignora el Range y envía el archivo completo
+                position = 0;
+                if (body.contentLength() >= 0) state.expectedSize = body.contentLength();
+                state.contentMd5 = response.header("Content-MD5");
+            }
+
+            try (FileChannel channel = FileChannel.open(partFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                channel.position(position);
+
+                BufferedSource source = body.source();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                channel.force(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the size (and Content-MD5 when available) of the downloaded file and logs its SHA-256.
+     */
+    private void verifyDownload(Path partFile, DownloadState state) throws IOException, OpenAIAPIException {
+        long size = Files.size(partFile);
+        if (state.expectedSize >= 0 && size != state.expectedSize) {
+            Files.deleteIfExists(partFile);
+            throw new OpenAIAPIException("Tamaño de descarga incorrecto: esperado " + state.expectedSize + " bytes, recibido " + size);
+        }
+
+        MessageDigest sha256;
+        MessageDigest md5;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new OpenAIAPIException("Algoritmo de resumen no disponible", e);
+        }
+
+        try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                sha256.update(buffer.duplicate());
+                md5.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        if (state.contentMd5 != null && !state.contentMd5.isBlank()) {
+            String actualMd5 = Base64.getEncoder().encodeToString(md5.digest());
+            if (!actualMd5.equals(state.contentMd5.trim())) {
+                Files.deleteIfExists(partFile);
+                throw new OpenAIAPIException("Content-MD5 no coincide: esperado " + state.contentMd5 + ", calculado " + actualMd5);
             }
         }
+
+        String sha256Hex = HexFormat.of().formatHex(sha256.digest());
+        LOGGER.info(() -> String.format("Descarga verificada: %d bytes, SHA-256 %s", size, sha256Hex));
+    }
+
+    /**
+     * Parses a "bytes start-end/total" Content-Range header.
+     *
+     * @return {start, total} with total -1 if unknown, or null if the header is missing or malformed
+     */
+    private static long[] parseContentRange(String contentRange) {
+        if (contentRange == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        long start = Long.parseLong(matcher.group(1));
+        long total = "*".equals(matcher.group(3)) ? -1 : Long.parseLong(matcher.group(3));
+        return new long[] { start, total };
+    }
+
+    private static void sleepBeforeResume(int attempt) throws IOException {
+        try {
+            Thread.sleep(Math.min(RESUME_BACKOFF_MS * attempt, 10_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Descarga interrumpida");
+        }
+    }
+
+    /**
+     * Information gathered from the responses of a download, used to verify the result.
+     */
+    private static class DownloadState {
+        long expectedSize = -1;
+        String contentMd5;
+    }
+
+    /**
+     * El cliente HTTP es compartido, por lo que no se cierra aquí: sus conexiones quedan
+     * disponibles para las siguientes llamadas. Se mantiene por compatibilidad con try-with-resources.
+     */
+    @Override
+    public void close() {
+        // Nada que liberar: el pool de conexiones pertenece a OpenAIHttpClient
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Cliente HTTP compartido para todas las llamadas a la API de OpenAI.
+ * Mantiene un único pool de conexiones (keep-alive) y negocia HTTP/2 cuando el servidor lo
+ * admite, de modo que las consultas periódicas y las operaciones sobre varios lotes reutilizan
+ * las conexiones TLS en lugar de repetir el handshake en cada petición.
+ * Todas las peticiones pasan por un {@link RequestScheduler} que controla el ritmo de envío,
+ * los límites de la API y los reintentos, y cada intento emite un evento JFR ({@link OpenAICallRecorder}).
+ */
+public class OpenAIHttpClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIHttpClient.class);
+
+    /** URL base de la API de OpenAI */
+    public static final String DEFAULT_BASE_URL = "https://api.openai.com/v1";
+
+    /** Tipo MIME de los cuerpos JSON */
+    public static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    // Ajusta si subes PDFs grandes o descargas resultados de lotes grandes
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(120);
+    public static final Duration DEFAULT_WRITE_TIMEOUT = Duration.ofSeconds(120);
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final Duration KEEP_ALIVE = Duration.ofMinutes(5);
+    private static final int MAX_REQUESTS_PER_HOST = 16;
+
+    private static OpenAIHttpClient _instance;
+    private static Duration sharedConnectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private static Duration sharedReadTimeout = DEFAULT_READ_TIMEOUT;
+    private static Duration sharedWriteTimeout = DEFAULT_WRITE_TIMEOUT;
+
+    private final OkHttpClient client;
+    private final RequestScheduler scheduler;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration writeTimeout;
+
+    /**
+     * Devuelve la instancia compartida, creándola en el primer uso con los tiempos de espera
+     * indicados en {@link #configureTimeouts(Duration, Duration, Duration)} (o los de por defecto).
+     * @return cliente compartido
+     */
+    public static synchronized OpenAIHttpClient getInstance() {
+        if (null == _instance) {
+            _instance = new OpenAIHttpClient(sharedConnectTimeout, sharedReadTimeout, sharedWriteTimeout);
+        }
+        return _instance;
+    }
+
+    /**
+     * Establece los tiempos de espera de la instancia compartida. Si ya existe con otros valores,
+     * se sustituye por una nueva; la anterior no se cierra, porque puede seguir en uso.
+     * @param connectTimeout Tiempo máximo para establecer la conexión
+     * @param readTimeout Tiempo máximo entre bytes leídos de la respuesta
+     * @param writeTimeout Tiempo máximo entre bytes escritos en la petición
+     */
+    public static synchronized void configureTimeouts(Duration connectTimeout, Duration readTimeout,
+                                                      Duration writeTimeout) {
+        sharedConnectTimeout = connectTimeout;
+        sharedReadTimeout = readTimeout;
+        sharedWriteTimeout = writeTimeout;
+        if (_instance != null && !(_instance.connectTimeout.equals(connectTimeout)
+                && _instance.readTimeout.equals(readTimeout) && _instance.writeTimeout.equals(writeTimeout))) {
+            _instance = null;
+        }
+    }
+
+    /**
+     * Crea un cliente con los tiempos de espera por defecto.
+     */
+    public OpenAIHttpClient() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_WRITE_TIMEOUT);
+    }
+
+    /**
+     * Crea un cliente con tiempos de espera personalizados.
+     * @param connectTimeout Tiempo máximo para establecer la conexión
+     * @param readTimeout Tiempo máximo entre bytes leídos de la respuesta
+     * @param writeTimeout Tiempo máximo entre bytes escritos en la petición
+     */
+    public OpenAIHttpClient(Duration connectTimeout, Duration readTimeout, Duration writeTimeout) {
+        this(connectTimeout, readTimeout, writeTimeout, new RequestScheduler());
+    }
+
+    /**
+     * Crea un cliente con tiempos de espera y planificador de peticiones personalizados.
+     * @param connectTimeout Tiempo máximo para establecer la conexión
+     * @param readTimeout Tiempo máximo entre bytes leídos de la respuesta
+     * @param writeTimeout Tiempo máximo entre bytes escritos en la petición
+     * @param scheduler Planificador de ritmo y reintentos
+     */
+    public OpenAIHttpClient(Duration connectTimeout, Duration readTimeout, Duration writeTimeout,
+                            RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.writeTimeout = writeTimeout;
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .addInterceptor(scheduler)
+                .addInterceptor(new OpenAICallRecorder())
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .build();
+
+        logger.debug("OpenAIHttpClient inicializado (connect={}, read={}, write={})",
+                connectTimeout, readTimeout, writeTimeout);
+    }
+
+    /**
+     * Devuelve el cliente OkHttp subyacente.
+     * Las clases que necesiten otra configuración deben derivarla con {@code newBuilder()},
+     * que comparte el pool de conexiones y el dispatcher.
+     * @return cliente OkHttp compartido
+     */
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Devuelve el planificador de peticiones, para consultar sus métricas.
+     * @return planificador de peticiones
+     */
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Crea un constructor de petición con la cabecera de autorización de OpenAI.
+     * @param url URL de la petición
+     * @param apiKey Clave de API de OpenAI
+     * @return constructor de petición listo para añadir método y cuerpo
+     */
+    public Request.Builder newRequest(String url, String apiKey) {
+        return new Request.Builder()
+                .url(url)
+                .header("Authorization", "Bearer " + apiKey);
+    }
+
+    /**
+     * Devuelve el número de conexiones abiertas en el pool (activas y en reposo).
+     * @return número de conexiones del pool
+     */
+    public int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    /**
+     * Libera el pool de conexiones y los hilos del dispatcher.
+     * La instancia compartida no debe cerrarse mientras otras clases la utilicen.
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
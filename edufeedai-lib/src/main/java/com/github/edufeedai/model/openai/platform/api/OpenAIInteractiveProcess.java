@@ -0,0 +1,233 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Modo interactivo: envía las peticiones de un archivo JSONL de batch directamente a
+ * {@code /v1/chat/completions}, con concurrencia limitada, en lugar de usar la Batch API de 24 h.
+ * <p>
+ * Las respuestas correctas se escriben en el mismo formato que el archivo de salida de un batch
+ * ({@code assessment_responses.jsonl}) y las fallidas en un archivo de errores con el formato del
+ * {@code error_file} de la Batch API, de modo que las fases de descarga y empaquetado no cambian.
+ * El ritmo y los reintentos por límite de la API los gestiona el {@link RequestScheduler} del cliente.
+ */
+public class OpenAIInteractiveProcess {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIInteractiveProcess.class);
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+    /** Peticiones leídas y pendientes de escribir por cada hilo de envío. */
+    private static final int MAX_PENDING_PER_THREAD = 4;
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final OpenAIHttpClient httpClient;
+    private final int concurrency;
+
+    /**
+     * Resultado de procesar un archivo JSONL.
+     */
+    public static class Result {
+        private final int succeeded;
+        private final int failed;
+
+        Result(int succeeded, int failed) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * Crea un proceso interactivo contra la API de OpenAI con la concurrencia por defecto.
+     * @param apiKey Clave de API de OpenAI
+     */
+    public OpenAIInteractiveProcess(String apiKey) {
+        this(apiKey, OpenAIHttpClient.DEFAULT_BASE_URL, OpenAIHttpClient.getInstance(), DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Crea un proceso interactivo.
+     * @param apiKey Clave de API de OpenAI
+     * @param baseUrl URL base de la API (sin la versión en la ruta de cada petición, p.ej. "https://api.openai.com/v1")
+     * @param httpClient Cliente HTTP compartido
+     * @param concurrency Número máximo de peticiones simultáneas
+     */
+    public OpenAIInteractiveProcess(String apiKey, String baseUrl, OpenAIHttpClient httpClient, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency debe ser positivo");
+        }
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = httpClient;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Procesa todas las peticiones de un archivo JSONL de batch. El archivo se lee a medida que
+     * se envían las peticiones, así que la memoria no depende de su tamaño.
+     *
+     * @param jsonlFile Archivo JSONL generado por BatchJSONLGenerator
+     * @param outputFile Archivo donde se escriben las respuestas correctas (formato de salida de batch)
+     * @param errorFile Archivo donde se escriben las peticiones fallidas (formato de error_file de batch)
+     * @return número de peticiones correctas y fallidas
+     * @throws OpenAIAPIException Si no se puede leer la entrada o escribir la salida
+     */
+    public Result processJsonl(Path jsonlFile, Path outputFile, Path errorFile) throws OpenAIAPIException {
+        logger.info("Procesando {} en modo interactivo (concurrencia {})", jsonlFile.getFileName(), concurrency);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        // Peticiones enviadas cuyo resultado aún no se ha escrito, en el orden del archivo. Se limitan
+        // a unas pocas por hilo, de modo que el JSONL se lee a medida que se envía y no entero en memoria
+        Deque<Future<JsonObject>> pending = new ArrayDeque<>();
+        int maxPending = concurrency * MAX_PENDING_PER_THREAD;
+
+        int succeeded = 0;
+        int failed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(jsonlFile, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8);
+             BufferedWriter err = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+
+            int index = 0;
+            String line;
+            while ((line = reader.readLine()) != null || !pending.isEmpty()) {
+                if (line != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    final String request = line;
+                    final int requestNumber = ++index;
+                    pending.add(executor.submit(
+                        () -> execute(JsonParser.parseString(request).getAsJsonObject(), requestNumber)));
+                    if (pending.size() < maxPending) {
+                        continue;
+                    }
+                }
+
+                // Se escriben en el orden de entrada a medida que terminan
+                if (writeResult(pending.poll().get(), out, err)) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new OpenAIAPIException("Error al leer las peticiones o escribir los resultados del modo interactivo", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OpenAIAPIException("Procesamiento interactivo interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new OpenAIAPIException("Error inesperado en el procesamiento interactivo",
+                    e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info("Modo interactivo completado: {} correctas, {} fallidas", succeeded, failed);
+        return new Result(succeeded, failed);
+    }
+
+    /**
+     * Escribe el resultado de una petición en el archivo de respuestas o en el de errores.
+     * @return true si la petición ha sido correcta
+     */
+    private static boolean writeResult(JsonObject result, BufferedWriter out, BufferedWriter err) throws IOException {
+        JsonElement error = result.get("error");
+        if (error == null || error.isJsonNull()) {
+            out.write(result.toString());
+            out.newLine();
+            return true;
+        }
+        err.write(result.toString());
+        err.newLine();
+        return false;
+    }
+
+    /**
+     * Envía una petición del JSONL y devuelve la línea de resultado en formato de salida de batch.
+     */
+    private JsonObject execute(JsonObject jsonLine, int requestNumber) {
+        String customId = jsonLine.get("custom_id").getAsString();
+        String path = jsonLine.has("url") ? jsonLine.get("url").getAsString() : "/v1/chat/completions";
+        // La URL base ya incluye la versión ("/v1")
+        String url = baseUrl + (path.startsWith("/v1/") ? path.substring(3) : path);
+
+        JsonObject result = new JsonObject();
+        result.addProperty("id", "interactive_req_" + requestNumber);
+        result.addProperty("custom_id", customId);
+
+        // Repetir una corrección no tiene efectos secundarios, así que el planificador puede reintentar 5xx
+        Request request = httpClient.newRequest(url, apiKey)
+                .tag(RequestScheduler.Idempotent.class, RequestScheduler.Idempotent.INSTANCE)
+                .post(RequestBody.create(jsonLine.get("body").toString(), OpenAIHttpClient.JSON))
+                .build();
+
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            ResponseBody body = response.body();
+            String responseBody = body != null ? body.string() : "";
+
+            if (response.isSuccessful()) {
+                JsonObject responseObject = new JsonObject();
+                responseObject.addProperty("status_code", response.code());
+                responseObject.addProperty("request_id", response.header("x-request-id", ""));
+                responseObject.add("body", JsonParser.parseString(responseBody));
+                result.add("response", responseObject);
+                result.add("error", null);
+            } else {
+                logger.warn("Petición {} fallida con HTTP {}: {}", customId, response.code(), responseBody);
+                result.add("response", null);
+                result.add("error", error("http_" + response.code(), responseBody));
+            }
+        } catch (Exception e) {
+            logger.warn("Petición {} fallida: {}", customId, e.getMessage());
+            result.add("response", null);
+            result.add("error", error("request_failed", e.getMessage()));
+        }
+        return result;
+    }
+
+    private static JsonObject error(String code, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        return error;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.github.edufeedai.model.openai.platform.api.interfaces.UploadProgressListener;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+/**
+ * Subida de archivos grandes mediante la API de Uploads de OpenAI:
+ * se crea la subida ({@code POST /uploads}), se envían las partes en paralelo
+ * ({@code POST /uploads/{id}/parts}) reintentando cada una por separado, y se completa con la
+ * lista ordenada de partes ({@code POST /uploads/{id}/complete}), que devuelve el archivo final.
+ * Si algo falla, la subida se cancela.
+ */
+public class OpenAIMultipartUpload {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIMultipartUpload.class);
+
+    /** Tamaño de parte por defecto (el máximo admitido por la API es 64 MB) */
+    public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final int MAX_PART_ATTEMPTS = 3;
+    private static final long PART_RETRY_BACKOFF_MS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    private final String apiKey;
+    private final String uploadsUrl;
+    private final OpenAIHttpClient httpClient;
+    private final int partSize;
+    private final int parallelism;
+
+    /**
+     * Crea un cliente de subida por partes con el tamaño de parte y el paralelismo por defecto.
+     * @param apiKey Clave de API de OpenAI
+     * @param uploadsUrl URL del endpoint de uploads
+     * @param httpClient Cliente HTTP compartido
+     */
+    public OpenAIMultipartUpload(String apiKey, String uploadsUrl, OpenAIHttpClient httpClient) {
+        this(apiKey, uploadsUrl, httpClient, DEFAULT_PART_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Crea un cliente de subida por partes.
+     * @param apiKey Clave de API de OpenAI
+     * @param uploadsUrl URL del endpoint de uploads
+     * @param httpClient Cliente HTTP compartido
+     * @param partSize Tamaño de cada parte en bytes
+     * @param parallelism Número de partes que se suben a la vez
+     */
+    public OpenAIMultipartUpload(String apiKey, String uploadsUrl, OpenAIHttpClient httpClient,
+                                 int partSize, int parallelism) {
+        if (partSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("partSize y parallelism deben ser positivos");
+        }
+        this.apiKey = apiKey;
+        this.uploadsUrl = uploadsUrl;
+        this.httpClient = httpClient;
+        this.partSize = partSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sube un archivo por partes.
+     * @param file Archivo a subir
+     * @param purpose Propósito del archivo ("batch", "user_data"...)
+     * @param mimeType Tipo MIME del archivo
+     * @param listener Receptor del progreso, o null
+     * @return ID del archivo creado en OpenAI
+     * @throws OpenAIAPIException Si la subida falla
+     */
+    public String upload(File file, String purpose, String mimeType, UploadProgressListener listener)
+            throws OpenAIAPIException {
+        if (file == null || !file.isFile()) {
+            throw new OpenAIAPIException("El archivo no existe o no es un fichero válido: " + file);
+        }
+
+        Path path = file.toPath();
+        long totalBytes = file.length();
+        String md5 = md5Hex(path);
+        String uploadId = createUpload(file.getName(), purpose, mimeType, totalBytes);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<String>> parts = new ArrayList<>();
+            AtomicLong uploaded = new AtomicLong();
+            for (long offset = 0; offset < totalBytes; offset += partSize) {
+                final long partOffset = offset;
+                final long partLength = Math.min(partSize, totalBytes - offset);
+                final int partNumber = parts.size() + 1;
+                parts.add(executor.submit(() -> {
+                    String partId = uploadPart(uploadId, partNumber, path, partOffset, partLength);
+                    long done = uploaded.addAndGet(partLength);
+                    if (listener != null) {
+                        listener.onProgress(done, totalBytes);
+                    }
+                    return partId;
+                }));
+            }
+
+            List<String> partIds = new ArrayList<>();
+            for (Future<String> part : parts) {
+                partIds.add(part.get());
+            }
+
+            String fileId = completeUpload(uploadId, partIds, md5);
+            logger.info("Subida por partes completada: {} ({} bytes, {} partes) -> {}",
+                    file.getName(), totalBytes, partIds.size(), fileId);
+            return fileId;
+
+        } catch (ExecutionException e) {
+            cancelQuietly(uploadId);
+            Throwable cause = e.getCause();
+            if (cause instanceof OpenAIAPIException) {
+                throw (OpenAIAPIException) cause;
+            }
+            throw new OpenAIAPIException("Error al subir una parte del archivo " + file.getName(),
+                    cause instanceof Exception ? (Exception) cause : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelQuietly(uploadId);
+            throw new OpenAIAPIException("Subida interrumpida", e);
+        } catch (OpenAIAPIException e) {
+            cancelQuietly(uploadId);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String createUpload(String fileName, String purpose, String mimeType, long bytes)
+            throws OpenAIAPIException {
+        JSONObject json = new JSONObject();
+        json.put("filename", fileName);
+        json.put("purpose", purpose);
+        json.put("bytes", bytes);
+        json.put("mime_type", mimeType);
+
+        JSONObject response = postJson(uploadsUrl, json, "crear la subida de " + fileName);
+        String uploadId = response.getString("id");
+        logger.info("Subida creada: {} para {} ({} bytes)", uploadId, fileName, bytes);
+        return uploadId;
+    }
+
+    private String uploadPart(String uploadId, int partNumber, Path path, long offset, long length)
+            throws OpenAIAPIException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                MultipartBody body = new MultipartBody.Builder()
+                        .setType(MultipartBody.FORM)
+                        .addFormDataPart("data", path.getFileName() + ".part" + partNumber,
+                                new FileRegionRequestBody(path, offset, length))
+                        .build();
+                Request request = httpClient.newRequest(uploadsUrl + "/" + uploadId + "/parts", apiKey)
+                        .post(body)
+                        .build();
+
+                try (Response response = httpClient.getClient().newCall(request).execute()) {
+                    String responseBody = readBody(response);
+                    if (response.isSuccessful()) {
+                        String partId = new JSONObject(responseBody).getString("id");
+                        logger.debug("Parte {} subida ({} bytes): {}", partNumber, length, partId);
+                        return partId;
+                    }
+                    if (response.code() < 500 && response.code() != 429) {
+                        throw new OpenAIAPIException("Error HTTP " + response.code() + " al subir la parte "
+                                + partNumber + ". Respuesta: " + responseBody);
+                    }
+                    if (attempt >= MAX_PART_ATTEMPTS) {
+                        throw new OpenAIAPIException("Error HTTP " + response.code() + " al subir la parte "
+                                + partNumber + " tras " + attempt + " intentos. Respuesta: " + responseBody);
+                    }
+                    logger.warn("Error HTTP {} al subir la parte {}; reintento {}/{}",
+                            response.code(), partNumber, attempt + 1, MAX_PART_ATTEMPTS);
+                }
+            } catch (IOException e) {
+                if (attempt >= MAX_PART_ATTEMPTS) {
+                    throw new OpenAIAPIException("Error de I/O al subir la parte " + partNumber, e);
+                }
+                logger.warn("Error de I/O al subir la parte {} ({}); reintento {}/{}",
+                        partNumber, e.getMessage(), attempt + 1, MAX_PART_ATTEMPTS);
+            }
+            Thread.sleep(PART_RETRY_BACKOFF_MS * attempt);
+        }
+    }
+
+    private String completeUpload(String uploadId, List<String> partIds, String md5) throws OpenAIAPIException {
+        JSONObject json = new JSONObject();
+        json.put("part_ids", new JSONArray(partIds));
+        json.put("md5", md5);
+
+        JSONObject response = postJson(uploadsUrl + "/" + uploadId + "/complete", json,
+                "completar la subida " + uploadId);
+        if (!"completed".equals(response.optString("status"))) {
+            throw new OpenAIAPIException("La subida " + uploadId + " no se completó: " + response);
+        }
+        return response.getJSONObject("file").getString("id");
+    }
+
+    private void cancelQuietly(String uploadId) {
+        try {
+            postJson(uploadsUrl + "/" + uploadId + "/cancel", new JSONObject(), "cancelar la subida " + uploadId);
+            logger.info("Subida {} cancelada", uploadId);
+        } catch (OpenAIAPIException e) {
+            logger.warn("No se pudo cancelar la subida {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private JSONObject postJson(String url, JSONObject json, String operation) throws OpenAIAPIException {
+        Request request = httpClient.newRequest(url, apiKey)
+                .post(RequestBody.create(json.toString(), OpenAIHttpClient.JSON))
+                .build();
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            String responseBody = readBody(response);
+            if (!response.isSuccessful()) {
+                throw new OpenAIAPIException("Error HTTP " + response.code() + " al " + operation
+                        + ". Respuesta: " + responseBody);
+            }
+            return new JSONObject(responseBody);
+        } catch (IOException e) {
+            throw new OpenAIAPIException("Error de I/O al " + operation, e);
+        }
+    }
+
+    private static String readBody(Response response) throws IOException {
+        ResponseBody body = response.body();
+        return body != null ? body.string() : "";
+    }
+
+    private static String md5Hex(Path path) throws OpenAIAPIException {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), md5)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (in.read(buffer) != -1) {
+                    // Solo se lee para calcular el resumen
+                }
+            }
+            return HexFormat.of().formatHex(md5.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new OpenAIAPIException("No se pudo calcular el MD5 de " + path, e);
+        }
+    }
+
+    /**
+     * Cuerpo de petición que envía un fragmento de un archivo sin cargarlo en memoria.
+     * Se puede enviar varias veces, lo que permite reintentar la parte.
+     */
+    private static class FileRegionRequestBody extends RequestBody {
+        private final Path path;
+        private final long offset;
+        private final long length;
+
+        FileRegionRequestBody(Path path, long offset, long length) {
+            this.path = path;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return OCTET_STREAM;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = offset;
+                long remaining = length;
+                while (remaining > 0) {
+                    buffer.clear();
+                    if (remaining < buffer.capacity()) {
+                        buffer.limit((int) remaining);
+                    }
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Fin de archivo inesperado al leer la parte en " + position);
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        sink.write(buffer);
+                    }
+                    position += read;
+                    remaining -= read;
+                }
+            }
+        }
+    }
+}
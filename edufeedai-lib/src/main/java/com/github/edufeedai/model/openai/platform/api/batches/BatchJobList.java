@@ -0,0 +1,74 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api.batches;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Página de resultados del listado de batches (GET /v1/batches).
+ */
+public class BatchJobList {
+
+    @SerializedName("object")
+    private String object;
+
+    @SerializedName("data")
+    private List<BatchJob> data;
+
+    @SerializedName("first_id")
+    private String firstId;
+
+    @SerializedName("last_id")
+    private String lastId;
+
+    @SerializedName("has_more")
+    private boolean hasMore;
+
+    // Getters y Setters
+
+    public String getObject() {
+        return object;
+    }
+
+    public void setObject(String object) {
+        this.object = object;
+    }
+
+    public List<BatchJob> getData() {
+        return data;
+    }
+
+    public void setData(List<BatchJob> data) {
+        this.data = data;
+    }
+
+    public String getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(String firstId) {
+        this.firstId = firstId;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(String lastId) {
+        this.lastId = lastId;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
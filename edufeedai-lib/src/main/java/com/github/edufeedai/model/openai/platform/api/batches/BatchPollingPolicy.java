@@ -0,0 +1,110 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api.batches;
+
+import java.time.Duration;
+
+/**
+ * Calcula cada cuánto consultar el estado de un batch según la fase en la que está.
+ * <ul>
+ *   <li>{@code finalizing} y {@code cancelling}: intervalo mínimo, el resultado está a punto de estar listo.</li>
+ *   <li>{@code validating} o {@code in_progress} sin progreso todavía: intervalo máximo.</li>
+ *   <li>{@code in_progress} con progreso: la mitad del tiempo restante estimado a partir de
+ *       {@code request_counts}, acotada entre el mínimo y el máximo.</li>
+ * </ul>
+ */
+public class BatchPollingPolicy {
+
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofSeconds(15);
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofMinutes(5);
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+
+    public BatchPollingPolicy() {
+        this(DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * @param minInterval Intervalo mínimo entre consultas
+     * @param maxInterval Intervalo máximo entre consultas
+     */
+    public BatchPollingPolicy(Duration minInterval, Duration maxInterval) {
+        if (minInterval.isNegative() || minInterval.isZero() || maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException("Intervalos de consulta no válidos");
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+    }
+
+    /**
+     * Indica si un estado de batch es definitivo y ya no cambiará.
+     * @param status Estado del batch
+     * @return true si el estado es completed, failed, expired o cancelled
+     */
+    public static boolean isTerminal(String status) {
+        return "completed".equals(status) || "failed".equals(status)
+            || "expired".equals(status) || "cancelled".equals(status);
+    }
+
+    /**
+     * Calcula el tiempo hasta la próxima consulta de un batch.
+     * @param job Último estado conocido del batch
+     * @param nowEpochSeconds Instante actual en segundos Unix
+     * @return Tiempo de espera, entre el intervalo mínimo y el máximo
+     */
+    public Duration nextPollDelay(BatchJob job, long nowEpochSeconds) {
+        String status = job.getStatus();
+        if ("finalizing".equals(status) || "cancelling".equals(status)) {
+            return minInterval;
+        }
+        if (!"in_progress".equals(status)) {
+            return maxInterval;
+        }
+
+        Long remaining = estimateSecondsRemaining(job, nowEpochSeconds);
+        if (remaining == null) {
+            return maxInterval;
+        }
+        return clamp(Duration.ofSeconds(remaining / 2));
+    }
+
+    /**
+     * Estima los segundos que faltan para que un batch en curso procese todas sus peticiones,
+     * suponiendo que mantiene el ritmo medio desde {@code in_progress_at}.
+     * @param job Estado del batch
+     * @param nowEpochSeconds Instante actual en segundos Unix
+     * @return Segundos restantes estimados, o null si todavía no hay progreso para estimarlo
+     */
+    public static Long estimateSecondsRemaining(BatchJob job, long nowEpochSeconds) {
+        BatchJob.RequestCounts counts = job.getRequestCounts();
+        Long inProgressAt = job.getInProgressAt();
+        if (counts == null || inProgressAt == null || counts.getTotal() <= 0) {
+            return null;
+        }
+
+        int done = counts.getCompleted() + counts.getFailed();
+        long elapsed = nowEpochSeconds - inProgressAt;
+        if (done <= 0 || elapsed <= 0) {
+            return null;
+        }
+        if (done >= counts.getTotal()) {
+            return 0L;
+        }
+        return (long) Math.ceil((double) (counts.getTotal() - done) * elapsed / done);
+    }
+
+    private Duration clamp(Duration delay) {
+        if (delay.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        if (delay.compareTo(maxInterval) > 0) {
+            return maxInterval;
+        }
+        return delay;
+    }
+}
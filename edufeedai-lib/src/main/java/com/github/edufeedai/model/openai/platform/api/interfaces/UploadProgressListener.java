@@ -0,0 +1,18 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api.interfaces;
+
+/**
+ * Recibe el progreso de una subida por partes. Se invoca desde los hilos que suben las partes,
+ * cada vez que una parte termina de subirse.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    public void onProgress(long bytesUploaded, long totalBytes);
+
+}
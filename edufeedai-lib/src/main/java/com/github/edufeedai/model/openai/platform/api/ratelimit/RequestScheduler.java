@@ -0,0 +1,344 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api.ratelimit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Planificador de peticiones a la API de OpenAI, instalado como interceptor del cliente HTTP compartido.
+ * <ul>
+ *   <li>Limita el ritmo de envío con un token bucket (peticiones por segundo y ráfaga máxima).</li>
+ *   <li>Lee las cabeceras {@code x-ratelimit-*} de cada respuesta y, cuando se agota el margen de
+ *       peticiones o tokens, detiene los envíos hasta el instante de reinicio indicado.</li>
+ *   <li>Reintenta con backoff exponencial con jitter: las respuestas 429 siempre (la petición no se
+ *       procesó) salvo las de cuota agotada ({@code insufficient_quota}), que fallan al momento, y los errores 5xx o de red solo en peticiones idempotentes (GET, HEAD, PUT, DELETE,
+ *       OPTIONS o marcadas con {@link Idempotent}). Respeta {@code retry-after} y {@code retry-after-ms}.</li>
+ *   <li>Expone métricas de cola, reintentos y tiempo de espera mediante {@link #getMetrics()}.</li>
+ * </ul>
+ */
+public class RequestScheduler implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 8.0;
+    public static final int DEFAULT_BURST = 16;
+    public static final int DEFAULT_MAX_RETRIES = 5;
+    public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis(500);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(60);
+
+    private static final String INSUFFICIENT_QUOTA = "insufficient_quota";
+    private static final long MAX_ERROR_BODY_BYTES = 16 * 1024;
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    // Formato de x-ratelimit-reset-*: "1s", "6m0s", "20ms", "1.5s", "1h2m3s"
+    private static final Pattern RESET_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    /**
+     * Marca de petición idempotente, para permitir reintentos de peticiones POST seguras.
+     * Uso: {@code builder.tag(RequestScheduler.Idempotent.class, RequestScheduler.Idempotent.INSTANCE)}.
+     */
+    public static final class Idempotent {
+        public static final Idempotent INSTANCE = new Idempotent();
+
+        private Idempotent() {
+        }
+    }
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxRetries;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+
+    // Estado del token bucket (protegido por this)
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    // Instante (System.nanoTime) hasta el que no se debe enviar ninguna petición
+    private volatile long pausedUntilNanos;
+    private volatile long remainingRequests = -1;
+    private volatile long remainingTokens = -1;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+
+    /**
+     * Crea un planificador con los valores por defecto.
+     */
+    public RequestScheduler() {
+        this(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_BURST, DEFAULT_MAX_RETRIES, DEFAULT_BASE_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    /**
+     * Crea un planificador con configuración personalizada.
+     * @param requestsPerSecond Ritmo sostenido de peticiones
+     * @param burst Número máximo de peticiones que pueden enviarse seguidas sin esperar
+     * @param maxRetries Número máximo de reintentos por petición
+     * @param baseBackoff Espera base del backoff exponencial
+     * @param maxBackoff Espera máxima entre reintentos
+     */
+    public RequestScheduler(double requestsPerSecond, int burst, int maxRetries,
+                            Duration baseBackoff, Duration maxBackoff) {
+        if (requestsPerSecond <= 0 || burst < 1 || maxRetries < 0) {
+            throw new IllegalArgumentException("Configuración de RequestScheduler no válida");
+        }
+        this.permitsPerNano = requestsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+        this.baseBackoffNanos = baseBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.availablePermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean idempotent = isIdempotent(request);
+
+        for (int attempt = 0; ; attempt++) {
+            awaitTurn();
+            requests.incrementAndGet();
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (!idempotent || attempt >= maxRetries || chain.call().isCanceled()) {
+                    throw e;
+                }
+                long delay = backoffNanos(attempt);
+                logger.warn("Error de red en {} {} ({}). Reintento {}/{} en {} ms",
+                        request.method(), request.url().encodedPath(), e.getMessage(),
+                        attempt + 1, maxRetries, delay / 1_000_000);
+                retries.incrementAndGet();
+                sleep(delay);
+                continue;
+            }
+
+            updateRateLimits(response);
+
+            int code = response.code();
+            boolean retryable = code == 429 || (code >= 500 && idempotent);
+            if (!retryable || attempt >= maxRetries) {
+                return response;
+            }
+            if (code == 429 && isQuotaExhausted(response)) {
+                // Sin saldo: los reintentos no pueden tener éxito
+                logger.error("Cuota de OpenAI agotada (insufficient_quota) en {} {}. No se reintenta.",
+                        request.method(), request.url().encodedPath());
+                return response;
+            }
+
+            long delay = Math.max(backoffNanos(attempt), retryAfterNanos(response));
+            if (code == 429) {
+                rateLimited.incrementAndGet();
+                // Pausa global: el resto de hilos también deben esperar
+                pauseFor(delay);
+            }
+            logger.warn("HTTP {} en {} {}. Reintento {}/{} en {} ms",
+                    code, request.method(), request.url().encodedPath(),
+                    attempt + 1, maxRetries, delay / 1_000_000);
+            response.close();
+            retries.incrementAndGet();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Devuelve una instantánea de las métricas del planificador.
+     * @return métricas actuales
+     */
+    public RequestSchedulerMetrics getMetrics() {
+        return new RequestSchedulerMetrics(queueDepth.get(), requests.get(), retries.get(), rateLimited.get(),
+                Duration.ofNanos(throttledNanos.get()), remainingRequests, remainingTokens);
+    }
+
+    /**
+     * Bloquea el hilo hasta que el token bucket y los límites de la API permiten enviar una petición.
+     */
+    private void awaitTurn() throws InterruptedIOException {
+        queueDepth.incrementAndGet();
+        try {
+            long pause = pausedUntilNanos - System.nanoTime();
+            if (pause > 0) {
+                sleep(pause);
+            }
+            long wait = reservePermit();
+            if (wait > 0) {
+                sleep(wait);
+            }
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reserva un permiso del token bucket y devuelve cuánto hay que esperar para usarlo (en nanosegundos).
+     */
+    private synchronized long reservePermit() {
+        long now = System.nanoTime();
+        availablePermits = Math.min(burst, availablePermits + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+        availablePermits -= 1;
+        return availablePermits >= 0 ? 0 : (long) (-availablePermits / permitsPerNano);
+    }
+
+    private void updateRateLimits(Response response) {
+        Long reqs = parseLong(response.header("x-ratelimit-remaining-requests"));
+        Long tokens = parseLong(response.header("x-ratelimit-remaining-tokens"));
+        if (reqs != null) {
+            remainingRequests = reqs;
+            if (reqs <= 0) {
+                pauseFor(parseResetNanos(response.header("x-ratelimit-reset-requests")));
+            }
+        }
+        if (tokens != null) {
+            remainingTokens = tokens;
+            if (tokens <= 0) {
+                pauseFor(parseResetNanos(response.header("x-ratelimit-reset-tokens")));
+            }
+        }
+    }
+
+    private synchronized void pauseFor(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long until = System.nanoTime() + nanos;
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+        }
+    }
+
+    private long backoffNanos(int attempt) {
+        long ceiling = baseBackoffNanos << Math.min(attempt, 20);
+        if (ceiling <= 0 || ceiling > maxBackoffNanos) {
+            ceiling = maxBackoffNanos;
+        }
+        // Jitter: espera uniforme entre la mitad y el techo del intervalo
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Indica si una respuesta 429 se debe a la cuota agotada ({@code insufficient_quota}) y no
+     * al límite de ritmo. Lee el cuerpo sin consumirlo, para que el llamante lo reciba intacto.
+     */
+    private static boolean isQuotaExhausted(Response response) {
+        try {
+            JsonElement body = JsonParser.parseString(response.peekBody(MAX_ERROR_BODY_BYTES).string());
+            JsonElement error = body.isJsonObject() ? body.getAsJsonObject().get("error") : null;
+            if (error == null || !error.isJsonObject()) {
+                return false;
+            }
+            JsonObject errorObject = error.getAsJsonObject();
+            return INSUFFICIENT_QUOTA.equals(getString(errorObject, "code"))
+                    || INSUFFICIENT_QUOTA.equals(getString(errorObject, "type"));
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String getString(JsonObject object, String name) {
+        JsonElement value = object.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private long retryAfterNanos(Response response) {
+        Long millis = parseLong(response.header("retry-after-ms"));
+        if (millis != null) {
+            return Math.min(Duration.ofMillis(millis).toNanos(), maxBackoffNanos);
+        }
+        Long seconds = parseLong(response.header("retry-after"));
+        if (seconds != null) {
+            return Math.min(Duration.ofSeconds(seconds).toNanos(), maxBackoffNanos);
+        }
+        return 0;
+    }
+
+    private boolean isIdempotent(Request request) {
+        return IDEMPOTENT_METHODS.contains(request.method()) || request.tag(Idempotent.class) != null;
+    }
+
+    private void sleep(long nanos) throws InterruptedIOException {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido mientras se esperaba turno para la petición");
+        } finally {
+            throttledNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Convierte el valor de una cabecera x-ratelimit-reset-* ("6m0s", "20ms", "1.5s") a nanosegundos.
+     * @param value valor de la cabecera, puede ser null
+     * @return duración en nanosegundos, o 0 si no se puede interpretar
+     */
+    public static long parseResetNanos(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        Matcher matcher = RESET_PART.matcher(value.trim());
+        double nanos = 0;
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    nanos += amount * 3_600_000_000_000d;
+                    break;
+                case "m":
+                    nanos += amount * 60_000_000_000d;
+                    break;
+                case "s":
+                    nanos += amount * 1_000_000_000d;
+                    break;
+                default:
+                    nanos += amount * 1_000_000d;
+                    break;
+            }
+        }
+        return (long) nanos;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.model.openai.platform.api.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Instantánea inmutable de las métricas de un {@link RequestScheduler}.
+ */
+public class RequestSchedulerMetrics {
+
+    private final int queueDepth;
+    private final long requests;
+    private final long retries;
+    private final long rateLimited;
+    private final Duration throttleTime;
+    private final long remainingRequests;
+    private final long remainingTokens;
+
+    RequestSchedulerMetrics(int queueDepth, long requests, long retries, long rateLimited,
+                            Duration throttleTime, long remainingRequests, long remainingTokens) {
+        this.queueDepth = queueDepth;
+        this.requests = requests;
+        this.retries = retries;
+        this.rateLimited = rateLimited;
+        this.throttleTime = throttleTime;
+        this.remainingRequests = remainingRequests;
+        this.remainingTokens = remainingTokens;
+    }
+
+    /** Peticiones esperando turno en este momento */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /** Intentos enviados al servidor, incluidos los reintentos */
+    public long getRequests() {
+        return requests;
+    }
+
+    /** Reintentos realizados */
+    public long getRetries() {
+        return retries;
+    }
+
+    /** Respuestas 429 recibidas */
+    public long getRateLimited() {
+        return rateLimited;
+    }
+
+    /** Tiempo total que las peticiones han pasado esperando (pacing, límites y backoff) */
+    public Duration getThrottleTime() {
+        return throttleTime;
+    }
+
+    /** Último valor de x-ratelimit-remaining-requests, o -1 si no se conoce */
+    public long getRemainingRequests() {
+        return remainingRequests;
+    }
+
+    /** Último valor de x-ratelimit-remaining-tokens, o -1 si no se conoce */
+    public long getRemainingTokens() {
+        return remainingTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestSchedulerMetrics{" +
+                "queueDepth=" + queueDepth +
+                ", requests=" + requests +
+                ", retries=" + retries +
+                ", rateLimited=" + rateLimited +
+                ", throttleTime=" + throttleTime.toMillis() + "ms" +
+                ", remainingRequests=" + remainingRequests +
+                ", remainingTokens=" + remainingTokens +
+                '}';
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches a directory tree and reports the changed paths in batches.
+ * Events are collected until no new event arrives for the quiet period, so copying a whole
+ * folder or a large file produces a single batch instead of one callback per event.
+ * Directories created while watching are registered as they appear, and the paths found in
+ * them are reported too, since files may be written before the directory is registered.
+ * If the event queue overflows, the root directory is reported to signal a full rescan.
+ */
+public class DebouncedDirectoryWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DebouncedDirectoryWatcher.class);
+
+    private final Path root;
+    private final Duration quietPeriod;
+    private final Predicate<Path> directoryFilter;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a watcher and registers the root and all its subdirectories accepted by the filter.
+     *
+     * @param root the directory to watch
+     * @param quietPeriod how long no events must arrive before a batch is reported
+     * @param directoryFilter subdirectories rejected by the filter (and their contents) are not watched
+     * @throws IOException if the directories cannot be registered
+     */
+    public DebouncedDirectoryWatcher(Path root, Duration quietPeriod, Predicate<Path> directoryFilter) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.quietPeriod = quietPeriod;
+        this.directoryFilter = directoryFilter;
+        this.watchService = this.root.getFileSystem().newWatchService();
+        registerAll(this.root, new LinkedHashSet<>());
+    }
+
+    /**
+     * Watches until the watcher is closed, passing each batch of changed paths to the listener
+     * on the calling thread. The paths are absolute and include deleted ones.
+     *
+     * @param listener receives each batch of changed paths
+     * @throws InterruptedException if the thread is interrupted while waiting for events
+     */
+    public void run(Consumer<Set<Path>> listener) throws InterruptedException {
+        Set<Path> pending = new LinkedHashSet<>();
+        long deadline = 0;
+
+        try {
+            while (!closed) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long wait = deadline - System.nanoTime();
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (key == null) {
+                        Set<Path> batch = Set.copyOf(pending);
+                        pending.clear();
+                        listener.accept(batch);
+                        continue;
+                    }
+                }
+
+                collect(key, pending);
+                deadline = System.nanoTime() + quietPeriod.toNanos();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close() called from another thread
+        }
+    }
+
+    /**
+     * Returns the number of directories being watched.
+     *
+     * @return the number of watched directories
+     */
+    public int getWatchedDirectoryCount() {
+        return keys.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private void collect(WatchKey key, Set<Path> pending) {
+        Path dir = keys.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || dir == null) {
+                logger.warn("Watch events lost, requesting a full rescan of {}", root);
+                pending.add(root);
+                continue;
+            }
+
+            Path child = dir.resolve((Path) event.context());
+            pending.add(child);
+
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(child) && directoryFilter.test(child)) {
+                try {
+                    registerAll(child, pending);
+                } catch (IOException e) {
+                    logger.warn("Cannot watch new directory {}: {}", child, e.getMessage());
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            // The directory was deleted or is no longer accessible
+            keys.remove(key);
+        }
+    }
+
+    private void registerAll(Path start, Set<Path> found) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && !directoryFilter.test(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                keys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+                if (!dir.equals(start)) {
+                    found.add(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!start.equals(root)) {
+                    found.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Deleted while walking
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters and timers for the stages of the processing pipeline.
+ *
+ * <p>Timers keep a log-linear histogram of their durations (8 buckets per power of two, so a
+ * percentile is off by at most 6.25% of its value) instead of the individual samples, which
+ * keeps their size constant and lets the histograms of several runs be merged. All methods
+ * are thread-safe.</p>
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name the counter name
+     */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Adds a value to a counter, creating it if needed.
+     *
+     * @param name the counter name
+     * @param delta the value to add
+     */
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Returns a timer, creating it if needed.
+     *
+     * @param name the stage name
+     * @return the timer
+     */
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Starts timing one operation of a stage. The duration is recorded when the returned sample
+     * is closed, so it is meant for try-with-resources blocks.
+     *
+     * @param name the stage name
+     * @return the running sample
+     */
+    public Sample start(String name) {
+        return new Sample(timer(name), System.nanoTime());
+    }
+
+    /**
+     * @return a snapshot of the counters, sorted by name
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, value) -> snapshot.put(name, value.sum()));
+        return snapshot;
+    }
+
+    /**
+     * @return the timers, sorted by name
+     */
+    public Map<String, Timer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    /**
+     * @return true if nothing has been counted or timed
+     */
+    public boolean isEmpty() {
+        return counters.isEmpty() && timers.isEmpty();
+    }
+
+    /**
+     * Adds the counters and timers of another registry to this one.
+     *
+     * @param other the registry to merge
+     */
+    public void merge(MetricsRegistry other) {
+        other.getCounters().forEach(this::add);
+        other.timers.forEach((name, timer) -> timer(name).merge(timer));
+    }
+
+    /**
+     * A running measurement started with {@link #start(String)}.
+     */
+    public static class Sample implements AutoCloseable {
+
+        private final Timer timer;
+        private final long startNanos;
+
+        private Sample(Timer timer, long startNanos) {
+            this.timer = timer;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Number of operations, total and maximum duration, and duration histogram of a stage.
+     */
+    public static class Timer {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        /** Durations below this value have a bucket each. */
+        private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+        private static final int BUCKETS = EXACT_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        /**
+         * Records the duration of one operation.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        public synchronized void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets[bucketOf(value)]++;
+            count++;
+            totalNanos += value;
+            maxNanos = Math.max(maxNanos, value);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Estimates a percentile from the histogram.
+         *
+         * @param percentile between 0 and 100
+         * @return the estimated duration in nanoseconds, or 0 if nothing was recorded
+         */
+        public synchronized long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            if (rank >= count) {
+                return maxNanos;
+            }
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    long lower = lowerBound(bucket);
+                    long upper = lowerBound(bucket + 1) - 1;
+                    return Math.min(lower + (upper - lower) / 2, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * Encodes the histogram as "bucket:count" pairs separated by commas, skipping empty buckets.
+         *
+         * @return the encoded histogram
+         */
+        public synchronized String encodeHistogram() {
+            StringBuilder encoded = new StringBuilder();
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (buckets[bucket] > 0) {
+                    if (encoded.length() > 0) {
+                        encoded.append(',');
+                    }
+                    encoded.append(bucket).append(':').append(buckets[bucket]);
+                }
+            }
+            return encoded.toString();
+        }
+
+        /**
+         * Rebuilds a timer from its stored values.
+         *
+         * @param count the number of operations
+         * @param totalNanos the total duration
+         * @param maxNanos the maximum duration
+         * @param histogram the histogram, as returned by {@link #encodeHistogram()}
+         * @return the timer
+         * @throws IllegalArgumentException if the histogram is malformed
+         */
+        public static Timer decode(long count, long totalNanos, long maxNanos, String histogram) {
+            Timer timer = new Timer();
+            timer.count = count;
+            timer.totalNanos = totalNanos;
+            timer.maxNanos = maxNanos;
+            if (histogram != null && !histogram.isEmpty()) {
+                for (String pair : histogram.split(",")) {
+                    int separator = pair.indexOf(':');
+                    try {
+                        timer.buckets[Integer.parseInt(pair.substring(0, separator))] +=
+                            Long.parseLong(pair.substring(separator + 1));
+                    } catch (RuntimeException e) {
+                        throw new IllegalArgumentException("Malformed histogram entry: " + pair, e);
+                    }
+                }
+            }
+            return timer;
+        }
+
+        /**
+         * Adds the operations recorded by another timer to this one.
+         *
+         * @param other the timer to merge
+         */
+        public void merge(Timer other) {
+            // Copy first so that the two timers are never locked at the same time
+            Timer copy;
+            synchronized (other) {
+                copy = decode(other.count, other.totalNanos, other.maxNanos, null);
+                System.arraycopy(other.buckets, 0, copy.buckets, 0, BUCKETS);
+            }
+            synchronized (this) {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    buckets[bucket] += copy.buckets[bucket];
+                }
+                count += copy.count;
+                totalNanos += copy.totalNanos;
+                maxNanos = Math.max(maxNanos, copy.maxNanos);
+            }
+        }
+
+        private static int bucketOf(long value) {
+            if (value < EXACT_LIMIT) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return EXACT_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < EXACT_LIMIT) {
+                return bucket;
+            }
+            int exponent = (bucket - EXACT_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+            if (exponent > 62) {
+                return Long.MAX_VALUE;
+            }
+            int subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Execution and commit of a batch of database writes.
+ */
+@Name("edufeedai.DbCommit")
+@Label("Database Batch Commit")
+@Category({"EduFeedAI", "Database"})
+@StackTrace(false)
+@Description("Batched statements and the commit of their transaction")
+public class DbCommitEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows")
+    @Description("Number of statements in the batch")
+    public int rows;
+
+    @Label("Outcome")
+    @Description("\"ok\", or the exception class if the batch failed")
+    public String outcome;
+}
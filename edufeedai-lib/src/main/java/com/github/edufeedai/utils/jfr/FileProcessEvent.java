@@ -0,0 +1,43 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Type detection and reading of one submission file.
+ */
+@Name("edufeedai.FileProcess")
+@Label("File Processing")
+@Category({"EduFeedAI", "Pipeline"})
+@StackTrace(false)
+@Description("MIME detection and text extraction of a submission file")
+public class FileProcessEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Student")
+    public String student;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("MIME Type")
+    public String mimeType;
+
+    @Label("Outcome")
+    @Description("Processing type, or the exception class if processing failed")
+    public String outcome;
+}
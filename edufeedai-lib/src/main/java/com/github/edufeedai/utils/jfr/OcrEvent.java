@@ -0,0 +1,41 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One OCR pass, either over an image extracted from a PDF or over a whole PDF with ocrmypdf.
+ */
+@Name("edufeedai.Ocr")
+@Label("OCR")
+@Category({"EduFeedAI", "Pipeline"})
+@StackTrace(false)
+@Description("OCR of an image or of a whole PDF")
+public class OcrEvent extends Event {
+
+    @Label("Engine")
+    @Description("OCR processor class, or \"ocrmypdf\"")
+    public String engine;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("Outcome")
+    @Description("\"ok\", or the exception class if OCR failed")
+    public String outcome;
+}
@@ -0,0 +1,49 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HTTP exchange with the OpenAI API. Retries are separate events.
+ */
+@Name("edufeedai.OpenAICall")
+@Label("OpenAI HTTP Call")
+@Category({"EduFeedAI", "Network"})
+@StackTrace(false)
+@Description("HTTP request to the OpenAI API, one event per attempt")
+public class OpenAICallEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestSize;
+
+    @Label("Response Size")
+    @DataAmount
+    @Description("Declared length of the response body, or -1 if unknown")
+    public long responseSize;
+
+    @Label("Status")
+    @Description("HTTP status code, or 0 if no response was received")
+    public int status;
+
+    @Label("Outcome")
+    @Description("\"ok\", \"http_error\", or the exception class if the request failed")
+    public String outcome;
+}
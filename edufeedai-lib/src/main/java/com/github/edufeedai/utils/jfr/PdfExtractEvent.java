@@ -0,0 +1,49 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Text extraction from a PDF, including the OCR pass with ocrmypdf.
+ */
+@Name("edufeedai.PdfExtract")
+@Label("PDF Text Extraction")
+@Category({"EduFeedAI", "Pipeline"})
+@StackTrace(false)
+@Description("OCR with ocrmypdf followed by text extraction with PDFBox")
+public class PdfExtractEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Student")
+    public String student;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("MIME Type")
+    public String mimeType;
+
+    @Label("OCR Applied")
+    public boolean ocrApplied;
+
+    @Label("Extracted Characters")
+    public long characters;
+
+    @Label("Outcome")
+    @Description("\"ok\", or the exception class if extraction failed")
+    public String outcome;
+}
@@ -0,0 +1,76 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.edufeedai.model.Digest;
+import com.github.edufeedai.model.DigestAlgorithm;
+
+/**
+ * Compara el rendimiento de las huellas sobre contenidos del tamaño de una entrega:
+ * un texto extraído (4 KB), un PDF corto (256 KB) y un PDF escaneado (8 MB).
+ *
+ * <pre>
+ * mvn -pl edufeedai-lib test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp edufeedai-lib/target/test-classes:edufeedai-lib/target/classes:$(cat edufeedai-lib/target/cp.txt) \
+ *     com.github.edufeedai.benchmark.DigestBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigestBenchmark {
+
+    @Param({"SHA1", "SHA256", "XXH64"})
+    public String algorithm;
+
+    @Param({"4096", "262144", "8388608"})
+    public int size;
+
+    private Digest digest;
+    private byte[] content;
+
+    @Setup
+    public void setUp() {
+        digest = DigestAlgorithm.valueOf(algorithm).create();
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+    }
+
+    @Benchmark
+    public String digestContent() throws Exception {
+        return digest.digest(new ByteArrayInputStream(content));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(DigestBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchPollingPolicy;
+
+public class BatchPollingPolicyTest {
+
+    private static final Duration MIN = Duration.ofSeconds(10);
+    private static final Duration MAX = Duration.ofMinutes(5);
+    private static final long NOW = 1_000_000L;
+
+    private final BatchPollingPolicy policy = new BatchPollingPolicy(MIN, MAX);
+
+    @Test
+    void testPhasesUseFastAndSlowIntervals() {
+        assertEquals(MIN, policy.nextPollDelay(job("finalizing", null, 0, 0, 0), NOW));
+        assertEquals(MAX, policy.nextPollDelay(job("validating", null, 0, 0, 0), NOW));
+        // Sin progreso todavía no hay base para estimar
+        assertEquals(MAX, policy.nextPollDelay(job("in_progress", NOW - 60, 100, 0, 0), NOW));
+    }
+
+    @Test
+    void testInProgressIntervalFollowsEstimatedTimeRemaining() {
+        // 25 de 100 en 200 s: faltan 600 s, se consulta a los 300 s (acotado a MAX)
+        BatchJob early = job("in_progress", NOW - 200, 100, 20, 5);
+        assertEquals(Long.valueOf(600), BatchPollingPolicy.estimateSecondsRemaining(early, NOW));
+        assertEquals(MAX, policy.nextPollDelay(early, NOW));
+
+        // 90 de 100 en 900 s: faltan 100 s, se consulta a los 50 s
+        BatchJob late = job("in_progress", NOW - 900, 100, 90, 0);
+        assertEquals(Duration.ofSeconds(50), policy.nextPollDelay(late, NOW));
+
+        // Todas procesadas: se consulta con el intervalo mínimo
+        BatchJob done = job("in_progress", NOW - 900, 100, 99, 1);
+        assertEquals(Long.valueOf(0), BatchPollingPolicy.estimateSecondsRemaining(done, NOW));
+        assertEquals(MIN, policy.nextPollDelay(done, NOW));
+    }
+
+    @Test
+    void testTerminalStatuses() {
+        assertTrue(BatchPollingPolicy.isTerminal("completed"));
+        assertTrue(BatchPollingPolicy.isTerminal("expired"));
+        assertFalse(BatchPollingPolicy.isTerminal("finalizing"));
+        assertFalse(BatchPollingPolicy.isTerminal("cancelling"));
+    }
+
+    private static BatchJob job(String status, Long inProgressAt, int total, int completed, int failed) {
+        BatchJob job = new BatchJob();
+        job.setStatus(status);
+        job.setInProgressAt(inProgressAt);
+        BatchJob.RequestCounts counts = new BatchJob.RequestCounts();
+        counts.setTotal(total);
+        counts.setCompleted(completed);
+        counts.setFailed(failed);
+        job.setRequestCounts(counts);
+        return job;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.BatchResultsImporter;
+import com.github.edufeedai.ZipFeedbackPackager;
+
+public class BatchResultsImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY, task_id INTEGER, student_name TEXT, " +
+                "custom_id TEXT, feedback TEXT, processed_at INTEGER, updated_at INTEGER)");
+            stmt.execute("INSERT INTO submissions (task_id, student_name, custom_id) VALUES " +
+                "(1, 'Ana', 'id-ana'), (1, 'Luis', 'id-luis'), (1, 'Eva', 'id-eva'), (2, 'Ana', 'id-ana')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testSuccessfulResponsesAreImportedInBatches() throws Exception {
+        File responses = write(
+            success("id-ana", "Feedback Ana"),
+            success("id-luis", "Feedback Luis"),
+            "{\"id\":\"r3\",\"custom_id\":\"id-eva\",\"response\":{\"status_code\":500,\"body\":{}},\"error\":null}",
+            success("id-unknown", "Feedback huérfano"));
+
+        BatchResultsImporter importer = new BatchResultsImporter(connection, 1, 2);
+        int imported = importer.importResults(responses);
+
+        assertEquals(2, imported);
+        assertEquals(1, importer.getUnmatchedCount());
+        assertTrue(connection.getAutoCommit());
+
+        Map<String, String> feedback = feedbackByStudent(1);
+        assertEquals("Feedback Ana", feedback.get("Ana"));
+        assertEquals("Feedback Luis", feedback.get("Luis"));
+        assertNull(feedback.get("Eva"));
+        // La entrega con el mismo custom_id de otra tarea no cambia
+        assertNull(feedbackByStudent(2).get("Ana"));
+    }
+
+    @Test
+    void testPackagerReadsFeedbackFromDatabase() throws Exception {
+        new BatchResultsImporter(connection, 1).importResults(
+            write(success("id-ana", "Feedback Ana"), success("id-eva", "Feedback Eva")));
+
+        new ZipFeedbackPackager(connection, 1, tempDir.toString(), "feedback.zip").generateFeedbackZip();
+
+        try (ZipFile zip = new ZipFile(tempDir.resolve("feedback.zip").toFile())) {
+            assertEquals(2, zip.size());
+            ZipEntry entry = zip.getEntry("Ana.md");
+            assertNotNull(entry);
+            assertEquals("Feedback Ana", new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+            assertNotNull(zip.getEntry("Eva.md"));
+        }
+    }
+
+    private File write(String... lines) throws Exception {
+        Path path = tempDir.resolve("assessment_responses.jsonl");
+        Files.write(path, List.of(lines), StandardCharsets.UTF_8);
+        return path.toFile();
+    }
+
+    private static String success(String customId, String content) {
+        return "{\"id\":\"r_" + customId + "\",\"custom_id\":\"" + customId + "\",\"response\":{\"status_code\":200,"
+            + "\"body\":{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}},\"error\":null}";
+    }
+
+    private Map<String, String> feedbackByStudent(int taskId) throws Exception {
+        Map<String, String> feedback = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT student_name, feedback, processed_at FROM submissions WHERE task_id = " + taskId)) {
+            while (rs.next()) {
+                feedback.put(rs.getString("student_name"), rs.getString("feedback"));
+                if (rs.getString("feedback") != null) {
+                    assertTrue(rs.getLong("processed_at") > 0);
+                }
+            }
+        }
+        return feedback;
+    }
+}
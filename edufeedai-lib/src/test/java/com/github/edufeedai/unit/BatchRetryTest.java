@@ -0,0 +1,104 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.BatchRetry;
+import com.google.gson.JsonParser;
+
+public class BatchRetryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFailedRequestsAreCollectedFromErrorAndOutputFiles() throws Exception {
+        File errorFile = write("errors.jsonl",
+            "{\"id\":\"r1\",\"custom_id\":\"a\",\"response\":null,\"error\":{\"code\":\"server_error\",\"message\":\"x\"}}");
+        File output = write("output.jsonl",
+            success("b", "feedback b"),
+            "{\"id\":\"r3\",\"custom_id\":\"c\",\"response\":{\"status_code\":500,\"body\":{}},\"error\":null}");
+        File responses = tempDir.resolve("assessment_responses.jsonl").toFile();
+
+        Set<String> failed = BatchRetry.readFailedCustomIds(errorFile);
+        int merged = BatchRetry.mergeResponses(output, responses, failed);
+
+        assertEquals(1, merged);
+        assertEquals(Set.of("a", "c"), failed);
+        assertEquals(List.of("b"), customIds(responses));
+    }
+
+    @Test
+    void testRetryResponsesReplaceAndExtendPreviousOnes() throws Exception {
+        File responses = write("assessment_responses.jsonl", success("a", "old a"), success("b", "feedback b"));
+        File retryOutput = write("retry_output.jsonl", success("a", "new a"), success("c", "feedback c"));
+        Set<String> failed = new LinkedHashSet<>(Set.of("a", "c"));
+
+        BatchRetry.mergeResponses(retryOutput, responses, failed);
+
+        assertTrue(failed.isEmpty());
+        List<String> lines = Files.readAllLines(responses.toPath(), StandardCharsets.UTF_8);
+        assertEquals(List.of("a", "b", "c"), customIds(responses));
+        assertTrue(lines.get(0).contains("new a"));
+        assertFalse(Files.exists(tempDir.resolve("assessment_responses.jsonl.tmp")));
+    }
+
+    @Test
+    void testReadCustomIdsOfResponsesFile() throws Exception {
+        File responses = write("assessment_responses.jsonl", success("a", "feedback a"), success("b", "feedback b"));
+
+        assertEquals(Set.of("a", "b"), BatchRetry.readCustomIds(responses));
+        assertTrue(BatchRetry.readCustomIds(tempDir.resolve("missing.jsonl").toFile()).isEmpty());
+    }
+
+    @Test
+    void testRetryJsonlContainsOnlyFailedRequests() throws Exception {
+        File requests = write("42.jsonl", request("a"), request("b"), request("c"));
+        File retry = tempDir.resolve("42.retry1.jsonl").toFile();
+
+        int written = BatchRetry.writeRetryJsonl(requests, Set.of("c", "a"), retry);
+
+        assertEquals(2, written);
+        assertEquals(List.of("a", "c"), customIds(retry));
+    }
+
+    private File write(String name, String... lines) throws Exception {
+        Path path = tempDir.resolve(name);
+        Files.write(path, List.of(lines), StandardCharsets.UTF_8);
+        return path.toFile();
+    }
+
+    private static String success(String customId, String content) {
+        return "{\"id\":\"r_" + customId + "\",\"custom_id\":\"" + customId + "\",\"response\":{\"status_code\":200,"
+            + "\"body\":{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}},\"error\":null}";
+    }
+
+    private static String request(String customId) {
+        return "{\"custom_id\":\"" + customId + "\",\"method\":\"POST\",\"url\":\"/v1/chat/completions\",\"body\":{}}";
+    }
+
+    private static List<String> customIds(File file) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            ids.add(JsonParser.parseString(line).getAsJsonObject().get("custom_id").getAsString());
+        }
+        return ids;
+    }
+}
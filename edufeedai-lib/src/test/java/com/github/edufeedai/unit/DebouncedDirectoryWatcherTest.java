@@ -0,0 +1,97 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.utils.DebouncedDirectoryWatcher;
+
+public class DebouncedDirectoryWatcherTest {
+
+    @TempDir
+    Path root;
+
+    private DebouncedDirectoryWatcher watcher;
+    private Thread watchThread;
+    private final BlockingQueue<Set<Path>> batches = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(root.resolve("tarea"));
+        Files.createDirectories(root.resolve(".edufeedai"));
+
+        watcher = new DebouncedDirectoryWatcher(root, Duration.ofMillis(300),
+            dir -> !dir.getFileName().toString().startsWith("."));
+        watchThread = new Thread(() -> {
+            try {
+                watcher.run(batches::add);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        watchThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        watcher.close();
+        watchThread.join(5000);
+    }
+
+    @Test
+    void testNewFolderAndItsFilesAreReported() throws Exception {
+        assertEquals(2, watcher.getWatchedDirectoryCount());
+
+        Path student = Files.createDirectories(root.resolve("tarea").resolve("Ana_1_assignsubmission_file_"));
+        Files.writeString(student.resolve("practica.sql"), "SELECT 1;");
+        Files.writeString(student.resolve("memoria.txt"), "memoria");
+
+        Set<Path> changed = awaitPaths(student.resolve("practica.sql"), student.resolve("memoria.txt"));
+        assertTrue(changed.contains(student));
+        assertEquals(3, watcher.getWatchedDirectoryCount());
+    }
+
+    @Test
+    void testChangesInIgnoredDirectoriesAreNotReported() throws Exception {
+        Files.writeString(root.resolve(".edufeedai").resolve("index.json"), "{}");
+        Path zip = root.resolve("Tarea 2-123.zip");
+        Files.writeString(zip, "zip");
+
+        Set<Path> changed = awaitPaths(zip);
+        assertFalse(changed.contains(root.resolve(".edufeedai").resolve("index.json")));
+    }
+
+    /**
+     * Espera a que las rutas indicadas aparezcan en los lotes recibidos y devuelve todas las rutas vistas.
+     */
+    private Set<Path> awaitPaths(Path... expected) throws InterruptedException {
+        Set<Path> seen = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!seen.containsAll(Set.of(expected)) && System.nanoTime() < deadline) {
+            Set<Path> batch = batches.poll(500, TimeUnit.MILLISECONDS);
+            if (batch != null) {
+                seen.addAll(batch);
+            }
+        }
+        assertTrue(seen.containsAll(Set.of(expected)), "Rutas recibidas: " + seen);
+        return seen;
+    }
+}
@@ -9,12 +9,26 @@ package com.github.edufeedai.unit;
 import org.junit.jupiter.api.Test;
 
 import com.github.edufeedai.model.Digest;
+import com.github.edufeedai.model.DigestAlgorithm;
 import com.github.edufeedai.model.DigestMD5;
 import com.github.edufeedai.model.DigestSHA1;
 import com.github.edufeedai.model.DigestSHA256;
 import com.github.edufeedai.model.DigestSHA512;
+import com.github.edufeedai.model.DigestXXH64;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.DigestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.io.TempDir;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DigestHashTest {
@@ -69,4 +83,58 @@ public class DigestHashTest {
         assertEquals(32, hash1.length());
         assertEquals("0ad066a5d29f3f2a2a1c7c17dd082a79", hash1);
     }
+
+    @Test
+    void testXXH64() throws Exception {
+        Digest d = new DigestXXH64();
+        assertEquals("ef46db3751d8e999", d.digest(""));
+        assertEquals("44bc2cf5ad770999", d.digest("abc"));
+
+        // Contenido largo leído en bloques de distinto tamaño
+        String message = "hola mundo ".repeat(1000);
+        assertEquals(16, d.digest(message).length());
+        assertEquals(d.digest(message),
+            d.digest(new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8))));
+        assertNotEquals(d.digest(message), d.digest(message + "."));
+    }
+
+    @Test
+    void testAlgorithmIsSelectedByName() {
+        assertEquals(DigestAlgorithm.SHA256, DigestAlgorithm.fromName("sha-256"));
+        assertEquals(DigestAlgorithm.XXH64, DigestAlgorithm.fromName("xxh64"));
+        assertInstanceOf(DigestSHA1.class, DigestAlgorithm.fromName("SHA1").create());
+        assertThrows(IllegalArgumentException.class, () -> DigestAlgorithm.fromName("crc32"));
+    }
+
+    @Test
+    void testStreamAndFileDigestMatchStringDigest(@TempDir Path tempDir) throws Exception {
+        Digest d = new DigestSHA1();
+        String message = "entrega con acentos: áéíóú ñ";
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        Path file = tempDir.resolve("entrega.txt");
+        Files.write(file, bytes);
+
+        String expected = d.digest(message);
+        assertEquals(expected, d.digest(new ByteArrayInputStream(bytes)));
+        assertEquals(expected, d.digest(file));
+    }
+
+    @Test
+    void testSharedInstanceIsThreadSafe() throws Exception {
+        Digest d = new DigestSHA256();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String message = "mensaje " + (i % 10);
+                final String expected = new DigestSHA256().digest(message);
+                results.add(executor.submit(() -> expected.equals(d.digest(message))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.model.DirectoryScanner;
+import com.github.edufeedai.model.DirectoryScanner.SubmissionDirectory;
+import com.github.edufeedai.model.DirectoryScanner.TaskDirectory;
+import com.github.edufeedai.model.SubmissionMetadata;
+import com.github.edufeedai.model.TaskMetadata;
+import com.github.edufeedai.model.WorkspaceIndex;
+import com.github.edufeedai.model.WorkspaceManager;
+
+public class DirectoryScannerTest {
+
+    @TempDir
+    Path workspace;
+
+    private WorkspaceManager workspaceManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        workspaceManager = new WorkspaceManager(workspace);
+
+        for (int t = 1; t <= 5; t++) {
+            Path taskDir = workspaceManager.getTaskDirectory(t, "Tarea " + t);
+            Files.createDirectories(taskDir);
+            workspaceManager.writeTaskMetadata(taskDir, new TaskMetadata(t, "Tarea " + t, null, 0L));
+
+            for (int s = 1; s <= 20; s++) {
+                Path submissionDir = workspaceManager.getSubmissionDirectory(t, "Tarea " + t, "Alumno " + s, 1);
+                Files.createDirectories(submissionDir.resolve("subcarpeta"));
+                workspaceManager.writeSubmissionMetadata(submissionDir,
+                    new SubmissionMetadata(t * 100 + s, "Alumno " + s, 1, 0L));
+                Files.writeString(submissionDir.resolve("practica.sql"), "SELECT " + s + ";");
+                Files.writeString(submissionDir.resolve("memoria.txt"), "memoria");
+                Files.writeString(submissionDir.resolve(".oculto"), "x");
+            }
+
+            // No son entregas: sin metadatos o con otro prefijo
+            Files.createDirectories(taskDir.resolve("submission_99_sin_metadatos"));
+            Files.createDirectories(taskDir.resolve("otra_carpeta"));
+            Files.writeString(taskDir.resolve("assessment_responses.jsonl"), "");
+        }
+        Files.createDirectories(workspace.resolve("task_999_sin_metadatos"));
+    }
+
+    @Test
+    void testParallelScanMatchesSequentialScan() throws Exception {
+        List<TaskDirectory> sequential = new DirectoryScanner(workspaceManager, 1).scanWorkspace();
+        List<TaskDirectory> parallel = new DirectoryScanner(workspaceManager, 8).scanWorkspace();
+
+        assertEquals(5, parallel.size());
+        assertEquals(describe(sequential), describe(parallel));
+
+        TaskDirectory task = parallel.stream()
+            .filter(t -> t.getMetadata().getTaskId() == 3)
+            .findFirst().orElseThrow();
+        assertEquals("Tarea 3", task.getMetadata().getTaskName());
+        assertEquals(20, task.getSubmissions().size());
+
+        SubmissionDirectory submission = task.getSubmissions().stream()
+            .filter(s -> s.getMetadata().getSubmissionId() == 307)
+            .findFirst().orElseThrow();
+        assertEquals("Alumno 7", submission.getMetadata().getStudentName());
+        assertEquals(List.of("memoria.txt", "practica.sql"), submission.getFiles().stream()
+            .map(File::getName).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void testScanTask() throws Exception {
+        Path taskDir = workspaceManager.getTaskDirectory(2, "Tarea 2");
+
+        List<SubmissionDirectory> submissions = new DirectoryScanner(workspaceManager).scanTask(taskDir);
+
+        assertEquals(20, submissions.size());
+        assertTrue(submissions.stream().allMatch(s -> s.getFiles().size() == 2));
+    }
+
+    @Test
+    void testSymbolicLinksAreFollowedAndLoopsSkipped() throws Exception {
+        Path taskDir = workspaceManager.getTaskDirectory(1, "Tarea 1");
+
+        // Una entrega enlazada desde fuera del workspace y un archivo enlazado dentro de otra
+        Path external = Files.createTempDirectory(workspace.getParent(), "entrega_externa");
+        workspaceManager.writeSubmissionMetadata(external, new SubmissionMetadata(150, "Alumno 50", 1, 0L));
+        Files.writeString(external.resolve("practica.sql"), "SELECT 50;");
+        Files.createSymbolicLink(taskDir.resolve("submission_150_enlace"), external);
+
+        Path submissionDir = workspaceManager.getSubmissionDirectory(1, "Tarea 1", "Alumno 1", 1);
+        Files.createSymbolicLink(submissionDir.resolve("enlace.sql"), submissionDir.resolve("practica.sql"));
+
+        // Un enlace que apunta a la propia tarea forma un ciclo
+        Files.createSymbolicLink(taskDir.resolve("submission_151_bucle"), taskDir);
+
+        List<SubmissionDirectory> submissions = new DirectoryScanner(workspaceManager).scanTask(taskDir);
+
+        assertEquals(21, submissions.size());
+        SubmissionDirectory linked = submissions.stream()
+            .filter(s -> s.getMetadata().getSubmissionId() == 150)
+            .findFirst().orElseThrow();
+        assertEquals(List.of("practica.sql"), linked.getFiles().stream()
+            .map(File::getName).collect(Collectors.toList()));
+        SubmissionDirectory withLinkedFile = submissions.stream()
+            .filter(s -> s.getMetadata().getSubmissionId() == 101)
+            .findFirst().orElseThrow();
+        assertEquals(List.of("enlace.sql", "memoria.txt", "practica.sql"), withLinkedFile.getFiles().stream()
+            .map(File::getName).sorted().collect(Collectors.toList()));
+
+        deleteRecursively(external);
+    }
+
+    @Test
+    void testIndexServesUnchangedMetadata() throws Exception {
+        WorkspaceIndex firstIndex = WorkspaceIndex.load(workspace);
+        List<TaskDirectory> first = new DirectoryScanner(workspaceManager, 4, firstIndex).scanWorkspace();
+        assertEquals(0, firstIndex.getHits());
+        assertEquals(105, firstIndex.getMisses());
+        assertTrue(Files.exists(workspace.resolve(".edufeedai/workspace-index.json")));
+
+        // Un cambio en una entrega y una tarea borrada
+        Path submissionDir = workspaceManager.getSubmissionDirectory(1, "Tarea 1", "Alumno 1", 1);
+        workspaceManager.writeSubmissionMetadata(submissionDir,
+            new SubmissionMetadata(101, "Alumno 1 (renombrado)", 1, 0L));
+        deleteRecursively(workspaceManager.getTaskDirectory(5, "Tarea 5"));
+
+        WorkspaceIndex secondIndex = WorkspaceIndex.load(workspace);
+        List<TaskDirectory> second = new DirectoryScanner(workspaceManager, 4, secondIndex).scanWorkspace();
+        assertEquals(83, secondIndex.getHits());
+        assertEquals(1, secondIndex.getMisses());
+        assertEquals(4, second.size());
+        assertTrue(describe(second).stream().allMatch(describe(first)::contains));
+        assertTrue(second.stream().flatMap(t -> t.getSubmissions().stream())
+            .anyMatch(s -> s.getMetadata().getStudentName().equals("Alumno 1 (renombrado)")));
+
+        // Las entradas de la tarea borrada ya no están en el índice
+        String indexContent = Files.readString(secondIndex.getIndexFile());
+        assertFalse(indexContent.contains("task_005"));
+        assertTrue(indexContent.contains("task_004"));
+    }
+
+    private static void deleteRecursively(Path dir) throws Exception {
+        try (var paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<String> describe(List<TaskDirectory> tasks) {
+        return tasks.stream()
+            .flatMap(t -> t.getSubmissions().stream().map(s -> t.getPath().getFileName() + "/"
+                + s.getPath().getFileName() + ":" + s.getMetadata().getSubmissionId() + ":"
+                + s.getFiles().stream().map(File::getName).sorted().collect(Collectors.joining(","))))
+            .sorted(Comparator.naturalOrder())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.MetricsStore;
+import com.github.edufeedai.model.FileProcessor;
+import com.github.edufeedai.model.openai.platform.api.OpenAICallRecorder;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+public class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.enable("edufeedai.FileProcess");
+        recording.enable("edufeedai.OpenAICall");
+        recording.enable("edufeedai.DbCommit");
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void testFileProcessEvent() throws Exception {
+        Path file = tempDir.resolve("Main.java");
+        Files.writeString(file, "public class Main {}\n");
+
+        new FileProcessor().processFile(file.toFile(), "Ana");
+
+        RecordedEvent event = single("edufeedai.FileProcess");
+        assertEquals(file.toString(), event.getString("path"));
+        assertEquals("Ana", event.getString("student"));
+        assertEquals(Files.size(file), event.getLong("size"));
+        assertTrue(event.getString("mimeType").startsWith("text/"));
+        assertEquals("TEXT_PLAIN", event.getString("outcome"));
+    }
+
+    @Test
+    void testOpenAICallEvents() throws Exception {
+        // Una respuesta HTTP 500 y un error de red, sin salir a la red
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new OpenAICallRecorder())
+            .addInterceptor(chain -> {
+                if (chain.request().url().encodedPath().endsWith("/fail")) {
+                    throw new IOException("sin red");
+                }
+                return new Response.Builder()
+                    .request(chain.request())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(500)
+                    .message("Internal Server Error")
+                    .body(ResponseBody.create("{}", MediaType.get("application/json")))
+                    .build();
+            })
+            .build();
+
+        RequestBody body = RequestBody.create("{\"a\":1}", MediaType.get("application/json"));
+        try (Response response = client.newCall(new Request.Builder()
+                .url("https://api.openai.com/v1/batches").post(body).build()).execute()) {
+            assertEquals(500, response.code());
+        }
+        assertThrows(IOException.class, () -> client.newCall(new Request.Builder()
+            .url("https://api.openai.com/v1/fail").build()).execute());
+
+        List<RecordedEvent> events = events("edufeedai.OpenAICall");
+        assertEquals(2, events.size());
+
+        RecordedEvent serverError = events.stream()
+            .filter(event -> event.getString("path").equals("/v1/batches")).findFirst().orElseThrow();
+        assertEquals("POST", serverError.getString("method"));
+        assertEquals(7, serverError.getLong("requestSize"));
+        assertEquals(2, serverError.getLong("responseSize"));
+        assertEquals(500, serverError.getInt("status"));
+        assertEquals("http_error", serverError.getString("outcome"));
+
+        RecordedEvent unreachable = events.stream()
+            .filter(event -> event.getString("path").equals("/v1/fail")).findFirst().orElseThrow();
+        assertEquals("GET", unreachable.getString("method"));
+        assertEquals(0, unreachable.getInt("status"));
+        assertEquals("IOException", unreachable.getString("outcome"));
+    }
+
+    @Test
+    void testDbCommitEvent() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.increment("files.text");
+        metrics.timer("mime").record(1_000);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            new MetricsStore(connection).saveRun("process", 100, 1_000, metrics);
+        }
+
+        RecordedEvent event = single("edufeedai.DbCommit");
+        assertEquals("metrics.save", event.getString("operation"));
+        assertEquals(3, event.getInt("rows"));
+        assertEquals("ok", event.getString("outcome"));
+    }
+
+    private RecordedEvent single(String name) throws IOException {
+        List<RecordedEvent> events = events(name);
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+
+    private List<RecordedEvent> events(String name) throws IOException {
+        recording.stop();
+        Path dump = tempDir.resolve("test.jfr");
+        recording.dump(dump);
+        return RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.utils.MetricsRegistry;
+
+public class MetricsRegistryTest {
+
+    @Test
+    void testPercentilesAreWithinHistogramPrecision() {
+        MetricsRegistry.Timer timer = new MetricsRegistry.Timer();
+        // 1 ms, 2 ms, ..., 1000 ms
+        for (int i = 1; i <= 1000; i++) {
+            timer.record(i * 1_000_000L);
+        }
+
+        assertEquals(1000, timer.getCount());
+        assertEquals(500_500_000_000L, timer.getTotalNanos());
+        assertEquals(1_000_000_000L, timer.getMaxNanos());
+        assertWithin(500_000_000L, timer.percentile(50));
+        assertWithin(950_000_000L, timer.percentile(95));
+        assertWithin(990_000_000L, timer.percentile(99));
+        assertEquals(1_000_000_000L, timer.percentile(100));
+    }
+
+    @Test
+    void testSmallDurationsAreExact() {
+        MetricsRegistry.Timer timer = new MetricsRegistry.Timer();
+        timer.record(3);
+        timer.record(5);
+        timer.record(-1);
+
+        assertEquals(0, timer.percentile(1));
+        assertEquals(3, timer.percentile(50));
+        assertEquals(5, timer.percentile(100));
+        assertEquals(0, new MetricsRegistry.Timer().percentile(50));
+    }
+
+    @Test
+    void testHistogramRoundTrip() {
+        MetricsRegistry.Timer timer = new MetricsRegistry.Timer();
+        for (long nanos : new long[] {7, 40_000, 40_100, 3_000_000_000L, Long.MAX_VALUE}) {
+            timer.record(nanos);
+        }
+
+        MetricsRegistry.Timer decoded = MetricsRegistry.Timer.decode(timer.getCount(), timer.getTotalNanos(),
+            timer.getMaxNanos(), timer.encodeHistogram());
+
+        assertEquals(timer.encodeHistogram(), decoded.encodeHistogram());
+        for (double percentile : new double[] {10, 50, 90, 100}) {
+            assertEquals(timer.percentile(percentile), decoded.percentile(percentile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> MetricsRegistry.Timer.decode(1, 1, 1, "3"));
+        assertThrows(IllegalArgumentException.class, () -> MetricsRegistry.Timer.decode(1, 1, 1, "9999:1"));
+    }
+
+    @Test
+    void testMergeAddsCountersAndTimers() {
+        MetricsRegistry first = new MetricsRegistry();
+        first.add("files.text", 3);
+        first.timer("mime").record(1_000);
+        MetricsRegistry second = new MetricsRegistry();
+        second.increment("files.text");
+        second.increment("files.pdf");
+        second.timer("mime").record(3_000);
+        second.timer("upload").record(5_000);
+
+        MetricsRegistry merged = new MetricsRegistry();
+        merged.merge(first);
+        merged.merge(second);
+
+        assertEquals(4L, merged.getCounters().get("files.text"));
+        assertEquals(1L, merged.getCounters().get("files.pdf"));
+        assertEquals(2, merged.getTimers().get("mime").getCount());
+        assertEquals(4_000, merged.getTimers().get("mime").getTotalNanos());
+        assertEquals(3_000, merged.getTimers().get("mime").getMaxNanos());
+        assertEquals(List.of("mime", "upload"), new ArrayList<>(merged.getTimers().keySet()));
+    }
+
+    @Test
+    void testSamplesFromSeveralThreads() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        assertTrue(metrics.isEmpty());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        try (MetricsRegistry.Sample sample = metrics.start("db.write")) {
+                            metrics.increment("rows");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertFalse(metrics.isEmpty());
+        assertEquals(4000L, metrics.getCounters().get("rows"));
+        assertEquals(4000, metrics.getTimers().get("db.write").getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.0625,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.MetricsStore;
+import com.github.edufeedai.utils.MetricsRegistry;
+
+public class MetricsStoreTest {
+
+    private Connection connection;
+    private MetricsStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        store = new MetricsStore(connection);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testRunsAreListedNewestFirst() throws Exception {
+        store.saveRun("add", 100, 1_000, metrics("ingest.submission", 10));
+        store.saveRun("process", 200, 2_000, metrics("mime", 20));
+        store.saveRun("process", 300, 3_000, metrics("mime", 30));
+
+        List<MetricsStore.Run> runs = store.listRuns(10, null);
+        assertEquals(3, runs.size());
+        assertEquals("process", runs.get(0).getCommand());
+        assertEquals(300, runs.get(0).getStartedAt());
+        assertEquals(3_000, runs.get(0).getDurationNanos());
+
+        assertEquals(2, store.listRuns(2, null).size());
+        assertEquals(2, store.listRuns(10, "process").size());
+        assertTrue(store.listRuns(10, "check").isEmpty());
+    }
+
+    @Test
+    void testLoadMergesRuns() throws Exception {
+        MetricsRegistry first = metrics("mime", 1_000_000);
+        first.add("files.text", 2);
+        MetricsRegistry second = metrics("mime", 3_000_000);
+        second.timer("upload").record(50_000_000);
+        second.add("files.text", 5);
+        store.saveRun("process", 100, 10_000_000, first);
+        store.saveRun("process", 200, 60_000_000, second);
+
+        MetricsRegistry loaded = store.load(store.listRuns(10, "process"));
+
+        MetricsRegistry.Timer mime = loaded.getTimers().get("mime");
+        assertEquals(2, mime.getCount());
+        assertEquals(4_000_000, mime.getTotalNanos());
+        assertEquals(3_000_000, mime.getMaxNanos());
+        assertEquals(1, loaded.getTimers().get("upload").getCount());
+        assertEquals(7L, loaded.getCounters().get("files.text"));
+
+        // Solo la ejecución más reciente
+        MetricsRegistry latest = store.load(store.listRuns(1, null));
+        assertEquals(1, latest.getTimers().get("mime").getCount());
+        assertEquals(5L, latest.getCounters().get("files.text"));
+    }
+
+    @Test
+    void testTablesSurviveReopening() throws Exception {
+        store.saveRun("add", 100, 1_000, metrics("ingest.unzip", 10));
+
+        MetricsStore reopened = new MetricsStore(connection);
+        assertEquals(1, reopened.listRuns(10, null).size());
+    }
+
+    private static MetricsRegistry metrics(String stage, long nanos) {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.timer(stage).record(nanos);
+        return metrics;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.MoodleFeedbackLayout;
+import com.github.edufeedai.ZipFeedbackPackager;
+
+public class MoodleFeedbackLayoutTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParticipantIdIsParsedFromSubmissionFolder() {
+        assertEquals("123456", MoodleFeedbackLayout.parseParticipantId("Ana Pérez_123456_assignsubmission_file_"));
+        assertEquals("42", MoodleFeedbackLayout.parseParticipantId("Luis_Gómez_42_assignsubmission_onlinetext_"));
+        assertNull(MoodleFeedbackLayout.parseParticipantId("Ana Pérez"));
+
+        assertEquals("Luis_Gómez_42_assignsubmission_file_/feedback.html",
+            MoodleFeedbackLayout.entryName("Luis_Gómez_42_assignsubmission_onlinetext_"));
+        assertNull(MoodleFeedbackLayout.entryName("Ana Pérez"));
+    }
+
+    @Test
+    void testMarkdownIsRenderedAsEscapedHtml() {
+        String html = new MoodleFeedbackLayout().render("# Nota\n\n**Bien** <script>x</script>");
+
+        assertTrue(html.contains("<meta charset=\"UTF-8\">"));
+        assertTrue(html.contains("<h1>Nota</h1>"));
+        assertTrue(html.contains("<strong>Bien</strong>"));
+        assertFalse(html.contains("<script>"));
+    }
+
+    @Test
+    void testPackagerWritesOneFolderPerParticipant() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY, task_id INTEGER, student_name TEXT, feedback TEXT)");
+                StringBuilder insert = new StringBuilder("INSERT INTO submissions (task_id, student_name, feedback) VALUES ");
+                for (int i = 0; i < 50; i++) {
+                    insert.append("(1, 'Alumno ").append(i).append('_').append(1000 + i)
+                        .append("_assignsubmission_file_', '# Feedback ").append(i).append("'), ");
+                }
+                insert.append("(1, 'Sin participante', '# Feedback')");
+                stmt.execute(insert.toString());
+            }
+
+            ZipFeedbackPackager packager = new ZipFeedbackPackager(connection, 1, tempDir.toString(), "moodle.zip");
+            packager.setLayout(ZipFeedbackPackager.Layout.MOODLE);
+            packager.setCompressionThreads(4);
+            packager.generateFeedbackZip();
+
+            assertEquals(1, packager.getSkippedCount());
+            try (ZipFile zip = new ZipFile(tempDir.resolve("moodle.zip").toFile())) {
+                assertEquals(50, zip.size());
+                ZipEntry entry = zip.getEntry("Alumno 7_1007_assignsubmission_file_/feedback.html");
+                assertNotNull(entry);
+                String html = new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(html.contains("<h1>Feedback 7</h1>"));
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIBatchProcess;
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJobList;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class OpenAIBatchProcessConcurrencyTest {
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+    private OpenAIBatchProcess batchProcess;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/v1/batches", this::handleBatches);
+        server.start();
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+        batchProcess = new OpenAIBatchProcess("sk-test",
+            "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/batches", httpClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testConcurrentCreateAndGet() {
+        List<CompletableFuture<BatchJob>> created = new ArrayList<>();
+        List<CompletableFuture<BatchJob>> polled = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            created.add(batchProcess.enqueueBatchProcessAsync("file-" + i));
+            polled.add(batchProcess.getBatchJobAsync("batch_" + i));
+        }
+
+        CompletableFuture.allOf(created.toArray(new CompletableFuture[0])).join();
+        CompletableFuture.allOf(polled.toArray(new CompletableFuture[0])).join();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("batch_file-" + i, created.get(i).join().getId());
+            assertEquals("batch_" + i, polled.get(i).join().getId());
+            assertEquals("in_progress", polled.get(i).join().getStatus());
+        }
+    }
+
+    @Test
+    void testCancelAndList() throws OpenAIAPIException {
+        BatchJob cancelled = batchProcess.cancelBatchJob("batch_7");
+        assertEquals("cancelling", cancelled.getStatus());
+        assertEquals("cancelling", batchProcess.cancelBatchJobAsync("batch_8").join().getStatus());
+
+        BatchJobList list = batchProcess.listBatchJobs(2, "batch_0");
+        assertEquals(2, list.getData().size());
+        assertTrue(list.isHasMore());
+        assertEquals("batch_1", list.getFirstId());
+        assertEquals(2, batchProcess.listBatchJobsAsync(2, null).join().getData().size());
+    }
+
+    @Test
+    void testAsyncErrorCompletesExceptionally() {
+        CompletionException e = assertThrows(CompletionException.class,
+            () -> batchProcess.getBatchJobAsync("missing").join());
+        assertInstanceOf(OpenAIAPIException.class, e.getCause());
+    }
+
+    private void handleBatches(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        int status = 200;
+        String response;
+        if (path.endsWith("/missing")) {
+            status = 404;
+            response = "{\"error\":{\"message\":\"not found\"}}";
+        } else if (path.endsWith("/cancel")) {
+            String id = path.substring("/v1/batches/".length(), path.length() - "/cancel".length());
+            response = job(id, "cancelling");
+        } else if (path.equals("/v1/batches") && method.equals("POST")) {
+            String fileId = body.replaceAll(".*\"input_file_id\":\"([^\"]+)\".*", "$1");
+            response = job("batch_" + fileId, "validating");
+        } else if (path.equals("/v1/batches")) {
+            assertTrue(exchange.getRequestURI().getQuery().contains("limit=2"));
+            response = "{\"object\":\"list\",\"data\":[" + job("batch_1", "completed") + "," +
+                job("batch_2", "in_progress") + "],\"first_id\":\"batch_1\",\"last_id\":\"batch_2\",\"has_more\":true}";
+        } else {
+            response = job(path.substring(path.lastIndexOf('/') + 1), "in_progress");
+        }
+
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static String job(String id, String status) {
+        return "{\"id\":\"" + id + "\",\"object\":\"batch\",\"status\":\"" + status + "\"}";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIFileManagement;
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class OpenAIFileDownloadResumeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+    private byte[] content;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String contentMd5;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("{\"custom_id\":\"").append(i).append("\",\"response\":{\"status_code\":200}}\n");
+        }
+        content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        contentMd5 = Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(content));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/files", this::handleDownload);
+        server.start();
+        // El servidor de pruebas no cierra el socket tras un cuerpo incompleto: el corte se detecta por timeout
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofMillis(500), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testDownloadResumesAfterDroppedConnection() throws Exception {
+        OpenAIFileManagement fileManagement = new OpenAIFileManagement("sk-test", filesUrl(), httpClient);
+        Path output = tempDir.resolve("out").resolve("assessment_responses.jsonl");
+
+        fileManagement.downloadFile("file-abc", output.toString());
+
+        assertArrayEquals(content, Files.readAllBytes(output));
+        assertFalse(Files.exists(output.resolveSibling("assessment_responses.jsonl.part")));
+        assertEquals(2, requests.get());
+        assertNull(ranges.get(0));
+        assertEquals("bytes=" + (content.length / 2) + "-", ranges.get(1));
+    }
+
+    @Test
+    void testChecksumMismatchLeavesNoFile() {
+        contentMd5 = Base64.getEncoder().encodeToString(new byte[16]);
+        OpenAIFileManagement fileManagement = new OpenAIFileManagement("sk-test", filesUrl(), httpClient);
+        Path output = tempDir.resolve("assessment_responses.jsonl");
+
+        assertThrows(OpenAIAPIException.class, () -> fileManagement.downloadFile("file-abc", output.toString()));
+        assertFalse(Files.exists(output));
+        assertFalse(Files.exists(tempDir.resolve("assessment_responses.jsonl.part")));
+    }
+
+    private String filesUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/files";
+    }
+
+    /**
+     * La primera petición corta la conexión a mitad del cuerpo; las siguientes atienden el Range.
+     */
+    private void handleDownload(HttpExchange exchange) throws IOException {
+        int request = requests.incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(range);
+
+        if (range != null) {
+            int start = Integer.parseInt(range.replaceAll("bytes=(\\d+)-", "$1"));
+            int length = content.length - start;
+            exchange.getResponseHeaders().add("Content-Range",
+                "bytes " + start + "-" + (content.length - 1) + "/" + content.length);
+            exchange.sendResponseHeaders(206, length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content, start, length);
+            }
+            return;
+        }
+
+        exchange.getResponseHeaders().add("Content-MD5", contentMd5);
+        exchange.sendResponseHeaders(200, content.length);
+        OutputStream os = exchange.getResponseBody();
+        if (request == 1) {
+            os.write(content, 0, content.length / 2);
+            os.flush();
+            try {
+                os.close();
+            } catch (IOException expected) {
+                // Cuerpo incompleto: la conexión queda colgada hasta el timeout del cliente
+            }
+        } else {
+            os.write(content);
+            os.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIBatchProcess;
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.batches.BatchJob;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class OpenAIHttpClientTest {
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/batches", this::handleBatches);
+        server.start();
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testConnectionIsReusedAcrossCalls() throws OpenAIAPIException {
+        OpenAIBatchProcess batchProcess = new OpenAIBatchProcess("sk-test", batchesUrl(), httpClient);
+
+        BatchJob created = batchProcess.enqueueBatchProcess("file-abc");
+        BatchJob polled1 = batchProcess.getBatchJob("batch_123");
+        BatchJob polled2 = batchProcess.getBatchJob("batch_123");
+
+        assertEquals("batch_123", created.getId());
+        assertEquals("in_progress", polled1.getStatus());
+        assertEquals("in_progress", polled2.getStatus());
+        assertEquals(List.of("Bearer sk-test", "Bearer sk-test", "Bearer sk-test"), authorizations);
+        // Las tres peticiones se han servido por la misma conexión keep-alive
+        assertEquals(1, httpClient.getConnectionCount());
+    }
+
+    @Test
+    void testErrorStatusThrowsOpenAIAPIException() {
+        OpenAIBatchProcess batchProcess = new OpenAIBatchProcess("sk-test", batchesUrl(), httpClient);
+
+        OpenAIAPIException e = assertThrows(OpenAIAPIException.class, () -> batchProcess.getBatchJob("missing"));
+        assertTrue(e.getMessage().contains("not found"));
+    }
+
+    @Test
+    void testSharedInstanceUsesConfiguredTimeouts() {
+        try {
+            OpenAIHttpClient.configureTimeouts(Duration.ofSeconds(7), Duration.ofSeconds(300), Duration.ofSeconds(60));
+            OpenAIHttpClient shared = OpenAIHttpClient.getInstance();
+            assertEquals(7_000, shared.getClient().connectTimeoutMillis());
+            assertEquals(300_000, shared.getClient().readTimeoutMillis());
+            assertEquals(60_000, shared.getClient().writeTimeoutMillis());
+
+            // Los mismos valores no sustituyen la instancia
+            OpenAIHttpClient.configureTimeouts(Duration.ofSeconds(7), Duration.ofSeconds(300), Duration.ofSeconds(60));
+            assertSame(shared, OpenAIHttpClient.getInstance());
+        } finally {
+            OpenAIHttpClient.configureTimeouts(OpenAIHttpClient.DEFAULT_CONNECT_TIMEOUT,
+                OpenAIHttpClient.DEFAULT_READ_TIMEOUT, OpenAIHttpClient.DEFAULT_WRITE_TIMEOUT);
+        }
+    }
+
+    private String batchesUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/batches";
+    }
+
+    private void handleBatches(HttpExchange exchange) throws IOException {
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        exchange.getRequestBody().readAllBytes();
+
+        int status = 200;
+        String body = "{\"id\":\"batch_123\",\"object\":\"batch\",\"status\":\"in_progress\"}";
+        if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+            status = 404;
+            body = "{\"error\":{\"message\":\"not found\"}}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
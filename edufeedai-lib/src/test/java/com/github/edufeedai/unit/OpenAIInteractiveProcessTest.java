@@ -0,0 +1,180 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.OpenAIInteractiveProcess;
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler;
+import com.github.edufeedai.model.openai.platform.response.BatchRequest;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Prueba el modo interactivo contra un servidor local que imita /v1/chat/completions.
+ */
+public class OpenAIInteractiveProcessTest {
+
+    // Más peticiones que las que el proceso mantiene pendientes a la vez (4 por hilo)
+    private static final int REQUESTS = 40;
+    private static final int CONCURRENCY = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger transientFailures = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/v1/chat/completions", this::handleCompletion);
+        server.start();
+        RequestScheduler scheduler = new RequestScheduler(100, 100, 3, Duration.ofMillis(10), Duration.ofMillis(50));
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5), scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testResponsesAreWrittenInBatchFormatWithBoundedConcurrency() throws Exception {
+        Path jsonl = writeJsonl(REQUESTS, null);
+        Path output = tempDir.resolve("assessment_responses.jsonl");
+        Path errors = tempDir.resolve("assessment_errors.jsonl");
+        // Un 500 transitorio lo reintenta el planificador
+        transientFailures.set(1);
+
+        OpenAIInteractiveProcess process = new OpenAIInteractiveProcess("sk-test", baseUrl(), httpClient, CONCURRENCY);
+        OpenAIInteractiveProcess.Result result = process.processJsonl(jsonl, output, errors);
+
+        assertEquals(REQUESTS, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertTrue(maxInFlight.get() <= CONCURRENCY);
+        assertTrue(Files.readAllLines(errors).isEmpty());
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(REQUESTS, lines.size());
+        Gson gson = new Gson();
+        for (int i = 0; i < REQUESTS; i++) {
+            BatchRequest request = gson.fromJson(lines.get(i), BatchRequest.class);
+            assertEquals("id-" + i, request.getCustom_id());
+            assertEquals("feedback id-" + i,
+                request.getResponse().getBody().getChoices().get(0).getMessage().getContent());
+        }
+    }
+
+    @Test
+    void testFailedRequestsGoToErrorFile() throws Exception {
+        Path jsonl = writeJsonl(4, "id-2");
+        Path output = tempDir.resolve("assessment_responses.jsonl");
+        Path errors = tempDir.resolve("assessment_errors.jsonl");
+
+        OpenAIInteractiveProcess process = new OpenAIInteractiveProcess("sk-test", baseUrl(), httpClient, CONCURRENCY);
+        OpenAIInteractiveProcess.Result result = process.processJsonl(jsonl, output, errors);
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, Files.readAllLines(output).size());
+        List<String> errorLines = Files.readAllLines(errors);
+        assertEquals(1, errorLines.size());
+        JSONObject error = new JSONObject(errorLines.get(0));
+        assertEquals("id-2", error.getString("custom_id"));
+        assertEquals("http_400", error.getJSONObject("error").getString("code"));
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    private Path writeJsonl(int count, String invalidId) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = "id-" + i;
+            JSONObject body = new JSONObject()
+                .put("model", id.equals(invalidId) ? "invalid" : "gpt-4o")
+                .put("messages", new JSONArray().put(new JSONObject().put("role", "user").put("content", id)));
+            lines.add(new JSONObject()
+                .put("custom_id", id)
+                .put("method", "POST")
+                .put("url", "/v1/chat/completions")
+                .put("body", body).toString());
+        }
+        Path jsonl = tempDir.resolve("batch.jsonl");
+        Files.write(jsonl, lines, StandardCharsets.UTF_8);
+        return jsonl;
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            JSONObject request = new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            Thread.sleep(20);
+
+            if (transientFailures.getAndDecrement() > 0) {
+                respond(exchange, 500, new JSONObject().put("error", "temporary"));
+                return;
+            }
+            if (request.getString("model").equals("invalid")) {
+                respond(exchange, 400, new JSONObject().put("error", new JSONObject().put("message", "invalid model")));
+                return;
+            }
+
+            String id = request.getJSONArray("messages").getJSONObject(0).getString("content");
+            JSONObject message = new JSONObject().put("role", "assistant").put("content", "feedback " + id);
+            respond(exchange, 200, new JSONObject()
+                .put("id", "chatcmpl-" + id)
+                .put("object", "chat.completion")
+                .put("model", "gpt-4o")
+                .put("choices", new JSONArray().put(new JSONObject().put("index", 0).put("message", message))));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("x-request-id", "req_test");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.OpenAIMultipartUpload;
+import com.github.edufeedai.model.openai.platform.api.exceptions.OpenAIAPIException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Prueba la subida por partes contra un servidor local que imita la API de Uploads.
+ */
+public class OpenAIMultipartUploadTest {
+
+    private static final int PART_SIZE = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+
+    private final Map<String, byte[]> parts = new ConcurrentHashMap<>();
+    private final AtomicInteger partCounter = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final List<String> cancelled = new CopyOnWriteArrayList<>();
+    private volatile byte[] assembled;
+    private volatile JSONObject created;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/v1/uploads", this::handleUploads);
+        server.start();
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testUploadInPartsWithRetryAndProgress() throws Exception {
+        byte[] content = sampleContent(4500);
+        Path file = tempDir.resolve("batch.jsonl");
+        Files.write(file, content);
+        // La primera petición de parte falla con 500 y debe reintentarse
+        failuresLeft.set(1);
+
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        OpenAIMultipartUpload upload = new OpenAIMultipartUpload("sk-test", uploadsUrl(), httpClient, PART_SIZE, 3);
+        String fileId = upload.upload(file.toFile(), "batch", "application/jsonl", (done, total) -> {
+            assertEquals(content.length, total);
+            progress.add(done);
+        });
+
+        assertEquals("file-assembled", fileId);
+        assertArrayEquals(content, assembled);
+        assertEquals(content.length, created.getLong("bytes"));
+        assertEquals("batch", created.getString("purpose"));
+        assertEquals(5, progress.size());
+        assertEquals(Long.valueOf(content.length), progress.stream().max(Long::compare).orElseThrow());
+        assertTrue(cancelled.isEmpty());
+    }
+
+    @Test
+    void testPermanentPartFailureCancelsUpload() throws Exception {
+        Path file = tempDir.resolve("batch.jsonl");
+        Files.write(file, sampleContent(2500));
+        failuresLeft.set(100);
+
+        OpenAIMultipartUpload upload = new OpenAIMultipartUpload("sk-test", uploadsUrl(), httpClient, PART_SIZE, 2);
+        assertThrows(OpenAIAPIException.class, () -> upload.upload(file.toFile(), "batch", "application/jsonl", null));
+        assertEquals(List.of("upload_1"), cancelled);
+    }
+
+    private static byte[] sampleContent(int length) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (sb.length() < length) {
+            sb.append("{\"custom_id\":\"").append(i++).append("\"}\n");
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String uploadsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/uploads";
+    }
+
+    private void handleUploads(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.equals("/v1/uploads")) {
+            created = new JSONObject(new String(body, StandardCharsets.UTF_8));
+            respond(exchange, 200, new JSONObject().put("id", "upload_1").put("status", "pending"));
+        } else if (path.endsWith("/parts")) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                respond(exchange, 500, new JSONObject().put("error", "temporary"));
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            String partId = "part_" + partCounter.incrementAndGet();
+            parts.put(partId, extractDataField(body, contentType));
+            respond(exchange, 200, new JSONObject().put("id", partId).put("object", "upload.part"));
+        } else if (path.endsWith("/complete")) {
+            JSONArray partIds = new JSONObject(new String(body, StandardCharsets.UTF_8)).getJSONArray("part_ids");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < partIds.length(); i++) {
+                out.write(parts.get(partIds.getString(i)));
+            }
+            assembled = out.toByteArray();
+            respond(exchange, 200, new JSONObject().put("id", "upload_1").put("status", "completed")
+                .put("file", new JSONObject().put("id", "file-assembled")));
+        } else if (path.endsWith("/cancel")) {
+            cancelled.add(path.split("/")[3]);
+            respond(exchange, 200, new JSONObject().put("id", "upload_1").put("status", "cancelled"));
+        } else {
+            respond(exchange, 404, new JSONObject());
+        }
+    }
+
+    /**
+     * Extrae el contenido del campo "data" de un cuerpo multipart/form-data.
+     */
+    private static byte[] extractDataField(byte[] body, String contentType) {
+        String boundary = "--" + contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+        String raw = new String(body, StandardCharsets.ISO_8859_1);
+        int nameIndex = raw.indexOf("name=\"data\"");
+        int start = raw.indexOf("\r\n\r\n", nameIndex) + 4;
+        int end = raw.indexOf("\r\n" + boundary, start);
+        return raw.substring(start, end).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
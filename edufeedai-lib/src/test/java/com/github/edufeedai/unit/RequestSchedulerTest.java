@@ -0,0 +1,183 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.model.openai.platform.api.OpenAIHttpClient;
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestScheduler;
+import com.github.edufeedai.model.openai.platform.api.ratelimit.RequestSchedulerMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+public class RequestSchedulerTest {
+
+    private HttpServer server;
+    private OpenAIHttpClient httpClient;
+    private RequestScheduler scheduler;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Responde 429 dos veces y después 200
+        server.createContext("/limited", exchange -> {
+            if (calls.incrementAndGet() <= 2) {
+                exchange.getResponseHeaders().add("retry-after-ms", "20");
+                respond(exchange, 429, "{\"error\":\"rate limited\"}");
+            } else {
+                exchange.getResponseHeaders().add("x-ratelimit-remaining-requests", "42");
+                exchange.getResponseHeaders().add("x-ratelimit-remaining-tokens", "1000");
+                respond(exchange, 200, "{}");
+            }
+        });
+        // Cuota agotada: no se recupera reintentando
+        server.createContext("/quota", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 429, "{\"error\":{\"message\":\"You exceeded your current quota\"," +
+                "\"type\":\"insufficient_quota\",\"code\":\"insufficient_quota\"}}");
+        });
+        // Siempre falla con 503
+        server.createContext("/unavailable", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+        server.start();
+
+        scheduler = new RequestScheduler(1000, 10, 3, Duration.ofMillis(5), Duration.ofMillis(50));
+        httpClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5), scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testRateLimitedPostIsRetried() throws IOException {
+        Request request = httpClient.newRequest(url("/limited"), "sk-test")
+            .post(RequestBody.create("{}", OpenAIHttpClient.JSON))
+            .build();
+
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            assertEquals(200, response.code());
+        }
+
+        RequestSchedulerMetrics metrics = scheduler.getMetrics();
+        assertEquals(3, calls.get());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(2, metrics.getRateLimited());
+        assertEquals(42, metrics.getRemainingRequests());
+        assertEquals(1000, metrics.getRemainingTokens());
+        assertEquals(0, metrics.getQueueDepth());
+        assertTrue(metrics.getThrottleTime().toMillis() >= 40);
+    }
+
+    @Test
+    void testInsufficientQuotaFailsFast() throws IOException {
+        Request request = httpClient.newRequest(url("/quota"), "sk-test")
+            .post(RequestBody.create("{}", OpenAIHttpClient.JSON))
+            .build();
+
+        try (Response response = httpClient.getClient().newCall(request).execute()) {
+            assertEquals(429, response.code());
+            // El cuerpo del error llega intacto al llamante
+            assertTrue(response.body().string().contains("insufficient_quota"));
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(0, scheduler.getMetrics().getRetries());
+    }
+
+    @Test
+    void testServerErrorRetriedOnlyForIdempotentRequests() throws IOException {
+        Request post = httpClient.newRequest(url("/unavailable"), "sk-test")
+            .post(RequestBody.create("{}", OpenAIHttpClient.JSON))
+            .build();
+        try (Response response = httpClient.getClient().newCall(post).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, calls.get());
+
+        Request get = httpClient.newRequest(url("/unavailable"), "sk-test").get().build();
+        try (Response response = httpClient.getClient().newCall(get).execute()) {
+            assertEquals(503, response.code());
+        }
+        // 1 intento + 3 reintentos
+        assertEquals(5, calls.get());
+
+        Request taggedPost = httpClient.newRequest(url("/unavailable"), "sk-test")
+            .tag(RequestScheduler.Idempotent.class, RequestScheduler.Idempotent.INSTANCE)
+            .post(RequestBody.create("{}", OpenAIHttpClient.JSON))
+            .build();
+        try (Response response = httpClient.getClient().newCall(taggedPost).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(9, calls.get());
+    }
+
+    @Test
+    void testTokenBucketPacing() throws IOException {
+        RequestScheduler slow = new RequestScheduler(50, 1, 0, Duration.ofMillis(5), Duration.ofMillis(50));
+        OpenAIHttpClient slowClient = new OpenAIHttpClient(Duration.ofSeconds(5), Duration.ofSeconds(5),
+            Duration.ofSeconds(5), slow);
+        calls.set(10);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                Request get = slowClient.newRequest(url("/limited"), "sk-test").get().build();
+                try (Response response = slowClient.getClient().newCall(get).execute()) {
+                    assertEquals(200, response.code());
+                }
+            }
+            // Ráfaga de 1 a 50 peticiones/s: al menos 4 esperas de 20 ms
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 70);
+            assertEquals(5, slow.getMetrics().getRequests());
+        } finally {
+            slowClient.close();
+        }
+    }
+
+    @Test
+    void testParseResetDurations() {
+        assertEquals(Duration.ofSeconds(1).toNanos(), RequestScheduler.parseResetNanos("1s"));
+        assertEquals(Duration.ofMinutes(6).toNanos(), RequestScheduler.parseResetNanos("6m0s"));
+        assertEquals(Duration.ofMillis(20).toNanos(), RequestScheduler.parseResetNanos("20ms"));
+        assertEquals(Duration.ofMillis(1500).toNanos(), RequestScheduler.parseResetNanos("1.5s"));
+        assertEquals(Duration.ofSeconds(3723).toNanos(), RequestScheduler.parseResetNanos("1h2m3s"));
+        assertEquals(0, RequestScheduler.parseResetNanos(null));
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.BatchJSONLGenerator;
+import com.github.edufeedai.ResponseCache;
+import com.github.edufeedai.model.DigestSHA256;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class ResponseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY, moodle_task_id TEXT)");
+            stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY, task_id INTEGER, student_name TEXT, custom_id TEXT)");
+            stmt.execute("CREATE TABLE submission_files (id INTEGER PRIMARY KEY, submission_id INTEGER, " +
+                "file_name TEXT, content_extracted TEXT)");
+            stmt.execute("INSERT INTO tasks (id, moodle_task_id) VALUES (1, '42')");
+            stmt.execute("INSERT INTO submissions (id, task_id, student_name) VALUES (1, 1, 'Ana'), (2, 1, 'Luis'), (3, 1, 'Eva')");
+            stmt.execute("INSERT INTO submission_files (submission_id, file_name, content_extracted) VALUES " +
+                "(1, 'practica.txt', 'SELECT * FROM alumnos;'), " +
+                "(2, 'practica.txt', 'SELECT * FROM alumnos;  \r\n'), " +
+                "(3, 'practica.txt', 'DROP TABLE alumnos;')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testKeyIgnoresWhitespaceAndLineEndings() throws Exception {
+        ResponseCache cache = new ResponseCache(connection, new DigestSHA256());
+
+        String key1 = cache.computeKey("gpt-4o", "Corrige", "linea 1\nlinea 2\n");
+        String key2 = cache.computeKey("gpt-4o", "Corrige", "linea 1  \r\nlinea 2");
+        String key3 = cache.computeKey("gpt-4o", "Corrige con rúbrica", "linea 1\nlinea 2\n");
+        String key4 = cache.computeKey("gpt-4o-mini", "Corrige", "linea 1\nlinea 2\n");
+
+        assertEquals(key1, key2);
+        assertNotEquals(key1, key3);
+        assertNotEquals(key1, key4);
+    }
+
+    @Test
+    void testStoreAndLookup() throws Exception {
+        ResponseCache cache = new ResponseCache(connection, new DigestSHA256());
+        String key = cache.computeKey("gpt-4o", "Corrige", "contenido");
+
+        assertFalse(cache.contains(key));
+        assertNull(cache.lookup(key));
+
+        cache.store(key, "gpt-4o", response("Nota: 7"));
+
+        assertTrue(cache.contains(key));
+        JsonObject cached = cache.lookup(key);
+        assertEquals(200, cached.get("status_code").getAsInt());
+    }
+
+    @Test
+    void testGeneratorDeduplicatesAndMaterialisesCachedResponses() throws Exception {
+        ResponseCache cache = new ResponseCache(connection, new DigestSHA256());
+        BatchJSONLGenerator generator = new BatchJSONLGenerator(connection, 1, tempDir.toString(),
+            "Corrige", new DigestSHA256(), cache);
+
+        String jsonlPath = generator.generateJsonl();
+        List<String> lines = Files.readAllLines(Path.of(jsonlPath));
+
+        // Ana y Luis entregan el mismo contenido: solo se envía una petición
+        assertEquals(2, lines.size());
+        assertEquals(2, generator.getBatchRequestCount());
+        assertEquals(1, generator.getCachedRequestCount());
+
+        // Simular la salida del batch para las peticiones enviadas
+        File responses = tempDir.resolve("assessment_responses.jsonl").toFile();
+        StringBuilder output = new StringBuilder();
+        for (String line : lines) {
+            String customId = JsonParser.parseString(line).getAsJsonObject().get("custom_id").getAsString();
+            JsonObject batchLine = new JsonObject();
+            batchLine.addProperty("id", "batch_req_" + customId);
+            batchLine.addProperty("custom_id", customId);
+            batchLine.add("response", response("Feedback " + customId));
+            output.append(batchLine).append('\n');
+        }
+        Files.writeString(responses.toPath(), output.toString(), StandardCharsets.UTF_8);
+
+        assertEquals(2, cache.storeBatchResults(1, responses));
+        assertEquals(1, cache.materialiseCachedResults(1, responses));
+        assertEquals(3, Files.readAllLines(responses.toPath()).size());
+
+        // Materialising twice does not duplicate lines
+        assertEquals(0, cache.materialiseCachedResults(1, responses));
+
+        // Regenerating the batch serves everything from the cache
+        generator.generateJsonl();
+        assertEquals(0, generator.getBatchRequestCount());
+        assertEquals(3, generator.getCachedRequestCount());
+
+        File localResponses = tempDir.resolve("local_responses.jsonl").toFile();
+        assertEquals(3, cache.materialiseCachedResults(1, localResponses));
+    }
+
+    @Test
+    void testKeyIncludesFileNames() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO submissions (id, task_id, student_name) VALUES (4, 1, 'Marta')");
+            stmt.execute("INSERT INTO submission_files (submission_id, file_name, content_extracted) VALUES " +
+                "(4, 'entrega_marta.sql', 'DROP TABLE alumnos;')");
+        }
+        ResponseCache cache = new ResponseCache(connection, new DigestSHA256());
+        BatchJSONLGenerator generator = new BatchJSONLGenerator(connection, 1, tempDir.toString(),
+            "Corrige", new DigestSHA256(), cache);
+
+        generator.generateJsonl();
+
+        // Eva y Marta entregan el mismo contenido con distinto nombre de archivo: no comparten respuesta
+        assertEquals(3, generator.getBatchRequestCount());
+        assertEquals(1, generator.getCachedRequestCount());
+        assertEquals(cache.computeKey("gpt-4o", "Corrige", List.of("a.sql", "b.sql"), List.of("a", "b")),
+            cache.computeKey("gpt-4o", "Corrige", List.of(" a.sql", "b.sql "), List.of("a", "b")));
+        assertNotEquals(cache.computeKey("gpt-4o", "Corrige", List.of("a.sql"), List.of("a")),
+            cache.computeKey("gpt-4o", "Corrige", List.of("b.sql"), List.of("a")));
+        assertNotEquals(cache.computeKey("gpt-4o", "Corrige", List.of("a.sql", "b.sql"), List.of("a", "b")),
+            cache.computeKey("gpt-4o", "Corrige", List.of("a.sql"), List.of("ab")));
+    }
+
+    @Test
+    void testFailedRequestsAreNotCachedAndFailTheirDuplicates() throws Exception {
+        ResponseCache cache = new ResponseCache(connection, new DigestSHA256());
+        BatchJSONLGenerator generator = new BatchJSONLGenerator(connection, 1, tempDir.toString(),
+            "Corrige", new DigestSHA256(), cache);
+        List<String> lines = Files.readAllLines(Path.of(generator.generateJsonl()));
+        String anaId = JsonParser.parseString(lines.get(0)).getAsJsonObject().get("custom_id").getAsString();
+
+        JsonObject error = response("Error");
+        error.addProperty("status_code", 500);
+        assertThrows(IllegalArgumentException.class, () -> cache.store("clave", "gpt-4o", error));
+
+        // La petición de Ana falla: la de Luis, servida desde ella, falla también
+        Set<String> dependents = cache.evictFailed(1, Set.of(anaId));
+        assertEquals(1, dependents.size());
+        assertFalse(dependents.contains(anaId));
+
+        File responses = tempDir.resolve("assessment_responses.jsonl").toFile();
+        JsonObject batchLine = new JsonObject();
+        batchLine.addProperty("id", "batch_req_" + anaId);
+        batchLine.addProperty("custom_id", anaId);
+        batchLine.add("response", error);
+        Files.writeString(responses.toPath(), batchLine + "\n", StandardCharsets.UTF_8);
+
+        assertEquals(0, cache.storeBatchResults(1, responses));
+        assertEquals(0, cache.materialiseCachedResults(1, responses));
+    }
+
+    private JsonObject response(String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", "gpt-4o");
+        body.add("choices", choices);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("status_code", 200);
+        response.addProperty("request_id", "req_test");
+        response.add("body", body);
+        return response;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.BatchJSONLGenerator;
+import com.github.edufeedai.GenerateSubmissionIDMap;
+import com.github.edufeedai.model.DigestSHA1;
+import com.github.edufeedai.model.SubmissionIdMap;
+import com.google.gson.Gson;
+
+class SubmissionIDMapDatabaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY, moodle_task_id TEXT)");
+            stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY, task_id INTEGER, student_name TEXT, custom_id TEXT)");
+            stmt.execute("CREATE TABLE submission_files (id INTEGER PRIMARY KEY, submission_id INTEGER, " +
+                "file_name TEXT, content_extracted TEXT)");
+            stmt.execute("INSERT INTO tasks (id, moodle_task_id) VALUES (1, '42')");
+            stmt.execute("INSERT INTO submissions (id, task_id, student_name, custom_id) VALUES " +
+                "(1, 1, 'Luis', 'id-luis'), (2, 1, 'Ana', 'id-ana'), (3, 1, 'Eva', NULL), (4, 2, 'Otro', 'id-otro')");
+            stmt.execute("INSERT INTO submission_files (submission_id, file_name, content_extracted) VALUES " +
+                "(1, 'practica.txt', 'uno'), (2, 'practica.txt', 'dos')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testMapIsWrittenFromCustomIdColumn() throws Exception {
+        GenerateSubmissionIDMap generator = new GenerateSubmissionIDMap(tempDir.toString(), new DigestSHA1());
+
+        String fileName = generator.saveSubmissionIDMaps(connection, 1, "submission_id_map.json");
+
+        SubmissionIdMap[] map = new Gson().fromJson(
+            Files.readString(tempDir.resolve(fileName)), SubmissionIdMap[].class);
+        assertEquals(2, map.length);
+        assertEquals("Ana", map[0].getCustom_id());
+        assertEquals("id-ana", map[0].getSubmission_id());
+        assertEquals("Luis", map[1].getCustom_id());
+        assertEquals("id-luis", map[1].getSubmission_id());
+    }
+
+    @Test
+    void testJsonlUsesStoredCustomId() throws Exception {
+        BatchJSONLGenerator generator = new BatchJSONLGenerator(connection, 1, tempDir.toString(),
+            "Corrige", new DigestSHA1());
+
+        String jsonl = Files.readString(Path.of(generator.generateJsonl()));
+
+        assertTrue(jsonl.contains("\"custom_id\":\"id-ana\""));
+        assertTrue(jsonl.contains("\"custom_id\":\"id-luis\""));
+    }
+}
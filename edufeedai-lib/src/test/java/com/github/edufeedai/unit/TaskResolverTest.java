@@ -0,0 +1,120 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.TaskResolver;
+
+public class TaskResolverTest {
+
+    private Connection connection;
+    private TaskResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, " +
+                "moodle_task_id TEXT, grading_config_id INTEGER, created_at INTEGER NOT NULL)");
+            stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY AUTOINCREMENT, task_id INTEGER NOT NULL, " +
+                "student_name TEXT NOT NULL)");
+            stmt.execute("CREATE INDEX idx_submissions_task_id ON submissions(task_id)");
+            // Las tareas 2 y 3 se añadieron en el mismo segundo
+            stmt.execute("INSERT INTO tasks (name, moodle_task_id, grading_config_id, created_at) VALUES " +
+                "('Tarea A', '100', NULL, 1000), " +
+                "('Tarea B', '200', 7, 2000), " +
+                "('Tarea C', '100', NULL, 2000)");
+            stmt.execute("INSERT INTO submissions (task_id, student_name) VALUES " +
+                "(1, 'Ana'), (2, 'Ana'), (2, 'Luis'), (2, 'Eva')");
+        }
+        resolver = new TaskResolver(connection);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testListNumbersFollowListOrder() throws Exception {
+        assertEquals("Tarea C", resolver.resolve("1").getName());
+        assertEquals("Tarea B", resolver.resolve("2").getName());
+        assertEquals("Tarea A", resolver.resolve("3").getName());
+        assertNull(resolver.resolve("4"));
+    }
+
+    @Test
+    void testListNumbersMatchFullListing() throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM tasks ORDER BY " + TaskResolver.LIST_ORDER)) {
+            int number = 0;
+            while (rs.next()) {
+                number++;
+                assertEquals(rs.getInt("id"), resolver.findByListNumber(number).getId());
+            }
+            assertEquals(3, number);
+        }
+    }
+
+    @Test
+    void testResolveByIdAndMoodleId() throws Exception {
+        TaskResolver.ResolvedTask task = resolver.resolve("id:2");
+        assertEquals("Tarea B", task.getName());
+        assertEquals("200", task.getMoodleTaskId());
+        assertEquals(7, task.getGradingConfigId());
+
+        assertNull(resolver.resolve("id:9"));
+        assertNull(resolver.resolve("moodle:999"));
+        // Si la misma tarea de Moodle se añadió dos veces, se usa la más reciente
+        assertEquals(3, resolver.resolve("moodle:100").getId());
+        assertNull(resolver.resolve("moodle:100").getGradingConfigId());
+    }
+
+    @Test
+    void testInvalidReferences() {
+        assertFalse(TaskResolver.isValidReference("0"));
+        assertFalse(TaskResolver.isValidReference("-1"));
+        assertFalse(TaskResolver.isValidReference("abc"));
+        assertFalse(TaskResolver.isValidReference("id:"));
+        assertFalse(TaskResolver.isValidReference("id:x"));
+        assertFalse(TaskResolver.isValidReference("moodle:"));
+        assertTrue(TaskResolver.isValidReference("id:3"));
+        assertTrue(TaskResolver.isValidReference("moodle:8608030"));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolve("abc"));
+    }
+
+    @Test
+    void testCountSubmissionsOfSingleTask() throws Exception {
+        assertEquals(1, resolver.countSubmissions(1));
+        assertEquals(3, resolver.countSubmissions(2));
+        assertEquals(0, resolver.countSubmissions(3));
+    }
+
+    @Test
+    void testListNumberLookupUsesCreatedAtIndex() throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT id, name FROM tasks ORDER BY "
+                 + TaskResolver.LIST_ORDER + " LIMIT 1 OFFSET 1")) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+            assertTrue(plan.toString().contains("idx_tasks_created_at"), plan.toString());
+            assertFalse(plan.toString().contains("TEMP B-TREE"), plan.toString());
+        }
+    }
+}
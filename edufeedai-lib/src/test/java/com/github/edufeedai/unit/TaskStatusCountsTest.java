@@ -0,0 +1,134 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.edufeedai.TaskStatusCounts;
+
+public class TaskStatusCountsTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL)");
+            stmt.execute("CREATE TABLE submissions (id INTEGER PRIMARY KEY AUTOINCREMENT, task_id INTEGER NOT NULL, " +
+                "student_name TEXT NOT NULL, status TEXT)");
+            stmt.execute("INSERT INTO tasks (name) VALUES ('Tarea A'), ('Tarea B'), ('Tarea C')");
+            stmt.execute("INSERT INTO submissions (task_id, student_name, status) VALUES " +
+                "(1, 'Ana', 'pending'), (1, 'Luis', 'completed'), (1, 'Eva', NULL), (2, 'Ana', 'batch_sent')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void testCountersAreFilledFromExistingSubmissions() throws Exception {
+        TaskStatusCounts.ensureSchema(connection);
+
+        assertArrayEquals(new int[] {3, 1, 1}, counters(1));
+        assertArrayEquals(new int[] {1, 0, 1}, counters(2));
+        assertNull(counters(3));
+        assertEquals(aggregated(), summary());
+    }
+
+    @Test
+    void testTriggersKeepCountersInSync() throws Exception {
+        new TaskStatusCounts(connection);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO submissions (task_id, student_name, status) VALUES " +
+                "(3, 'Ana', 'pending'), (3, 'Luis', 'pending')");
+            stmt.execute("UPDATE submissions SET status = 'completed' WHERE task_id = 3 AND student_name = 'Ana'");
+            stmt.execute("UPDATE submissions SET status = 'pending' WHERE status IS NULL");
+            stmt.execute("UPDATE submissions SET student_name = 'Eva María' WHERE student_name = 'Eva'");
+            stmt.execute("UPDATE submissions SET task_id = 2 WHERE task_id = 1 AND student_name = 'Luis'");
+            stmt.execute("DELETE FROM submissions WHERE task_id = 1 AND student_name = 'Ana'");
+        }
+
+        assertArrayEquals(new int[] {1, 1, 0}, counters(1));
+        assertArrayEquals(new int[] {2, 0, 2}, counters(2));
+        assertArrayEquals(new int[] {2, 1, 1}, counters(3));
+        assertEquals(aggregated(), summary());
+    }
+
+    @Test
+    void testDeletedTaskLosesItsCounters() throws Exception {
+        new TaskStatusCounts(connection);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DELETE FROM tasks WHERE id = 2");
+        }
+
+        assertNull(counters(2));
+    }
+
+    @Test
+    void testExistingTableIsNotRebuilt() throws Exception {
+        new TaskStatusCounts(connection);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE " + TaskStatusCounts.TABLE + " SET total = 99 WHERE task_id = 1");
+        }
+
+        TaskStatusCounts.ensureSchema(connection);
+        new TaskStatusCounts(connection);
+        assertEquals(99, counters(1)[0]);
+
+        new TaskStatusCounts(connection).rebuild();
+        assertEquals(aggregated(), summary());
+    }
+
+    private int[] counters(int taskId) throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT total, pending, completed FROM " + TaskStatusCounts.TABLE +
+                 " WHERE task_id = " + taskId)) {
+            return rs.next() ? new int[] {rs.getInt(1), rs.getInt(2), rs.getInt(3)} : null;
+        }
+    }
+
+    private Map<Integer, String> summary() throws Exception {
+        return query("SELECT task_id, total, pending, completed FROM " + TaskStatusCounts.TABLE +
+            " WHERE total > 0");
+    }
+
+    /**
+     * Los contadores calculados como los calculaban los listados antes de la tabla resumen.
+     */
+    private Map<Integer, String> aggregated() throws Exception {
+        return query("SELECT task_id, COUNT(*), " +
+            "SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status != 'pending' THEN 1 ELSE 0 END) " +
+            "FROM submissions GROUP BY task_id");
+    }
+
+    private Map<Integer, String> query(String sql) throws Exception {
+        Map<Integer, String> rows = new HashMap<>();
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                rows.put(rs.getInt(1), rs.getInt(2) + "/" + rs.getInt(3) + "/" + rs.getInt(4));
+            }
+        }
+        return rows;
+    }
+}
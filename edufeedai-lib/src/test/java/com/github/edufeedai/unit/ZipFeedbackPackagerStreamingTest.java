@@ -0,0 +1,87 @@
+/*
+ * EduFeedAi - Automated AI-based feedback for student submissions in vocational education.
+ * Copyright (c) 2026 EduFeedAi Contributors
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.github.edufeedai.unit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.edufeedai.ZipFeedbackPackager;
+
+public class ZipFeedbackPackagerStreamingTest {
+
+    private static final int STUDENTS = 200;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JSONArray idMap = new JSONArray();
+        List<String> responses = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            idMap.put(new JSONObject().put("custom_id", "Alumno" + i).put("submission_id", "hash" + i));
+            JSONObject message = new JSONObject().put("role", "assistant").put("content", "# Feedback " + i);
+            responses.add(new JSONObject()
+                .put("id", "r" + i)
+                .put("custom_id", "hash" + i)
+                .put("response", new JSONObject().put("status_code", 200)
+                    .put("body", new JSONObject().put("choices", new JSONArray().put(new JSONObject().put("message", message)))))
+                .toString());
+        }
+        // Una línea de error no debe romper el empaquetado
+        responses.add("{\"id\":\"rx\",\"custom_id\":\"hash0\",\"response\":null,\"error\":{\"code\":\"server_error\"}}");
+
+        Files.writeString(tempDir.resolve("submission_id_map.json"), idMap.toString());
+        Files.write(tempDir.resolve("assessment_responses.jsonl"), responses, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSequentialStreaming() throws Exception {
+        ZipFeedbackPackager packager = new ZipFeedbackPackager(tempDir.toString(),
+            "submission_id_map.json", "assessment_responses.jsonl");
+        packager.generateFeedbackZip();
+
+        assertZipContents();
+    }
+
+    @Test
+    void testParallelCompression() throws Exception {
+        ZipFeedbackPackager packager = new ZipFeedbackPackager(tempDir.toString(),
+            "submission_id_map.json", "assessment_responses.jsonl");
+        packager.setCompressionThreads(4);
+        packager.generateFeedbackZip();
+
+        assertZipContents();
+    }
+
+    private void assertZipContents() throws Exception {
+        assertFalse(Files.exists(tempDir.resolve("feedback.zip.tmp")));
+        try (ZipFile zip = new ZipFile(tempDir.resolve("feedback.zip").toFile())) {
+            assertEquals(STUDENTS, zip.size());
+            for (int i = 0; i < STUDENTS; i++) {
+                ZipEntry entry = zip.getEntry("Alumno" + i + ".md");
+                assertNotNull(entry, "Falta la entrada del alumno " + i);
+                assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+                assertEquals("# Feedback " + i,
+                    new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}